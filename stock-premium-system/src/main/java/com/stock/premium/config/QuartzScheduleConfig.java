@@ -0,0 +1,209 @@
+package com.stock.premium.config;
+
+import com.stock.premium.scheduled.quartz.DailyStatsJob;
+import com.stock.premium.scheduled.quartz.DataCollectionJob;
+import com.stock.premium.scheduled.quartz.ExchangeRateRefreshJob;
+import com.stock.premium.scheduled.quartz.PartitionMaintenanceJob;
+import com.stock.premium.scheduled.quartz.TickRollupJob;
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Quartz集群调度配置（schedule.mode=quartz）
+ * 采集、日统计、汇率刷新、分区维护、分钟线汇总的触发器保存在 QRTZ_ 表中，多个实例共享，同一触发器只会在一个节点上执行；
+ * 节点宕机时其他节点在 clusterCheckinInterval 后接管。表结构见 sql/migration_quartz.sql
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+@Configuration
+@ConditionalOnProperty(name = "schedule.mode", havingValue = "quartz")
+public class QuartzScheduleConfig {
+
+    public static final String GROUP = "stock-premium";
+
+    /**
+     * 嵌套配置类由组件扫描单独注册，外层的 @ConditionalOnProperty 对其不生效，每个嵌套类须自带该条件
+     */
+    static final String QUARTZ_MODE = "'${schedule.mode:local}' == 'quartz'";
+
+    /**
+     * 采集触发器：在 startAt 执行，之后按休眠间隔重复，作为改期失败时的兜底
+     */
+    public static Trigger collectTrigger(JobDetail jobDetail, LocalDateTime startAt, int maxIdleMinutes) {
+        return TriggerBuilder.newTrigger()
+                .forJob(jobDetail)
+                .withIdentity("dataCollectTrigger", GROUP)
+                .startAt(Date.from(startAt.atZone(ZoneId.systemDefault()).toInstant()))
+                .withSchedule(SimpleScheduleBuilder.simpleSchedule()
+                        .withIntervalInMinutes(Math.max(1, maxIdleMinutes))
+                        .repeatForever()
+                        .withMisfireHandlingInstructionFireNow())
+                .build();
+    }
+
+    /**
+     * Spring cron 允许日和星期同时为具体值或 *，Quartz 要求其中一个为 ?，如 "0 30 16 * * MON-FRI" -> "0 30 16 ? * MON-FRI"
+     */
+    static String toQuartzCron(String cron) {
+        String[] fields = cron.trim().split("\\s+");
+        if (fields.length == 6 && !"?".equals(fields[3]) && !"?".equals(fields[5])) {
+            if ("*".equals(fields[5])) {
+                fields[5] = "?";
+            } else {
+                fields[3] = "?";
+            }
+        }
+        return String.join(" ", fields);
+    }
+
+    /**
+     * 分片采集(collector.sharding.enabled)时各节点本机调度采集，不注册集群采集任务
+     */
+    @Configuration
+    @ConditionalOnExpression(QUARTZ_MODE + " and ${schedule.stock-data-collect.enabled:true} and !${collector.sharding.enabled:false}")
+    static class DataCollectionSchedule {
+
+        @Bean
+        public JobDetail dataCollectJobDetail() {
+            return JobBuilder.newJob(DataCollectionJob.class)
+                    .withIdentity("dataCollectJob", GROUP)
+                    .storeDurably()
+                    .requestRecovery()
+                    .build();
+        }
+
+        @Bean
+        public Trigger dataCollectTrigger(@Qualifier("dataCollectJobDetail") JobDetail jobDetail,
+                                          @Value("${schedule.stock-data-collect.max-idle-minutes:60}") int maxIdleMinutes) {
+            return collectTrigger(jobDetail, LocalDateTime.now(), maxIdleMinutes);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnExpression(QUARTZ_MODE + " and ${schedule.daily-stats.enabled:true}")
+    static class DailyStatsSchedule {
+
+        @Bean
+        public JobDetail dailyStatsJobDetail() {
+            return JobBuilder.newJob(DailyStatsJob.class)
+                    .withIdentity("dailyStatsJob", GROUP)
+                    .storeDurably()
+                    .build();
+        }
+
+        @Bean
+        public Trigger dailyStatsTrigger(@Qualifier("dailyStatsJobDetail") JobDetail jobDetail,
+                                         @Value("${schedule.daily-stats.cron:0 30 16 * * MON-FRI}") String cron) {
+            return TriggerBuilder.newTrigger()
+                    .forJob(jobDetail)
+                    .withIdentity("dailyStatsTrigger", GROUP)
+                    .withSchedule(CronScheduleBuilder.cronSchedule(toQuartzCron(cron)).withMisfireHandlingInstructionFireAndProceed())
+                    .build();
+        }
+
+        @Bean
+        public JobDetail yesterdayStatsJobDetail() {
+            return JobBuilder.newJob(DailyStatsJob.class)
+                    .withIdentity("yesterdayStatsJob", GROUP)
+                    .usingJobData(DailyStatsJob.KEY_TARGET, DailyStatsJob.TARGET_YESTERDAY)
+                    .storeDurably()
+                    .build();
+        }
+
+        @Bean
+        public Trigger yesterdayStatsTrigger(@Qualifier("yesterdayStatsJobDetail") JobDetail jobDetail) {
+            return TriggerBuilder.newTrigger()
+                    .forJob(jobDetail)
+                    .withIdentity("yesterdayStatsTrigger", GROUP)
+                    .withSchedule(CronScheduleBuilder.cronSchedule("0 0 9 ? * MON-FRI").withMisfireHandlingInstructionFireAndProceed())
+                    .build();
+        }
+    }
+
+    @Configuration
+    @ConditionalOnExpression(QUARTZ_MODE + " and ${schedule.exchange-rate-refresh.enabled:true}")
+    static class ExchangeRateRefreshSchedule {
+
+        @Bean
+        public JobDetail exchangeRateRefreshJobDetail() {
+            return JobBuilder.newJob(ExchangeRateRefreshJob.class)
+                    .withIdentity("exchangeRateRefreshJob", GROUP)
+                    .storeDurably()
+                    .build();
+        }
+
+        @Bean
+        public Trigger exchangeRateRefreshTrigger(@Qualifier("exchangeRateRefreshJobDetail") JobDetail jobDetail,
+                                                  @Value("${schedule.exchange-rate-refresh.interval:60000}") long interval) {
+            return TriggerBuilder.newTrigger()
+                    .forJob(jobDetail)
+                    .withIdentity("exchangeRateRefreshTrigger", GROUP)
+                    .withSchedule(SimpleScheduleBuilder.simpleSchedule()
+                            .withIntervalInMilliseconds(interval)
+                            .repeatForever()
+                            .withMisfireHandlingInstructionNextWithRemainingCount())
+                    .build();
+        }
+    }
+
+    @Configuration
+    @ConditionalOnExpression(QUARTZ_MODE + " and ${schedule.partition-maintenance.enabled:true}")
+    static class PartitionMaintenanceSchedule {
+
+        @Bean
+        public JobDetail partitionMaintenanceJobDetail() {
+            return JobBuilder.newJob(PartitionMaintenanceJob.class)
+                    .withIdentity("partitionMaintenanceJob", GROUP)
+                    .storeDurably()
+                    .build();
+        }
+
+        @Bean
+        public Trigger partitionMaintenanceTrigger(@Qualifier("partitionMaintenanceJobDetail") JobDetail jobDetail,
+                                                   @Value("${schedule.partition-maintenance.cron:0 30 1 * * ?}") String cron) {
+            return TriggerBuilder.newTrigger()
+                    .forJob(jobDetail)
+                    .withIdentity("partitionMaintenanceTrigger", GROUP)
+                    .withSchedule(CronScheduleBuilder.cronSchedule(toQuartzCron(cron)).withMisfireHandlingInstructionFireAndProceed())
+                    .build();
+        }
+    }
+
+    @Configuration
+    @ConditionalOnExpression(QUARTZ_MODE + " and ${schedule.tick-rollup.enabled:true}")
+    static class TickRollupSchedule {
+
+        @Bean
+        public JobDetail tickRollupJobDetail() {
+            return JobBuilder.newJob(TickRollupJob.class)
+                    .withIdentity("tickRollupJob", GROUP)
+                    .storeDurably()
+                    .build();
+        }
+
+        @Bean
+        public Trigger tickRollupTrigger(@Qualifier("tickRollupJobDetail") JobDetail jobDetail,
+                                         @Value("${schedule.tick-rollup.cron:0 0 2 * * ?}") String cron) {
+            return TriggerBuilder.newTrigger()
+                    .forJob(jobDetail)
+                    .withIdentity("tickRollupTrigger", GROUP)
+                    .withSchedule(CronScheduleBuilder.cronSchedule(toQuartzCron(cron)).withMisfireHandlingInstructionFireAndProceed())
+                    .build();
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.stock.premium.config;
 
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
@@ -9,6 +13,11 @@ import springfox.documentation.service.ApiInfo;
 import springfox.documentation.service.Contact;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Swagger配置类
@@ -29,6 +38,38 @@ public class SwaggerConfig {
                 .build();
     }
 
+    /**
+     * 引入actuator后，其端点映射使用PathPatternParser，springfox 3.0 遍历时会空指针导致启动失败；
+     * 这里只保留使用AntPathMatcher的映射
+     */
+    @Bean
+    public static BeanPostProcessor springfoxHandlerProviderBeanPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof WebMvcRequestHandlerProvider) {
+                    List<RequestMappingInfoHandlerMapping> mappings = getHandlerMappings(bean);
+                    List<RequestMappingInfoHandlerMapping> supported = mappings.stream()
+                            .filter(mapping -> mapping.getPatternParser() == null)
+                            .collect(Collectors.toList());
+                    mappings.clear();
+                    mappings.addAll(supported);
+                }
+                return bean;
+            }
+
+            @SuppressWarnings("unchecked")
+            private List<RequestMappingInfoHandlerMapping> getHandlerMappings(Object bean) {
+                Field field = ReflectionUtils.findField(bean.getClass(), "handlerMappings");
+                if (field == null) {
+                    throw new IllegalStateException("WebMvcRequestHandlerProvider 缺少 handlerMappings 字段");
+                }
+                ReflectionUtils.makeAccessible(field);
+                return (List<RequestMappingInfoHandlerMapping>) ReflectionUtils.getField(field, bean);
+            }
+        };
+    }
+
     private ApiInfo apiInfo() {
         return new ApiInfoBuilder()
                 .title("股票溢价率监控系统API")
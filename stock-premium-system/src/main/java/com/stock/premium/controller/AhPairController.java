@@ -0,0 +1,88 @@
+package com.stock.premium.controller;
+
+import com.stock.premium.entity.AhStockPair;
+import com.stock.premium.mapper.AhStockPairMapper;
+import com.stock.premium.service.AhPairService;
+import com.stock.premium.utils.Result;
+import com.stock.premium.vo.AhPairImportVO;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A+H股票对字典控制器
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Slf4j
+@Api(tags = "A+H股票对字典接口")
+@RestController
+@RequestMapping("/ah-pair")
+public class AhPairController {
+
+    @Autowired
+    private AhPairService ahPairService;
+
+    @Autowired
+    private AhStockPairMapper ahStockPairMapper;
+
+    @ApiOperation("查询所有启用的A+H股票对")
+    @GetMapping("/list")
+    public Result<List<AhStockPair>> getPairs() {
+        try {
+            return Result.success("查询成功", ahStockPairMapper.selectActivePairs());
+        } catch (Exception e) {
+            log.error("查询A+H股票对失败", e);
+            return Result.error("查询失败: " + e.getMessage());
+        }
+    }
+
+    @ApiOperation("根据A股或H股代码查询对应代码")
+    @GetMapping("/{stockCode}")
+    public Result<Map<String, String>> getPair(
+            @ApiParam(value = "A股或H股代码", example = "601088") @PathVariable String stockCode) {
+        String hStockCode = ahPairService.getHStockCode(stockCode);
+        String aStockCode = hStockCode != null ? stockCode : ahPairService.getAStockCode(stockCode);
+        if (aStockCode == null) {
+            return Result.notFound("未找到对应的A+H股票对");
+        }
+        Map<String, String> pair = new HashMap<>();
+        pair.put("a_stock_code", aStockCode);
+        pair.put("h_stock_code", hStockCode != null ? hStockCode : stockCode);
+        return Result.success("查询成功", pair);
+    }
+
+    @ApiOperation(value = "导入A+H股票对CSV", notes = "UTF-8编码，表头：a_stock_code,h_stock_code,stock_name[,status]，按A股代码覆盖")
+    @PostMapping("/import")
+    public Result<AhPairImportVO> importPairs(@ApiParam("CSV文件") @RequestParam("file") MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            AhPairImportVO result = ahPairService.importCsv(in);
+            return Result.success("导入完成", result);
+        } catch (Exception e) {
+            log.error("导入A+H股票对失败", e);
+            return Result.error("导入失败: " + e.getMessage());
+        }
+    }
+
+    @ApiOperation("重新加载A+H股票对字典")
+    @PostMapping("/reload")
+    public Result<Integer> reload() {
+        try {
+            ahPairService.reload();
+            return Result.success("重新加载完成", ahPairService.size());
+        } catch (Exception e) {
+            log.error("重新加载A+H股票对字典失败", e);
+            return Result.error("加载失败: " + e.getMessage());
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package com.stock.premium.controller;
 
+import com.stock.premium.service.CollectorShardService;
 import com.stock.premium.service.DataCollectionService;
 import com.stock.premium.utils.Result;
+import com.stock.premium.vo.CollectionReportVO;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * 数据采集控制器
  * 
@@ -23,20 +28,33 @@ public class DataCollectionController {
     @Autowired
     private DataCollectionService dataCollectionService;
 
+    @Autowired
+    private CollectorShardService collectorShardService;
+
     @ApiOperation("手动触发股票数据采集")
     @PostMapping("/stock-data")
-    public Result<String> collectStockData() {
+    public Result<CollectionReportVO> collectStockData() {
         try {
             log.info("手动触发股票数据采集");
             
             // 调用数据采集服务进行股票数据采集
-            dataCollectionService.collectAllStockData();
+            CollectionReportVO report = dataCollectionService.collectAllStockData();
             
             log.info("股票数据采集任务执行完成");
-            return Result.success("股票数据采集任务执行完成");
+            return Result.success("股票数据采集任务执行完成", report);
         } catch (Exception e) {
             log.error("股票数据采集失败", e);
             return Result.error("数据采集失败: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @ApiOperation("查询分片采集节点")
+    @GetMapping("/nodes")
+    public Result<Map<String, Object>> getCollectorNodes() {
+        Map<String, Object> nodes = new LinkedHashMap<>();
+        nodes.put("shardingEnabled", collectorShardService.isEnabled());
+        nodes.put("nodeId", collectorShardService.getNodeId());
+        nodes.put("members", collectorShardService.getMembers());
+        return Result.success("查询成功", nodes);
+    }
+}
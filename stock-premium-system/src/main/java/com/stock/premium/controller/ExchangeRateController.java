@@ -3,6 +3,7 @@ package com.stock.premium.controller;
 import com.stock.premium.common.Result;
 import com.stock.premium.dto.ExchangeRateQueryDTO;
 import com.stock.premium.service.ExchangeRateService;
+import com.stock.premium.service.PremiumRecomputeService;
 import com.stock.premium.vo.ExchangeRateSimpleVO;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -28,8 +29,15 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ExchangeRateController {
 
+    /**
+     * A+H溢价计算使用的货币对
+     */
+    private static final String HKD_CNY = "HKDCNY";
+
     private final ExchangeRateService exchangeRateService;
 
+    private final PremiumRecomputeService premiumRecomputeService;
+
     @ApiOperation("获取最新汇率")
     @GetMapping("/latest")
     public Result<ExchangeRateSimpleVO> getLatestRate(
@@ -38,15 +46,30 @@ public class ExchangeRateController {
         return Result.success(latestRate);
     }
 
-    @ApiOperation("手动更新汇率")
+    @ApiOperation(value = "手动更新汇率", notes = "手动汇率在取消前不被自动刷新覆盖；recomputeToday=true 且货币对为HKDCNY时，按新汇率重算今日已有的溢价率，返回更新的记录数")
     @PostMapping("/update")
-    public Result<Void> updateRate(
+    public Result<Integer> updateRate(
             @ApiParam("货币对") @RequestParam String currencyPair,
-            @ApiParam("汇率值") @RequestParam BigDecimal rate) {
+            @ApiParam("汇率值") @RequestParam BigDecimal rate,
+            @ApiParam("是否按新汇率重算今日溢价率") @RequestParam(defaultValue = "false") boolean recomputeToday) {
         exchangeRateService.updateRate(currencyPair, rate);
+        if (recomputeToday && HKD_CNY.equals(currencyPair)) {
+            return Result.success(premiumRecomputeService.applyExchangeRate(LocalDate.now(), rate));
+        }
         return Result.success();
     }
 
+    @ApiOperation(value = "取消手动汇率", notes = "立即从汇率来源刷新一次，之后恢复定时自动刷新")
+    @DeleteMapping("/manual")
+    public Result<ExchangeRateSimpleVO> clearManualRate(
+            @ApiParam("货币对") @RequestParam(defaultValue = "HKDCNY") String currencyPair) {
+        try {
+            return Result.success(exchangeRateService.clearManualRate(currencyPair));
+        } catch (IllegalStateException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     @ApiOperation("查询历史汇率")
     @GetMapping("/history")
     public Result<List<ExchangeRateSimpleVO>> getHistoryRates(@Valid ExchangeRateQueryDTO queryDTO) {
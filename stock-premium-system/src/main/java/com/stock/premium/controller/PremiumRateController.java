@@ -1,8 +1,12 @@
 package com.stock.premium.controller;
 
+import com.stock.premium.entity.PremiumRateMinuteBar;
 import com.stock.premium.entity.PremiumRateRecord;
 import com.stock.premium.service.PremiumRateService;
+import com.stock.premium.service.PremiumRecomputeService;
+import com.stock.premium.service.TickRollupService;
 import com.stock.premium.utils.Result;
+import com.stock.premium.vo.PremiumRecomputeVO;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -11,6 +15,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 /**
@@ -25,9 +30,37 @@ import java.util.List;
 @RequestMapping("/premium")
 public class PremiumRateController {
 
+    /**
+     * 历史明细每页最大条数
+     */
+    private static final int HISTORY_MAX_PAGE_SIZE = 1000;
+
     @Autowired
     private PremiumRateService premiumRateService;
 
+    @Autowired
+    private PremiumRecomputeService premiumRecomputeService;
+
+    @Autowired
+    private TickRollupService tickRollupService;
+
+    @ApiOperation(value = "按历史汇率重算溢价率", notes = "按 stock_price_record 及各tick时刻生效的汇率重建日期范围内的溢价率记录和日统计；只能重算今天之前的日期")
+    @PostMapping("/recompute")
+    public Result<PremiumRecomputeVO> recompute(
+            @ApiParam(value = "开始日期，格式：yyyy-MM-dd", required = true) @RequestParam String startDate,
+            @ApiParam("结束日期，格式：yyyy-MM-dd，不传则与开始日期相同") @RequestParam(required = false) String endDate) {
+        try {
+            LocalDate start = LocalDate.parse(startDate);
+            LocalDate end = endDate != null ? LocalDate.parse(endDate) : start;
+            return Result.success("重算完成", premiumRecomputeService.recompute(start, end));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return Result.badRequest(e.getMessage());
+        } catch (Exception e) {
+            log.error("重算溢价率失败", e);
+            return Result.error("重算失败: " + e.getMessage());
+        }
+    }
+
     @ApiOperation("查询指定股票和日期的溢价率记录")
     @GetMapping("/stock/{stockCode}")
     public Result<List<PremiumRateRecord>> getPremiumRatesByStock(
@@ -57,12 +90,33 @@ public class PremiumRateController {
         }
     }
 
-    @ApiOperation("查询溢价率历史数据（分页）")
+    @ApiOperation(value = "查询溢价率分钟线", notes = "超过汇总天数的明细已汇总为分钟线，按时间升序")
+    @GetMapping("/bars")
+    public Result<List<PremiumRateMinuteBar>> getPremiumBars(
+            @ApiParam(value = "股票代码", required = true) @RequestParam String stockCode,
+            @ApiParam(value = "开始日期，格式：yyyy-MM-dd", required = true) @RequestParam String startDate,
+            @ApiParam("结束日期，格式：yyyy-MM-dd，不传则与开始日期相同") @RequestParam(required = false) String endDate) {
+        try {
+            LocalDate start = LocalDate.parse(startDate);
+            LocalDate end = endDate != null ? LocalDate.parse(endDate) : start;
+            if (start.isAfter(end)) {
+                return Result.badRequest("开始日期不能晚于结束日期");
+            }
+            return Result.success("查询成功", tickRollupService.getPremiumBars(stockCode, start, end));
+        } catch (DateTimeParseException e) {
+            return Result.badRequest("日期格式错误: " + e.getParsedString());
+        } catch (Exception e) {
+            log.error("查询溢价率分钟线失败", e);
+            return Result.error("查询失败: " + e.getMessage());
+        }
+    }
+
+    @ApiOperation(value = "查询溢价率历史数据（分页）", notes = "按记录时间升序，已删除分区的日期从明细归档读取；日期范围最多 premium.history.max-days 天，每页最多" + HISTORY_MAX_PAGE_SIZE + "条")
     @GetMapping("/history")
     public Result<List<PremiumRateRecord>> getPremiumRateHistory(
             @ApiParam(value = "股票代码", required = true) @RequestParam String stockCode,
-            @ApiParam("开始日期") @RequestParam(required = false) String startDate,
-            @ApiParam("结束日期") @RequestParam(required = false) String endDate,
+            @ApiParam("开始日期，格式：yyyy-MM-dd，不传则为今日") @RequestParam(required = false) String startDate,
+            @ApiParam("结束日期，格式：yyyy-MM-dd，不传则为今日") @RequestParam(required = false) String endDate,
             @ApiParam("页码，从1开始") @RequestParam(defaultValue = "1") Integer page,
             @ApiParam("每页大小") @RequestParam(defaultValue = "20") Integer size) {
         try {
@@ -70,16 +124,22 @@ public class PremiumRateController {
             if (stockCode == null || stockCode.trim().isEmpty()) {
                 return Result.error("股票代码不能为空");
             }
-            
-            // 这里可以根据需要实现分页查询逻辑
-            // 暂时返回今日数据
-            LocalDate date = LocalDate.now();
-            List<PremiumRateRecord> records = premiumRateService.getPremiumRatesByStockAndDate(stockCode, date);
-            
-            return Result.success("查询成功", records);
+
+            LocalDate start = startDate != null ? LocalDate.parse(startDate) : LocalDate.now();
+            LocalDate end = endDate != null ? LocalDate.parse(endDate) : LocalDate.now();
+            if (start.isAfter(end) || page < 1 || size < 1 || size > HISTORY_MAX_PAGE_SIZE) {
+                return Result.badRequest("参数错误: 开始日期不能晚于结束日期，页码必须大于0，每页大小为1~" + HISTORY_MAX_PAGE_SIZE);
+            }
+
+            long offset = (long) (page - 1) * size;
+            return Result.success("查询成功", premiumRateService.getPremiumRateHistory(stockCode, start, end, offset, size));
+        } catch (DateTimeParseException e) {
+            return Result.badRequest("日期格式错误: " + e.getParsedString());
+        } catch (IllegalArgumentException e) {
+            return Result.badRequest(e.getMessage());
         } catch (Exception e) {
             log.error("查询溢价率历史数据失败", e);
             return Result.error("查询失败: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -42,6 +42,20 @@ public class StatsController {
         }
     }
 
+    @ApiOperation(value = "从溢价率明细重新生成日统计数据", notes = "忽略内存累加器，一条SQL重算指定日期所有股票")
+    @PostMapping("/regenerate/{tradeDate}")
+    public Result<Integer> regenerateDailyStats(
+            @ApiParam("交易日期，格式：yyyy-MM-dd") @PathVariable String tradeDate) {
+        try {
+            LocalDate date = LocalDate.parse(tradeDate);
+            int rows = dailyStatsService.regenerateDailyStats(date);
+            return Result.success("统计数据重新生成完成: " + tradeDate, rows);
+        } catch (Exception e) {
+            log.error("重新生成统计数据失败", e);
+            return Result.error("生成失败: " + e.getMessage());
+        }
+    }
+
     @ApiOperation("查询日期范围内的统计数据")
     @GetMapping("/range")
     public Result<List<DailyPremiumStats>> getStatsByDateRange(
@@ -0,0 +1,99 @@
+package com.stock.premium.controller;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.stock.premium.entity.TradingCalendar;
+import com.stock.premium.mapper.TradingCalendarMapper;
+import com.stock.premium.service.TradingSessionService;
+import com.stock.premium.utils.Result;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 交易日历控制器
+ * 维护A股/港股的休市日和半日市，修改后立即重新加载
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Slf4j
+@Api(tags = "交易日历接口")
+@RestController
+@RequestMapping("/calendar")
+public class TradingCalendarController {
+
+    @Autowired
+    private TradingCalendarMapper tradingCalendarMapper;
+
+    @Autowired
+    private TradingSessionService tradingSessionService;
+
+    @ApiOperation("查询指定年份的休市日和半日市")
+    @GetMapping("/{year}")
+    public Result<List<TradingCalendar>> getCalendar(
+            @ApiParam(value = "年份", example = "2025") @PathVariable Integer year) {
+        try {
+            LocalDate start = LocalDate.of(year, 1, 1);
+            List<TradingCalendar> days = tradingCalendarMapper.selectByDateRange(start, start.plusYears(1).minusDays(1));
+            return Result.success("查询成功", days);
+        } catch (Exception e) {
+            log.error("查询交易日历失败", e);
+            return Result.error("查询失败: " + e.getMessage());
+        }
+    }
+
+    @ApiOperation(value = "新增或修改休市日/半日市", notes = "marketType: A/H，dayType: CLOSED/HALF_DAY")
+    @PostMapping
+    public Result<TradingCalendar> saveCalendarDay(@RequestBody TradingCalendar day) {
+        try {
+            if (day.getCalendarDate() == null
+                    || !("A".equals(day.getMarketType()) || "H".equals(day.getMarketType()))
+                    || !(TradingCalendar.DAY_TYPE_CLOSED.equals(day.getDayType())
+                        || TradingCalendar.DAY_TYPE_HALF_DAY.equals(day.getDayType()))) {
+                return Result.badRequest("参数错误：需要calendarDate、marketType(A/H)、dayType(CLOSED/HALF_DAY)");
+            }
+            TradingCalendar existing = tradingCalendarMapper.selectOne(new QueryWrapper<TradingCalendar>()
+                    .eq("market_type", day.getMarketType())
+                    .eq("calendar_date", day.getCalendarDate()));
+            if (existing != null) {
+                day.setId(existing.getId());
+                tradingCalendarMapper.updateById(day);
+            } else {
+                tradingCalendarMapper.insert(day);
+            }
+            tradingSessionService.reload();
+            return Result.success("保存成功", day);
+        } catch (Exception e) {
+            log.error("保存交易日历失败", e);
+            return Result.error("保存失败: " + e.getMessage());
+        }
+    }
+
+    @ApiOperation("删除休市日/半日市")
+    @DeleteMapping("/{id}")
+    public Result<String> deleteCalendarDay(@ApiParam("记录ID") @PathVariable Long id) {
+        try {
+            if (tradingCalendarMapper.deleteById(id) == 0) {
+                return Result.notFound("记录不存在");
+            }
+            tradingSessionService.reload();
+            return Result.success("删除成功");
+        } catch (Exception e) {
+            log.error("删除交易日历失败", e);
+            return Result.error("删除失败: " + e.getMessage());
+        }
+    }
+
+    @ApiOperation("重新加载交易日历")
+    @PostMapping("/reload")
+    public Result<String> reload() {
+        tradingSessionService.reload();
+        return Result.success("重新加载完成");
+    }
+}
@@ -0,0 +1,50 @@
+package com.stock.premium.dto;
+
+import com.stock.premium.entity.ExchangeRateRecord;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 单个货币对的汇率（不可变）
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Value
+public class FxRate {
+
+    /**
+     * 货币对，如 HKDCNY、USDCNY
+     */
+    String currencyPair;
+
+    BigDecimal rate;
+
+    LocalDateTime recordTime;
+
+    /**
+     * 数据来源：tencent、stub、manual 等
+     */
+    String dataSource;
+
+    public static FxRate from(ExchangeRateRecord record) {
+        LocalDateTime time = record.getRecordTime() != null ? record.getRecordTime() : record.getCreatedTime();
+        if (time == null && record.getTradeDate() != null) {
+            time = record.getTradeDate().atStartOfDay();
+        }
+        return new FxRate(record.getCurrencyPair(), record.getRate(), time, record.getDataSource());
+    }
+
+    public ExchangeRateRecord toRecord() {
+        ExchangeRateRecord record = new ExchangeRateRecord();
+        record.setCurrencyPair(currencyPair);
+        record.setRate(rate);
+        record.setRecordTime(recordTime);
+        record.setTradeDate(recordTime.toLocalDate());
+        record.setDataSource(dataSource);
+        record.setCreatedTime(LocalDateTime.now());
+        return record;
+    }
+}
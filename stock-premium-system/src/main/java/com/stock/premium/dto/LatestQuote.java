@@ -0,0 +1,66 @@
+package com.stock.premium.dto;
+
+import com.stock.premium.entity.PremiumRateRecord;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 单只A+H股票的最新行情快照（不可变）
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Value
+public class LatestQuote {
+
+    /**
+     * A股代码
+     */
+    String aStockCode;
+
+    /**
+     * H股代码
+     */
+    String hStockCode;
+
+    /**
+     * 股票名称
+     */
+    String stockName;
+
+    BigDecimal aStockPrice;
+
+    BigDecimal hStockPrice;
+
+    /**
+     * 港币对人民币汇率
+     */
+    BigDecimal exchangeRate;
+
+    /**
+     * 溢价率(%)
+     */
+    BigDecimal premiumRate;
+
+    LocalDateTime recordTime;
+
+    LocalDate tradeDate;
+
+    /**
+     * 转换为溢价率记录，供沿用 PremiumRateRecord 的接口返回
+     */
+    public PremiumRateRecord toPremiumRecord() {
+        PremiumRateRecord record = new PremiumRateRecord();
+        record.setStockCode(aStockCode);
+        record.setAStockPrice(aStockPrice);
+        record.setHStockPrice(hStockPrice);
+        record.setExchangeRate(exchangeRate);
+        record.setPremiumRate(premiumRate);
+        record.setRecordTime(recordTime);
+        record.setTradeDate(tradeDate);
+        return record;
+    }
+}
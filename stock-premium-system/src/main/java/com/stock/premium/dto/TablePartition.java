@@ -0,0 +1,34 @@
+package com.stock.premium.dto;
+
+import lombok.Data;
+
+/**
+ * 表分区信息，来自 information_schema.PARTITIONS
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+@Data
+public class TablePartition {
+
+    public static final String MAXVALUE = "MAXVALUE";
+
+    /**
+     * 分区名，如 p202501
+     */
+    private String partitionName;
+
+    /**
+     * RANGE 分区上界，如 '2025-02-01'，兜底分区为 MAXVALUE
+     */
+    private String partitionDescription;
+
+    /**
+     * 统计信息中的估算行数
+     */
+    private Long tableRows;
+
+    public boolean isCatchAll() {
+        return MAXVALUE.equalsIgnoreCase(partitionDescription);
+    }
+}
@@ -0,0 +1,61 @@
+package com.stock.premium.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+
+/**
+ * A+H股票对字典实体类
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@TableName("ah_stock_pair")
+public class AhStockPair {
+
+    /**
+     * 主键ID
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * A股代码
+     */
+    @TableField("a_stock_code")
+    private String aStockCode;
+
+    /**
+     * H股代码
+     */
+    @TableField("h_stock_code")
+    private String hStockCode;
+
+    /**
+     * 股票名称
+     */
+    @TableField("stock_name")
+    private String stockName;
+
+    /**
+     * 状态：1-启用，0-停用
+     */
+    @TableField("status")
+    private Integer status;
+
+    /**
+     * 创建时间
+     */
+    @TableField(value = "created_time", fill = FieldFill.INSERT)
+    private LocalDateTime createdTime;
+
+    /**
+     * 更新时间
+     */
+    @TableField(value = "updated_time", fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updatedTime;
+}
@@ -0,0 +1,44 @@
+package com.stock.premium.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 采集节点心跳实体类
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Data
+@TableName("collector_node")
+public class CollectorNode {
+
+    /**
+     * 节点ID
+     */
+    @TableId(value = "node_id", type = IdType.INPUT)
+    private String nodeId;
+
+    /**
+     * 主机名
+     */
+    @TableField("host_name")
+    private String hostName;
+
+    /**
+     * 启动时间
+     */
+    @TableField("started_time")
+    private LocalDateTime startedTime;
+
+    /**
+     * 最近心跳时间（数据库时间）
+     */
+    @TableField("heartbeat_time")
+    private LocalDateTime heartbeatTime;
+}
@@ -0,0 +1,70 @@
+package com.stock.premium.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 最新溢价率快照实体类
+ * 每只股票一行，随每批行情写入一起更新
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@TableName("latest_premium_snapshot")
+public class LatestPremiumSnapshot {
+
+    /**
+     * 股票代码（A股代码）
+     */
+    @TableId(value = "stock_code", type = IdType.INPUT)
+    private String stockCode;
+
+    /**
+     * A股价格
+     */
+    @TableField("a_stock_price")
+    private BigDecimal aStockPrice;
+
+    /**
+     * H股价格
+     */
+    @TableField("h_stock_price")
+    private BigDecimal hStockPrice;
+
+    /**
+     * 汇率
+     */
+    @TableField("exchange_rate")
+    private BigDecimal exchangeRate;
+
+    /**
+     * 溢价率(%)
+     */
+    @TableField("premium_rate")
+    private BigDecimal premiumRate;
+
+    /**
+     * 记录时间
+     */
+    @TableField("record_time")
+    private LocalDateTime recordTime;
+
+    /**
+     * 交易日期
+     */
+    @TableField("trade_date")
+    private LocalDate tradeDate;
+
+    /**
+     * 更新时间
+     */
+    @TableField(value = "updated_time", fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updatedTime;
+}
@@ -0,0 +1,100 @@
+package com.stock.premium.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 溢价率分钟线实体类
+ * 超过汇总天数的溢价率明细按分钟汇总后写入，明细随后删除
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@TableName("premium_rate_minute_bar")
+public class PremiumRateMinuteBar {
+
+    /**
+     * 主键ID
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 股票代码（A股代码）
+     */
+    @TableField("stock_code")
+    private String stockCode;
+
+    /**
+     * 分钟起始时间
+     */
+    @TableField("bar_time")
+    private LocalDateTime barTime;
+
+    /**
+     * 交易日期
+     */
+    @TableField("trade_date")
+    private LocalDate tradeDate;
+
+    /**
+     * 开盘溢价率(%)
+     */
+    @TableField("open_premium_rate")
+    private BigDecimal openPremiumRate;
+
+    /**
+     * 最高溢价率(%)
+     */
+    @TableField("high_premium_rate")
+    private BigDecimal highPremiumRate;
+
+    /**
+     * 最低溢价率(%)
+     */
+    @TableField("low_premium_rate")
+    private BigDecimal lowPremiumRate;
+
+    /**
+     * 收盘溢价率(%)
+     */
+    @TableField("close_premium_rate")
+    private BigDecimal closePremiumRate;
+
+    /**
+     * 收盘时A股价格
+     */
+    @TableField("a_stock_price")
+    private BigDecimal aStockPrice;
+
+    /**
+     * 收盘时H股价格
+     */
+    @TableField("h_stock_price")
+    private BigDecimal hStockPrice;
+
+    /**
+     * 收盘时使用的汇率
+     */
+    @TableField("exchange_rate")
+    private BigDecimal exchangeRate;
+
+    /**
+     * 汇总的明细条数
+     */
+    @TableField("tick_count")
+    private Integer tickCount;
+
+    /**
+     * 创建时间
+     */
+    @TableField(value = "created_time", fill = FieldFill.INSERT)
+    private LocalDateTime createdTime;
+}
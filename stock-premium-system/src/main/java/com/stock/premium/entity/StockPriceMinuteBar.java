@@ -0,0 +1,100 @@
+package com.stock.premium.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 股票价格分钟线实体类
+ * 超过汇总天数的价格明细按分钟汇总后写入，明细随后删除
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@TableName("stock_price_minute_bar")
+public class StockPriceMinuteBar {
+
+    /**
+     * 主键ID
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 股票代码
+     */
+    @TableField("stock_code")
+    private String stockCode;
+
+    /**
+     * 市场类型：A股/H股
+     */
+    @TableField("market_type")
+    private String marketType;
+
+    /**
+     * 分钟起始时间
+     */
+    @TableField("bar_time")
+    private LocalDateTime barTime;
+
+    /**
+     * 交易日期
+     */
+    @TableField("trade_date")
+    private LocalDate tradeDate;
+
+    /**
+     * 开盘价
+     */
+    @TableField("open_price")
+    private BigDecimal openPrice;
+
+    /**
+     * 最高价
+     */
+    @TableField("high_price")
+    private BigDecimal highPrice;
+
+    /**
+     * 最低价
+     */
+    @TableField("low_price")
+    private BigDecimal lowPrice;
+
+    /**
+     * 收盘价
+     */
+    @TableField("close_price")
+    private BigDecimal closePrice;
+
+    /**
+     * 收盘时的当日累计成交量
+     */
+    @TableField("volume")
+    private Long volume;
+
+    /**
+     * 收盘时的当日累计成交额
+     */
+    @TableField("turnover")
+    private BigDecimal turnover;
+
+    /**
+     * 汇总的明细条数
+     */
+    @TableField("tick_count")
+    private Integer tickCount;
+
+    /**
+     * 创建时间
+     */
+    @TableField(value = "created_time", fill = FieldFill.INSERT)
+    private LocalDateTime createdTime;
+}
@@ -0,0 +1,73 @@
+package com.stock.premium.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 交易日历实体类
+ * 只记录工作日中的休市日和半日市，周末默认休市
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@TableName("trading_calendar")
+public class TradingCalendar {
+
+    /**
+     * 日期类型：休市
+     */
+    public static final String DAY_TYPE_CLOSED = "CLOSED";
+
+    /**
+     * 日期类型：半日市（只有上午时段）
+     */
+    public static final String DAY_TYPE_HALF_DAY = "HALF_DAY";
+
+    /**
+     * 主键ID
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 市场类型：A-A股，H-港股
+     */
+    @TableField("market_type")
+    private String marketType;
+
+    /**
+     * 日期
+     */
+    @TableField("calendar_date")
+    private LocalDate calendarDate;
+
+    /**
+     * 日期类型：CLOSED-休市，HALF_DAY-半日市
+     */
+    @TableField("day_type")
+    private String dayType;
+
+    /**
+     * 说明
+     */
+    @TableField("remark")
+    private String remark;
+
+    /**
+     * 创建时间
+     */
+    @TableField(value = "created_time", fill = FieldFill.INSERT)
+    private LocalDateTime createdTime;
+
+    /**
+     * 更新时间
+     */
+    @TableField(value = "updated_time", fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updatedTime;
+}
@@ -0,0 +1,44 @@
+package com.stock.premium.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.stock.premium.entity.AhStockPair;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * A+H股票对字典Mapper接口
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Mapper
+public interface AhStockPairMapper extends BaseMapper<AhStockPair> {
+
+    /**
+     * 查询所有启用的股票对
+     */
+    @Select("SELECT * FROM ah_stock_pair WHERE status = 1 ORDER BY a_stock_code")
+    List<AhStockPair> selectActivePairs();
+
+    /**
+     * 批量导入，按A股代码覆盖已有记录
+     */
+    @Insert("<script>" +
+            "INSERT INTO ah_stock_pair (a_stock_code, h_stock_code, stock_name, status) VALUES " +
+            "<foreach collection='pairs' item='p' separator=','>" +
+            "(#{p.aStockCode}, #{p.hStockCode}, #{p.stockName}, #{p.status})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE h_stock_code = VALUES(h_stock_code), stock_name = VALUES(stock_name), status = VALUES(status)" +
+            "</script>")
+    int upsertBatch(@Param("pairs") List<AhStockPair> pairs);
+
+    /**
+     * 查询变更版本（行数 + 最大更新时间），用于判断内存索引是否过期
+     */
+    @Select("SELECT CONCAT(COUNT(*), '@', IFNULL(MAX(updated_time), '')) FROM ah_stock_pair")
+    String selectChangeVersion();
+}
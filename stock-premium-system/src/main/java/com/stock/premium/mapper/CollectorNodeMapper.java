@@ -0,0 +1,45 @@
+package com.stock.premium.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.stock.premium.entity.CollectorNode;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 采集节点心跳Mapper接口
+ * 心跳时间统一取数据库时间，避免各节点时钟偏差
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Mapper
+public interface CollectorNodeMapper extends BaseMapper<CollectorNode> {
+
+    /**
+     * 写入心跳，节点不存在时注册
+     */
+    @Insert("INSERT INTO collector_node (node_id, host_name, started_time, heartbeat_time) " +
+            "VALUES (#{nodeId}, #{hostName}, #{startedTime}, NOW(3)) " +
+            "ON DUPLICATE KEY UPDATE heartbeat_time = NOW(3)")
+    int heartbeat(@Param("nodeId") String nodeId, @Param("hostName") String hostName,
+                  @Param("startedTime") LocalDateTime startedTime);
+
+    /**
+     * 查询最近 timeoutMillis 毫秒内有心跳的节点，按节点ID排序
+     */
+    @Select("SELECT node_id FROM collector_node " +
+            "WHERE heartbeat_time >= NOW(3) - INTERVAL #{timeoutMillis} * 1000 MICROSECOND ORDER BY node_id")
+    List<String> selectAliveNodeIds(@Param("timeoutMillis") long timeoutMillis);
+
+    /**
+     * 删除长时间没有心跳的节点
+     */
+    @Delete("DELETE FROM collector_node WHERE heartbeat_time < NOW(3) - INTERVAL #{expireMillis} * 1000 MICROSECOND")
+    int deleteExpired(@Param("expireMillis") long expireMillis);
+}
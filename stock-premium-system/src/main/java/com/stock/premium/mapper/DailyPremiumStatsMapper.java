@@ -2,6 +2,7 @@ package com.stock.premium.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.stock.premium.entity.DailyPremiumStats;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
@@ -29,4 +30,27 @@ public interface DailyPremiumStatsMapper extends BaseMapper<DailyPremiumStats> {
      */
     @Select("SELECT * FROM daily_premium_stats WHERE stock_code = #{stockCode} ORDER BY trade_date DESC LIMIT #{limit}")
     List<DailyPremiumStats> selectByStockCode(@Param("stockCode") String stockCode, @Param("limit") Integer limit);
+
+    /**
+     * 批量写入统计数据，按 uk_stock_date 覆盖已有记录
+     */
+    @Insert("<script>" +
+            "INSERT INTO daily_premium_stats (stock_code, trade_date, open_premium_rate, close_premium_rate, max_premium_rate, " +
+            "min_premium_rate, avg_premium_rate, percentile_95, percentile_5, record_count) VALUES " +
+            "<foreach collection='stats' item='s' separator=','>" +
+            "(#{s.stockCode}, #{s.tradeDate}, #{s.openPremiumRate}, #{s.closePremiumRate}, #{s.maxPremiumRate}, " +
+            "#{s.minPremiumRate}, #{s.avgPremiumRate}, #{s.percentile95}, #{s.percentile5}, #{s.recordCount})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE open_premium_rate = VALUES(open_premium_rate), close_premium_rate = VALUES(close_premium_rate), " +
+            "max_premium_rate = VALUES(max_premium_rate), min_premium_rate = VALUES(min_premium_rate), " +
+            "avg_premium_rate = VALUES(avg_premium_rate), percentile_95 = VALUES(percentile_95), " +
+            "percentile_5 = VALUES(percentile_5), record_count = VALUES(record_count)" +
+            "</script>")
+    int upsertBatch(@Param("stats") List<DailyPremiumStats> stats);
+
+    /**
+     * 从溢价率明细一次性生成指定日期所有股票的统计数据（SQL见XML）
+     * @return 受影响行数（新增计1，更新计2）
+     */
+    int upsertFromPremiumRecords(@Param("tradeDate") LocalDate tradeDate);
 }
\ No newline at end of file
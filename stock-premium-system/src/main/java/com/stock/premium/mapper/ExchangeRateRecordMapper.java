@@ -6,6 +6,8 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 汇率记录Mapper接口
@@ -22,7 +24,19 @@ public interface ExchangeRateRecordMapper extends BaseMapper<ExchangeRateRecord>
     ExchangeRateRecord selectLatestByDate(@Param("tradeDate") LocalDate tradeDate);
 
     /**
-     * 查询最新的汇率记录
+     * 查询指定货币对的最新汇率记录
      */
-    ExchangeRateRecord selectLatest();
+    ExchangeRateRecord selectLatest(@Param("currencyPair") String currencyPair);
+
+    /**
+     * 查询时间范围内生效过的汇率：范围内的全部记录，加上范围开始前的最后一条，按记录时间排序
+     */
+    List<ExchangeRateRecord> selectEffectiveInRange(@Param("currencyPair") String currencyPair,
+                                                    @Param("startTime") LocalDateTime startTime,
+                                                    @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 批量插入汇率记录
+     */
+    int insertBatch(@Param("records") List<ExchangeRateRecord> records);
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.stock.premium.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.stock.premium.entity.LatestPremiumSnapshot;
+import com.stock.premium.entity.PremiumRateRecord;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 最新溢价率快照Mapper接口
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Mapper
+public interface LatestPremiumSnapshotMapper extends BaseMapper<LatestPremiumSnapshot> {
+
+    /**
+     * 批量更新快照，只有记录时间不早于已有快照时才覆盖
+     * record_time 必须最后赋值，前面的判断才能读到旧值；用 CASE WHEN 而不是 IF()，H2 的MySQL兼容模式也能执行
+     */
+    @Insert("<script>" +
+            "INSERT INTO latest_premium_snapshot (stock_code, a_stock_price, h_stock_price, exchange_rate, premium_rate, record_time, trade_date) VALUES " +
+            "<foreach collection='records' item='r' separator=','>" +
+            "(#{r.stockCode}, #{r.aStockPrice}, #{r.hStockPrice}, #{r.exchangeRate}, #{r.premiumRate}, #{r.recordTime}, #{r.tradeDate})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE " +
+            "a_stock_price = CASE WHEN VALUES(record_time) &gt;= record_time THEN VALUES(a_stock_price) ELSE a_stock_price END, " +
+            "h_stock_price = CASE WHEN VALUES(record_time) &gt;= record_time THEN VALUES(h_stock_price) ELSE h_stock_price END, " +
+            "exchange_rate = CASE WHEN VALUES(record_time) &gt;= record_time THEN VALUES(exchange_rate) ELSE exchange_rate END, " +
+            "premium_rate = CASE WHEN VALUES(record_time) &gt;= record_time THEN VALUES(premium_rate) ELSE premium_rate END, " +
+            "trade_date = CASE WHEN VALUES(record_time) &gt;= record_time THEN VALUES(trade_date) ELSE trade_date END, " +
+            "record_time = CASE WHEN VALUES(record_time) &gt;= record_time THEN VALUES(record_time) ELSE record_time END" +
+            "</script>")
+    int upsertBatch(@Param("records") List<PremiumRateRecord> records);
+
+    /**
+     * 查询指定交易日的最新溢价率（主键表全量扫描，每只股票一行）
+     */
+    @Select("SELECT stock_code, a_stock_price, h_stock_price, exchange_rate, premium_rate, record_time, trade_date " +
+            "FROM latest_premium_snapshot WHERE trade_date = #{tradeDate} ORDER BY stock_code")
+    List<PremiumRateRecord> selectByTradeDate(@Param("tradeDate") LocalDate tradeDate);
+
+    /**
+     * 按A股代码查询最新溢价率（主键查询）
+     */
+    @Select("SELECT stock_code, a_stock_price, h_stock_price, exchange_rate, premium_rate, record_time, trade_date " +
+            "FROM latest_premium_snapshot WHERE stock_code = #{stockCode}")
+    PremiumRateRecord selectByStockCode(@Param("stockCode") String stockCode);
+}
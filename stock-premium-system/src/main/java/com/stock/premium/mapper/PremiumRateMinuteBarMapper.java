@@ -0,0 +1,44 @@
+package com.stock.premium.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.stock.premium.entity.PremiumRateMinuteBar;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 溢价率分钟线Mapper接口
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Mapper
+public interface PremiumRateMinuteBarMapper extends BaseMapper<PremiumRateMinuteBar> {
+
+    /**
+     * 查询股票在日期范围内的分钟线，按时间升序
+     */
+    @Select("SELECT * FROM premium_rate_minute_bar WHERE stock_code = #{stockCode} AND trade_date BETWEEN #{startDate} AND #{endDate} ORDER BY bar_time")
+    List<PremiumRateMinuteBar> selectByStockAndDateRange(@Param("stockCode") String stockCode, @Param("startDate") LocalDate startDate,
+                                                         @Param("endDate") LocalDate endDate);
+
+    /**
+     * 批量插入分钟线，(stock_code, bar_time) 已存在的保留原值
+     * 汇总中断后重跑时明细可能已删除一部分，已写入的分钟线才是完整的
+     * @return 实际插入的行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO premium_rate_minute_bar (stock_code, bar_time, trade_date, open_premium_rate, high_premium_rate, low_premium_rate, " +
+            "close_premium_rate, a_stock_price, h_stock_price, exchange_rate, tick_count) VALUES " +
+            "<foreach collection='bars' item='b' separator=','>" +
+            "(#{b.stockCode}, #{b.barTime}, #{b.tradeDate}, #{b.openPremiumRate}, #{b.highPremiumRate}, #{b.lowPremiumRate}, " +
+            "#{b.closePremiumRate}, #{b.aStockPrice}, #{b.hStockPrice}, #{b.exchangeRate}, #{b.tickCount})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE id = id" +
+            "</script>")
+    int insertBatch(@Param("bars") List<PremiumRateMinuteBar> bars);
+}
@@ -2,11 +2,16 @@ package com.stock.premium.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.stock.premium.entity.PremiumRateRecord;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -24,9 +29,106 @@ public interface PremiumRateRecordMapper extends BaseMapper<PremiumRateRecord> {
     @Select("SELECT * FROM premium_rate_record WHERE stock_code = #{stockCode} AND trade_date = #{tradeDate} ORDER BY record_time")
     List<PremiumRateRecord> selectByStockAndDate(@Param("stockCode") String stockCode, @Param("tradeDate") LocalDate tradeDate);
 
+    /**
+     * 查询股票在日期范围内的溢价率记录，按记录时间排序，用于归档和历史查询
+     */
+    @Select("SELECT * FROM premium_rate_record WHERE stock_code = #{stockCode} AND trade_date BETWEEN #{startDate} AND #{endDate} ORDER BY record_time")
+    List<PremiumRateRecord> selectByStockAndDateRange(@Param("stockCode") String stockCode, @Param("startDate") LocalDate startDate,
+                                                      @Param("endDate") LocalDate endDate);
+
+    /**
+     * 分页查询股票在日期范围内的溢价率记录，按记录时间排序
+     */
+    @Select("SELECT * FROM premium_rate_record WHERE stock_code = #{stockCode} AND trade_date BETWEEN #{startDate} AND #{endDate} " +
+            "ORDER BY record_time LIMIT #{limit} OFFSET #{offset}")
+    List<PremiumRateRecord> selectPageByStockAndDateRange(@Param("stockCode") String stockCode, @Param("startDate") LocalDate startDate,
+                                                          @Param("endDate") LocalDate endDate, @Param("offset") long offset,
+                                                          @Param("limit") int limit);
+
+    /**
+     * 股票在日期范围内数据库中最早的交易日，没有记录时为null
+     */
+    @Select("SELECT trade_date FROM premium_rate_record WHERE stock_code = #{stockCode} AND trade_date BETWEEN #{startDate} AND #{endDate} " +
+            "ORDER BY record_time LIMIT 1")
+    LocalDate selectFirstTradeDate(@Param("stockCode") String stockCode, @Param("startDate") LocalDate startDate,
+                                   @Param("endDate") LocalDate endDate);
+
+    /**
+     * 查询日期范围内有溢价率记录的股票代码
+     */
+    @Select("SELECT DISTINCT stock_code FROM premium_rate_record WHERE trade_date BETWEEN #{startDate} AND #{endDate} ORDER BY stock_code")
+    List<String> selectStockCodesByDateRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 查询指定日期之前最早的交易日期，没有记录时返回null
+     */
+    @Select("SELECT MIN(trade_date) FROM premium_rate_record WHERE trade_date < #{before}")
+    LocalDate selectMinTradeDateBefore(@Param("before") LocalDate before);
+
     /**
      * 查询指定日期所有股票的最新溢价率
      */
     @Select("SELECT * FROM premium_rate_record WHERE trade_date = #{tradeDate} AND record_time = (SELECT MAX(record_time) FROM premium_rate_record WHERE stock_code = premium_rate_record.stock_code AND trade_date = #{tradeDate})")
     List<PremiumRateRecord> selectLatestByDate(@Param("tradeDate") LocalDate tradeDate);
+
+    /**
+     * 指定交易日在某时间点之前是否已有溢价率记录
+     */
+    @Select("SELECT EXISTS(SELECT 1 FROM premium_rate_record WHERE trade_date = #{tradeDate} AND record_time < #{before})")
+    boolean existsBefore(@Param("tradeDate") LocalDate tradeDate, @Param("before") LocalDateTime before);
+
+    /**
+     * 按新汇率重算指定交易日全部溢价率记录，同时更新最新溢价率快照表中对应的行
+     * 计算方式与 PremiumRateService.calculatePremiumRate 一致
+     */
+    @Update("UPDATE premium_rate_record p " +
+            "LEFT JOIN latest_premium_snapshot s ON s.stock_code = p.stock_code AND s.record_time = p.record_time " +
+            "SET p.exchange_rate = #{rate}, " +
+            "p.premium_rate = IF(p.a_stock_price > 0, ROUND(ROUND((p.h_stock_price * #{rate} - p.a_stock_price) / p.a_stock_price, 6) * 100, 4), 0), " +
+            "s.exchange_rate = #{rate}, " +
+            "s.premium_rate = IF(s.a_stock_price > 0, ROUND(ROUND((s.h_stock_price * #{rate} - s.a_stock_price) / s.a_stock_price, 6) * 100, 4), 0) " +
+            "WHERE p.trade_date = #{tradeDate}")
+    int updateExchangeRateByDate(@Param("tradeDate") LocalDate tradeDate, @Param("rate") BigDecimal rate);
+
+    /**
+     * 按新汇率重算指定交易日某时间点之后、汇率不是新汇率的溢价率记录，同时更新快照表中对应的行
+     * 用于手动汇率生效后补正仍按旧汇率写入的记录
+     */
+    @Update("UPDATE premium_rate_record p " +
+            "LEFT JOIN latest_premium_snapshot s ON s.stock_code = p.stock_code AND s.record_time = p.record_time " +
+            "SET p.exchange_rate = #{rate}, " +
+            "p.premium_rate = IF(p.a_stock_price > 0, ROUND(ROUND((p.h_stock_price * #{rate} - p.a_stock_price) / p.a_stock_price, 6) * 100, 4), 0), " +
+            "s.exchange_rate = #{rate}, " +
+            "s.premium_rate = IF(s.a_stock_price > 0, ROUND(ROUND((s.h_stock_price * #{rate} - s.a_stock_price) / s.a_stock_price, 6) * 100, 4), 0) " +
+            "WHERE p.trade_date = #{tradeDate} AND p.record_time >= #{since} AND p.exchange_rate <> #{rate}")
+    int updateExchangeRateSince(@Param("tradeDate") LocalDate tradeDate, @Param("since") LocalDateTime since,
+                                @Param("rate") BigDecimal rate);
+
+    /**
+     * 删除股票在日期范围内的溢价率记录
+     */
+    @Delete("DELETE FROM premium_rate_record WHERE stock_code = #{stockCode} AND trade_date BETWEEN #{startDate} AND #{endDate}")
+    int deleteByStockAndDateRange(@Param("stockCode") String stockCode, @Param("startDate") LocalDate startDate,
+                                  @Param("endDate") LocalDate endDate);
+
+    /**
+     * 删除指定交易日的溢价率记录，单次最多 limit 行，分批执行避免长时间锁表
+     * @return 本批删除的行数，小于 limit 时已删完
+     */
+    @Delete("DELETE FROM premium_rate_record WHERE trade_date = #{tradeDate} LIMIT #{limit}")
+    int deleteByTradeDate(@Param("tradeDate") LocalDate tradeDate, @Param("limit") int limit);
+
+    /**
+     * 批量插入溢价率记录，(stock_code, record_time) 已存在的记录不再写入
+     * 用空更新而不是 INSERT IGNORE，其他数据错误仍会报出
+     * @return 实际插入的行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO premium_rate_record (stock_code, a_stock_price, h_stock_price, exchange_rate, premium_rate, record_time, trade_date) VALUES " +
+            "<foreach collection='records' item='r' separator=','>" +
+            "(#{r.stockCode}, #{r.aStockPrice}, #{r.hStockPrice}, #{r.exchangeRate}, #{r.premiumRate}, #{r.recordTime}, #{r.tradeDate})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE id = id" +
+            "</script>")
+    int insertBatch(@Param("records") List<PremiumRateRecord> records);
 }
\ No newline at end of file
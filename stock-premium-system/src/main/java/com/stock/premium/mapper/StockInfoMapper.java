@@ -33,4 +33,10 @@ public interface StockInfoMapper extends BaseMapper<StockInfo> {
      */
     @Select("SELECT DISTINCT a_stock_code FROM stock_info WHERE a_stock_code IS NOT NULL AND h_stock_code IS NOT NULL AND status = 1 AND deleted = 0")
     List<String> selectAHStockPairs();
-}
\ No newline at end of file
+
+    /**
+     * 查询 stock_info 的变更版本（行数 + 最大更新时间），用于判断内存索引是否过期
+     */
+    @Select("SELECT CONCAT(COUNT(*), '@', IFNULL(MAX(updated_time), '')) FROM stock_info")
+    String selectChangeVersion();
+}
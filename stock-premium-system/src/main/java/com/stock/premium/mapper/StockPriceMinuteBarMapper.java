@@ -0,0 +1,43 @@
+package com.stock.premium.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.stock.premium.entity.StockPriceMinuteBar;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 股票价格分钟线Mapper接口
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Mapper
+public interface StockPriceMinuteBarMapper extends BaseMapper<StockPriceMinuteBar> {
+
+    /**
+     * 查询股票在日期范围内的分钟线，按时间升序
+     */
+    @Select("SELECT * FROM stock_price_minute_bar WHERE stock_code = #{stockCode} AND trade_date BETWEEN #{startDate} AND #{endDate} ORDER BY bar_time")
+    List<StockPriceMinuteBar> selectByStockAndDateRange(@Param("stockCode") String stockCode, @Param("startDate") LocalDate startDate,
+                                                        @Param("endDate") LocalDate endDate);
+
+    /**
+     * 批量插入分钟线，(stock_code, bar_time) 已存在的保留原值，原因同 PremiumRateMinuteBarMapper.insertBatch
+     * @return 实际插入的行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO stock_price_minute_bar (stock_code, market_type, bar_time, trade_date, open_price, high_price, low_price, " +
+            "close_price, volume, turnover, tick_count) VALUES " +
+            "<foreach collection='bars' item='b' separator=','>" +
+            "(#{b.stockCode}, #{b.marketType}, #{b.barTime}, #{b.tradeDate}, #{b.openPrice}, #{b.highPrice}, #{b.lowPrice}, " +
+            "#{b.closePrice}, #{b.volume}, #{b.turnover}, #{b.tickCount})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE id = id" +
+            "</script>")
+    int insertBatch(@Param("bars") List<StockPriceMinuteBar> bars);
+}
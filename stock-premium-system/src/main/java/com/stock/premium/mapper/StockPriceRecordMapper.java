@@ -23,8 +23,45 @@ public interface StockPriceRecordMapper extends BaseMapper<StockPriceRecord> {
     List<StockPriceRecord> selectByStockCodeAndDate(@Param("stockCode") String stockCode, 
                                                    @Param("tradeDate") LocalDate tradeDate);
 
+    /**
+     * 查询股票在日期范围内的价格（只含重算溢价率所需字段），按记录时间排序
+     */
+    List<StockPriceRecord> selectPricesByDateRange(@Param("stockCode") String stockCode,
+                                                   @Param("startDate") LocalDate startDate,
+                                                   @Param("endDate") LocalDate endDate);
+
+    /**
+     * 查询股票在日期范围内的完整价格记录，按记录时间排序，用于归档和历史查询
+     */
+    List<StockPriceRecord> selectByStockAndDateRange(@Param("stockCode") String stockCode,
+                                                     @Param("startDate") LocalDate startDate,
+                                                     @Param("endDate") LocalDate endDate);
+
+    /**
+     * 查询日期范围内有价格记录的股票代码
+     */
+    List<String> selectStockCodesByDateRange(@Param("startDate") LocalDate startDate,
+                                             @Param("endDate") LocalDate endDate);
+
+    /**
+     * 查询指定日期之前最早的交易日期，没有记录时返回null
+     */
+    LocalDate selectMinTradeDateBefore(@Param("before") LocalDate before);
+
+    /**
+     * 删除指定交易日的价格记录，单次最多 limit 行，分批执行避免长时间锁表
+     * @return 本批删除的行数，小于 limit 时已删完
+     */
+    int deleteByTradeDate(@Param("tradeDate") LocalDate tradeDate, @Param("limit") int limit);
+
     /**
      * 查询指定日期的最新价格记录
      */
     List<StockPriceRecord> selectLatestByDate(@Param("tradeDate") LocalDate tradeDate);
+
+    /**
+     * 批量插入价格记录，(stock_code, record_time) 已存在的行情不再写入
+     * @return 实际插入的行数
+     */
+    int insertBatch(@Param("records") List<StockPriceRecord> records);
 }
\ No newline at end of file
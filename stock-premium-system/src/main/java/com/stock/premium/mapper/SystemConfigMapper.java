@@ -4,6 +4,8 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.stock.premium.entity.SystemConfig;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 /**
  * 系统配置Mapper接口
@@ -17,10 +19,12 @@ public interface SystemConfigMapper extends BaseMapper<SystemConfig> {
     /**
      * 根据配置键查询配置值
      */
+    @Select("SELECT * FROM system_config WHERE config_key = #{configKey} AND status = 1")
     SystemConfig selectByConfigKey(@Param("configKey") String configKey);
 
     /**
      * 更新配置值
      */
+    @Update("UPDATE system_config SET config_value = #{configValue} WHERE config_key = #{configKey}")
     int updateByConfigKey(@Param("configKey") String configKey, @Param("configValue") String configValue);
 }
\ No newline at end of file
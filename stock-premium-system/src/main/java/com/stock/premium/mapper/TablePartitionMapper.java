@@ -0,0 +1,55 @@
+package com.stock.premium.mapper;
+
+import com.stock.premium.dto.TablePartition;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 表分区维护Mapper接口
+ * 表名和分区定义由 PartitionMaintenanceServiceImpl 按固定表名生成，不接受外部输入
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+@Mapper
+public interface TablePartitionMapper {
+
+    /**
+     * 查询当前库中指定表的分区，按分区顺序返回；未分区的表返回空列表
+     */
+    @Select("SELECT PARTITION_NAME AS partition_name, PARTITION_DESCRIPTION AS partition_description, " +
+            "TABLE_ROWS AS table_rows FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = #{tableName} AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY PARTITION_ORDINAL_POSITION")
+    List<TablePartition> selectPartitions(@Param("tableName") String tableName);
+
+    /**
+     * 指定交易日及之后是否有数据，用于判断兜底分区是否为空（按 trade_date 只扫描兜底分区）
+     */
+    @Select("SELECT EXISTS(SELECT 1 FROM ${tableName} WHERE trade_date >= #{from})")
+    boolean existsFrom(@Param("tableName") String tableName, @Param("from") LocalDate from);
+
+    /**
+     * 把兜底分区拆分为新的月分区和兜底分区，兜底分区为空时只修改元数据
+     */
+    @Update("ALTER TABLE ${tableName} REORGANIZE PARTITION ${partitionName} INTO (${definitions})")
+    void reorganizePartition(@Param("tableName") String tableName, @Param("partitionName") String partitionName,
+                             @Param("definitions") String definitions);
+
+    /**
+     * 在最后一个分区之后追加分区，用于没有兜底分区的表
+     */
+    @Update("ALTER TABLE ${tableName} ADD PARTITION (${definitions})")
+    void addPartitions(@Param("tableName") String tableName, @Param("definitions") String definitions);
+
+    /**
+     * 删除分区及其中的数据
+     */
+    @Update("ALTER TABLE ${tableName} DROP PARTITION ${partitionNames}")
+    void dropPartitions(@Param("tableName") String tableName, @Param("partitionNames") String partitionNames);
+}
@@ -0,0 +1,26 @@
+package com.stock.premium.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.stock.premium.entity.TradingCalendar;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 交易日历Mapper接口
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Mapper
+public interface TradingCalendarMapper extends BaseMapper<TradingCalendar> {
+
+    /**
+     * 查询日期范围内的休市日和半日市
+     */
+    @Select("SELECT * FROM trading_calendar WHERE calendar_date BETWEEN #{startDate} AND #{endDate} ORDER BY calendar_date, market_type")
+    List<TradingCalendar> selectByDateRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
@@ -0,0 +1,182 @@
+package com.stock.premium.metrics;
+
+import com.stock.premium.vo.CollectionReportVO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 采集链路监控指标
+ * 各阶段耗时按 Timer 记录并发布 p50/p99 和直方图，通过 /actuator/prometheus 抓取：
+ * premium.collect.stage{stage}  股票查询、汇率查询、报文解析、溢价率计算
+ * premium.quote.fetch{market}   行情HTTP请求，按A股/H股分别统计
+ * premium.persist.insert{table} 写缓冲刷写时每张表的批量写入
+ * premium.collect.cycle         整个采集周期
+ * premium.persist.dropped{table} 写缓冲重试用尽后丢弃的记录数
+ * premium.calendar.current_year.days{market} 当年交易日历的休市日和半日市天数，为0说明当年日历未维护
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+@Component
+public class CollectionMetrics {
+
+    public static final String STAGE_STOCK_LOOKUP = "stock_lookup";
+    public static final String STAGE_FX_LOOKUP = "fx_lookup";
+    public static final String STAGE_PARSE = "parse";
+    public static final String STAGE_PREMIUM_CALC = "premium_calc";
+
+    private static final double[] PERCENTILES = {0.5, 0.99};
+
+    /**
+     * 解析、溢价率计算在微秒级，直方图下限取10微秒
+     */
+    private static final Duration MIN_EXPECTED = Duration.ofNanos(10_000);
+
+    private static final Duration MAX_EXPECTED = Duration.ofSeconds(30);
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final Timer cycleTimer;
+
+    /**
+     * 最近一次采集周期完成的时间(System.nanoTime)，0表示还没有完成过
+     */
+    private volatile long lastCycleCompletedNanos;
+
+    public CollectionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.cycleTimer = timer("premium.collect.cycle", "采集周期总耗时", null, null);
+        Gauge.builder("premium.collect.cycle.lag", this, CollectionMetrics::getCycleLagSeconds)
+                .description("距上次采集周期完成的秒数")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    /**
+     * 采集阶段耗时
+     */
+    public Timer stage(String stage) {
+        return timer("premium.collect.stage", "采集各阶段耗时", "stage", stage);
+    }
+
+    /**
+     * 行情HTTP请求耗时
+     * @param market A或H
+     */
+    public Timer fetch(String market) {
+        return timer("premium.quote.fetch", "行情HTTP请求耗时", "market", market);
+    }
+
+    /**
+     * 批量写入耗时
+     */
+    public Timer insert(String table) {
+        return timer("premium.persist.insert", "批量写入耗时", "table", table);
+    }
+
+    /**
+     * 行情接口请求失败
+     */
+    public void apiError(String market, Throwable error) {
+        counter("premium.quote.api.errors", "行情接口请求失败次数", "market", market,
+                "exception", error.getClass().getSimpleName()).increment();
+    }
+
+    /**
+     * 行情接口返回空响应
+     */
+    public void emptyResponse(String market) {
+        counter("premium.quote.empty.responses", "行情接口空响应次数", "market", market).increment();
+    }
+
+    /**
+     * 写缓冲重试用尽后丢弃的记录
+     */
+    public void persistDropped(String table, int count) {
+        if (count > 0) {
+            counter("premium.persist.dropped", "写缓冲重试用尽后丢弃的记录数", "table", table).increment(count);
+        }
+    }
+
+    /**
+     * 登记队列深度
+     */
+    public void queueDepth(String queue, Supplier<Number> depth) {
+        Gauge.builder("premium.queue.depth", depth)
+                .description("队列中等待处理的数量")
+                .tag("queue", queue)
+                .register(registry);
+    }
+
+    /**
+     * 登记当年交易日历天数
+     */
+    public void calendarDays(String market, Supplier<Number> days) {
+        Gauge.builder("premium.calendar.current_year.days", days)
+                .description("当年交易日历的休市日和半日市天数")
+                .tag("market", market)
+                .register(registry);
+    }
+
+    /**
+     * 记录一次采集周期的耗时和各结果数量
+     */
+    public void cycleCompleted(CollectionReportVO report) {
+        cycleTimer.record(report.getElapsedMillis(), TimeUnit.MILLISECONDS);
+        pairs("success").increment(report.getSuccessCount());
+        pairs("unchanged").increment(report.getUnchangedCount());
+        pairs("missing_quote").increment(report.getMissingQuoteCount());
+        pairs("failed").increment(report.getFailedCount());
+        pairs("timeout").increment(report.getTimeoutCount());
+        lastCycleCompletedNanos = System.nanoTime();
+    }
+
+    double getCycleLagSeconds() {
+        long completed = lastCycleCompletedNanos;
+        if (completed == 0) {
+            return Double.NaN;
+        }
+        return (System.nanoTime() - completed) / 1e9;
+    }
+
+    private Counter pairs(String outcome) {
+        return counter("premium.collect.pairs", "各结果的股票对数量", "outcome", outcome);
+    }
+
+    private Timer timer(String name, String description, String tagKey, String tagValue) {
+        String key = tagKey == null ? name : name + '|' + tagValue;
+        return timers.computeIfAbsent(key, k -> {
+            Timer.Builder builder = Timer.builder(name)
+                    .description(description)
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(MIN_EXPECTED)
+                    .maximumExpectedValue(MAX_EXPECTED);
+            if (tagKey != null) {
+                builder.tag(tagKey, tagValue);
+            }
+            return builder.register(registry);
+        });
+    }
+
+    private Counter counter(String name, String description, String... tags) {
+        String key = name + '|' + String.join("|", tags);
+        return counters.computeIfAbsent(key, k -> Counter.builder(name)
+                .description(description)
+                .tags(tags)
+                .register(registry));
+    }
+}
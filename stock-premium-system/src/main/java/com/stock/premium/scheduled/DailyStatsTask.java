@@ -3,6 +3,7 @@ package com.stock.premium.scheduled;
 import com.stock.premium.service.DailyStatsService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -23,11 +24,30 @@ public class DailyStatsTask {
     @Autowired
     private DailyStatsService dailyStatsService;
 
+    /**
+     * 调度模式，quartz 时由 DailyStatsJob 在集群中的一个节点上调用
+     */
+    @Value("${schedule.mode:local}")
+    private String scheduleMode;
+
+    @Scheduled(cron = "${schedule.daily-stats.cron:0 30 16 * * MON-FRI}")
+    public void scheduledDailyStats() {
+        if (!DataCollectionTask.MODE_QUARTZ.equals(scheduleMode)) {
+            generateDailyStats();
+        }
+    }
+
+    @Scheduled(cron = "0 0 9 * * MON-FRI")
+    public void scheduledYesterdayStats() {
+        if (!DataCollectionTask.MODE_QUARTZ.equals(scheduleMode)) {
+            generateYesterdayStats();
+        }
+    }
+
     /**
      * 港股收盘后生成日统计数据
      * 每个工作日下午4:30执行
      */
-    @Scheduled(cron = "${schedule.daily-stats.cron:0 30 16 * * MON-FRI}")
     public void generateDailyStats() {
         try {
             LocalDate today = LocalDate.now();
@@ -45,7 +65,6 @@ public class DailyStatsTask {
      * 手动触发昨日数据统计（用于补数据）
      * 每天早上9点执行，处理昨日数据
      */
-    @Scheduled(cron = "0 0 9 * * MON-FRI")
     public void generateYesterdayStats() {
         try {
             LocalDate yesterday = LocalDate.now().minusDays(1);
@@ -1,14 +1,28 @@
 package com.stock.premium.scheduled;
 
 import com.stock.premium.service.DataCollectionService;
+import com.stock.premium.service.SystemConfigService;
+import com.stock.premium.service.TradingSessionService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ScheduledFuture;
+
 /**
  * 数据采集定时任务
+ * 按交易日历自适应调度：两地都开市时密集采集，仅一地开市时稀疏采集，
+ * 午休、节假日和收市后不采集，直接休眠到下一次开盘。
+ * 每次采集结束后再安排下一次，采集间隔从 system_config 读取，修改后下一次调度即生效。
+ * schedule.mode=quartz 时不在本机调度，由集群中持有触发器的节点通过 DataCollectionJob 调用
  * 
  * @author system
  * @since 2024-01-01
@@ -18,40 +32,141 @@ import org.springframework.stereotype.Component;
 @ConditionalOnProperty(name = "schedule.stock-data-collect.enabled", havingValue = "true", matchIfMissing = true)
 public class DataCollectionTask {
 
+    /**
+     * 两地都开市时的采集间隔(秒)
+     */
+    static final String CONFIG_INTERVAL = "data.collect.interval";
+
+    /**
+     * 仅一地开市时的采集间隔(秒)
+     */
+    static final String CONFIG_SPARSE_INTERVAL = "data.collect.sparse-interval";
+
+    static final String CONFIG_ENABLED = "data.collect.enabled";
+
+    /**
+     * 调度模式：local-本机调度，quartz-集群调度
+     */
+    public static final String MODE_QUARTZ = "quartz";
+
     @Autowired
     private DataCollectionService dataCollectionService;
 
+    @Autowired
+    private TradingSessionService tradingSessionService;
+
+    @Autowired
+    private SystemConfigService systemConfigService;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Value("${schedule.mode:local}")
+    private String scheduleMode;
+
+    /**
+     * 分片采集时每个节点都要采集自己的分片，采集任务始终由本机调度
+     */
+    @Value("${collector.sharding.enabled:false}")
+    private boolean shardingEnabled;
+
+    @Value("${schedule.stock-data-collect.default-interval:5}")
+    private int defaultInterval;
+
+    @Value("${schedule.stock-data-collect.default-sparse-interval:30}")
+    private int defaultSparseInterval;
+
     /**
-     * 上午交易时间数据采集：9:30-12:00，每5分钟执行一次
-     * 工作日上午9:30:00, 9:35:00, 9:40:00... 直到12:00:00
+     * 休市期间最长休眠时间(分钟)，到期后重新检查交易日历
      */
-    @Scheduled(cron = "0 30-59/5 9 * * MON-FRI")
-    public void collectStockDataMorning1() {
-        executeDataCollection();
+    @Value("${schedule.stock-data-collect.max-idle-minutes:60}")
+    private int maxIdleMinutes;
+
+    private volatile ScheduledFuture<?> nextRun;
+
+    private volatile boolean stopped;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (MODE_QUARTZ.equals(scheduleMode) && !shardingEnabled) {
+            log.info("数据采集由Quartz集群调度");
+            return;
+        }
+        log.info("启动交易时段自适应数据采集调度");
+        scheduleAt(LocalDateTime.now());
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+        ScheduledFuture<?> future = nextRun;
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    private void run() {
+        scheduleAt(collectAndGetNextRun());
     }
-    
-    @Scheduled(cron = "0 */5 10-11 * * MON-FRI")
-    public void collectStockDataMorning2() {
-        executeDataCollection();
+
+    /**
+     * 按当前交易时段执行一次（休市时不采集）
+     * @return 下一次执行时间
+     */
+    public LocalDateTime collectAndGetNextRun() {
+        try {
+            return runOnce(LocalDateTime.now());
+        } catch (Exception e) {
+            log.error("数据采集调度执行失败", e);
+            return LocalDateTime.now().plusSeconds(defaultSparseInterval);
+        }
     }
-    
-    @Scheduled(cron = "0 0 12 * * MON-FRI")
-    public void collectStockDataMorning3() {
-        executeDataCollection();
+
+    /**
+     * 休市期间最长休眠时间(分钟)
+     */
+    public int getMaxIdleMinutes() {
+        return maxIdleMinutes;
     }
 
     /**
-     * 下午交易时间数据采集：13:00-16:30，每5分钟执行一次
-     * 工作日下午1:00:00, 1:05:00, 1:10:00... 直到4:30:00
+     * 执行一次调度
+     * @return 下一次执行时间
      */
-    @Scheduled(cron = "0 */5 13-15 * * MON-FRI")
-    public void collectStockDataAfternoon1() {
-        executeDataCollection();
+    private LocalDateTime runOnce(LocalDateTime now) {
+        int openMarkets = tradingSessionService.getOpenMarketCount(now);
+        if (openMarkets == 0) {
+            LocalDateTime nextOpen = tradingSessionService.getNextOpenTime(now);
+            LocalDateTime maxIdle = now.plusMinutes(maxIdleMinutes);
+            LocalDateTime next = nextOpen != null && nextOpen.isBefore(maxIdle) ? nextOpen : maxIdle;
+            log.debug("当前休市，下次检查时间 {}", next);
+            return next;
+        }
+
+        int interval = openMarkets == 2
+                ? systemConfigService.getIntValue(CONFIG_INTERVAL, defaultInterval)
+                : systemConfigService.getIntValue(CONFIG_SPARSE_INTERVAL, defaultSparseInterval);
+        LocalDateTime next = now.plusSeconds(Math.max(1, interval));
+
+        if (systemConfigService.getBooleanValue(CONFIG_ENABLED, true)) {
+            executeDataCollection();
+        } else {
+            log.debug("数据采集已在系统配置中关闭");
+        }
+
+        // 开盘/收盘时刻早于下一次采集时提前到该时刻，保证取到开盘和收盘行情
+        LocalDateTime boundary = tradingSessionService.getNextBoundary(now);
+        if (boundary != null && boundary.isBefore(next)) {
+            next = boundary;
+        }
+        return next;
     }
-    
-    @Scheduled(cron = "0 0-30/5 16 * * MON-FRI")
-    public void collectStockDataAfternoon2() {
-        executeDataCollection();
+
+    private void scheduleAt(LocalDateTime time) {
+        if (stopped) {
+            return;
+        }
+        nextRun = taskScheduler.schedule(this::run, time.atZone(ZoneId.systemDefault()).toInstant());
     }
 
     /**
@@ -65,4 +180,4 @@ public class DataCollectionTask {
             log.error("定时数据采集任务执行失败", e);
         }
     }
-}
\ No newline at end of file
+}
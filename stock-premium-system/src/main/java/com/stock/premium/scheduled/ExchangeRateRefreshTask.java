@@ -0,0 +1,107 @@
+package com.stock.premium.scheduled;
+
+import com.stock.premium.dto.FxRate;
+import com.stock.premium.service.ExchangeRateService;
+import com.stock.premium.service.ExchangeRateStore;
+import com.stock.premium.service.PremiumRecomputeService;
+import com.stock.premium.service.TradingSessionService;
+import com.stock.premium.service.impl.ExchangeRateServiceImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 汇率刷新定时任务
+ * 任一市场开市时按固定间隔刷新；休市期间只在快照为空时刷新一次。
+ * schedule.mode=quartz 时只有持有触发器的节点从汇率来源刷新并写库（ExchangeRateRefreshJob），
+ * 各节点本地任务改为从数据库重新加载，保持内存快照一致。
+ * 每个节点采用新的当日手动汇率后，补正本节点在手动汇率生效后仍按旧汇率写入的溢价率明细
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "schedule.exchange-rate-refresh.enabled", havingValue = "true", matchIfMissing = true)
+public class ExchangeRateRefreshTask {
+
+    /**
+     * A+H溢价计算使用的货币对
+     */
+    private static final String HKD_CNY = "HKDCNY";
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Autowired
+    private ExchangeRateStore exchangeRateStore;
+
+    @Autowired
+    private TradingSessionService tradingSessionService;
+
+    @Autowired
+    private PremiumRecomputeService premiumRecomputeService;
+
+    @Value("${schedule.mode:local}")
+    private String scheduleMode;
+
+    /**
+     * 本节点已补正过的手动汇率生效时间
+     */
+    private volatile LocalDateTime appliedManualTime;
+
+    @Scheduled(initialDelay = 5000, fixedDelayString = "${schedule.exchange-rate-refresh.interval:60000}")
+    public void refreshRates() {
+        if (DataCollectionTask.MODE_QUARTZ.equals(scheduleMode)) {
+            try {
+                exchangeRateService.reloadRates();
+            } catch (Exception e) {
+                log.error("重新加载汇率失败", e);
+            }
+        } else {
+            refreshFromSource();
+        }
+        applyManualRate();
+    }
+
+    /**
+     * 当日手动汇率首次出现在本节点快照中时补正一次，失败时下次刷新重试
+     */
+    void applyManualRate() {
+        FxRate rate = exchangeRateStore.get(HKD_CNY);
+        if (rate == null || !ExchangeRateServiceImpl.SOURCE_MANUAL.equals(rate.getDataSource())
+                || rate.getRecordTime() == null || rate.getRecordTime().equals(appliedManualTime)) {
+            return;
+        }
+        try {
+            if (rate.getRecordTime().toLocalDate().equals(LocalDate.now())) {
+                int rows = premiumRecomputeService.applyManualRate(rate.getRecordTime(), rate.getRate());
+                log.info("手动汇率 {} 自 {} 起生效，补正旧汇率明细 {} 条", rate.getRate(), rate.getRecordTime(), rows);
+            }
+            appliedManualTime = rate.getRecordTime();
+        } catch (Exception e) {
+            log.error("按手动汇率补正溢价率明细失败", e);
+        }
+    }
+
+    /**
+     * 从汇率来源刷新并写库
+     */
+    public void refreshFromSource() {
+        try {
+            if (exchangeRateStore.getVersion() > 0
+                    && tradingSessionService.getOpenMarketCount(LocalDateTime.now()) == 0) {
+                return;
+            }
+            exchangeRateService.refreshRates();
+        } catch (Exception e) {
+            log.error("刷新汇率失败", e);
+        }
+    }
+}
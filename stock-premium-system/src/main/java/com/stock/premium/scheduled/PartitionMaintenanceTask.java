@@ -0,0 +1,76 @@
+package com.stock.premium.scheduled;
+
+import com.stock.premium.service.PartitionMaintenanceService;
+import com.stock.premium.service.TradingSessionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 明细表分区维护定时任务
+ * 每天收市后预建未来的月分区并删除超出保留期的分区。
+ * 启动时只在休市期间做不搬移数据的预建，新部署的库不必等到夜间；拆分有数据的兜底分区可能要复制大量数据，只在夜间执行。
+ * schedule.mode=quartz 时由 PartitionMaintenanceJob 在集群中的一个节点上调用
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "schedule.partition-maintenance.enabled", havingValue = "true", matchIfMissing = true)
+public class PartitionMaintenanceTask {
+
+    @Autowired
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @Autowired
+    private TradingSessionService tradingSessionService;
+
+    @Value("${schedule.mode:local}")
+    private String scheduleMode;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        if (DataCollectionTask.MODE_QUARTZ.equals(scheduleMode)) {
+            return;
+        }
+        if (tradingSessionService.getOpenMarketCount(LocalDateTime.now()) > 0) {
+            log.info("市场开市中，启动时跳过分区维护，由夜间任务执行");
+            return;
+        }
+        try {
+            Map<String, String> results = partitionMaintenanceService.maintainMetadataOnly(LocalDate.now());
+            log.info("启动时分区预建完成: {}", results);
+        } catch (Exception e) {
+            log.error("启动时分区预建失败", e);
+        }
+    }
+
+    @Scheduled(cron = "${schedule.partition-maintenance.cron:0 30 1 * * ?}")
+    public void scheduledMaintenance() {
+        if (!DataCollectionTask.MODE_QUARTZ.equals(scheduleMode)) {
+            maintainPartitions();
+        }
+    }
+
+    /**
+     * 执行一次分区维护
+     */
+    public void maintainPartitions() {
+        try {
+            Map<String, String> results = partitionMaintenanceService.maintain(LocalDate.now());
+            log.info("分区维护完成: {}", results);
+        } catch (Exception e) {
+            log.error("分区维护任务执行失败", e);
+        }
+    }
+}
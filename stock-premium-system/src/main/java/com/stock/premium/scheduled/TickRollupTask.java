@@ -0,0 +1,51 @@
+package com.stock.premium.scheduled;
+
+import com.stock.premium.service.TickRollupService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * 明细分钟线汇总定时任务
+ * 每天夜间把超过汇总天数的明细汇总为分钟线并分批删除，开市后自动中止，次日继续。
+ * schedule.mode=quartz 时由 TickRollupJob 在集群中的一个节点上调用
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "schedule.tick-rollup.enabled", havingValue = "true", matchIfMissing = true)
+public class TickRollupTask {
+
+    @Autowired
+    private TickRollupService tickRollupService;
+
+    @Value("${schedule.mode:local}")
+    private String scheduleMode;
+
+    @Scheduled(cron = "${schedule.tick-rollup.cron:0 0 2 * * ?}")
+    public void scheduledRollup() {
+        if (!DataCollectionTask.MODE_QUARTZ.equals(scheduleMode)) {
+            rollup();
+        }
+    }
+
+    /**
+     * 执行一次分钟线汇总
+     */
+    public void rollup() {
+        try {
+            Map<String, String> results = tickRollupService.rollup(LocalDate.now());
+            log.info("分钟线汇总完成: {}", results);
+        } catch (Exception e) {
+            log.error("分钟线汇总任务执行失败", e);
+        }
+    }
+}
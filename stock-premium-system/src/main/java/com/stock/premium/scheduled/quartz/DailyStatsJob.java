@@ -0,0 +1,33 @@
+package com.stock.premium.scheduled.quartz;
+
+import com.stock.premium.scheduled.DailyStatsTask;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/**
+ * 日统计Quartz任务，JobDataMap 中 target=yesterday 时补充昨日统计，否则生成当日统计
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@DisallowConcurrentExecution
+public class DailyStatsJob extends QuartzJobBean {
+
+    public static final String KEY_TARGET = "target";
+
+    public static final String TARGET_YESTERDAY = "yesterday";
+
+    @Autowired
+    private DailyStatsTask dailyStatsTask;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        if (TARGET_YESTERDAY.equals(context.getMergedJobDataMap().getString(KEY_TARGET))) {
+            dailyStatsTask.generateYesterdayStats();
+        } else {
+            dailyStatsTask.generateDailyStats();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.stock.premium.scheduled.quartz;
+
+import com.stock.premium.config.QuartzScheduleConfig;
+import com.stock.premium.scheduled.DataCollectionTask;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+import java.time.LocalDateTime;
+
+/**
+ * 数据采集Quartz任务
+ * 每次执行后按交易时段把自身触发器改期到下一次采集时间；
+ * 触发器保存在数据库中，集群内同一时刻只有一个节点执行，节点宕机后由其他节点接管
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Slf4j
+@DisallowConcurrentExecution
+public class DataCollectionJob extends QuartzJobBean {
+
+    @Autowired
+    private DataCollectionTask dataCollectionTask;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        LocalDateTime next = dataCollectionTask.collectAndGetNextRun();
+        Trigger trigger = QuartzScheduleConfig.collectTrigger(context.getJobDetail(), next,
+                dataCollectionTask.getMaxIdleMinutes());
+        try {
+            context.getScheduler().rescheduleJob(context.getTrigger().getKey(), trigger);
+        } catch (SchedulerException e) {
+            // 改期失败时原触发器仍按休眠间隔重复执行，不会停止采集
+            log.error("数据采集触发器改期失败，下次执行时间 {}", next, e);
+        }
+    }
+}
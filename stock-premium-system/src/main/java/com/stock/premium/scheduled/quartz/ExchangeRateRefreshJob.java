@@ -0,0 +1,25 @@
+package com.stock.premium.scheduled.quartz;
+
+import com.stock.premium.scheduled.ExchangeRateRefreshTask;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/**
+ * 汇率刷新Quartz任务，集群中只有一个节点从汇率来源获取并写库
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@DisallowConcurrentExecution
+public class ExchangeRateRefreshJob extends QuartzJobBean {
+
+    @Autowired
+    private ExchangeRateRefreshTask exchangeRateRefreshTask;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        exchangeRateRefreshTask.refreshFromSource();
+    }
+}
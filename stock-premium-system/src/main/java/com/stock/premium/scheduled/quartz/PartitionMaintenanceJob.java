@@ -0,0 +1,25 @@
+package com.stock.premium.scheduled.quartz;
+
+import com.stock.premium.scheduled.PartitionMaintenanceTask;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/**
+ * 分区维护Quartz任务，集群中只有一个节点执行分区DDL
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+@DisallowConcurrentExecution
+public class PartitionMaintenanceJob extends QuartzJobBean {
+
+    @Autowired
+    private PartitionMaintenanceTask partitionMaintenanceTask;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        partitionMaintenanceTask.maintainPartitions();
+    }
+}
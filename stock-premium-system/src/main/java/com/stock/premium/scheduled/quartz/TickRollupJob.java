@@ -0,0 +1,25 @@
+package com.stock.premium.scheduled.quartz;
+
+import com.stock.premium.scheduled.TickRollupTask;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/**
+ * 分钟线汇总Quartz任务，集群中只有一个节点删除明细
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+@DisallowConcurrentExecution
+public class TickRollupJob extends QuartzJobBean {
+
+    @Autowired
+    private TickRollupTask tickRollupTask;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        tickRollupTask.rollup();
+    }
+}
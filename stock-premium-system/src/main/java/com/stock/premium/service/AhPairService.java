@@ -0,0 +1,45 @@
+package com.stock.premium.service;
+
+import com.stock.premium.vo.AhPairImportVO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A+H股票对字典服务接口
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+public interface AhPairService {
+
+    /**
+     * A股代码对应的H股代码，没有时返回null
+     */
+    String getHStockCode(String aStockCode);
+
+    /**
+     * H股代码对应的A股代码，没有时返回null
+     */
+    String getAStockCode(String hStockCode);
+
+    /**
+     * 当前索引中的股票对数量
+     */
+    int size();
+
+    /**
+     * 导入CSV（UTF-8，表头 a_stock_code,h_stock_code,stock_name[,status]），按A股代码覆盖，导入后重新加载索引
+     */
+    AhPairImportVO importCsv(InputStream in) throws IOException;
+
+    /**
+     * 从数据库重新加载索引
+     */
+    void reload();
+
+    /**
+     * 检查 ah_stock_pair 是否被修改，有变化则重新加载
+     */
+    void reloadIfChanged();
+}
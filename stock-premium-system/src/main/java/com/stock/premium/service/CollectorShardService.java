@@ -0,0 +1,47 @@
+package com.stock.premium.service;
+
+import com.stock.premium.entity.StockInfo;
+
+import java.util.List;
+
+/**
+ * 采集分片服务接口
+ * 各采集节点通过 collector_node 心跳发现彼此，按A股代码一致性哈希分配股票，每个节点只采集自己的分片
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+public interface CollectorShardService {
+
+    /**
+     * 是否启用分片采集（collector.sharding.enabled）
+     */
+    boolean isEnabled();
+
+    /**
+     * 本节点内存中的行情快照和日统计累加器是否只覆盖部分采集结果：
+     * 分片采集时只含本节点的股票，schedule.mode=quartz 时采集周期由持有触发器的节点轮流执行。
+     * 为true时全量读取走 latest_premium_snapshot，日统计从明细重新计算
+     */
+    boolean isLocalViewPartial();
+
+    /**
+     * 本节点ID
+     */
+    String getNodeId();
+
+    /**
+     * 过滤出本节点负责的股票；未启用分片时原样返回
+     */
+    List<StockInfo> filterOwned(List<StockInfo> stocks);
+
+    /**
+     * 当前存活的采集节点
+     */
+    List<String> getMembers();
+
+    /**
+     * 写入心跳并按最新成员重建哈希环
+     */
+    void heartbeat();
+}
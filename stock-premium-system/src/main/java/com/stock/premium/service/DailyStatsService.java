@@ -2,6 +2,7 @@ package com.stock.premium.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.stock.premium.entity.DailyPremiumStats;
+import com.stock.premium.entity.PremiumRateRecord;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -14,12 +15,31 @@ import java.util.List;
  */
 public interface DailyStatsService extends IService<DailyPremiumStats> {
 
+    /**
+     * 累加一条溢价率记录到当日统计
+     * @param record 溢价率记录
+     */
+    void accumulate(PremiumRateRecord record);
+
+    /**
+     * 明细被重算后调用，当日累加器作废，之后的统计从明细重新计算
+     */
+    void invalidateAccumulators(LocalDate tradeDate);
+
     /**
      * 生成指定日期的统计数据
+     * 当日累加器完整时直接写入，否则从溢价率明细重新计算
      * @param tradeDate 交易日期
      */
     void generateDailyStats(LocalDate tradeDate);
 
+    /**
+     * 从溢价率明细重新生成指定日期所有股票的统计数据，一次数据库往返
+     * @param tradeDate 交易日期
+     * @return 受影响行数
+     */
+    int regenerateDailyStats(LocalDate tradeDate);
+
     /**
      * 生成所有股票指定日期的统计数据
      * @param tradeDate 交易日期
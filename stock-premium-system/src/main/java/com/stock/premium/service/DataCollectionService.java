@@ -1,5 +1,9 @@
 package com.stock.premium.service;
 
+import com.stock.premium.vo.CollectionReportVO;
+
+import java.util.function.Supplier;
+
 /**
  * 数据采集服务接口
  * 
@@ -10,7 +14,13 @@ public interface DataCollectionService {
 
     /**
      * 在交易时段采集所有股票数据并计算溢价率
+     * @return 本周期各股票对的成功/超时统计
+     */
+    CollectionReportVO collectAllStockData();
+
+    /**
+     * 在两个采集周期之间执行：等待本节点进行中的采集周期结束，执行期间不开始新的周期
      */
-    void collectAllStockData();
+    <T> T runBetweenCycles(Supplier<T> action);
 
 }
\ No newline at end of file
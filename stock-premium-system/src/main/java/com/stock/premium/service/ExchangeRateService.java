@@ -1,6 +1,7 @@
 package com.stock.premium.service;
 
 import com.stock.premium.dto.ExchangeRateQueryDTO;
+import com.stock.premium.dto.FxRate;
 import com.stock.premium.vo.ExchangeRateSimpleVO;
 
 import java.math.BigDecimal;
@@ -21,9 +22,33 @@ public interface ExchangeRateService {
     ExchangeRateSimpleVO getLatestRate(String currencyPair);
     
     /**
-     * 手动更新汇率
+     * 获取当前汇率，优先读内存快照，未命中时查库并写入快照
+     * @return 没有任何汇率记录时返回null
+     */
+    FxRate getCurrentRate(String currencyPair);
+
+    /**
+     * 从汇率来源刷新所有配置的货币对，变化的汇率批量写入数据库；
+     * 最新一条记录为手动汇率的货币对不从来源刷新，直接采用该手动汇率
+     * @return 写入的记录数
+     */
+    int refreshRates();
+
+    /**
+     * 从数据库重新加载所有配置的货币对的最新汇率到内存快照（集群中未执行刷新任务的节点使用）
+     */
+    void reloadRates();
+    
+    /**
+     * 手动更新汇率，在 clearManualRate 之前自动刷新不覆盖该汇率
      */
     void updateRate(String currencyPair, BigDecimal rate);
+
+    /**
+     * 取消手动汇率：立即从汇率来源取一次并写库，之后恢复自动刷新
+     * @throws IllegalStateException 汇率来源未返回数据，手动汇率保持生效
+     */
+    ExchangeRateSimpleVO clearManualRate(String currencyPair);
     
     
     /**
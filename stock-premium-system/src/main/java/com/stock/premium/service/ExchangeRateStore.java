@@ -0,0 +1,39 @@
+package com.stock.premium.service;
+
+import com.stock.premium.dto.FxRate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 汇率内存快照，按货币对索引
+ * 写入时整体替换，采集周期内读取汇率只需一次volatile读
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+public interface ExchangeRateStore {
+
+    /**
+     * 合并一批汇率，同一货币对只保留记录时间较新的值
+     * @return 汇率值发生变化的记录
+     */
+    List<FxRate> publish(Collection<FxRate> rates);
+
+    /**
+     * 按货币对查询
+     * @return 没有时返回null
+     */
+    FxRate get(String currencyPair);
+
+    /**
+     * 当前全部货币对的汇率（不可变）
+     */
+    Map<String, FxRate> getAll();
+
+    /**
+     * 快照版本号，每次汇率变化加一
+     */
+    long getVersion();
+}
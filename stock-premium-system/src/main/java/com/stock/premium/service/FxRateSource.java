@@ -0,0 +1,26 @@
+package com.stock.premium.service;
+
+import com.stock.premium.dto.FxRate;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 汇率行情来源
+ * 由 exchange-rate.source 选择实现：tencent（默认）或 stub
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+public interface FxRateSource {
+
+    /**
+     * 来源名称，写入 exchange_rate_record.data_source
+     */
+    String getName();
+
+    /**
+     * 获取指定货币对的当前汇率，取不到的货币对不返回
+     */
+    List<FxRate> fetch(Collection<String> currencyPairs);
+}
@@ -0,0 +1,52 @@
+package com.stock.premium.service;
+
+import com.stock.premium.dto.LatestQuote;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 最新行情内存快照
+ * 采集周期结束时整体替换，读接口直接从内存返回
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+public interface LatestQuoteStore {
+
+    /**
+     * 发布一个采集周期的结果，与现有快照合并后原子替换
+     */
+    void publish(Collection<LatestQuote> quotes);
+
+    /**
+     * 按新汇率重算指定交易日的快照，整体替换并使版本号加一
+     * @param premiumCalculator 按新汇率计算单只股票的溢价率
+     * @return 重算的股票数量
+     */
+    int reprice(LocalDate tradeDate, BigDecimal exchangeRate, Function<LatestQuote, BigDecimal> premiumCalculator);
+
+    /**
+     * 按A股或H股代码查询最新快照
+     * @return 未采集到时返回null
+     */
+    LatestQuote get(String stockCode);
+
+    /**
+     * 查询指定交易日的全部最新快照，按A股代码排序
+     */
+    List<LatestQuote> getByTradeDate(LocalDate tradeDate);
+
+    /**
+     * 是否已有采集结果（冷启动时为false）
+     */
+    boolean isWarm();
+
+    /**
+     * 快照版本号，每次发布加一
+     */
+    long getVersion();
+}
@@ -0,0 +1,30 @@
+package com.stock.premium.service;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * 明细表分区维护服务接口
+ * stock_price_record、premium_rate_record 按 trade_date 按月分区，
+ * 按 system_config 预建未来的月分区，删除整月都超出保留期的分区
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+public interface PartitionMaintenanceService {
+
+    /**
+     * 对所有分区表执行一次维护，单张表失败不影响其他表
+     * @param today 当前日期
+     * @return 表名 -> 维护结果说明
+     */
+    Map<String, String> maintain(LocalDate today);
+
+    /**
+     * 只执行不搬移数据的维护：兜底分区为空或没有兜底分区时预建月分区，不删除分区。
+     * 用于服务启动，拆分有数据的兜底分区和删除过期分区留给夜间维护
+     * @param today 当前日期
+     * @return 表名 -> 维护结果说明
+     */
+    Map<String, String> maintainMetadataOnly(LocalDate today);
+}
@@ -5,6 +5,7 @@ import com.stock.premium.entity.PremiumRateRecord;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -24,6 +25,17 @@ public interface PremiumRateService extends IService<PremiumRateRecord> {
      */
     BigDecimal calculatePremiumRate(BigDecimal aStockPrice, BigDecimal hStockPrice, BigDecimal exchangeRate);
 
+    /**
+     * 计算溢价率并构建记录，不写入数据库
+     * @param stockCode 股票代码
+     * @param aStockPrice A股价格
+     * @param hStockPrice H股价格
+     * @param exchangeRate 汇率
+     * @return 溢价率记录
+     */
+    PremiumRateRecord buildPremiumRecord(String stockCode, BigDecimal aStockPrice,
+                                        BigDecimal hStockPrice, BigDecimal exchangeRate);
+
     /**
      * 记录溢价率数据
      * @param stockCode 股票代码
@@ -40,8 +52,28 @@ public interface PremiumRateService extends IService<PremiumRateRecord> {
      */
     List<PremiumRateRecord> getPremiumRatesByStockAndDate(String stockCode, LocalDate tradeDate);
 
+    /**
+     * 分页获取股票在日期范围内的溢价率记录，按记录时间排序，已删除分区的日期从归档补齐
+     * @param offset 跳过的记录数
+     * @param limit  最多返回的记录数
+     * @throws IllegalArgumentException 日期范围超过 premium.history.max-days
+     */
+    List<PremiumRateRecord> getPremiumRateHistory(String stockCode, LocalDate startDate, LocalDate endDate, long offset, int limit);
+
     /**
      * 获取指定日期所有股票的最新溢价率
      */
     List<PremiumRateRecord> getLatestPremiumRatesByDate(LocalDate tradeDate);
+
+    /**
+     * 从最新溢价率快照表查询单只股票在指定交易日的最新溢价率
+     * @param stockCode A股代码
+     * @return 快照不是该交易日的时返回null
+     */
+    PremiumRateRecord getLatestSnapshot(String stockCode, LocalDate tradeDate);
+
+    /**
+     * 指定交易日在某时间点之前是否已有溢价率记录
+     */
+    boolean hasRecordsBefore(LocalDate tradeDate, LocalDateTime before);
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.stock.premium.service;
+
+import com.stock.premium.vo.PremiumRecomputeVO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 历史溢价率重算服务接口
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+public interface PremiumRecomputeService {
+
+    /**
+     * 按 stock_price_record 和各tick时刻生效的汇率重建日期范围内的 premium_rate_record，并重新生成日统计。
+     * 只处理今天之前的日期，当日明细由 applyExchangeRate 修正
+     * @throws IllegalArgumentException 日期范围无效、超过最大天数或包含今天
+     * @throws IllegalStateException 已有重算任务在执行
+     */
+    PremiumRecomputeVO recompute(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * 汇率人工修正后，按新汇率重算指定交易日已有的溢价率明细（一条 UPDATE ... JOIN，同时更新最新溢价率快照表），
+     * 并替换内存行情快照、重新生成当日统计；不触发重新采集。
+     * 等待本节点进行中的采集周期结束后执行，周期内按旧汇率提交的记录一并更新
+     * @return 更新的溢价率记录数
+     * @throws IllegalStateException 已有重算任务在执行
+     */
+    int applyExchangeRate(LocalDate tradeDate, BigDecimal exchangeRate);
+
+    /**
+     * 手动汇率生效后补正本节点：等待进行中的采集周期结束，把生效时间之后仍按旧汇率写入的溢价率明细改按新汇率计算，
+     * 并替换内存行情快照、使当日累加器失效。集群中每个节点采用新的手动汇率时各执行一次
+     * @return 更新的溢价率记录数
+     * @throws IllegalStateException 已有重算任务在执行
+     */
+    int applyManualRate(LocalDateTime since, BigDecimal exchangeRate);
+}
@@ -0,0 +1,44 @@
+package com.stock.premium.service;
+
+import com.stock.premium.entity.StockInfo;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 股票基础信息内存索引
+ * 启用的股票按A股、H股代码建立索引；未知代码做带过期时间的负缓存，
+ * 同一代码的并发未命中只触发一次加载
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+public interface StockInfoRegistry {
+
+    /**
+     * 按A股或H股代码查询（只查内存索引）
+     */
+    StockInfo get(String stockCode);
+
+    /**
+     * 所有启用的股票，按A股代码排序
+     */
+    List<StockInfo> getActiveStocks();
+
+    /**
+     * 按代码查询，索引未命中且不在负缓存中时调用 loader 加载
+     * 同一代码同时只有一个 loader 在执行，其余调用等待其结果；loader 返回null时记入负缓存，
+     * loader 抛出异常时加载线程和等待线程都返回null，不记入负缓存
+     */
+    StockInfo resolve(String stockCode, Function<String, StockInfo> loader);
+
+    /**
+     * stock_info 有变更时调用，下次访问重新加载索引并清空负缓存
+     */
+    void invalidate();
+
+    /**
+     * 检查 stock_info 是否被外部修改（行数或最大更新时间变化），有变化则失效
+     */
+    void refreshIfChanged();
+}
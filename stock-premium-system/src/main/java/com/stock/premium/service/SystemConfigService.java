@@ -0,0 +1,34 @@
+package com.stock.premium.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.stock.premium.entity.SystemConfig;
+
+/**
+ * 系统配置服务接口
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+public interface SystemConfigService extends IService<SystemConfig> {
+
+    /**
+     * 获取配置值，配置不存在或已禁用时返回null
+     */
+    String getConfigValue(String configKey);
+
+    /**
+     * 获取整数配置，不存在或格式错误时返回默认值
+     */
+    int getIntValue(String configKey, int defaultValue);
+
+    /**
+     * 获取布尔配置（1/true为真），不存在时返回默认值
+     */
+    boolean getBooleanValue(String configKey, boolean defaultValue);
+
+    /**
+     * 更新配置值
+     * @return 配置是否存在并已更新
+     */
+    boolean updateConfigValue(String configKey, String configValue);
+}
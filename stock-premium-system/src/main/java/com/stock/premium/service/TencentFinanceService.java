@@ -3,6 +3,7 @@ package com.stock.premium.service;
 import com.stock.premium.entity.StockPriceRecord;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 腾讯财经API服务接口
@@ -27,6 +28,13 @@ public interface TencentFinanceService {
      */
     List<StockPriceRecord> getBatchStockPrices(List<String> stockCodes);
 
+    /**
+     * 异步批量获取股票价格，各分批请求并发执行
+     * @param stockCodes 股票代码列表
+     * @return 股票价格记录列表
+     */
+    CompletableFuture<List<StockPriceRecord>> getBatchStockPricesAsync(List<String> stockCodes);
+
 
     /**
      * 检查市场是否开市
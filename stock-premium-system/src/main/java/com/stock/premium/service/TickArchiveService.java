@@ -0,0 +1,52 @@
+package com.stock.premium.service;
+
+import com.stock.premium.entity.PremiumRateRecord;
+import com.stock.premium.entity.StockPriceRecord;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 明细列式归档服务接口
+ * 价格和溢价率明细按 表/月份/股票 写成列式文件(ColumnarArchiveFile)，
+ * 分区超出保留期删除前先归档，数据库中已删除的日期从归档读取。
+ * 多实例部署时归档目录须为共享存储(archive.tick.shared=true)，否则归档和读取抛出 IllegalStateException
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+public interface TickArchiveService {
+
+    /**
+     * 是否启用归档(archive.tick.enabled)
+     */
+    boolean isEnabled();
+
+    /**
+     * 归档表中 trade_date 早于 before 的全部月份，已归档的月份跳过
+     * @param table  stock_price_record 或 premium_rate_record
+     * @param before 月初日期，即将删除的分区上界
+     * @return 本次归档的行数
+     */
+    long archiveBefore(String table, LocalDate before);
+
+    /**
+     * 从归档读取股票在日期范围内的价格记录，按记录时间排序
+     */
+    List<StockPriceRecord> readPrices(String stockCode, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * 从归档读取股票在日期范围内的溢价率记录，按记录时间排序
+     */
+    List<PremiumRateRecord> readPremiums(String stockCode, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * 分页读取归档的溢价率记录，按记录时间排序；整个文件都在 offset 之前时只解码 trade_date 列，取满 limit 条后不再读取后续月份
+     */
+    List<PremiumRateRecord> readPremiums(String stockCode, LocalDate startDate, LocalDate endDate, long offset, int limit);
+
+    /**
+     * 归档中股票在日期范围内的溢价率记录数，只解码 trade_date 列
+     */
+    long countPremiums(String stockCode, LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,42 @@
+package com.stock.premium.service;
+
+import com.stock.premium.entity.PremiumRateRecord;
+import com.stock.premium.entity.StockPriceRecord;
+
+/**
+ * 行情写缓冲服务接口
+ * 采集线程只入队，后台按批量多行插入并在同一事务中提交
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+public interface TickPersistenceService {
+
+    /**
+     * 提交价格记录，队列已满时丢弃并计数，不阻塞调用线程
+     * @param record 股票价格记录
+     */
+    void submit(StockPriceRecord record);
+
+    /**
+     * 提交溢价率记录，队列已满时丢弃并计数，不阻塞调用线程
+     * @param record 溢价率记录
+     */
+    void submit(PremiumRateRecord record);
+
+    /**
+     * 请求后台尽快刷写，不等待完成
+     */
+    void requestFlush();
+
+    /**
+     * 同步刷写调用时已在队列中的记录；有失败批次等待重试或本轮写入失败时提前返回，不在调用线程内等待重试
+     * @return 写入的记录数
+     */
+    int flush();
+
+    /**
+     * 待写记录数，含等待重试的失败批次
+     */
+    int getPendingCount();
+}
@@ -0,0 +1,29 @@
+package com.stock.premium.service;
+
+import com.stock.premium.entity.PremiumRateMinuteBar;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 明细分钟线汇总服务接口
+ * 超过 data.rollup.after-days 天的价格和溢价率明细汇总为分钟线后分批删除
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+public interface TickRollupService {
+
+    /**
+     * 汇总并删除 trade_date 早于 today - data.rollup.after-days 的明细，任一市场开市时中止，下次继续
+     * @param today 当前日期
+     * @return 表名 -> 处理结果
+     */
+    Map<String, String> rollup(LocalDate today);
+
+    /**
+     * 查询股票在日期范围内的溢价率分钟线
+     */
+    List<PremiumRateMinuteBar> getPremiumBars(String stockCode, LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,44 @@
+package com.stock.premium.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 交易时段服务接口
+ * 结合 trading_calendar 表判断A股/港股的开市状态
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+public interface TradingSessionService {
+
+    /**
+     * 指定市场（A/H）是否为交易日
+     */
+    boolean isTradingDay(String marketType, LocalDate date);
+
+    /**
+     * 指定市场（A/H）在指定时刻是否开市
+     */
+    boolean isMarketOpen(String marketType, LocalDateTime time);
+
+    /**
+     * 指定时刻开市的市场数量：2-两地都开市，1-仅一地开市，0-都休市
+     */
+    int getOpenMarketCount(LocalDateTime time);
+
+    /**
+     * 指定时刻之后最近的开盘或收盘时刻
+     */
+    LocalDateTime getNextBoundary(LocalDateTime time);
+
+    /**
+     * 指定时刻之后任一市场最近的开盘时刻
+     */
+    LocalDateTime getNextOpenTime(LocalDateTime time);
+
+    /**
+     * 重新加载交易日历
+     */
+    void reload();
+}
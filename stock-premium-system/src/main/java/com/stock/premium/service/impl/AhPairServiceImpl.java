@@ -0,0 +1,154 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.entity.AhStockPair;
+import com.stock.premium.mapper.AhStockPairMapper;
+import com.stock.premium.service.AhPairService;
+import com.stock.premium.utils.AhPairIndex;
+import com.stock.premium.utils.StockCodes;
+import com.stock.premium.vo.AhPairImportVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A+H股票对字典服务实现类
+ * 启动时加载为不可变索引，导入或表数据变化后整体替换
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Slf4j
+@Service
+public class AhPairServiceImpl implements AhPairService {
+
+    /**
+     * 单条INSERT最大行数
+     */
+    private static final int IMPORT_BATCH_SIZE = 500;
+
+    @Autowired
+    private AhStockPairMapper ahStockPairMapper;
+
+    private volatile AhPairIndex index = AhPairIndex.EMPTY;
+
+    private volatile String version;
+
+    @PostConstruct
+    public void init() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("加载A+H股票对字典失败", e);
+        }
+    }
+
+    @Override
+    public String getHStockCode(String aStockCode) {
+        return index.getHStockCode(aStockCode);
+    }
+
+    @Override
+    public String getAStockCode(String hStockCode) {
+        return index.getAStockCode(hStockCode);
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public AhPairImportVO importCsv(InputStream in) throws IOException {
+        AhPairImportVO result = new AhPairImportVO();
+        List<AhStockPair> pairs = new ArrayList<>();
+        Set<String> aCodes = new HashSet<>();
+        Set<String> hCodes = new HashSet<>();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        int lineNo = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            line = line.trim();
+            if (lineNo == 1 && line.startsWith("﻿")) {
+                line = line.substring(1);
+            }
+            if (line.isEmpty() || line.startsWith("#") || line.startsWith("a_stock_code")) {
+                continue;
+            }
+            result.setTotalLines(result.getTotalLines() + 1);
+
+            String[] fields = line.split(",", -1);
+            String error = null;
+            if (fields.length < 2) {
+                error = "字段不足";
+            } else if (!StockCodes.isACode(fields[0].trim()) || StockCodes.prefixLength(fields[0].trim()) > 0) {
+                error = "A股代码必须为6位数字";
+            } else if (!StockCodes.isHCode(fields[1].trim()) || StockCodes.prefixLength(fields[1].trim()) > 0) {
+                error = "H股代码必须为5位数字";
+            } else if (!aCodes.add(fields[0].trim())) {
+                error = "A股代码重复";
+            } else if (!hCodes.add(fields[1].trim())) {
+                error = "H股代码重复";
+            }
+            if (error != null) {
+                result.setRejectedCount(result.getRejectedCount() + 1);
+                result.getErrors().add("第" + lineNo + "行 " + error + ": " + line);
+                continue;
+            }
+
+            AhStockPair pair = new AhStockPair();
+            pair.setAStockCode(fields[0].trim());
+            pair.setHStockCode(fields[1].trim());
+            pair.setStockName(fields.length > 2 ? fields[2].trim() : null);
+            pair.setStatus(fields.length > 3 && "0".equals(fields[3].trim()) ? 0 : 1);
+            pairs.add(pair);
+        }
+
+        for (int i = 0; i < pairs.size(); i += IMPORT_BATCH_SIZE) {
+            ahStockPairMapper.upsertBatch(pairs.subList(i, Math.min(i + IMPORT_BATCH_SIZE, pairs.size())));
+        }
+        result.setImportedCount(pairs.size());
+
+        reload();
+        result.setIndexSize(index.size());
+        log.info("导入A+H股票对: 数据 {} 行, 成功 {}, 失败 {}, 索引 {} 对",
+                result.getTotalLines(), result.getImportedCount(), result.getRejectedCount(), result.getIndexSize());
+        return result;
+    }
+
+    @Override
+    public synchronized void reload() {
+        String currentVersion = ahStockPairMapper.selectChangeVersion();
+        List<AhStockPair> pairs = ahStockPairMapper.selectActivePairs();
+        index = AhPairIndex.build(pairs);
+        version = currentVersion;
+        log.info("加载A+H股票对字典: {} 对", index.size());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${stock.registry.refresh-interval:60000}")
+    public void reloadIfChanged() {
+        try {
+            if (!Objects.equals(version, ahStockPairMapper.selectChangeVersion())) {
+                log.info("检测到 ah_stock_pair 变更，重新加载");
+                reload();
+            }
+        } catch (Exception e) {
+            log.error("检查 ah_stock_pair 变更失败", e);
+        }
+    }
+}
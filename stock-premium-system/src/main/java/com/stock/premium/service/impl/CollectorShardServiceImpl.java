@@ -0,0 +1,160 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.entity.StockInfo;
+import com.stock.premium.mapper.CollectorNodeMapper;
+import com.stock.premium.scheduled.DataCollectionTask;
+import com.stock.premium.service.CollectorShardService;
+import com.stock.premium.utils.ConsistentHashRing;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 采集分片服务实现类
+ * 心跳超时的节点从哈希环中移除，其股票由相邻节点接管；节点正常停止时立即删除心跳行
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Slf4j
+@Service
+public class CollectorShardServiceImpl implements CollectorShardService {
+
+    @Autowired
+    private CollectorNodeMapper collectorNodeMapper;
+
+    @Value("${collector.sharding.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 节点ID，未配置时取主机名加随机后缀
+     */
+    @Value("${collector.sharding.node-id:}")
+    private String configuredNodeId;
+
+    /**
+     * 超过该时间(毫秒)没有心跳的节点视为离线
+     */
+    @Value("${collector.sharding.node-timeout:15000}")
+    private long nodeTimeoutMillis;
+
+    @Value("${collector.sharding.virtual-nodes:160}")
+    private int virtualNodes;
+
+    @Value("${schedule.mode:local}")
+    private String scheduleMode;
+
+    private String nodeId;
+
+    private String hostName;
+
+    private final LocalDateTime startedTime = LocalDateTime.now();
+
+    private volatile ConsistentHashRing ring = ConsistentHashRing.build(List.of(), 1);
+
+    @PostConstruct
+    public void init() {
+        hostName = resolveHostName();
+        nodeId = configuredNodeId != null && !configuredNodeId.isBlank()
+                ? configuredNodeId
+                : hostName + "-" + UUID.randomUUID().toString().substring(0, 8);
+        if (enabled) {
+            log.info("启用分片采集，本节点ID: {}", nodeId);
+            heartbeat();
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            collectorNodeMapper.deleteById(nodeId);
+            log.info("采集节点 {} 已退出", nodeId);
+        } catch (Exception e) {
+            log.warn("删除采集节点心跳失败: {}", nodeId, e);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean isLocalViewPartial() {
+        return enabled || DataCollectionTask.MODE_QUARTZ.equals(scheduleMode);
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public List<StockInfo> filterOwned(List<StockInfo> stocks) {
+        if (!enabled) {
+            return stocks;
+        }
+        ConsistentHashRing current = ring;
+        if (current.isEmpty()) {
+            // 还没有成员视图时只看自己，宁可多采也不漏采
+            return stocks;
+        }
+        List<StockInfo> owned = new ArrayList<>();
+        for (StockInfo stock : stocks) {
+            if (nodeId.equals(current.nodeFor(stock.getAStockCode()))) {
+                owned.add(stock);
+            }
+        }
+        return owned;
+    }
+
+    @Override
+    public List<String> getMembers() {
+        return ring.getNodes();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${collector.sharding.heartbeat-interval:5000}")
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            collectorNodeMapper.heartbeat(nodeId, hostName, startedTime);
+            List<String> members = new ArrayList<>(collectorNodeMapper.selectAliveNodeIds(nodeTimeoutMillis));
+            if (!members.contains(nodeId)) {
+                members.add(nodeId);
+            }
+            if (!members.equals(ring.getNodes())) {
+                ConsistentHashRing rebuilt = ConsistentHashRing.build(members, virtualNodes);
+                log.info("采集节点变化: {} -> {}", ring.getNodes(), rebuilt.getNodes());
+                ring = rebuilt;
+            }
+            // 离线较久的节点清理掉，避免表无限增长
+            collectorNodeMapper.deleteExpired(nodeTimeoutMillis * 20);
+        } catch (Exception e) {
+            log.error("采集节点心跳失败", e);
+        }
+    }
+
+    private static String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
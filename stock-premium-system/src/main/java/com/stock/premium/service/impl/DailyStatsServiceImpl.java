@@ -3,16 +3,23 @@ package com.stock.premium.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.stock.premium.entity.DailyPremiumStats;
+import com.stock.premium.entity.PremiumRateRecord;
 import com.stock.premium.entity.StockInfo;
 import com.stock.premium.mapper.DailyPremiumStatsMapper;
+import com.stock.premium.service.CollectorShardService;
 import com.stock.premium.service.DailyStatsService;
+import com.stock.premium.service.PremiumRateService;
 import com.stock.premium.service.StockInfoService;
+import com.stock.premium.utils.PremiumStatsAccumulator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 日统计数据服务实现类
@@ -27,39 +34,112 @@ public class DailyStatsServiceImpl extends ServiceImpl<DailyPremiumStatsMapper,
     @Autowired
     private StockInfoService stockInfoService;
 
+    @Autowired
+    private PremiumRateService premiumRateService;
+
+    @Autowired
+    private CollectorShardService collectorShardService;
+
+    /**
+     * 交易日 -> 当日各股票的统计累加器
+     */
+    private final ConcurrentHashMap<LocalDate, DayAccumulators> accumulators = new ConcurrentHashMap<>();
+
+    /**
+     * 单个交易日的累加器集合
+     */
+    private static final class DayAccumulators {
+
+        final ConcurrentHashMap<String, PremiumStatsAccumulator> byStock = new ConcurrentHashMap<>();
+
+        /**
+         * 服务启动前当日已有记录时累加器不完整，生成统计时需要重新扫描明细
+         */
+        volatile boolean partial;
+    }
+
+    @Override
+    public void accumulate(PremiumRateRecord record) {
+        // 本节点只采集部分结果时累加器不会被使用，统计统一从明细重新计算
+        if (collectorShardService.isLocalViewPartial()) {
+            return;
+        }
+        LocalDate tradeDate = record.getTradeDate();
+        DayAccumulators day = accumulators.get(tradeDate);
+        if (day == null) {
+            DayAccumulators created = new DayAccumulators();
+            day = accumulators.putIfAbsent(tradeDate, created);
+            if (day == null) {
+                day = created;
+                day.partial = hasEarlierRecords(tradeDate, record.getRecordTime());
+            }
+        }
+        day.byStock.computeIfAbsent(record.getStockCode(), code -> new PremiumStatsAccumulator())
+                .add(record.getRecordTime(), record.getPremiumRate());
+    }
+
+    /**
+     * 每个交易日第一条记录到达时检查一次，之前已有记录说明服务中途重启过
+     */
+    private boolean hasEarlierRecords(LocalDate tradeDate, LocalDateTime firstRecordTime) {
+        try {
+            boolean exists = premiumRateService.hasRecordsBefore(tradeDate, firstRecordTime);
+            if (exists) {
+                log.warn("日期 {} 在服务启动前已有溢价率记录，日统计将从明细重新计算", tradeDate);
+            }
+            return exists;
+        } catch (Exception e) {
+            log.error("检查日期 {} 的已有溢价率记录失败，日统计将从明细重新计算", tradeDate, e);
+            return true;
+        }
+    }
+
+    @Override
+    public void invalidateAccumulators(LocalDate tradeDate) {
+        DayAccumulators day = accumulators.get(tradeDate);
+        if (day != null) {
+            day.partial = true;
+        }
+    }
+
     @Override
     public void generateDailyStats(LocalDate tradeDate) {
         log.info("开始生成日期 {} 的统计数据", tradeDate);
         
-        List<StockInfo> ahStocks = stockInfoService.getActiveStocks();
+        // 分片采集时本节点累加器只覆盖自己的分片，Quartz调度时只覆盖本节点执行的采集周期，统一从明细重新计算
+        DayAccumulators day = accumulators.get(tradeDate);
+        if (!collectorShardService.isLocalViewPartial() && day != null && !day.partial && !day.byStock.isEmpty()) {
+            flushAccumulators(tradeDate, day);
+            return;
+        }
         
-        for (StockInfo stock : ahStocks) {
-            try {
-                DailyPremiumStats stats = calculateDailyStats(stock.getAStockCode(), tradeDate);
-                if (stats != null) {
-                    // 检查是否已存在该日期的统计数据
-                    QueryWrapper<DailyPremiumStats> queryWrapper = new QueryWrapper<>();
-                    queryWrapper.eq("stock_code", stock.getAStockCode())
-                               .eq("trade_date", tradeDate);
-                    
-                    DailyPremiumStats existing = getOne(queryWrapper);
-                    if (existing != null) {
-                        // 更新现有记录
-                        stats.setId(existing.getId());
-                        updateById(stats);
-                        log.debug("更新股票 {} 日期 {} 的统计数据", stock.getAStockCode(), tradeDate);
-                    } else {
-                        // 插入新记录
-                        save(stats);
-                        log.debug("新增股票 {} 日期 {} 的统计数据", stock.getAStockCode(), tradeDate);
-                    }
-                }
-            } catch (Exception e) {
-                log.error("生成股票 {} 日期 {} 的统计数据时发生错误", stock.getAStockCode(), tradeDate, e);
+        int rows = regenerateDailyStats(tradeDate);
+        log.info("完成日期 {} 的统计数据生成（重新扫描明细），影响 {} 行", tradeDate, rows);
+    }
+
+    @Override
+    public int regenerateDailyStats(LocalDate tradeDate) {
+        return baseMapper.upsertFromPremiumRecords(tradeDate);
+    }
+
+    /**
+     * 直接写入累加器结果，耗时只与股票数量有关
+     */
+    private void flushAccumulators(LocalDate tradeDate, DayAccumulators day) {
+        List<DailyPremiumStats> statsList = new ArrayList<>(day.byStock.size());
+        day.byStock.forEach((stockCode, accumulator) -> {
+            DailyPremiumStats stats = accumulator.toStats(stockCode, tradeDate);
+            if (stats != null) {
+                statsList.add(stats);
             }
+        });
+        if (!statsList.isEmpty()) {
+            baseMapper.upsertBatch(statsList);
         }
         
-        log.info("完成日期 {} 的统计数据生成", tradeDate);
+        // 保留当日累加器供次日补数据任务使用，更早的释放
+        accumulators.keySet().removeIf(date -> date.isBefore(tradeDate));
+        log.info("完成日期 {} 的统计数据生成（累加器），共 {} 只股票", tradeDate, statsList.size());
     }
 
     @Override
@@ -70,6 +150,14 @@ public class DailyStatsServiceImpl extends ServiceImpl<DailyPremiumStatsMapper,
     @Override
     public DailyPremiumStats calculateDailyStats(String stockCode, LocalDate tradeDate) {
         try {
+            DayAccumulators day = accumulators.get(tradeDate);
+            if (!collectorShardService.isLocalViewPartial() && day != null && !day.partial) {
+                PremiumStatsAccumulator accumulator = day.byStock.get(stockCode);
+                if (accumulator != null) {
+                    return accumulator.toStats(stockCode, tradeDate);
+                }
+            }
+
             // 获取股票信息
             StockInfo stockInfo = stockInfoService.getByStockCode(stockCode);
             if (stockInfo == null) {
@@ -77,16 +165,13 @@ public class DailyStatsServiceImpl extends ServiceImpl<DailyPremiumStatsMapper,
                 return null;
             }
 
-            // 这里应该根据实际业务逻辑计算统计数据
-            // 示例：计算溢价率统计
-            DailyPremiumStats stats = new DailyPremiumStats();
-            stats.setStockCode(stockCode);
-            stats.setTradeDate(tradeDate);
-            
-            // TODO: 实现具体的统计计算逻辑
-            // 例如：计算平均溢价率、最高溢价率、最低溢价率等
-            
-            return stats;
+            // 没有完整的累加器时，用同样的算法扫描当日明细
+            List<PremiumRateRecord> records = premiumRateService.getPremiumRatesByStockAndDate(stockCode, tradeDate);
+            PremiumStatsAccumulator accumulator = new PremiumStatsAccumulator();
+            for (PremiumRateRecord record : records) {
+                accumulator.add(record.getRecordTime(), record.getPremiumRate());
+            }
+            return accumulator.toStats(stockCode, tradeDate);
             
         } catch (Exception e) {
             log.error("计算股票 {} 日期 {} 的统计数据时发生错误", stockCode, tradeDate, e);
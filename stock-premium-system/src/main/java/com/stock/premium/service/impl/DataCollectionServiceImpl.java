@@ -1,20 +1,39 @@
 package com.stock.premium.service.impl;
 
+import com.stock.premium.dto.FxRate;
+import com.stock.premium.dto.LatestQuote;
+import com.stock.premium.entity.PremiumRateRecord;
 import com.stock.premium.entity.StockInfo;
+import com.stock.premium.entity.StockPriceRecord;
+import com.stock.premium.metrics.CollectionMetrics;
+import com.stock.premium.service.CollectorShardService;
+import com.stock.premium.service.DailyStatsService;
 import com.stock.premium.service.DataCollectionService;
 import com.stock.premium.service.StockInfoService;
 import com.stock.premium.service.TencentFinanceService;
 import com.stock.premium.service.PremiumRateService;
 import com.stock.premium.service.ExchangeRateService;
-import com.stock.premium.service.StockPriceService;
+import com.stock.premium.service.LatestQuoteStore;
+import com.stock.premium.service.TickPersistenceService;
+import com.stock.premium.vo.CollectionReportVO;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 /**
  * 数据采集服务实现类
@@ -26,6 +45,11 @@ import java.util.List;
 @Service
 public class DataCollectionServiceImpl implements DataCollectionService {
 
+    /**
+     * A+H溢价计算使用的货币对
+     */
+    private static final String HKD_CNY = "HKDCNY";
+
     @Autowired
     private StockInfoService stockInfoService;
     
@@ -39,110 +63,289 @@ public class DataCollectionServiceImpl implements DataCollectionService {
     private ExchangeRateService exchangeRateService;
     
     @Autowired
-    private StockPriceService stockPriceService;
+    private TickPersistenceService tickPersistenceService;
+
+    @Autowired
+    private LatestQuoteStore latestQuoteStore;
+
+    @Autowired
+    private DailyStatsService dailyStatsService;
+
+    @Autowired
+    private CollectorShardService collectorShardService;
+
+    @Autowired
+    private CollectionMetrics collectionMetrics;
+
+    /**
+     * 单个采集周期的截止时间(毫秒)，超时未完成的股票跳过
+     */
+    @Value("${data.collect.cycle-deadline:240000}")
+    private long cycleDeadlineMillis;
+
+    /**
+     * 单个股票对的处理结果
+     */
+    private enum PairOutcome {
+        SUCCESS, UNCHANGED, MISSING_QUOTE, TIMEOUT
+    }
+
+    /**
+     * 股票代码(A股和H股) -> 最近一次写入的行情，用于跳过未变化的行情
+     */
+    private final ConcurrentHashMap<String, QuoteState> lastQuotes = new ConcurrentHashMap<>();
+
+    /**
+     * A股代码 -> 最近一次写入的溢价率记录时间
+     */
+    private final ConcurrentHashMap<String, LocalDateTime> lastPremiumTimes = new ConcurrentHashMap<>();
+
+    /**
+     * 采集周期锁，按新汇率重算等操作持有期间不开始新的周期
+     */
+    private final ReentrantLock cycleLock = new ReentrantLock();
+
+    /**
+     * 已写入行情的时间、价格和成交量
+     */
+    private static final class QuoteState {
+
+        final LocalDateTime recordTime;
+        final BigDecimal price;
+        final Long volume;
+
+        QuoteState(StockPriceRecord record) {
+            this.recordTime = record.getRecordTime();
+            this.price = record.getCurrentPrice();
+            this.volume = record.getVolume();
+        }
+
+        /**
+         * 行情时间相同，或价格和成交量都没变（停牌时行情时间仍可能刷新）
+         */
+        boolean isSameQuote(StockPriceRecord record) {
+            if (recordTime.equals(record.getRecordTime())) {
+                return true;
+            }
+            return volume != null && volume.equals(record.getVolume()) && price.compareTo(record.getCurrentPrice()) == 0;
+        }
+    }
+
+    @Override
+    public CollectionReportVO collectAllStockData() {
+        cycleLock.lock();
+        try {
+            return collectCycle();
+        } finally {
+            cycleLock.unlock();
+        }
+    }
 
     @Override
-    public void collectAllStockData() {
+    public <T> T runBetweenCycles(Supplier<T> action) {
+        cycleLock.lock();
+        try {
+            return action.get();
+        } finally {
+            cycleLock.unlock();
+        }
+    }
+
+    private CollectionReportVO collectCycle() {
         log.info("开始采集所有股票数据");
         
+        CollectionReportVO report = new CollectionReportVO();
+        report.setStartTime(LocalDateTime.now());
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(cycleDeadlineMillis);
+        List<LatestQuote> latestQuotes = new ArrayList<>();
+        
         try {
+            Timer.Sample lookup = Timer.start();
             List<StockInfo> activeStocks = stockInfoService.getActiveStocks();
             log.info("共找到 {} 只活跃股票", activeStocks.size());
+            if (collectorShardService.isEnabled()) {
+                activeStocks = collectorShardService.filterOwned(activeStocks);
+                log.info("本节点 {} 负责其中 {} 只股票", collectorShardService.getNodeId(), activeStocks.size());
+            }
+            lookup.stop(collectionMetrics.stage(CollectionMetrics.STAGE_STOCK_LOOKUP));
             
+            // 1. 收集所有A股和H股代码，一次（分批）请求获取同一时刻的行情快照
+            List<StockInfo> pairs = new ArrayList<>();
+            List<String> codes = new ArrayList<>();
             for (StockInfo stock : activeStocks) {
-                try {
-                    collectSingleStockData(stock.getAStockCode());
-                } catch (Exception e) {
-                    log.error("采集股票 {} 数据时发生错误", stock.getAStockCode(), e);
+                String hStockCode = stock.getHStockCode();
+                if (hStockCode == null || hStockCode.trim().isEmpty()) {
+                    log.warn("股票 {} 没有对应的H股代码", stock.getAStockCode());
+                    continue;
                 }
+                pairs.add(stock);
+                codes.add(stock.getAStockCode());
+                codes.add(hStockCode);
+            }
+            report.setTotalPairs(pairs.size());
+            if (pairs.isEmpty()) {
+                log.info("没有需要采集的A+H股票");
+                return report;
+            }
+            
+            CompletableFuture<List<StockPriceRecord>> quotesFuture = tencentFinanceService.getBatchStockPricesAsync(codes);
+            
+            // 2. 行情请求进行中时获取汇率 (港币对人民币)，整个周期共用
+            FxRate fxRate = collectionMetrics.stage(CollectionMetrics.STAGE_FX_LOOKUP)
+                    .record(() -> exchangeRateService.getCurrentRate(HKD_CNY));
+            if (fxRate == null) {
+                log.warn("无法获取最新汇率");
+                return report;
             }
+            BigDecimal exchangeRate = fxRate.getRate();
             
-            log.info("完成所有股票数据采集");
+            Map<String, StockPriceRecord> quotes = new HashMap<>();
+            for (StockPriceRecord record : quotesFuture.get(remainingMillis(deadlineNanos), TimeUnit.MILLISECONDS)) {
+                quotes.put(record.getStockCode(), record);
+            }
+            log.debug("批量获取行情 {} 条，请求代码 {} 个", quotes.size(), codes.size());
+            
+            // 3. 逐对计算溢价率并提交写缓冲：只有内存查找、计算和入队，不做I/O，在采集线程内顺序处理
+            collectPairs(pairs, quotes, exchangeRate, deadlineNanos, latestQuotes, report);
+        } catch (TimeoutException e) {
+            log.warn("获取行情超过周期截止时间 {}ms，本周期跳过", cycleDeadlineMillis);
+            report.setTimeoutCount(report.getTotalPairs());
         } catch (Exception e) {
             log.error("采集所有股票数据时发生错误", e);
+        } finally {
+            // 提前返回（无A+H股票、无汇率）的周期也要发布快照、触发刷盘并计入指标
+            completeCycle(report, latestQuotes, startNanos);
         }
+        return report;
     }
 
     /**
-     * 采集单个股票的数据（私有方法）
-     * 1. 采集股票价格信息并存储到stock_price_record表中
-     * 2. 计算HA溢价率并将信息存储到premium_rate_record表中
+     * 周期收尾：本周期结果整体替换内存快照，记录交给后台批量写入，记录周期指标
      */
-    private void collectSingleStockData(String aStockCode) {
-        log.debug("开始采集股票 {} 的数据", aStockCode);
+    private void completeCycle(CollectionReportVO report, List<LatestQuote> latestQuotes, long startNanos) {
+        // 本周期结果整体替换内存快照，读接口不再查库
+        latestQuoteStore.publish(latestQuotes);
         
-        try {
-            // 根据A股代码获取股票信息
-            StockInfo stockInfo = stockInfoService.getByStockCode(aStockCode);
-            if (stockInfo == null) {
-                log.warn("未找到股票代码 {} 的信息", aStockCode);
-                return;
-            }
-            
-            String hStockCode = stockInfo.getHStockCode();
-            if (hStockCode == null || hStockCode.trim().isEmpty()) {
-                log.warn("股票 {} 没有对应的H股代码", aStockCode);
-                return;
-            }
-            
-            LocalDateTime now = LocalDateTime.now();
-            LocalDate today = LocalDate.now();
-            
-            // 1. 获取并保存A股价格数据
-            var aStockPriceRecord = tencentFinanceService.getStockPrice(aStockCode, "A");
-            if (aStockPriceRecord == null || aStockPriceRecord.getCurrentPrice() == null) {
-                log.warn("无法获取A股 {} 的价格", aStockCode);
-                return;
-            }
-            
-            // 设置A股价格记录的时间信息
-            aStockPriceRecord.setRecordTime(now);
-            aStockPriceRecord.setTradeDate(today);
-            
-            // 保存A股价格记录到数据库
-            boolean aSaved = stockPriceService.saveStockPriceRecord(aStockPriceRecord);
-            if (!aSaved) {
-                log.warn("保存A股 {} 价格记录失败", aStockCode);
-            }
-            
-            BigDecimal aStockPrice = aStockPriceRecord.getCurrentPrice();
-            
-            // 2. 获取并保存H股价格数据
-            var hStockPriceRecord = tencentFinanceService.getStockPrice(hStockCode, "H");
-            if (hStockPriceRecord == null || hStockPriceRecord.getCurrentPrice() == null) {
-                log.warn("无法获取H股 {} 的价格", hStockCode);
-                return;
-            }
-            
-            // 设置H股价格记录的时间信息
-            hStockPriceRecord.setRecordTime(now);
-            hStockPriceRecord.setTradeDate(today);
-            
-            // 保存H股价格记录到数据库
-            boolean hSaved = stockPriceService.saveStockPriceRecord(hStockPriceRecord);
-            if (!hSaved) {
-                log.warn("保存H股 {} 价格记录失败", hStockCode);
-            }
-            
-            BigDecimal hStockPrice = hStockPriceRecord.getCurrentPrice();
-            
-            // 3. 获取汇率 (港币对人民币)
-            var exchangeRateVO = exchangeRateService.getLatestRate("HKDCNY");
-            if (exchangeRateVO == null || exchangeRateVO.getRate() == null) {
-                log.warn("无法获取最新汇率");
-                return;
+        // 本周期记录交给后台批量写入，不阻塞采集
+        tickPersistenceService.requestFlush();
+        
+        report.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        collectionMetrics.cycleCompleted(report);
+        log.info("完成所有股票数据采集: 共 {} 对, 成功 {}, 未变化 {}, 缺少行情 {}, 失败 {}, 超时 {}, 耗时 {}ms",
+                report.getTotalPairs(), report.getSuccessCount(), report.getUnchangedCount(), report.getMissingQuoteCount(),
+                report.getFailedCount(), report.getTimeoutCount(), report.getElapsedMillis());
+    }
+
+    /**
+     * 顺序处理，每对开始前检查截止时间
+     */
+    private void collectPairs(List<StockInfo> pairs, Map<String, StockPriceRecord> quotes, BigDecimal exchangeRate,
+                              long deadlineNanos,
+                              List<LatestQuote> latestQuotes, CollectionReportVO report) {
+        for (StockInfo stock : pairs) {
+            boolean expired = System.nanoTime() - deadlineNanos >= 0;
+            try {
+                countOutcome(report, stock, collectSingleStockData(stock, quotes, exchangeRate, expired, latestQuotes));
+            } catch (Exception e) {
+                log.error("采集股票 {} 数据时发生错误", stock.getAStockCode(), e);
+                report.setFailedCount(report.getFailedCount() + 1);
             }
-            BigDecimal exchangeRate = exchangeRateVO.getRate();
-            
-            // 4. 计算并记录溢价率数据到premium_rate_record表
-            premiumRateService.recordPremiumRate(aStockCode, aStockPrice, hStockPrice, exchangeRate);
-            
-            log.debug("成功采集并保存股票 {} 的数据 - A股价格: {}, H股价格: {}, 汇率: {}", 
-                     aStockCode, aStockPrice, hStockPrice, exchangeRate);
-            
-        } catch (Exception e) {
-            log.error("采集股票 {} 数据时发生错误", aStockCode, e);
         }
     }
 
-}
\ No newline at end of file
+    private void countOutcome(CollectionReportVO report, StockInfo stock, PairOutcome outcome) {
+        switch (outcome) {
+            case SUCCESS:
+                report.setSuccessCount(report.getSuccessCount() + 1);
+                break;
+            case UNCHANGED:
+                report.setUnchangedCount(report.getUnchangedCount() + 1);
+                break;
+            case MISSING_QUOTE:
+                report.setMissingQuoteCount(report.getMissingQuoteCount() + 1);
+                break;
+            default:
+                log.warn("股票 {} 超过周期截止时间未完成，已跳过", stock.getAStockCode());
+                report.setTimeoutCount(report.getTimeoutCount() + 1);
+                report.getTimeoutStocks().add(stock.getAStockCode());
+                break;
+        }
+    }
+
+    private long remainingMillis(long deadlineNanos) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * 处理单个股票的数据（私有方法）
+     * 1. 将本周期行情快照中有变化的A股、H股价格提交到stock_price_record写缓冲
+     * 2. 计算HA溢价率并提交到premium_rate_record写缓冲，记录时间取两边行情时间中较晚的一个
+     * 两边行情都没变化（午休、停牌、收盘后）时不写入
+     */
+    private PairOutcome collectSingleStockData(StockInfo stockInfo, Map<String, StockPriceRecord> quotes,
+                                               BigDecimal exchangeRate, boolean expired,
+                                               List<LatestQuote> latestQuotes) {
+        String aStockCode = stockInfo.getAStockCode();
+        String hStockCode = stockInfo.getHStockCode();
+        log.debug("开始处理股票 {} 的数据", aStockCode);
+        
+        StockPriceRecord aStockPriceRecord = quotes.get(aStockCode);
+        if (aStockPriceRecord == null || aStockPriceRecord.getCurrentPrice() == null) {
+            log.warn("无法获取A股 {} 的价格", aStockCode);
+            return PairOutcome.MISSING_QUOTE;
+        }
+        StockPriceRecord hStockPriceRecord = quotes.get(hStockCode);
+        if (hStockPriceRecord == null || hStockPriceRecord.getCurrentPrice() == null) {
+            log.warn("无法获取H股 {} 的价格", hStockCode);
+            return PairOutcome.MISSING_QUOTE;
+        }
+        
+        if (expired) {
+            return PairOutcome.TIMEOUT;
+        }
+        
+        QuoteState aLast = lastQuotes.get(aStockCode);
+        QuoteState hLast = lastQuotes.get(hStockCode);
+        boolean aChanged = aLast == null || !aLast.isSameQuote(aStockPriceRecord);
+        boolean hChanged = hLast == null || !hLast.isSameQuote(hStockPriceRecord);
+        LocalDateTime aTime = aChanged ? aStockPriceRecord.getRecordTime() : aLast.recordTime;
+        LocalDateTime hTime = hChanged ? hStockPriceRecord.getRecordTime() : hLast.recordTime;
+        LocalDateTime recordTime = aTime.isAfter(hTime) ? aTime : hTime;
+        BigDecimal aStockPrice = aStockPriceRecord.getCurrentPrice();
+        BigDecimal hStockPrice = hStockPriceRecord.getCurrentPrice();
+        
+        PremiumRateRecord premiumRecord = collectionMetrics.stage(CollectionMetrics.STAGE_PREMIUM_CALC)
+                .record(() -> premiumRateService.buildPremiumRecord(aStockCode, aStockPrice, hStockPrice, exchangeRate));
+        premiumRecord.setRecordTime(recordTime);
+        premiumRecord.setTradeDate(recordTime.toLocalDate());
+        latestQuotes.add(new LatestQuote(aStockCode, hStockCode, stockInfo.getStockName(), aStockPrice, hStockPrice,
+                exchangeRate, premiumRecord.getPremiumRate(), recordTime, premiumRecord.getTradeDate()));
+        if (!aChanged && !hChanged) {
+            return PairOutcome.UNCHANGED;
+        }
+        
+        // 1. 有变化的A股、H股价格记录进入写缓冲，重复的行情由唯一键忽略
+        if (aChanged) {
+            tickPersistenceService.submit(aStockPriceRecord);
+            lastQuotes.put(aStockCode, new QuoteState(aStockPriceRecord));
+        }
+        if (hChanged) {
+            tickPersistenceService.submit(hStockPriceRecord);
+            lastQuotes.put(hStockCode, new QuoteState(hStockPriceRecord));
+        }
+        
+        // 2. 溢价率与价格记录一起由写缓冲批量写入；较早一边的行情更新没有推进记录时间时并入下一条
+        LocalDateTime lastPremiumTime = lastPremiumTimes.get(aStockCode);
+        if (lastPremiumTime == null || recordTime.isAfter(lastPremiumTime)) {
+            tickPersistenceService.submit(premiumRecord);
+            dailyStatsService.accumulate(premiumRecord);
+            lastPremiumTimes.put(aStockCode, recordTime);
+        }
+        
+        log.debug("成功采集并保存股票 {} 的数据 - A股价格: {}, H股价格: {}, 汇率: {}", 
+                 aStockCode, aStockPrice, hStockPrice, exchangeRate);
+        return PairOutcome.SUCCESS;
+    }
+
+}
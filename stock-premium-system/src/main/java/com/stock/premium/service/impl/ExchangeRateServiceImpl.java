@@ -2,24 +2,32 @@ package com.stock.premium.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.stock.premium.dto.ExchangeRateQueryDTO;
+import com.stock.premium.dto.FxRate;
 import com.stock.premium.entity.ExchangeRateRecord;
 import com.stock.premium.mapper.ExchangeRateRecordMapper;
 import com.stock.premium.service.ExchangeRateService;
+import com.stock.premium.service.ExchangeRateStore;
+import com.stock.premium.service.FxRateSource;
 import com.stock.premium.vo.ExchangeRateSimpleVO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
  * 汇率服务实现类
+ * 手动汇率写库后成为该货币对的最新记录，定时刷新时每个货币对先查最新记录，是手动汇率则跳过来源，
+ * 集群中各节点由此采用同一个手动汇率，直到 clearManualRate 写入来源汇率
  * 
  * @author system
  * @since 2024-01-01
@@ -29,16 +37,104 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ExchangeRateServiceImpl implements ExchangeRateService {
 
+    /**
+     * 手动汇率的数据来源
+     */
+    public static final String SOURCE_MANUAL = "manual";
+
     private final ExchangeRateRecordMapper exchangeRateRecordMapper;
 
+    private final ExchangeRateStore exchangeRateStore;
+
+    private final FxRateSource fxRateSource;
+
+    /**
+     * 定时刷新的货币对，新增货币对只需修改配置
+     */
+    @Value("${exchange-rate.pairs:HKDCNY}")
+    private List<String> currencyPairs;
+
     @Override
     public ExchangeRateSimpleVO getLatestRate(String currencyPair) {
-        ExchangeRateRecord record = exchangeRateRecordMapper.selectLatest();
-        if (record == null) {
+        FxRate rate = getCurrentRate(currencyPair);
+        if (rate == null) {
             // 如果没有记录，抛出异常提示需要手动输入汇率信息
             throw new RuntimeException("暂无汇率数据，请先手动输入汇率信息");
         }
-        return convertToSimpleVO(record);
+        return convertToSimpleVO(rate);
+    }
+
+    @Override
+    public FxRate getCurrentRate(String currencyPair) {
+        FxRate rate = exchangeRateStore.get(currencyPair);
+        if (rate != null) {
+            return rate;
+        }
+        ExchangeRateRecord record = exchangeRateRecordMapper.selectLatest(currencyPair);
+        if (record == null) {
+            return null;
+        }
+        rate = FxRate.from(record);
+        exchangeRateStore.publish(List.of(rate));
+        return exchangeRateStore.get(currencyPair);
+    }
+
+    @Override
+    public int refreshRates() {
+        List<String> sourcePairs = new ArrayList<>(currencyPairs.size());
+        List<FxRate> pinned = new ArrayList<>();
+        for (String pair : currencyPairs) {
+            ExchangeRateRecord latest = exchangeRateRecordMapper.selectLatest(pair);
+            if (latest != null && SOURCE_MANUAL.equals(latest.getDataSource())) {
+                pinned.add(FxRate.from(latest));
+            } else {
+                sourcePairs.add(pair);
+            }
+        }
+        if (!pinned.isEmpty()) {
+            exchangeRateStore.publish(pinned);
+            log.debug("手动汇率生效中，跳过来源刷新: {}", pinned);
+        }
+        if (sourcePairs.isEmpty()) {
+            return 0;
+        }
+
+        List<FxRate> fetched = fxRateSource.fetch(sourcePairs);
+        if (fetched.isEmpty()) {
+            log.warn("汇率来源 {} 未返回数据: {}", fxRateSource.getName(), sourcePairs);
+            return 0;
+        }
+
+        // 汇率变化或跨日时才落库，避免每次刷新都写入相同的值
+        Map<String, FxRate> previous = exchangeRateStore.getAll();
+        List<ExchangeRateRecord> records = new ArrayList<>();
+        for (FxRate rate : fetched) {
+            FxRate old = previous.get(rate.getCurrencyPair());
+            if (old == null || old.getRate().compareTo(rate.getRate()) != 0
+                    || old.getRecordTime() == null
+                    || !old.getRecordTime().toLocalDate().equals(rate.getRecordTime().toLocalDate())) {
+                records.add(rate.toRecord());
+            }
+        }
+        exchangeRateStore.publish(fetched);
+
+        if (!records.isEmpty()) {
+            exchangeRateRecordMapper.insertBatch(records);
+            log.info("刷新汇率: 来源 {}, 写入 {} 条, 快照版本 {}", fxRateSource.getName(), records.size(), exchangeRateStore.getVersion());
+        }
+        return records.size();
+    }
+
+    @Override
+    public void reloadRates() {
+        List<FxRate> rates = new ArrayList<>(currencyPairs.size());
+        for (String pair : currencyPairs) {
+            ExchangeRateRecord record = exchangeRateRecordMapper.selectLatest(pair);
+            if (record != null) {
+                rates.add(FxRate.from(record));
+            }
+        }
+        exchangeRateStore.publish(rates);
     }
 
     @Override
@@ -49,11 +145,31 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
         record.setRate(rate);
         record.setRecordTime(LocalDateTime.now());
         record.setTradeDate(LocalDate.now());
-        record.setDataSource("manual");
+        record.setDataSource(SOURCE_MANUAL);
         record.setCreatedTime(LocalDateTime.now());  // 设置创建时间戳
         
         exchangeRateRecordMapper.insert(record);
-        log.info("手动更新汇率: {} = {}", currencyPair, rate);
+        exchangeRateStore.publish(List.of(FxRate.from(record)));
+        log.info("手动更新汇率: {} = {}，取消前不自动刷新", currencyPair, rate);
+    }
+
+    @Override
+    @Transactional
+    public ExchangeRateSimpleVO clearManualRate(String currencyPair) {
+        List<FxRate> fetched = fxRateSource.fetch(List.of(currencyPair));
+        if (fetched.isEmpty()) {
+            throw new IllegalStateException("汇率来源未返回 " + currencyPair + "，手动汇率保持生效");
+        }
+        // 来源的行情时间可能早于手动汇率，记录时间取当前时间才能成为最新记录
+        FxRate source = fetched.get(0);
+        LocalDateTime now = LocalDateTime.now();
+        FxRate rate = new FxRate(currencyPair, source.getRate(),
+                source.getRecordTime().isAfter(now) ? source.getRecordTime() : now, source.getDataSource());
+
+        exchangeRateRecordMapper.insert(rate.toRecord());
+        exchangeRateStore.publish(List.of(rate));
+        log.info("取消手动汇率: {} 恢复为来源 {} 的 {}", currencyPair, rate.getDataSource(), rate.getRate());
+        return convertToSimpleVO(rate);
     }
 
 
@@ -123,6 +239,16 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
         log.info("删除汇率记录: {} 条, 货币对: {}, 日期: {}", deleted, currencyPair, tradeDate);
     }
 
+    private ExchangeRateSimpleVO convertToSimpleVO(FxRate rate) {
+        ExchangeRateSimpleVO vo = new ExchangeRateSimpleVO();
+        vo.setCurrencyPair(rate.getCurrencyPair());
+        vo.setRate(rate.getRate());
+        vo.setRecordTime(rate.getRecordTime());
+        vo.setTradeDate(rate.getRecordTime() != null ? rate.getRecordTime().toLocalDate() : null);
+        vo.setDataSource(rate.getDataSource());
+        return vo;
+    }
+
     /**
      * 转换为简单VO对象（只包含汇率信息）
      */
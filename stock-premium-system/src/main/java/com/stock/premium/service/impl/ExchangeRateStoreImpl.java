@@ -0,0 +1,87 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.dto.FxRate;
+import com.stock.premium.service.ExchangeRateStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 汇率内存快照实现
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Slf4j
+@Service
+public class ExchangeRateStoreImpl implements ExchangeRateStore {
+
+    private volatile Snapshot current = new Snapshot(0, Collections.emptyMap());
+
+    private static final class Snapshot {
+
+        final long version;
+        final Map<String, FxRate> byPair;
+
+        Snapshot(long version, Map<String, FxRate> byPair) {
+            this.version = version;
+            this.byPair = byPair;
+        }
+    }
+
+    @Override
+    public synchronized List<FxRate> publish(Collection<FxRate> rates) {
+        List<FxRate> changed = new ArrayList<>();
+        if (rates == null || rates.isEmpty()) {
+            return changed;
+        }
+        Snapshot old = current;
+        Map<String, FxRate> merged = new HashMap<>(old.byPair);
+        for (FxRate rate : rates) {
+            if (rate == null || rate.getCurrencyPair() == null || rate.getRate() == null) {
+                continue;
+            }
+            FxRate existing = merged.get(rate.getCurrencyPair());
+            if (existing != null && rate.getRecordTime() != null && existing.getRecordTime() != null
+                    && rate.getRecordTime().isBefore(existing.getRecordTime())) {
+                continue;
+            }
+            merged.put(rate.getCurrencyPair(), rate);
+            if (existing == null || existing.getRate().compareTo(rate.getRate()) != 0) {
+                changed.add(rate);
+            }
+        }
+        if (!changed.isEmpty()) {
+            current = new Snapshot(old.version + 1, Collections.unmodifiableMap(merged));
+            log.debug("汇率快照更新: 版本 {}, 变化 {}", old.version + 1, changed);
+        } else {
+            // 汇率未变，只刷新记录时间
+            current = new Snapshot(old.version, Collections.unmodifiableMap(merged));
+        }
+        return changed;
+    }
+
+    @Override
+    public FxRate get(String currencyPair) {
+        if (currencyPair == null) {
+            return null;
+        }
+        return current.byPair.get(currencyPair);
+    }
+
+    @Override
+    public Map<String, FxRate> getAll() {
+        return current.byPair;
+    }
+
+    @Override
+    public long getVersion() {
+        return current.version;
+    }
+}
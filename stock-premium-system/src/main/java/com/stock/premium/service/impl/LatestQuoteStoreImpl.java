@@ -0,0 +1,136 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.dto.LatestQuote;
+import com.stock.premium.service.LatestQuoteStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * 最新行情内存快照实现
+ * 写入方每个周期构建一份新的不可变快照再替换引用，读取方无锁、不访问数据库
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Slf4j
+@Service
+public class LatestQuoteStoreImpl implements LatestQuoteStore {
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.EMPTY);
+
+    /**
+     * 不可变快照：按A股代码排序的列表 + A/H代码索引
+     */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(0, Collections.emptyMap(), Collections.emptyList());
+
+        final long version;
+        final Map<String, LatestQuote> byCode;
+        final List<LatestQuote> ordered;
+
+        Snapshot(long version, Map<String, LatestQuote> byCode, List<LatestQuote> ordered) {
+            this.version = version;
+            this.byCode = byCode;
+            this.ordered = ordered;
+        }
+    }
+
+    @Override
+    public synchronized void publish(Collection<LatestQuote> quotes) {
+        if (quotes == null || quotes.isEmpty()) {
+            return;
+        }
+        Snapshot old = current.get();
+
+        // 以A股代码为主键合并，只保留较新的记录
+        Map<String, LatestQuote> merged = new TreeMap<>();
+        for (LatestQuote quote : old.ordered) {
+            merged.put(quote.getAStockCode(), quote);
+        }
+        for (LatestQuote quote : quotes) {
+            LatestQuote existing = merged.get(quote.getAStockCode());
+            if (existing == null || !quote.getRecordTime().isBefore(existing.getRecordTime())) {
+                merged.put(quote.getAStockCode(), quote);
+            }
+        }
+
+        current.set(buildSnapshot(old.version + 1, merged.values()));
+        log.debug("发布最新行情快照: 版本 {}, 股票 {} 只", old.version + 1, merged.size());
+    }
+
+    @Override
+    public synchronized int reprice(LocalDate tradeDate, BigDecimal exchangeRate,
+                                    Function<LatestQuote, BigDecimal> premiumCalculator) {
+        Snapshot old = current.get();
+        List<LatestQuote> repriced = new ArrayList<>(old.ordered.size());
+        int count = 0;
+        for (LatestQuote quote : old.ordered) {
+            if (tradeDate.equals(quote.getTradeDate())) {
+                quote = new LatestQuote(quote.getAStockCode(), quote.getHStockCode(), quote.getStockName(),
+                        quote.getAStockPrice(), quote.getHStockPrice(), exchangeRate, premiumCalculator.apply(quote),
+                        quote.getRecordTime(), quote.getTradeDate());
+                count++;
+            }
+            repriced.add(quote);
+        }
+        current.set(buildSnapshot(old.version + 1, repriced));
+        log.info("按新汇率 {} 重算行情快照: 版本 {}, 股票 {} 只", exchangeRate, old.version + 1, count);
+        return count;
+    }
+
+    /**
+     * 由按A股代码排序的记录构建快照
+     */
+    private static Snapshot buildSnapshot(long version, Collection<LatestQuote> sorted) {
+        Map<String, LatestQuote> byCode = new HashMap<>(sorted.size() * 4);
+        for (LatestQuote quote : sorted) {
+            byCode.put(quote.getAStockCode(), quote);
+            if (quote.getHStockCode() != null) {
+                byCode.put(quote.getHStockCode(), quote);
+            }
+        }
+        return new Snapshot(version, Collections.unmodifiableMap(byCode), List.copyOf(sorted));
+    }
+
+    @Override
+    public LatestQuote get(String stockCode) {
+        if (stockCode == null) {
+            return null;
+        }
+        return current.get().byCode.get(stockCode);
+    }
+
+    @Override
+    public List<LatestQuote> getByTradeDate(LocalDate tradeDate) {
+        List<LatestQuote> result = new ArrayList<>();
+        for (LatestQuote quote : current.get().ordered) {
+            if (tradeDate.equals(quote.getTradeDate())) {
+                result.add(quote);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isWarm() {
+        return current.get().version > 0;
+    }
+
+    @Override
+    public long getVersion() {
+        return current.get().version;
+    }
+}
@@ -0,0 +1,240 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.dto.TablePartition;
+import com.stock.premium.mapper.TablePartitionMapper;
+import com.stock.premium.service.PartitionMaintenanceService;
+import com.stock.premium.service.SystemConfigService;
+import com.stock.premium.service.TickArchiveService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 明细表分区维护服务实现类
+ * 分区名按所含月份命名(p202501 存放 trade_date < 2025-02-01 的数据)，兜底分区 p_future 为 MAXVALUE。
+ * 预建：在兜底分区前补齐到 当月 + data.partition.ahead-months 的月分区，兜底分区为空时只改元数据；
+ * 清理：上界不晚于 今天 - data.retention.months 的分区整体删除，代替按日期的大批量DELETE，
+ * 启用明细归档(archive.tick.enabled)时先归档再删除，归档失败则本次不删除。
+ * 服务启动时只做不搬移数据的预建(maintainMetadataOnly)，兜底分区有数据时的拆分和删除都留给夜间维护。
+ * 未分区的表(如未执行 migration_partition.sql)只记录日志，不做处理
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+@Slf4j
+@Service
+public class PartitionMaintenanceServiceImpl implements PartitionMaintenanceService {
+
+    /**
+     * 按 trade_date 分区的明细表
+     */
+    static final List<String> PARTITIONED_TABLES = Arrays.asList("stock_price_record", "premium_rate_record");
+
+    static final String CONFIG_RETENTION_MONTHS = "data.retention.months";
+
+    static final String CONFIG_AHEAD_MONTHS = "data.partition.ahead-months";
+
+    /**
+     * 未配置保留期时不删除数据
+     */
+    private static final int DEFAULT_RETENTION_MONTHS = 0;
+
+    private static final int DEFAULT_AHEAD_MONTHS = 2;
+
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Autowired
+    private TablePartitionMapper tablePartitionMapper;
+
+    @Autowired
+    private SystemConfigService systemConfigService;
+
+    @Autowired
+    private TickArchiveService tickArchiveService;
+
+    @Override
+    public Map<String, String> maintain(LocalDate today) {
+        return maintain(today, false);
+    }
+
+    @Override
+    public Map<String, String> maintainMetadataOnly(LocalDate today) {
+        return maintain(today, true);
+    }
+
+    private Map<String, String> maintain(LocalDate today, boolean metadataOnly) {
+        int retentionMonths = systemConfigService.getIntValue(CONFIG_RETENTION_MONTHS, DEFAULT_RETENTION_MONTHS);
+        int aheadMonths = Math.max(0, systemConfigService.getIntValue(CONFIG_AHEAD_MONTHS, DEFAULT_AHEAD_MONTHS));
+
+        Map<String, String> results = new LinkedHashMap<>();
+        for (String table : PARTITIONED_TABLES) {
+            try {
+                results.put(table, metadataOnly ? createIfMetadataOnly(table, today, aheadMonths)
+                        : maintainTable(table, today, aheadMonths, retentionMonths));
+            } catch (Exception e) {
+                log.error("分区维护失败: {}", table, e);
+                results.put(table, "失败: " + e.getMessage());
+            }
+        }
+        return results;
+    }
+
+    private String maintainTable(String table, LocalDate today, int aheadMonths, int retentionMonths) {
+        List<TablePartition> partitions = tablePartitionMapper.selectPartitions(table);
+        if (partitions.isEmpty()) {
+            log.warn("{} 未分区，跳过分区维护，请执行 migration_partition.sql", table);
+            return "未分区";
+        }
+        Plan plan = plan(partitions, today, aheadMonths, retentionMonths);
+
+        createPartitions(table, plan);
+        if (!plan.dropped.isEmpty()) {
+            if (tickArchiveService.isEnabled()) {
+                long rows = tickArchiveService.archiveBefore(table, plan.dropBefore);
+                log.info("{} 删除分区前归档 {} 行", table, rows);
+            }
+            tablePartitionMapper.dropPartitions(table, String.join(", ", plan.dropped));
+            log.info("{} 删除超出保留期({}个月)的分区: {}", table, retentionMonths, plan.dropped);
+        }
+        return String.format("新建%s，删除%s", names(plan.created), plan.dropped);
+    }
+
+    /**
+     * 兜底分区为空(REORGANIZE 只改元数据)或没有兜底分区(ADD PARTITION)时才预建，不删除分区
+     */
+    private String createIfMetadataOnly(String table, LocalDate today, int aheadMonths) {
+        List<TablePartition> partitions = tablePartitionMapper.selectPartitions(table);
+        if (partitions.isEmpty()) {
+            return "未分区";
+        }
+        Plan plan = plan(partitions, today, aheadMonths, 0);
+        if (plan.created.isEmpty()) {
+            return "无需新建";
+        }
+        if (plan.catchAll != null
+                && (plan.catchAllFrom == null || tablePartitionMapper.existsFrom(table, plan.catchAllFrom))) {
+            log.info("{} 兜底分区 {} 有数据，拆分需要搬移数据，留给夜间分区维护", table, plan.catchAll);
+            return "兜底分区有数据，跳过";
+        }
+        createPartitions(table, plan);
+        return String.format("新建%s", names(plan.created));
+    }
+
+    private void createPartitions(String table, Plan plan) {
+        if (plan.created.isEmpty()) {
+            return;
+        }
+        String definitions = plan.created.stream()
+                .map(PartitionMaintenanceServiceImpl::definition)
+                .collect(Collectors.joining(", "));
+        if (plan.catchAll != null) {
+            tablePartitionMapper.reorganizePartition(table, plan.catchAll, definitions
+                    + ", PARTITION " + plan.catchAll + " VALUES LESS THAN (MAXVALUE)");
+        } else {
+            tablePartitionMapper.addPartitions(table, definitions);
+        }
+        log.info("{} 新建分区: {}", table, names(plan.created));
+    }
+
+    /**
+     * 计算需要新建和删除的分区
+     * 新分区从现有最大上界所在月的下个月1日起逐月建到覆盖 today + aheadMonths 所在月；
+     * retentionMonths 大于0时，上界不晚于 today - retentionMonths 的分区(兜底分区除外)全部删除
+     */
+    static Plan plan(List<TablePartition> partitions, LocalDate today, int aheadMonths, int retentionMonths) {
+        Plan plan = new Plan();
+        LocalDate lastBound = null;
+        for (TablePartition partition : partitions) {
+            if (partition.isCatchAll()) {
+                plan.catchAll = partition.getPartitionName();
+                continue;
+            }
+            LocalDate bound = parseBound(partition.getPartitionDescription());
+            if (lastBound == null || bound.isAfter(lastBound)) {
+                lastBound = bound;
+            }
+            if (retentionMonths > 0 && !bound.isAfter(today.minusMonths(retentionMonths))) {
+                plan.dropped.add(partition.getPartitionName());
+                if (plan.dropBefore == null || bound.isAfter(plan.dropBefore)) {
+                    plan.dropBefore = bound;
+                }
+            }
+        }
+
+        plan.catchAllFrom = lastBound;
+
+        LocalDate target = today.withDayOfMonth(1).plusMonths(aheadMonths + 1L);
+        LocalDate next = lastBound == null ? today.withDayOfMonth(1).plusMonths(1) : lastBound.withDayOfMonth(1).plusMonths(1);
+        for (LocalDate bound = next; !bound.isAfter(target); bound = bound.plusMonths(1)) {
+            plan.created.add(bound);
+        }
+        return plan;
+    }
+
+    /**
+     * RANGE COLUMNS(date) 的分区上界形如 '2025-02-01'
+     */
+    static LocalDate parseBound(String description) {
+        try {
+            return LocalDate.parse(description.replace("'", "").trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalStateException("无法识别的分区上界: " + description, e);
+        }
+    }
+
+    /**
+     * 上界为 bound 的月分区名，即其所含月份
+     */
+    static String partitionName(LocalDate bound) {
+        return "p" + bound.minusMonths(1).format(PARTITION_MONTH);
+    }
+
+    private static String definition(LocalDate bound) {
+        return "PARTITION " + partitionName(bound) + " VALUES LESS THAN ('" + bound + "')";
+    }
+
+    private static List<String> names(List<LocalDate> bounds) {
+        return bounds.stream().map(PartitionMaintenanceServiceImpl::partitionName).collect(Collectors.toList());
+    }
+
+    /**
+     * 一张表的维护计划
+     */
+    static final class Plan {
+
+        /**
+         * 新建分区的上界，升序
+         */
+        final List<LocalDate> created = new ArrayList<>();
+
+        /**
+         * 待删除的分区名
+         */
+        final List<String> dropped = new ArrayList<>();
+
+        /**
+         * 待删除分区的最大上界，没有删除时为null
+         */
+        LocalDate dropBefore;
+
+        /**
+         * 兜底分区名，没有时为null
+         */
+        String catchAll;
+
+        /**
+         * 兜底分区的下界，即最后一个月分区的上界；没有月分区时为null
+         */
+        LocalDate catchAllFrom;
+    }
+}
@@ -1,16 +1,24 @@
 package com.stock.premium.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.stock.premium.dto.LatestQuote;
 import com.stock.premium.entity.PremiumRateRecord;
+import com.stock.premium.mapper.LatestPremiumSnapshotMapper;
 import com.stock.premium.mapper.PremiumRateRecordMapper;
+import com.stock.premium.service.CollectorShardService;
+import com.stock.premium.service.LatestQuoteStore;
 import com.stock.premium.service.PremiumRateService;
+import com.stock.premium.service.TickArchiveService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -23,6 +31,24 @@ import java.util.List;
 @Service
 public class PremiumRateServiceImpl extends ServiceImpl<PremiumRateRecordMapper, PremiumRateRecord> implements PremiumRateService {
 
+    @Autowired
+    private LatestPremiumSnapshotMapper latestPremiumSnapshotMapper;
+
+    @Autowired
+    private LatestQuoteStore latestQuoteStore;
+
+    @Autowired
+    private CollectorShardService collectorShardService;
+
+    @Autowired
+    private TickArchiveService tickArchiveService;
+
+    /**
+     * 历史明细单次查询的最大天数
+     */
+    @Value("${premium.history.max-days:31}")
+    private int historyMaxDays;
+
     @Override
     public BigDecimal calculatePremiumRate(BigDecimal aStockPrice, BigDecimal hStockPrice, BigDecimal exchangeRate) {
         if (aStockPrice == null || hStockPrice == null || exchangeRate == null ||
@@ -44,23 +70,30 @@ public class PremiumRateServiceImpl extends ServiceImpl<PremiumRateRecordMapper,
         }
     }
 
+    @Override
+    public PremiumRateRecord buildPremiumRecord(String stockCode, BigDecimal aStockPrice,
+                                               BigDecimal hStockPrice, BigDecimal exchangeRate) {
+        BigDecimal premiumRate = calculatePremiumRate(aStockPrice, hStockPrice, exchangeRate);
+        
+        PremiumRateRecord record = new PremiumRateRecord();
+        record.setStockCode(stockCode);
+        record.setAStockPrice(aStockPrice);
+        record.setHStockPrice(hStockPrice);
+        record.setExchangeRate(exchangeRate);
+        record.setPremiumRate(premiumRate);
+        record.setRecordTime(LocalDateTime.now());
+        record.setTradeDate(LocalDate.now());
+        return record;
+    }
+
     @Override
     public PremiumRateRecord recordPremiumRate(String stockCode, BigDecimal aStockPrice, 
                                              BigDecimal hStockPrice, BigDecimal exchangeRate) {
         try {
-            BigDecimal premiumRate = calculatePremiumRate(aStockPrice, hStockPrice, exchangeRate);
-            
-            PremiumRateRecord record = new PremiumRateRecord();
-            record.setStockCode(stockCode);
-            record.setAStockPrice(aStockPrice);
-            record.setHStockPrice(hStockPrice);
-            record.setExchangeRate(exchangeRate);
-            record.setPremiumRate(premiumRate);
-            record.setRecordTime(LocalDateTime.now());
-            record.setTradeDate(LocalDate.now());
+            PremiumRateRecord record = buildPremiumRecord(stockCode, aStockPrice, hStockPrice, exchangeRate);
             
             this.save(record);
-            log.debug("记录溢价率数据: stockCode={}, premiumRate={}%", stockCode, premiumRate);
+            log.debug("记录溢价率数据: stockCode={}, premiumRate={}%", stockCode, record.getPremiumRate());
             
             return record;
         } catch (Exception e) {
@@ -71,11 +104,68 @@ public class PremiumRateServiceImpl extends ServiceImpl<PremiumRateRecordMapper,
 
     @Override
     public List<PremiumRateRecord> getPremiumRatesByStockAndDate(String stockCode, LocalDate tradeDate) {
-        return baseMapper.selectByStockAndDate(stockCode, tradeDate);
+        List<PremiumRateRecord> records = baseMapper.selectByStockAndDate(stockCode, tradeDate);
+        // 分区已超出保留期删除的日期从归档读取
+        if (records.isEmpty() && tickArchiveService.isEnabled()) {
+            return tickArchiveService.readPremiums(stockCode, tradeDate, tradeDate);
+        }
+        return records;
+    }
+
+    @Override
+    public List<PremiumRateRecord> getPremiumRateHistory(String stockCode, LocalDate startDate, LocalDate endDate,
+                                                         long offset, int limit) {
+        if (startDate.plusDays(historyMaxDays).isBefore(endDate.plusDays(1))) {
+            throw new IllegalArgumentException("单次最多查询 " + historyMaxDays + " 天");
+        }
+        // 归档的是整月删除的分区，都早于数据库中仍保留的日期：按时间先排归档、再排数据库，两段各自分页
+        LocalDate firstInDb = baseMapper.selectFirstTradeDate(stockCode, startDate, endDate);
+        LocalDate archiveEnd = firstInDb != null ? firstInDb.minusDays(1) : endDate;
+        List<PremiumRateRecord> records = new ArrayList<>();
+        long archived = 0;
+        if (tickArchiveService.isEnabled() && !archiveEnd.isBefore(startDate)) {
+            records.addAll(tickArchiveService.readPremiums(stockCode, startDate, archiveEnd, offset, limit));
+            if (records.size() < limit) {
+                archived = tickArchiveService.countPremiums(stockCode, startDate, archiveEnd);
+            }
+        }
+        if (records.size() < limit && firstInDb != null) {
+            records.addAll(baseMapper.selectPageByStockAndDateRange(stockCode, firstInDb, endDate,
+                    Math.max(0, offset - archived), limit - records.size()));
+        }
+        return records;
+    }
+
+    @Override
+    public PremiumRateRecord getLatestSnapshot(String stockCode, LocalDate tradeDate) {
+        PremiumRateRecord snapshot = latestPremiumSnapshotMapper.selectByStockCode(stockCode);
+        return snapshot != null && tradeDate.equals(snapshot.getTradeDate()) ? snapshot : null;
+    }
+
+    @Override
+    public boolean hasRecordsBefore(LocalDate tradeDate, LocalDateTime before) {
+        return baseMapper.existsBefore(tradeDate, before);
     }
 
     @Override
     public List<PremiumRateRecord> getLatestPremiumRatesByDate(LocalDate tradeDate) {
+        // 优先读内存快照，冷启动时读快照表；历史日期快照已被覆盖，仍按明细表查询
+        // 分片采集或Quartz调度时内存快照只含本节点采集的部分结果，全量读取走快照表
+        List<LatestQuote> cached = collectorShardService.isLocalViewPartial()
+                ? List.of() : latestQuoteStore.getByTradeDate(tradeDate);
+        if (!cached.isEmpty()) {
+            List<PremiumRateRecord> records = new ArrayList<>(cached.size());
+            for (LatestQuote quote : cached) {
+                records.add(quote.toPremiumRecord());
+            }
+            return records;
+        }
+        if (!tradeDate.isBefore(LocalDate.now())) {
+            List<PremiumRateRecord> snapshot = latestPremiumSnapshotMapper.selectByTradeDate(tradeDate);
+            if (!snapshot.isEmpty()) {
+                return snapshot;
+            }
+        }
         return baseMapper.selectLatestByDate(tradeDate);
     }
 }
\ No newline at end of file
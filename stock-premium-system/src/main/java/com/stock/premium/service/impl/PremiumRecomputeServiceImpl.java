@@ -0,0 +1,354 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.entity.ExchangeRateRecord;
+import com.stock.premium.entity.PremiumRateRecord;
+import com.stock.premium.entity.StockInfo;
+import com.stock.premium.entity.StockPriceRecord;
+import com.stock.premium.mapper.ExchangeRateRecordMapper;
+import com.stock.premium.mapper.PremiumRateRecordMapper;
+import com.stock.premium.mapper.StockPriceRecordMapper;
+import com.stock.premium.service.DailyStatsService;
+import com.stock.premium.service.DataCollectionService;
+import com.stock.premium.service.LatestQuoteStore;
+import com.stock.premium.service.PremiumRateService;
+import com.stock.premium.service.PremiumRecomputeService;
+import com.stock.premium.service.StockInfoService;
+import com.stock.premium.service.TickPersistenceService;
+import com.stock.premium.vo.PremiumRecomputeVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 历史溢价率重算服务实现类
+ * 汇率一次性加载为按时间排序的 NavigableMap，每个tick用 floorEntry 取当时生效的汇率；
+ * 按股票拆分到 ForkJoinPool 并行，每只股票在一个事务内删除旧记录并批量写入
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Slf4j
+@Service
+public class PremiumRecomputeServiceImpl implements PremiumRecomputeService {
+
+    /**
+     * A+H溢价计算使用的货币对
+     */
+    private static final String HKD_CNY = "HKDCNY";
+
+    @Autowired
+    private StockInfoService stockInfoService;
+
+    @Autowired
+    private StockPriceRecordMapper stockPriceRecordMapper;
+
+    @Autowired
+    private ExchangeRateRecordMapper exchangeRateRecordMapper;
+
+    @Autowired
+    private PremiumRateRecordMapper premiumRateRecordMapper;
+
+    @Autowired
+    private PremiumRateService premiumRateService;
+
+    @Autowired
+    private DailyStatsService dailyStatsService;
+
+    @Autowired
+    private LatestQuoteStore latestQuoteStore;
+
+    @Autowired
+    private TickPersistenceService tickPersistenceService;
+
+    @Autowired
+    private DataCollectionService dataCollectionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${premium.recompute.parallelism:4}")
+    private int parallelism;
+
+    @Value("${premium.recompute.max-days:31}")
+    private int maxDays;
+
+    @Value("${data.persist.batch-size:500}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * 一次重算任务的计数
+     */
+    static final class Counters {
+        final LongAdder records = new LongAdder();
+        final LongAdder missingPrice = new LongAdder();
+        final LongAdder missingRate = new LongAdder();
+        final AtomicInteger failed = new AtomicInteger();
+    }
+
+    @Override
+    public PremiumRecomputeVO recompute(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("结束日期不能早于开始日期");
+        }
+        if (startDate.plusDays(maxDays).isBefore(endDate.plusDays(1))) {
+            throw new IllegalArgumentException("单次重算最多 " + maxDays + " 天");
+        }
+        // 当日明细仍在由采集写入（集群中还包括其他节点），删除重建会丢失期间写入的记录，且不更新最新溢价率快照；
+        // 当日汇率修正走 applyExchangeRate
+        if (!endDate.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("只能重算今天之前的日期，当日汇率修正请使用汇率人工修正");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("已有重算任务在执行");
+        }
+        try {
+            return doRecompute(startDate, endDate);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Override
+    public int applyExchangeRate(LocalDate tradeDate, BigDecimal exchangeRate) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("已有重算任务在执行");
+        }
+        try {
+            // 进行中的采集周期可能还在按旧汇率提交记录、发布快照，等它结束后再更新
+            return dataCollectionService.runBetweenCycles(() -> {
+                int rows = repriceAfterFlush(tradeDate, exchangeRate,
+                        () -> premiumRateRecordMapper.updateExchangeRateByDate(tradeDate, exchangeRate));
+                dailyStatsService.regenerateDailyStats(tradeDate);
+                return rows;
+            });
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Override
+    public int applyManualRate(LocalDateTime since, BigDecimal exchangeRate) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("已有重算任务在执行");
+        }
+        try {
+            LocalDate tradeDate = since.toLocalDate();
+            return dataCollectionService.runBetweenCycles(() -> repriceAfterFlush(tradeDate, exchangeRate,
+                    () -> premiumRateRecordMapper.updateExchangeRateSince(tradeDate, since, exchangeRate)));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 写缓冲中的记录先落库，UPDATE 才能覆盖全部明细；之后按新汇率替换内存行情快照并使当日累加器失效
+     */
+    private int repriceAfterFlush(LocalDate tradeDate, BigDecimal exchangeRate, Supplier<Integer> update) {
+        tickPersistenceService.flush();
+        int rows = update.get();
+
+        int quotes = latestQuoteStore.reprice(tradeDate, exchangeRate,
+                quote -> premiumRateService.calculatePremiumRate(quote.getAStockPrice(), quote.getHStockPrice(), exchangeRate));
+
+        dailyStatsService.invalidateAccumulators(tradeDate);
+        log.info("按新汇率 {} 重算 {} 的溢价率: 明细 {} 条, 行情快照 {} 只", exchangeRate, tradeDate, rows, quotes);
+        return rows;
+    }
+
+    private PremiumRecomputeVO doRecompute(LocalDate startDate, LocalDate endDate) {
+        long startNanos = System.nanoTime();
+        PremiumRecomputeVO result = new PremiumRecomputeVO();
+        result.setStartDate(startDate);
+        result.setEndDate(endDate);
+
+        NavigableMap<LocalDateTime, BigDecimal> rates = toRateTimeline(exchangeRateRecordMapper.selectEffectiveInRange(
+                HKD_CNY, startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay()));
+        if (rates.isEmpty()) {
+            throw new IllegalStateException("没有 " + HKD_CNY + " 汇率记录，无法重算");
+        }
+
+        // 包括已停用的股票，历史明细同样需要重算
+        List<StockInfo> stocks = stockInfoService.list().stream()
+                .filter(s -> s.getHStockCode() != null && !s.getHStockCode().trim().isEmpty())
+                .collect(Collectors.toList());
+        log.info("开始重算 {} ~ {} 的溢价率: {} 只股票, 汇率 {} 条", startDate, endDate, stocks.size(), rates.size());
+
+        Counters counters = new Counters();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            pool.invoke(new StockRangeTask(stocks, 0, stocks.size(), startDate, endDate, rates, counters));
+        } finally {
+            pool.shutdown();
+        }
+
+        // 明细已变，日统计从明细重新生成
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            dailyStatsService.invalidateAccumulators(date);
+            dailyStatsService.regenerateDailyStats(date);
+        }
+
+        result.setStockCount(stocks.size());
+        result.setRecordCount(counters.records.sum());
+        result.setMissingPriceCount(counters.missingPrice.sum());
+        result.setMissingRateCount(counters.missingRate.sum());
+        result.setFailedCount(counters.failed.get());
+        result.setElapsedMillis((System.nanoTime() - startNanos) / 1_000_000);
+        log.info("完成溢价率重算: {}", result);
+        return result;
+    }
+
+    /**
+     * 按股票二分拆分，单只股票为最小任务
+     */
+    private final class StockRangeTask extends RecursiveAction {
+
+        private final List<StockInfo> stocks;
+        private final int from;
+        private final int to;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final NavigableMap<LocalDateTime, BigDecimal> rates;
+        private final Counters counters;
+
+        StockRangeTask(List<StockInfo> stocks, int from, int to, LocalDate startDate, LocalDate endDate,
+                       NavigableMap<LocalDateTime, BigDecimal> rates, Counters counters) {
+            this.stocks = stocks;
+            this.from = from;
+            this.to = to;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.rates = rates;
+            this.counters = counters;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) {
+                    recomputeStock(stocks.get(from), startDate, endDate, rates, counters);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new StockRangeTask(stocks, from, mid, startDate, endDate, rates, counters),
+                    new StockRangeTask(stocks, mid, to, startDate, endDate, rates, counters));
+        }
+    }
+
+    private void recomputeStock(StockInfo stock, LocalDate startDate, LocalDate endDate,
+                                NavigableMap<LocalDateTime, BigDecimal> rates, Counters counters) {
+        String aStockCode = stock.getAStockCode();
+        try {
+            List<StockPriceRecord> aPrices = stockPriceRecordMapper.selectPricesByDateRange(aStockCode, startDate, endDate);
+            if (aPrices.isEmpty()) {
+                return;
+            }
+            List<StockPriceRecord> hPrices = stockPriceRecordMapper.selectPricesByDateRange(stock.getHStockCode(), startDate, endDate);
+            List<PremiumRateRecord> records = buildPremiumRecords(aStockCode, aPrices, hPrices, rates, counters);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                premiumRateRecordMapper.deleteByStockAndDateRange(aStockCode, startDate, endDate);
+                for (int i = 0; i < records.size(); i += batchSize) {
+                    premiumRateRecordMapper.insertBatch(records.subList(i, Math.min(i + batchSize, records.size())));
+                }
+            });
+            counters.records.add(records.size());
+        } catch (Exception e) {
+            log.error("重算股票 {} 的溢价率失败", aStockCode, e);
+            counters.failed.incrementAndGet();
+        }
+    }
+
+    /**
+     * 按A股和H股tick时间的并集生成溢价率记录，与采集时一致：任一边行情变化都产生一条记录，
+     * 记录时间为两边行情时间中较晚的一个（即该tick时间）；两边价格各取同一交易日该时刻及之前最近的一条，
+     * 汇率取该时刻生效的一条
+     */
+    List<PremiumRateRecord> buildPremiumRecords(String aStockCode, List<StockPriceRecord> aPrices,
+                                                List<StockPriceRecord> hPrices,
+                                                NavigableMap<LocalDateTime, BigDecimal> rates, Counters counters) {
+        NavigableMap<LocalDateTime, StockPriceRecord> aByTime = new TreeMap<>();
+        for (StockPriceRecord a : aPrices) {
+            aByTime.put(a.getRecordTime(), a);
+        }
+        NavigableMap<LocalDateTime, StockPriceRecord> hByTime = new TreeMap<>();
+        for (StockPriceRecord h : hPrices) {
+            hByTime.put(h.getRecordTime(), h);
+        }
+        NavigableSet<LocalDateTime> times = new TreeSet<>(aByTime.keySet());
+        times.addAll(hByTime.keySet());
+
+        List<PremiumRateRecord> records = new ArrayList<>(times.size());
+        for (LocalDateTime time : times) {
+            Map.Entry<LocalDateTime, StockPriceRecord> aEntry = aByTime.floorEntry(time);
+            Map.Entry<LocalDateTime, StockPriceRecord> h = hByTime.floorEntry(time);
+            if (aEntry == null || h == null
+                    || !aEntry.getKey().toLocalDate().equals(time.toLocalDate())
+                    || !h.getKey().toLocalDate().equals(time.toLocalDate())
+                    || aEntry.getValue().getCurrentPrice() == null || h.getValue().getCurrentPrice() == null) {
+                counters.missingPrice.increment();
+                continue;
+            }
+            StockPriceRecord a = aEntry.getValue();
+
+            Map.Entry<LocalDateTime, BigDecimal> rate = rates.floorEntry(time);
+            if (rate == null) {
+                // 早于第一条汇率记录，按最早的汇率计算
+                rate = rates.firstEntry();
+                counters.missingRate.increment();
+            }
+
+            BigDecimal hPrice = h.getValue().getCurrentPrice();
+            PremiumRateRecord record = new PremiumRateRecord();
+            record.setStockCode(aStockCode);
+            record.setAStockPrice(a.getCurrentPrice());
+            record.setHStockPrice(hPrice);
+            record.setExchangeRate(rate.getValue());
+            record.setPremiumRate(premiumRateService.calculatePremiumRate(a.getCurrentPrice(), hPrice, rate.getValue()));
+            record.setRecordTime(time);
+            record.setTradeDate(a.getTradeDate());
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * 汇率记录转为按时间排序的时间线，同一时刻以后写入的为准
+     */
+    static NavigableMap<LocalDateTime, BigDecimal> toRateTimeline(List<ExchangeRateRecord> records) {
+        if (records == null || records.isEmpty()) {
+            return Collections.emptyNavigableMap();
+        }
+        NavigableMap<LocalDateTime, BigDecimal> timeline = new TreeMap<>();
+        for (ExchangeRateRecord record : records) {
+            LocalDateTime time = record.getRecordTime() != null ? record.getRecordTime() : record.getCreatedTime();
+            if (time != null && record.getRate() != null) {
+                timeline.put(time, record.getRate());
+            }
+        }
+        return Collections.unmodifiableNavigableMap(timeline);
+    }
+}
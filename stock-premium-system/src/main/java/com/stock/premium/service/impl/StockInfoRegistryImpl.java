@@ -0,0 +1,201 @@
+package com.stock.premium.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.stock.premium.entity.StockInfo;
+import com.stock.premium.mapper.StockInfoMapper;
+import com.stock.premium.service.StockInfoRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 股票基础信息内存索引实现
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Slf4j
+@Service
+public class StockInfoRegistryImpl implements StockInfoRegistry {
+
+    @Autowired
+    private StockInfoMapper stockInfoMapper;
+
+    /**
+     * 未知代码负缓存时长(秒)
+     */
+    @Value("${stock.registry.negative-ttl:600}")
+    private long negativeTtlSeconds;
+
+    /**
+     * 负缓存最大条目数，超过后先清理过期条目，仍超过则全部清空
+     */
+    @Value("${stock.registry.negative-max-size:10000}")
+    private int negativeMaxSize;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * 未知代码 -> 过期时间(System.nanoTime)
+     */
+    private final ConcurrentHashMap<String, Long> negativeCache = new ConcurrentHashMap<>();
+
+    /**
+     * 正在加载的代码 -> 加载结果
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<StockInfo>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 不可变索引快照，附带加载时 stock_info 的行数和最大更新时间
+     */
+    private static final class Snapshot {
+
+        final Map<String, StockInfo> byCode;
+        final List<StockInfo> active;
+        final String version;
+
+        Snapshot(Map<String, StockInfo> byCode, List<StockInfo> active, String version) {
+            this.byCode = byCode;
+            this.active = active;
+            this.version = version;
+        }
+    }
+
+    @Override
+    public StockInfo get(String stockCode) {
+        if (stockCode == null) {
+            return null;
+        }
+        return current().byCode.get(stockCode);
+    }
+
+    @Override
+    public List<StockInfo> getActiveStocks() {
+        return current().active;
+    }
+
+    @Override
+    public StockInfo resolve(String stockCode, Function<String, StockInfo> loader) {
+        StockInfo cached = get(stockCode);
+        if (cached != null) {
+            return cached;
+        }
+        Long expiresAt = negativeCache.get(stockCode);
+        if (expiresAt != null) {
+            if (System.nanoTime() - expiresAt < 0) {
+                log.debug("股票代码 {} 在负缓存中，跳过查询", stockCode);
+                return null;
+            }
+            negativeCache.remove(stockCode, expiresAt);
+        }
+
+        CompletableFuture<StockInfo> future = new CompletableFuture<>();
+        CompletableFuture<StockInfo> existing = inFlight.putIfAbsent(stockCode, future);
+        if (existing != null) {
+            // 已有线程在加载同一代码，等待其结果；加载失败时加载线程已完成为null
+            return existing.join();
+        }
+        StockInfo loaded = null;
+        try {
+            loaded = loader.apply(stockCode);
+            if (loaded == null) {
+                markMissing(stockCode);
+            }
+        } catch (RuntimeException e) {
+            // 加载失败不是代码不存在，不记入负缓存，下次调用重新加载
+            log.error("加载股票代码 {} 失败", stockCode, e);
+        } finally {
+            inFlight.remove(stockCode, future);
+            future.complete(loaded);
+        }
+        return loaded;
+    }
+
+    private void markMissing(String stockCode) {
+        if (negativeCache.size() >= negativeMaxSize) {
+            long now = System.nanoTime();
+            negativeCache.values().removeIf(expiry -> now - expiry >= 0);
+            if (negativeCache.size() >= negativeMaxSize) {
+                log.warn("负缓存超过 {} 条，全部清空", negativeMaxSize);
+                negativeCache.clear();
+            }
+        }
+        negativeCache.put(stockCode, System.nanoTime() + TimeUnit.SECONDS.toNanos(negativeTtlSeconds));
+    }
+
+    @Override
+    public void invalidate() {
+        snapshot = null;
+        negativeCache.clear();
+        log.debug("股票基础信息索引已失效");
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${stock.registry.refresh-interval:60000}")
+    public void refreshIfChanged() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        try {
+            if (!Objects.equals(current.version, loadVersion())) {
+                log.info("检测到 stock_info 变更，重新加载股票索引");
+                invalidate();
+            }
+        } catch (Exception e) {
+            log.error("检查 stock_info 变更失败", e);
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        // 先取版本再取数据，期间的修改会在下一次检查时再次触发加载
+        String version = loadVersion();
+        QueryWrapper<StockInfo> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("status", 1)
+                   .eq("deleted", 0)
+                   .orderByAsc("a_stock_code");
+        List<StockInfo> active = stockInfoMapper.selectList(queryWrapper);
+
+        Map<String, StockInfo> byCode = new HashMap<>(active.size() * 4);
+        for (StockInfo stock : active) {
+            if (stock.getAStockCode() != null && !stock.getAStockCode().isEmpty()) {
+                byCode.putIfAbsent(stock.getAStockCode(), stock);
+            }
+            if (stock.getHStockCode() != null && !stock.getHStockCode().isEmpty()) {
+                byCode.putIfAbsent(stock.getHStockCode(), stock);
+            }
+        }
+        log.info("加载股票基础信息索引: {} 只股票, {} 个代码", active.size(), byCode.size());
+        return new Snapshot(Collections.unmodifiableMap(byCode), Collections.unmodifiableList(active), version);
+    }
+
+    private String loadVersion() {
+        return stockInfoMapper.selectChangeVersion();
+    }
+}
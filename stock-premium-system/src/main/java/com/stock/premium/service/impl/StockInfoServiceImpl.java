@@ -1,20 +1,25 @@
 package com.stock.premium.service.impl;
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.stock.premium.dto.LatestQuote;
 import com.stock.premium.entity.PremiumRateRecord;
 import com.stock.premium.entity.StockInfo;
 import com.stock.premium.entity.StockPriceRecord;
 import com.stock.premium.mapper.StockInfoMapper;
+import com.stock.premium.service.CollectorShardService;
+import com.stock.premium.service.LatestQuoteStore;
 import com.stock.premium.service.PremiumRateService;
+import com.stock.premium.service.StockInfoRegistry;
 import com.stock.premium.service.StockInfoService;
 import com.stock.premium.service.StockPriceService;
+import com.stock.premium.utils.StockCodes;
 import com.stock.premium.utils.TencentFinanceApiUtil;
 import com.stock.premium.vo.StockDetailVO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -40,39 +45,34 @@ public class StockInfoServiceImpl extends ServiceImpl<StockInfoMapper, StockInfo
     @Autowired
     private PremiumRateService premiumRateService;
 
+    @Autowired
+    private LatestQuoteStore latestQuoteStore;
+
+    @Autowired
+    private StockInfoRegistry stockInfoRegistry;
+
+    @Autowired
+    private CollectorShardService collectorShardService;
+
 
     @Override
     public List<StockInfo> getActiveStocks() {
-        QueryWrapper<StockInfo> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("status", 1)
-                   .eq("deleted", 0)
-                   .orderByAsc("a_stock_code");
-        return list(queryWrapper);
+        return stockInfoRegistry.getActiveStocks();
     }
 
     @Override
     public StockInfo getByStockCode(String stockCode) {
         // 处理股票代码，去掉前缀（如sh、sz、hk等）
-        final String cleanStockCode = stockCode.length() > 6 ? 
-            stockCode.replaceAll("^[a-zA-Z]+", "") : stockCode;
-        
-        // 首先从数据库查询
-        QueryWrapper<StockInfo> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("status", 1)
-                   .eq("deleted", 0)
-                   .and(wrapper -> 
-                       wrapper.eq("a_stock_code", cleanStockCode)
-                              .or()
-                              .eq("h_stock_code", cleanStockCode)
-                   );
-        
-        StockInfo result = getOne(queryWrapper);
-        if (result != null) {
-            log.debug("从数据库根据股票代码 {} 查询到股票信息: {}", stockCode, result.getStockName());
-            return result;
-        }
+        final String cleanStockCode = StockCodes.stripPrefix(stockCode);
         
-        // 数据库中没有找到，尝试调用腾讯财经API查询
+        // 内存索引包含所有启用的股票，未命中时才调用腾讯财经API；未知代码进入负缓存
+        return stockInfoRegistry.resolve(cleanStockCode, code -> loadFromApi(stockCode));
+    }
+
+    /**
+     * 索引中没有该代码时调用腾讯财经API查询并保存
+     */
+    private StockInfo loadFromApi(String stockCode) {
         log.info("数据库中未找到股票代码 {}，尝试调用腾讯财经API查询", stockCode);
         try {
             Map<String, Object> apiResult = tencentFinanceApiUtil.getStockInfoByCode(stockCode);
@@ -95,6 +95,27 @@ public class StockInfoServiceImpl extends ServiceImpl<StockInfoMapper, StockInfo
         return null;
     }
 
+    @Override
+    public boolean save(StockInfo entity) {
+        boolean saved = super.save(entity);
+        stockInfoRegistry.invalidate();
+        return saved;
+    }
+
+    @Override
+    public boolean updateById(StockInfo entity) {
+        boolean updated = super.updateById(entity);
+        stockInfoRegistry.invalidate();
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        stockInfoRegistry.invalidate();
+        return removed;
+    }
+
     /**
      * 将腾讯财经API返回的结果转换为StockInfo对象
      */
@@ -141,6 +162,30 @@ public class StockInfoServiceImpl extends ServiceImpl<StockInfoMapper, StockInfo
     @Override
     public StockDetailVO getStockDetail(String stockCode) {
         try {
+            // 内存快照命中时直接返回，不访问数据库；分片采集或Quartz调度时内存快照不完整，读快照表
+            String cleanStockCode = StockCodes.stripPrefix(stockCode);
+            boolean partial = collectorShardService.isLocalViewPartial();
+            if (partial) {
+                StockDetailVO fromSnapshot = getStockDetailFromSnapshot(stockCode);
+                if (fromSnapshot != null) {
+                    return fromSnapshot;
+                }
+            }
+            LatestQuote quote = partial ? null : latestQuoteStore.get(cleanStockCode);
+            if (quote != null && LocalDate.now().equals(quote.getTradeDate())) {
+                StockDetailVO stockDetail = new StockDetailVO();
+                stockDetail.setStockCode(stockCode);
+                stockDetail.setStockName(quote.getStockName());
+                stockDetail.setAStockCode(quote.getAStockCode());
+                stockDetail.setHStockCode(quote.getHStockCode());
+                stockDetail.setAStockPrice(quote.getAStockPrice());
+                stockDetail.setHStockPrice(quote.getHStockPrice());
+                stockDetail.setExchangeRate(quote.getExchangeRate());
+                stockDetail.setPremiumRate(quote.getPremiumRate());
+                return stockDetail;
+            }
+
+            // 冷启动时从数据库查询
             // 1. 获取股票基本信息
             StockInfo stockInfo = getByStockCode(stockCode);
             if (stockInfo == null) {
@@ -163,7 +208,7 @@ public class StockInfoServiceImpl extends ServiceImpl<StockInfoMapper, StockInfo
                 if (aStockPrices != null && !aStockPrices.isEmpty()) {
                     // 获取最新的价格记录
                     StockPriceRecord latestAPrice = aStockPrices.stream()
-                            .filter(record -> "A股".equals(record.getMarketType()))
+                            .filter(record -> "A".equals(record.getMarketType()))
                             .max((r1, r2) -> r1.getRecordTime().compareTo(r2.getRecordTime()))
                             .orElse(null);
                     if (latestAPrice != null) {
@@ -178,7 +223,7 @@ public class StockInfoServiceImpl extends ServiceImpl<StockInfoMapper, StockInfo
                 if (hStockPrices != null && !hStockPrices.isEmpty()) {
                     // 获取最新的价格记录
                     StockPriceRecord latestHPrice = hStockPrices.stream()
-                            .filter(record -> "H股".equals(record.getMarketType()))
+                            .filter(record -> "H".equals(record.getMarketType()))
                             .max((r1, r2) -> r1.getRecordTime().compareTo(r2.getRecordTime()))
                             .orElse(null);
                     if (latestHPrice != null) {
@@ -217,4 +262,28 @@ public class StockInfoServiceImpl extends ServiceImpl<StockInfoMapper, StockInfo
             return null;
         }
     }
+
+    /**
+     * 从最新溢价率快照表组装股票详情，当日还没有快照时返回null
+     */
+    private StockDetailVO getStockDetailFromSnapshot(String stockCode) {
+        StockInfo stockInfo = getByStockCode(stockCode);
+        if (stockInfo == null || stockInfo.getAStockCode() == null) {
+            return null;
+        }
+        PremiumRateRecord snapshot = premiumRateService.getLatestSnapshot(stockInfo.getAStockCode(), LocalDate.now());
+        if (snapshot == null) {
+            return null;
+        }
+        StockDetailVO stockDetail = new StockDetailVO();
+        stockDetail.setStockCode(stockCode);
+        stockDetail.setStockName(stockInfo.getStockName());
+        stockDetail.setAStockCode(stockInfo.getAStockCode());
+        stockDetail.setHStockCode(stockInfo.getHStockCode());
+        stockDetail.setAStockPrice(snapshot.getAStockPrice());
+        stockDetail.setHStockPrice(snapshot.getHStockPrice());
+        stockDetail.setExchangeRate(snapshot.getExchangeRate());
+        stockDetail.setPremiumRate(snapshot.getPremiumRate());
+        return stockDetail;
+    }
 }
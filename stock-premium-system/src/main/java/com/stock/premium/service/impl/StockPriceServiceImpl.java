@@ -3,11 +3,13 @@ package com.stock.premium.service.impl;
 import com.stock.premium.entity.StockPriceRecord;
 import com.stock.premium.mapper.StockPriceRecordMapper;
 import com.stock.premium.service.StockPriceService;
+import com.stock.premium.service.TickArchiveService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -23,6 +25,9 @@ public class StockPriceServiceImpl implements StockPriceService {
     @Autowired
     private StockPriceRecordMapper stockPriceRecordMapper;
 
+    @Autowired
+    private TickArchiveService tickArchiveService;
+
     @Override
     public boolean saveStockPriceRecord(StockPriceRecord record) {
         try {
@@ -43,7 +48,13 @@ public class StockPriceServiceImpl implements StockPriceService {
     @Override
     public List<StockPriceRecord> getByStockCodeAndDate(String stockCode, LocalDate tradeDate) {
         try {
-            return stockPriceRecordMapper.selectByStockCodeAndDate(stockCode, tradeDate);
+            List<StockPriceRecord> records = stockPriceRecordMapper.selectByStockCodeAndDate(stockCode, tradeDate);
+            if (records.isEmpty() && tickArchiveService.isEnabled()) {
+                // 与数据库查询一致按记录时间倒序
+                records = tickArchiveService.readPrices(stockCode, tradeDate, tradeDate);
+                Collections.reverse(records);
+            }
+            return records;
         } catch (Exception e) {
             log.error("查询股票价格记录时发生错误: stockCode={}, tradeDate={}", stockCode, tradeDate, e);
             return null;
@@ -0,0 +1,57 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.dto.FxRate;
+import com.stock.premium.service.FxRateSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 本地汇率来源，用于测试和离线环境
+ * 未单独设置的货币对返回 exchange-rate.stub.default-rate
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Component
+@ConditionalOnProperty(name = "exchange-rate.source", havingValue = "stub")
+public class StubFxRateSource implements FxRateSource {
+
+    private final Map<String, BigDecimal> rates = new ConcurrentHashMap<>();
+
+    @Value("${exchange-rate.stub.default-rate:0.92}")
+    private BigDecimal defaultRate;
+
+    /**
+     * 设置某个货币对的汇率
+     */
+    public void setRate(String currencyPair, BigDecimal rate) {
+        rates.put(currencyPair, rate);
+    }
+
+    @Override
+    public String getName() {
+        return "stub";
+    }
+
+    @Override
+    public List<FxRate> fetch(Collection<String> currencyPairs) {
+        List<FxRate> result = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (String pair : currencyPairs) {
+            BigDecimal rate = rates.getOrDefault(pair, defaultRate);
+            if (rate != null) {
+                result.add(new FxRate(pair, rate, now, getName()));
+            }
+        }
+        return result;
+    }
+}
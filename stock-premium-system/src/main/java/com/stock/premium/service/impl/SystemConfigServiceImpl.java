@@ -0,0 +1,62 @@
+package com.stock.premium.service.impl;
+
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.stock.premium.entity.SystemConfig;
+import com.stock.premium.mapper.SystemConfigMapper;
+import com.stock.premium.service.SystemConfigService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * 系统配置服务实现类
+ * 每次读取都查询数据库，修改 system_config 后下次读取即生效
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Slf4j
+@Service
+public class SystemConfigServiceImpl extends ServiceImpl<SystemConfigMapper, SystemConfig> implements SystemConfigService {
+
+    @Override
+    public String getConfigValue(String configKey) {
+        SystemConfig config = baseMapper.selectByConfigKey(configKey);
+        return config != null ? config.getConfigValue() : null;
+    }
+
+    @Override
+    public int getIntValue(String configKey, int defaultValue) {
+        try {
+            String value = getConfigValue(configKey);
+            return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+        } catch (NumberFormatException e) {
+            log.warn("配置 {} 不是合法整数，使用默认值 {}", configKey, defaultValue);
+            return defaultValue;
+        } catch (Exception e) {
+            log.error("读取配置 {} 失败，使用默认值 {}", configKey, defaultValue, e);
+            return defaultValue;
+        }
+    }
+
+    @Override
+    public boolean getBooleanValue(String configKey, boolean defaultValue) {
+        try {
+            String value = getConfigValue(configKey);
+            if (value == null) {
+                return defaultValue;
+            }
+            value = value.trim();
+            return "1".equals(value) || "true".equalsIgnoreCase(value);
+        } catch (Exception e) {
+            log.error("读取配置 {} 失败，使用默认值 {}", configKey, defaultValue, e);
+            return defaultValue;
+        }
+    }
+
+    @Override
+    public boolean updateConfigValue(String configKey, String configValue) {
+        int rows = baseMapper.updateByConfigKey(configKey, configValue);
+        log.info("更新配置 {} = {}, 影响 {} 行", configKey, configValue, rows);
+        return rows > 0;
+    }
+}
@@ -1,19 +1,27 @@
 package com.stock.premium.service.impl;
 
-import cn.hutool.core.util.StrUtil;
-import cn.hutool.http.HttpUtil;
 import com.stock.premium.entity.StockPriceRecord;
+import com.stock.premium.metrics.CollectionMetrics;
 import com.stock.premium.service.TencentFinanceService;
+import com.stock.premium.service.TradingSessionService;
+import com.stock.premium.utils.TencentQuoteClient;
+import com.stock.premium.utils.StockCodes;
+import com.stock.premium.utils.TencentQuoteParser;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.math.BigDecimal;
-import java.time.LocalDate;
+import javax.annotation.PostConstruct;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 腾讯财经API服务实现类
@@ -25,27 +33,53 @@ import java.util.List;
 @Service
 public class TencentFinanceServiceImpl implements TencentFinanceService {
 
-    @Value("${tencent.finance.api.base-url:https://qt.gtimg.cn/q=}")
-    private String baseUrl;
+    @Autowired
+    private TencentQuoteClient tencentQuoteClient;
 
-    @Value("${tencent.finance.api.timeout:5000}")
-    private int timeout;
+    @Autowired
+    private TradingSessionService tradingSessionService;
+
+    @Autowired
+    private CollectionMetrics collectionMetrics;
+
+    @Value("${tencent.finance.api.batch-size:60}")
+    private int batchSize;
+
+    @Value("${tencent.finance.api.batch-concurrency:4}")
+    private int batchConcurrency;
+
+    /**
+     * 批次大小为0时分批循环不会结束，并发数小于1时 flatMap 直接报错，配置错误时按1处理
+     */
+    @PostConstruct
+    public void init() {
+        if (batchSize < 1 || batchConcurrency < 1) {
+            log.warn("腾讯财经API分批配置无效(batch-size={}, batch-concurrency={})，小于1的按1处理", batchSize, batchConcurrency);
+            batchSize = Math.max(1, batchSize);
+            batchConcurrency = Math.max(1, batchConcurrency);
+        }
+        log.info("腾讯财经API分批请求: batchSize={}, batchConcurrency={}", batchSize, batchConcurrency);
+    }
 
     @Override
     public StockPriceRecord getStockPrice(String stockCode, String marketType) {
         try {
             String fullCode = buildFullStockCode(stockCode, marketType);
-            String url = baseUrl + fullCode;
             
-            log.debug("请求腾讯财经API: {}", url);
-            String response = HttpUtil.get(url, timeout);
+            log.debug("请求腾讯财经API: {}", fullCode);
+            byte[] response = tencentQuoteClient.fetchBytes(fullCode).block();
             
-            if (StrUtil.isBlank(response)) {
+            if (response == null || response.length == 0) {
                 log.warn("腾讯财经API返回空数据: {}", stockCode);
                 return null;
             }
 
-            return parseStockData(response, stockCode, marketType);
+            List<StockPriceRecord> records = TencentQuoteParser.parseRecords(response, Map.of(fullCode, stockCode));
+            if (records.isEmpty()) {
+                log.warn("股票数据格式不正确: {}", stockCode);
+                return null;
+            }
+            return records.get(0);
         } catch (Exception e) {
             log.error("获取股票价格失败: stockCode={}, marketType={}", stockCode, marketType, e);
             return null;
@@ -54,82 +88,96 @@ public class TencentFinanceServiceImpl implements TencentFinanceService {
 
     @Override
     public List<StockPriceRecord> getBatchStockPrices(List<String> stockCodes) {
-        List<StockPriceRecord> results = new ArrayList<>();
-        
+        return getBatchStockPricesAsync(stockCodes).join();
+    }
+
+    @Override
+    public CompletableFuture<List<StockPriceRecord>> getBatchStockPricesAsync(List<String> stockCodes) {
         if (stockCodes == null || stockCodes.isEmpty()) {
-            return results;
+            return CompletableFuture.completedFuture(new ArrayList<>());
         }
 
-        try {
-            // 构建批量请求的股票代码
-            StringBuilder codeBuilder = new StringBuilder();
-            for (String code : stockCodes) {
-                if (codeBuilder.length() > 0) {
-                    codeBuilder.append(",");
-                }
-                // 根据代码判断市场类型
-                String marketType = determineMarketType(code);
-                codeBuilder.append(buildFullStockCode(code, marketType));
+        // 先按市场分组，再按批次拆分请求，避免单个URL过长，也便于分别统计A股、H股的请求耗时；各批次并发请求
+        Map<String, List<String>> byMarket = new LinkedHashMap<>();
+        for (String code : stockCodes) {
+            byMarket.computeIfAbsent(determineMarketType(code), k -> new ArrayList<>()).add(code);
+        }
+        List<List<String>> chunks = new ArrayList<>();
+        for (List<String> codes : byMarket.values()) {
+            for (int from = 0; from < codes.size(); from += batchSize) {
+                chunks.add(codes.subList(from, Math.min(from + batchSize, codes.size())));
             }
+        }
 
-            String url = baseUrl + codeBuilder.toString();
-            log.debug("批量请求腾讯财经API: {}", url);
-            
-            String response = HttpUtil.get(url, timeout);
-            if (StrUtil.isBlank(response)) {
-                log.warn("腾讯财经API批量请求返回空数据");
-                return results;
-            }
+        return Flux.fromIterable(chunks)
+                .flatMap(this::fetchBatch, batchConcurrency)
+                .flatMapIterable(records -> records)
+                .collectList()
+                .toFuture();
+    }
 
-            // 解析批量响应数据
-            String[] lines = response.split("\n");
-            for (int i = 0; i < lines.length && i < stockCodes.size(); i++) {
-                String stockCode = stockCodes.get(i);
-                String marketType = determineMarketType(stockCode);
-                StockPriceRecord record = parseStockData(lines[i], stockCode, marketType);
-                if (record != null) {
-                    results.add(record);
-                }
-            }
-        } catch (Exception e) {
-            log.error("批量获取股票价格失败", e);
+    /**
+     * 单次多代码请求（同一市场），响应行按 v_xxx= 中的代码匹配，而不是按行序号
+     */
+    private Mono<List<StockPriceRecord>> fetchBatch(List<String> stockCodes) {
+        String market = determineMarketType(stockCodes.get(0));
+        // 完整代码(如sh601088) -> 原始代码
+        Map<String, String> symbolToCode = new LinkedHashMap<>();
+        for (String code : stockCodes) {
+            // 根据代码判断市场类型
+            String marketType = determineMarketType(code);
+            symbolToCode.put(buildFullStockCode(code, marketType), code);
+        }
+
+        String symbols = String.join(",", symbolToCode.keySet());
+        log.debug("批量请求腾讯财经API: {}", symbols);
+
+        return Mono.defer(() -> {
+                    Timer.Sample sample = Timer.start();
+                    return tencentQuoteClient.fetchBytes(symbols)
+                            .doFinally(signal -> sample.stop(collectionMetrics.fetch(market)));
+                })
+                .map(response -> parseBatchResponse(response, symbolToCode, market))
+                .onErrorResume(e -> {
+                    log.error("批量获取股票价格失败: {}", symbols, e);
+                    collectionMetrics.apiError(market, e);
+                    return Mono.just(new ArrayList<>());
+                });
+    }
+
+    /**
+     * 解析批量响应数据，一次扫描处理所有代码
+     */
+    private List<StockPriceRecord> parseBatchResponse(byte[] response, Map<String, String> symbolToCode, String market) {
+        if (response.length == 0) {
+            log.warn("腾讯财经API批量请求返回空数据");
+            collectionMetrics.emptyResponse(market);
+            return new ArrayList<>();
         }
 
+        List<StockPriceRecord> results = collectionMetrics.stage(CollectionMetrics.STAGE_PARSE)
+                .record(() -> TencentQuoteParser.parseRecords(response, symbolToCode));
+        if (results.size() < symbolToCode.size()) {
+            log.debug("批量请求 {} 个代码，成功解析 {} 个", symbolToCode.size(), results.size());
+        }
         return results;
     }
 
     @Override
     public boolean isMarketOpen(String marketType) {
-        LocalTime now = LocalTime.now();
-        
-        if ("A".equals(marketType)) {
-            // A股交易时间: 9:30-11:30, 13:00-15:00
-            return (now.isAfter(LocalTime.of(9, 30)) && now.isBefore(LocalTime.of(11, 30))) ||
-                   (now.isAfter(LocalTime.of(13, 0)) && now.isBefore(LocalTime.of(15, 0)));
-        } else if ("H".equals(marketType)) {
-            // 港股交易时间: 9:30-12:00, 13:00-16:00
-            return (now.isAfter(LocalTime.of(9, 30)) && now.isBefore(LocalTime.of(12, 0))) ||
-                   (now.isAfter(LocalTime.of(13, 0)) && now.isBefore(LocalTime.of(16, 0)));
-        }
-        
-        return false;
+        return tradingSessionService.isMarketOpen(marketType, LocalDateTime.now());
     }
 
     /**
      * 构建完整的股票代码
      */
     private String buildFullStockCode(String stockCode, String marketType) {
-        if ("A".equals(marketType)) {
-            // A股代码格式
-            if (stockCode.startsWith("6")) {
-                return "sh" + stockCode; // 上海
-            } else {
-                return "sz" + stockCode; // 深圳
-            }
-        } else if ("H".equals(marketType)) {
-            // 港股代码格式
+        if (StockCodes.MARKET_H.equals(marketType)) {
             return "hk" + stockCode;
         }
+        if (StockCodes.MARKET_A.equals(marketType)) {
+            return StockCodes.toSymbol(stockCode);
+        }
         return stockCode;
     }
 
@@ -137,64 +185,7 @@ public class TencentFinanceServiceImpl implements TencentFinanceService {
      * 根据股票代码判断市场类型
      */
     private String determineMarketType(String stockCode) {
-        if (stockCode.length() == 6 && stockCode.matches("\\d+")) {
-            return "A"; // A股
-        } else if (stockCode.length() == 5 && stockCode.matches("\\d+")) {
-            return "H"; // 港股
-        }
-        return "A"; // 默认A股
-    }
-
-    /**
-     * 解析股票数据
-     */
-    private StockPriceRecord parseStockData(String data, String stockCode, String marketType) {
-        try {
-            if (StrUtil.isBlank(data) || !data.contains("=")) {
-                return null;
-            }
-
-            // 腾讯财经API返回格式: v_sh000001="51~平安银行~000001~12.34~12.30~12.35~..."
-            String[] parts = data.split("=");
-            if (parts.length < 2) {
-                return null;
-            }
-
-            String content = parts[1].replace("\"", "").replace(";", "");
-            String[] fields = content.split("~");
-            
-            if (fields.length < 10) {
-                log.warn("股票数据格式不正确: {}", data);
-                return null;
-            }
-
-            StockPriceRecord record = new StockPriceRecord();
-            record.setStockCode(stockCode);
-            record.setMarketType(marketType);
-            record.setCurrentPrice(new BigDecimal(fields[3])); // 当前价
-            record.setPreClosePrice(new BigDecimal(fields[4])); // 昨收价
-            record.setOpenPrice(new BigDecimal(fields[5])); // 开盘价
-            record.setHighPrice(new BigDecimal(fields[33])); // 最高价
-            record.setLowPrice(new BigDecimal(fields[34])); // 最低价
-            
-            // 计算涨跌幅
-            if (record.getPreClosePrice().compareTo(BigDecimal.ZERO) > 0) {
-                BigDecimal changeRate = record.getCurrentPrice()
-                    .subtract(record.getPreClosePrice())
-                    .divide(record.getPreClosePrice(), 4, java.math.RoundingMode.HALF_UP)
-                    .multiply(new BigDecimal("100"));
-                record.setChangeRate(changeRate);
-            }
-
-            record.setRecordTime(LocalDateTime.now());
-            record.setTradeDate(LocalDate.now());
-            record.setDataSource("tencent");
-
-            return record;
-        } catch (Exception e) {
-            log.error("解析股票数据失败: {}", data, e);
-            return null;
-        }
+        return StockCodes.marketType(stockCode);
     }
 
 }
\ No newline at end of file
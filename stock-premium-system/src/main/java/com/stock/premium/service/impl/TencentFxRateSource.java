@@ -0,0 +1,86 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.dto.FxRate;
+import com.stock.premium.service.FxRateSource;
+import com.stock.premium.utils.TencentQuoteClient;
+import com.stock.premium.utils.TencentQuoteParser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 腾讯财经汇率来源，代码格式为 wh + 货币对（如 whHKDCNY、whUSDCNY）
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "exchange-rate.source", havingValue = "tencent", matchIfMissing = true)
+public class TencentFxRateSource implements FxRateSource {
+
+    /**
+     * 汇率保留6位小数，与 exchange_rate_record.rate 一致
+     */
+    private static final int RATE_SCALE = 6;
+
+    private static final String SYMBOL_PREFIX = "wh";
+
+    private static final byte[] SYMBOL_PREFIX_BYTES = SYMBOL_PREFIX.getBytes(StandardCharsets.ISO_8859_1);
+
+    @Autowired
+    private TencentQuoteClient tencentQuoteClient;
+
+    /**
+     * 汇率所在字段序号
+     */
+    @Value("${exchange-rate.tencent.rate-field:3}")
+    private int rateField;
+
+    @Override
+    public String getName() {
+        return "tencent";
+    }
+
+    @Override
+    public List<FxRate> fetch(Collection<String> currencyPairs) {
+        List<FxRate> rates = new ArrayList<>();
+        if (currencyPairs == null || currencyPairs.isEmpty()) {
+            return rates;
+        }
+        List<String> symbols = new ArrayList<>(currencyPairs.size());
+        for (String pair : currencyPairs) {
+            symbols.add(SYMBOL_PREFIX + pair);
+        }
+
+        byte[] response = tencentQuoteClient.fetchBytes(String.join(",", symbols)).block();
+        if (response == null || response.length == 0) {
+            log.warn("腾讯财经汇率接口返回空数据: {}", symbols);
+            return rates;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        TencentQuoteParser.parse(response, line -> {
+            if (!line.symbolStartsWith(SYMBOL_PREFIX_BYTES)) {
+                return;
+            }
+            String symbol = line.symbol();
+            long fixed = line.fieldAsFixed(rateField, RATE_SCALE);
+            if (fixed == TencentQuoteParser.INVALID || fixed <= 0) {
+                log.warn("汇率数据格式不正确: {}", symbol);
+                return;
+            }
+            rates.add(new FxRate(symbol.substring(SYMBOL_PREFIX.length()), BigDecimal.valueOf(fixed, RATE_SCALE), now, getName()));
+        });
+        return rates;
+    }
+}
@@ -0,0 +1,384 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.entity.PremiumRateRecord;
+import com.stock.premium.entity.StockPriceRecord;
+import com.stock.premium.mapper.PremiumRateRecordMapper;
+import com.stock.premium.mapper.StockPriceRecordMapper;
+import com.stock.premium.scheduled.DataCollectionTask;
+import com.stock.premium.service.TickArchiveService;
+import com.stock.premium.utils.ColumnarArchiveFile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 明细列式归档服务实现类
+ * 目录结构：{archive.tick.dir}/{表名}/{yyyyMM}/{股票代码}.tca，
+ * 一个月先写到 {yyyyMM}.tmp 目录，全部股票写完后整体改名，月份目录存在即表示该月已完整归档。
+ * 归档不保存 id 和 created_time。
+ * 多实例部署(Quartz调度或分片采集)时归档由执行分区维护的节点写入，其他节点要读到须共享同一目录，
+ * 未声明 archive.tick.shared=true 时拒绝归档和读取，避免各节点的历史查询静默缺少已归档的日期
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+@Slf4j
+@Service
+public class TickArchiveServiceImpl implements TickArchiveService {
+
+    public static final String STOCK_PRICE_TABLE = "stock_price_record";
+
+    public static final String PREMIUM_RATE_TABLE = "premium_rate_record";
+
+    static final String FILE_SUFFIX = ".tca";
+
+    private static final DateTimeFormatter MONTH_DIR = DateTimeFormatter.ofPattern("yyyyMM");
+
+    /**
+     * 股票代码直接作为文件名，只接受字母和数字
+     */
+    private static final Pattern STOCK_CODE = Pattern.compile("[0-9A-Za-z]{1,20}");
+
+    @Autowired
+    private StockPriceRecordMapper stockPriceRecordMapper;
+
+    @Autowired
+    private PremiumRateRecordMapper premiumRateRecordMapper;
+
+    @Value("${archive.tick.enabled:false}")
+    private boolean enabled;
+
+    @Value("${archive.tick.dir:./data/tick-archive}")
+    private String archiveDir;
+
+    /**
+     * 归档目录是否为各实例共享的存储(NFS等)，多实例部署时必须为true
+     */
+    @Value("${archive.tick.shared:false}")
+    private boolean shared;
+
+    @Value("${schedule.mode:local}")
+    private String scheduleMode;
+
+    @Value("${collector.sharding.enabled:false}")
+    private boolean sharding;
+
+    @PostConstruct
+    public void init() {
+        if (enabled && isClustered() && !shared) {
+            log.error("多实例部署时归档目录 {} 须为共享存储并设置 archive.tick.shared=true，归档和读取归档将被拒绝", archiveDir);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public long archiveBefore(String table, LocalDate before) {
+        checkShared();
+        if (before.getDayOfMonth() != 1) {
+            throw new IllegalArgumentException("归档截止日期必须是月初: " + before);
+        }
+        LocalDate earliest;
+        if (STOCK_PRICE_TABLE.equals(table)) {
+            earliest = stockPriceRecordMapper.selectMinTradeDateBefore(before);
+        } else if (PREMIUM_RATE_TABLE.equals(table)) {
+            earliest = premiumRateRecordMapper.selectMinTradeDateBefore(before);
+        } else {
+            throw new IllegalArgumentException("不支持归档的表: " + table);
+        }
+        if (earliest == null) {
+            return 0;
+        }
+
+        long rows = 0;
+        for (YearMonth month = YearMonth.from(earliest); month.isBefore(YearMonth.from(before)); month = month.plusMonths(1)) {
+            Path dir = monthDir(table, month);
+            if (Files.isDirectory(dir)) {
+                continue;
+            }
+            try {
+                rows += archiveMonth(table, month, dir);
+            } catch (IOException e) {
+                throw new UncheckedIOException("归档失败: " + table + " " + month, e);
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public List<StockPriceRecord> readPrices(String stockCode, LocalDate startDate, LocalDate endDate) {
+        List<StockPriceRecord> records = new ArrayList<>();
+        for (Path file : archivedFiles(STOCK_PRICE_TABLE, stockCode, startDate, endDate)) {
+            for (StockPriceRecord record : readPriceFile(file, stockCode)) {
+                if (!record.getTradeDate().isBefore(startDate) && !record.getTradeDate().isAfter(endDate)) {
+                    records.add(record);
+                }
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public List<PremiumRateRecord> readPremiums(String stockCode, LocalDate startDate, LocalDate endDate) {
+        List<PremiumRateRecord> records = new ArrayList<>();
+        for (Path file : archivedFiles(PREMIUM_RATE_TABLE, stockCode, startDate, endDate)) {
+            for (PremiumRateRecord record : readPremiumFile(file, stockCode)) {
+                if (!record.getTradeDate().isBefore(startDate) && !record.getTradeDate().isAfter(endDate)) {
+                    records.add(record);
+                }
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public List<PremiumRateRecord> readPremiums(String stockCode, LocalDate startDate, LocalDate endDate, long offset, int limit) {
+        List<PremiumRateRecord> records = new ArrayList<>(Math.min(limit, 1024));
+        long skip = offset;
+        for (Path file : archivedFiles(PREMIUM_RATE_TABLE, stockCode, startDate, endDate)) {
+            if (records.size() >= limit) {
+                break;
+            }
+            int rows = countInRange(file, startDate, endDate);
+            if (skip >= rows) {
+                skip -= rows;
+                continue;
+            }
+            for (PremiumRateRecord record : readPremiumFile(file, stockCode)) {
+                if (record.getTradeDate().isBefore(startDate) || record.getTradeDate().isAfter(endDate)) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                records.add(record);
+                if (records.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public long countPremiums(String stockCode, LocalDate startDate, LocalDate endDate) {
+        long rows = 0;
+        for (Path file : archivedFiles(PREMIUM_RATE_TABLE, stockCode, startDate, endDate)) {
+            rows += countInRange(file, startDate, endDate);
+        }
+        return rows;
+    }
+
+    private long archiveMonth(String table, YearMonth month, Path dir) throws IOException {
+        long start = System.currentTimeMillis();
+        Path staging = dir.resolveSibling(dir.getFileName() + ".tmp");
+        deleteRecursively(staging);
+        Files.createDirectories(staging);
+
+        LocalDate first = month.atDay(1);
+        LocalDate last = month.atEndOfMonth();
+        long rows = 0;
+        if (STOCK_PRICE_TABLE.equals(table)) {
+            for (String stockCode : stockPriceRecordMapper.selectStockCodesByDateRange(first, last)) {
+                List<StockPriceRecord> records = stockPriceRecordMapper.selectByStockAndDateRange(stockCode, first, last);
+                writePriceFile(records, staging.resolve(stockCode + FILE_SUFFIX));
+                rows += records.size();
+            }
+        } else {
+            for (String stockCode : premiumRateRecordMapper.selectStockCodesByDateRange(first, last)) {
+                List<PremiumRateRecord> records = premiumRateRecordMapper.selectByStockAndDateRange(stockCode, first, last);
+                writePremiumFile(records, staging.resolve(stockCode + FILE_SUFFIX));
+                rows += records.size();
+            }
+        }
+        Files.move(staging, dir, StandardCopyOption.ATOMIC_MOVE);
+        log.info("{} {} 已归档 {} 行, 耗时 {} ms", table, month, rows, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    /**
+     * 价格列的精度与 stock_price_record 的字段定义一致
+     */
+    static void writePriceFile(List<StockPriceRecord> records, Path file) throws IOException {
+        new ColumnarArchiveFile.Writer(records.size())
+                .times("record_time", records.stream().map(StockPriceRecord::getRecordTime).toArray(LocalDateTime[]::new))
+                .dates("trade_date", records.stream().map(StockPriceRecord::getTradeDate).toArray(LocalDate[]::new))
+                .strings("market_type", records.stream().map(StockPriceRecord::getMarketType).toArray(String[]::new))
+                .decimals("current_price", 3, records.stream().map(StockPriceRecord::getCurrentPrice).toArray(BigDecimal[]::new))
+                .decimals("open_price", 3, records.stream().map(StockPriceRecord::getOpenPrice).toArray(BigDecimal[]::new))
+                .decimals("high_price", 3, records.stream().map(StockPriceRecord::getHighPrice).toArray(BigDecimal[]::new))
+                .decimals("low_price", 3, records.stream().map(StockPriceRecord::getLowPrice).toArray(BigDecimal[]::new))
+                .decimals("pre_close_price", 3, records.stream().map(StockPriceRecord::getPreClosePrice).toArray(BigDecimal[]::new))
+                .longs("volume", records.stream().map(StockPriceRecord::getVolume).toArray(Long[]::new))
+                .decimals("turnover", 2, records.stream().map(StockPriceRecord::getTurnover).toArray(BigDecimal[]::new))
+                .decimals("change_rate", 3, records.stream().map(StockPriceRecord::getChangeRate).toArray(BigDecimal[]::new))
+                .strings("data_source", records.stream().map(StockPriceRecord::getDataSource).toArray(String[]::new))
+                .write(file);
+    }
+
+    static List<StockPriceRecord> readPriceFile(Path file, String stockCode) {
+        try (ColumnarArchiveFile.Reader reader = ColumnarArchiveFile.Reader.open(file)) {
+            LocalDateTime[] recordTimes = reader.times("record_time");
+            LocalDate[] tradeDates = reader.dates("trade_date");
+            String[] marketTypes = reader.strings("market_type");
+            BigDecimal[] currentPrices = reader.decimals("current_price");
+            BigDecimal[] openPrices = reader.decimals("open_price");
+            BigDecimal[] highPrices = reader.decimals("high_price");
+            BigDecimal[] lowPrices = reader.decimals("low_price");
+            BigDecimal[] preClosePrices = reader.decimals("pre_close_price");
+            Long[] volumes = reader.longs("volume");
+            BigDecimal[] turnovers = reader.decimals("turnover");
+            BigDecimal[] changeRates = reader.decimals("change_rate");
+            String[] dataSources = reader.strings("data_source");
+
+            List<StockPriceRecord> records = new ArrayList<>(reader.getRowCount());
+            for (int i = 0; i < reader.getRowCount(); i++) {
+                StockPriceRecord record = new StockPriceRecord();
+                record.setStockCode(stockCode);
+                record.setRecordTime(recordTimes[i]);
+                record.setTradeDate(tradeDates[i]);
+                record.setMarketType(marketTypes[i]);
+                record.setCurrentPrice(currentPrices[i]);
+                record.setOpenPrice(openPrices[i]);
+                record.setHighPrice(highPrices[i]);
+                record.setLowPrice(lowPrices[i]);
+                record.setPreClosePrice(preClosePrices[i]);
+                record.setVolume(volumes[i]);
+                record.setTurnover(turnovers[i]);
+                record.setChangeRate(changeRates[i]);
+                record.setDataSource(dataSources[i]);
+                records.add(record);
+            }
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取归档失败: " + file, e);
+        }
+    }
+
+    /**
+     * 溢价率列的精度与 premium_rate_record 的字段定义一致
+     */
+    static void writePremiumFile(List<PremiumRateRecord> records, Path file) throws IOException {
+        new ColumnarArchiveFile.Writer(records.size())
+                .times("record_time", records.stream().map(PremiumRateRecord::getRecordTime).toArray(LocalDateTime[]::new))
+                .dates("trade_date", records.stream().map(PremiumRateRecord::getTradeDate).toArray(LocalDate[]::new))
+                .decimals("a_stock_price", 3, records.stream().map(PremiumRateRecord::getAStockPrice).toArray(BigDecimal[]::new))
+                .decimals("h_stock_price", 3, records.stream().map(PremiumRateRecord::getHStockPrice).toArray(BigDecimal[]::new))
+                .decimals("exchange_rate", 6, records.stream().map(PremiumRateRecord::getExchangeRate).toArray(BigDecimal[]::new))
+                .decimals("premium_rate", 4, records.stream().map(PremiumRateRecord::getPremiumRate).toArray(BigDecimal[]::new))
+                .write(file);
+    }
+
+    static List<PremiumRateRecord> readPremiumFile(Path file, String stockCode) {
+        try (ColumnarArchiveFile.Reader reader = ColumnarArchiveFile.Reader.open(file)) {
+            LocalDateTime[] recordTimes = reader.times("record_time");
+            LocalDate[] tradeDates = reader.dates("trade_date");
+            BigDecimal[] aStockPrices = reader.decimals("a_stock_price");
+            BigDecimal[] hStockPrices = reader.decimals("h_stock_price");
+            BigDecimal[] exchangeRates = reader.decimals("exchange_rate");
+            BigDecimal[] premiumRates = reader.decimals("premium_rate");
+
+            List<PremiumRateRecord> records = new ArrayList<>(reader.getRowCount());
+            for (int i = 0; i < reader.getRowCount(); i++) {
+                PremiumRateRecord record = new PremiumRateRecord();
+                record.setStockCode(stockCode);
+                record.setRecordTime(recordTimes[i]);
+                record.setTradeDate(tradeDates[i]);
+                record.setAStockPrice(aStockPrices[i]);
+                record.setHStockPrice(hStockPrices[i]);
+                record.setExchangeRate(exchangeRates[i]);
+                record.setPremiumRate(premiumRates[i]);
+                records.add(record);
+            }
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取归档失败: " + file, e);
+        }
+    }
+
+    /**
+     * 文件中 trade_date 在日期范围内的行数，只解码 trade_date 列
+     */
+    static int countInRange(Path file, LocalDate startDate, LocalDate endDate) {
+        try (ColumnarArchiveFile.Reader reader = ColumnarArchiveFile.Reader.open(file)) {
+            int rows = 0;
+            for (LocalDate tradeDate : reader.dates("trade_date")) {
+                if (!tradeDate.isBefore(startDate) && !tradeDate.isAfter(endDate)) {
+                    rows++;
+                }
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取归档失败: " + file, e);
+        }
+    }
+
+    /**
+     * 日期范围涉及的月份中存在的归档文件，未启用归档或代码不合法时为空
+     */
+    private List<Path> archivedFiles(String table, String stockCode, LocalDate startDate, LocalDate endDate) {
+        List<Path> files = new ArrayList<>();
+        if (!enabled || stockCode == null || !STOCK_CODE.matcher(stockCode).matches() || endDate.isBefore(startDate)) {
+            return files;
+        }
+        checkShared();
+        for (YearMonth month = YearMonth.from(startDate); !month.isAfter(YearMonth.from(endDate)); month = month.plusMonths(1)) {
+            Path file = monthDir(table, month).resolve(stockCode + FILE_SUFFIX);
+            if (Files.isRegularFile(file)) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    private boolean isClustered() {
+        return sharding || DataCollectionTask.MODE_QUARTZ.equals(scheduleMode);
+    }
+
+    /**
+     * 多实例部署而归档目录未声明为共享存储时，只有执行过分区维护的节点有归档文件
+     */
+    private void checkShared() {
+        if (isClustered() && !shared) {
+            throw new IllegalStateException("多实例部署时归档目录须为共享存储并设置 archive.tick.shared=true");
+        }
+    }
+
+    private Path monthDir(String table, YearMonth month) {
+        return Paths.get(archiveDir, table, month.format(MONTH_DIR));
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
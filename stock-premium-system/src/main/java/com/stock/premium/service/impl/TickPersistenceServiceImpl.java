@@ -0,0 +1,303 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.entity.PremiumRateRecord;
+import com.stock.premium.entity.StockPriceRecord;
+import com.stock.premium.mapper.LatestPremiumSnapshotMapper;
+import com.stock.premium.mapper.PremiumRateRecordMapper;
+import com.stock.premium.mapper.StockPriceRecordMapper;
+import com.stock.premium.metrics.CollectionMetrics;
+import com.stock.premium.service.TickPersistenceService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 行情写缓冲服务实现类
+ * 有界队列 + 按数量/按间隔刷写 + 停机刷写
+ * 队列已满时丢弃新记录并计入 premium.persist.dropped，采集线程不做同步写入；
+ * 批量写入失败时本轮刷写停止，失败批次由刷写线程按退避间隔重试，等待期间不持有刷写锁，重试用尽才丢弃并计数
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Slf4j
+@Service
+public class TickPersistenceServiceImpl implements TickPersistenceService {
+
+    @Autowired
+    private StockPriceRecordMapper stockPriceRecordMapper;
+
+    @Autowired
+    private PremiumRateRecordMapper premiumRateRecordMapper;
+
+    @Autowired
+    private LatestPremiumSnapshotMapper latestPremiumSnapshotMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CollectionMetrics collectionMetrics;
+
+    /**
+     * 单条INSERT语句的最大行数，也是触发刷写的阈值
+     */
+    @Value("${data.persist.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 定时刷写间隔(毫秒)
+     */
+    @Value("${data.persist.flush-interval:2000}")
+    private long flushIntervalMillis;
+
+    @Value("${data.persist.queue-capacity:20000}")
+    private int queueCapacity;
+
+    /**
+     * 批量写入失败后的最大重试次数
+     */
+    @Value("${data.persist.max-retries:3}")
+    private int maxRetries;
+
+    /**
+     * 首次重试前的等待(毫秒)，之后每次翻倍
+     */
+    @Value("${data.persist.retry-backoff:500}")
+    private long retryBackoffMillis;
+
+    private BlockingQueue<StockPriceRecord> priceQueue;
+
+    private BlockingQueue<PremiumRateRecord> premiumQueue;
+
+    private ScheduledExecutorService flushExecutor;
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * 等待重试的失败批次，由 flushLock 保护；数据库不可用期间新记录在队列中等待，不再逐批重试
+     */
+    private volatile FailedBatch retryBatch;
+
+    private final AtomicBoolean queueFullWarned = new AtomicBoolean(false);
+
+    private static final class FailedBatch {
+
+        final List<StockPriceRecord> prices;
+        final List<PremiumRateRecord> premiums;
+        final int failures;
+        final long retryAt;
+
+        FailedBatch(List<StockPriceRecord> prices, List<PremiumRateRecord> premiums, int failures, long retryAt) {
+            this.prices = prices;
+            this.premiums = premiums;
+            this.failures = failures;
+            this.retryAt = retryAt;
+        }
+
+        int size() {
+            return prices.size() + premiums.size();
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        priceQueue = new ArrayBlockingQueue<>(queueCapacity);
+        premiumQueue = new ArrayBlockingQueue<>(queueCapacity);
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "tick-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 停机时不等待尚未到期的重试，失败批次由停机刷写处理
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        flushExecutor = executor;
+        collectionMetrics.queueDepth("tick_price", priceQueue::size);
+        collectionMetrics.queueDepth("tick_premium", premiumQueue::size);
+        flushExecutor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        log.info("行情写缓冲初始化: batchSize={}, flushInterval={}ms, queueCapacity={}", batchSize, flushIntervalMillis, queueCapacity);
+    }
+
+    @Override
+    public void submit(StockPriceRecord record) {
+        if (!priceQueue.offer(record)) {
+            dropOnFull("stock_price_record");
+        } else if (priceQueue.size() >= batchSize) {
+            requestFlush();
+        }
+    }
+
+    @Override
+    public void submit(PremiumRateRecord record) {
+        if (!premiumQueue.offer(record)) {
+            dropOnFull("premium_rate_record");
+        } else if (premiumQueue.size() >= batchSize) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * 队列已满：丢弃并计数，通知刷写线程；每次积压只告警一次，刷写成功后复位
+     */
+    private void dropOnFull(String table) {
+        collectionMetrics.persistDropped(table, 1);
+        if (queueFullWarned.compareAndSet(false, true)) {
+            log.warn("{} 写缓冲已满({}条)，丢弃新记录直到刷写恢复", table, queueCapacity);
+        }
+        requestFlush();
+    }
+
+    @Override
+    public void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                flushRequested.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    @Override
+    public int flush() {
+        return flush(false);
+    }
+
+    @Override
+    public int getPendingCount() {
+        FailedBatch batch = retryBatch;
+        return priceQueue.size() + premiumQueue.size() + (batch != null ? batch.size() : 0);
+    }
+
+    /**
+     * 只写入开始时已在队列中的记录，刷写期间新提交的记录留给下一轮；
+     * 有失败批次未到重试时间时直接返回，写入失败时本轮停止
+     *
+     * @param finalFlush 停机刷写：忽略退避立即重试，失败直接丢弃
+     */
+    private int flush(boolean finalFlush) {
+        flushLock.lock();
+        try {
+            int total = 0;
+            FailedBatch failed = retryBatch;
+            if (failed != null) {
+                if (!finalFlush && System.currentTimeMillis() < failed.retryAt) {
+                    return 0;
+                }
+                retryBatch = null;
+                Integer written = writeOrDefer(failed.prices, failed.premiums, failed.failures, finalFlush);
+                if (written == null) {
+                    return 0;
+                }
+                total += written;
+            }
+            int pricesLeft = priceQueue.size();
+            int premiumsLeft = premiumQueue.size();
+            while (pricesLeft > 0 || premiumsLeft > 0) {
+                List<StockPriceRecord> prices = new ArrayList<>(Math.min(batchSize, pricesLeft));
+                List<PremiumRateRecord> premiums = new ArrayList<>(Math.min(batchSize, premiumsLeft));
+                pricesLeft -= priceQueue.drainTo(prices, Math.min(batchSize, pricesLeft));
+                premiumsLeft -= premiumQueue.drainTo(premiums, Math.min(batchSize, premiumsLeft));
+                if (prices.isEmpty() && premiums.isEmpty()) {
+                    break;
+                }
+                Integer written = writeOrDefer(prices, premiums, 0, finalFlush);
+                if (written == null) {
+                    break;
+                }
+                total += written;
+            }
+            if (retryBatch == null) {
+                queueFullWarned.set(false);
+            }
+            return total;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 写入一批记录；失败且还有重试次数时保存为待重试批次、在退避间隔后安排刷写线程重试，返回 null 表示本轮停止；
+     * 重试用尽或停机刷写时丢弃并计数
+     */
+    private Integer writeOrDefer(List<StockPriceRecord> prices, List<PremiumRateRecord> premiums,
+                                 int failures, boolean finalFlush) {
+        try {
+            return writeOnce(prices, premiums);
+        } catch (Exception e) {
+            if (finalFlush || failures >= maxRetries) {
+                log.error("批量写入重试 {} 次后仍失败，丢弃价格记录 {} 条、溢价率记录 {} 条",
+                        failures, prices.size(), premiums.size(), e);
+                collectionMetrics.persistDropped("stock_price_record", prices.size());
+                collectionMetrics.persistDropped("premium_rate_record", premiums.size());
+                return 0;
+            }
+            long backoff = retryBackoffMillis << failures;
+            retryBatch = new FailedBatch(prices, premiums, failures + 1, System.currentTimeMillis() + backoff);
+            log.warn("批量写入失败，{}ms 后第 {} 次重试: {}", backoff, failures + 1, e.getMessage());
+            if (!flushExecutor.isShutdown()) {
+                flushExecutor.schedule(this::flushQuietly, backoff, TimeUnit.MILLISECONDS);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 价格和溢价率在同一事务中各用一条多行INSERT写入，同时更新最新溢价率快照
+     */
+    private int writeOnce(List<StockPriceRecord> prices, List<PremiumRateRecord> premiums) {
+        long start = System.currentTimeMillis();
+        Integer written = transactionTemplate.execute(status -> {
+            int rows = 0;
+            if (!prices.isEmpty()) {
+                rows += collectionMetrics.insert("stock_price_record")
+                        .record(() -> stockPriceRecordMapper.insertBatch(prices));
+            }
+            if (!premiums.isEmpty()) {
+                rows += collectionMetrics.insert("premium_rate_record")
+                        .record(() -> premiumRateRecordMapper.insertBatch(premiums));
+                collectionMetrics.insert("latest_premium_snapshot")
+                        .record(() -> latestPremiumSnapshotMapper.upsertBatch(premiums));
+            }
+            return rows;
+        });
+        log.debug("批量写入价格记录 {} 条、溢价率记录 {} 条，耗时 {}ms",
+                prices.size(), premiums.size(), System.currentTimeMillis() - start);
+        return written != null ? written : 0;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("行情写缓冲刷写失败", e);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flushExecutor.shutdown();
+        try {
+            flushExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int written = flush(true);
+        log.info("停机刷写行情写缓冲完成，写入 {} 条", written);
+    }
+}
@@ -0,0 +1,167 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.entity.PremiumRateMinuteBar;
+import com.stock.premium.entity.StockPriceMinuteBar;
+import com.stock.premium.mapper.PremiumRateMinuteBarMapper;
+import com.stock.premium.mapper.PremiumRateRecordMapper;
+import com.stock.premium.mapper.StockPriceMinuteBarMapper;
+import com.stock.premium.mapper.StockPriceRecordMapper;
+import com.stock.premium.service.SystemConfigService;
+import com.stock.premium.service.TickRollupService;
+import com.stock.premium.service.TradingSessionService;
+import com.stock.premium.utils.MinuteBarAggregator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 明细分钟线汇总服务实现类
+ * 按交易日从早到晚处理：先把当天每只股票的明细汇总写入分钟线表，再按 data.rollup.delete-batch-size 分批删除当天明细，
+ * 每批之间暂停 data.rollup.batch-pause 毫秒。每天开始前和每批删除前检查开市状态，任一市场开市即中止，
+ * 已写入的分钟线保留，下次从未删完的那天继续；重跑时已存在的分钟线不覆盖。
+ * 更早的月份仍由分区维护按 data.retention.months 整体删除
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+@Slf4j
+@Service
+public class TickRollupServiceImpl implements TickRollupService {
+
+    static final List<String> ROLLUP_TABLES = Arrays.asList(TickArchiveServiceImpl.STOCK_PRICE_TABLE,
+            TickArchiveServiceImpl.PREMIUM_RATE_TABLE);
+
+    static final String CONFIG_AFTER_DAYS = "data.rollup.after-days";
+
+    /**
+     * 未配置时不汇总
+     */
+    private static final int DEFAULT_AFTER_DAYS = 0;
+
+    @Autowired
+    private StockPriceRecordMapper stockPriceRecordMapper;
+
+    @Autowired
+    private PremiumRateRecordMapper premiumRateRecordMapper;
+
+    @Autowired
+    private StockPriceMinuteBarMapper stockPriceMinuteBarMapper;
+
+    @Autowired
+    private PremiumRateMinuteBarMapper premiumRateMinuteBarMapper;
+
+    @Autowired
+    private SystemConfigService systemConfigService;
+
+    @Autowired
+    private TradingSessionService tradingSessionService;
+
+    @Value("${data.rollup.delete-batch-size:5000}")
+    private int deleteBatchSize;
+
+    @Value("${data.rollup.batch-pause:200}")
+    private long batchPause;
+
+    @Override
+    public Map<String, String> rollup(LocalDate today) {
+        int afterDays = systemConfigService.getIntValue(CONFIG_AFTER_DAYS, DEFAULT_AFTER_DAYS);
+        Map<String, String> results = new LinkedHashMap<>();
+        if (afterDays <= 0) {
+            for (String table : ROLLUP_TABLES) {
+                results.put(table, "未启用");
+            }
+            return results;
+        }
+
+        LocalDate cutoff = today.minusDays(afterDays);
+        for (String table : ROLLUP_TABLES) {
+            try {
+                results.put(table, rollupTable(table, cutoff));
+            } catch (Exception e) {
+                log.error("分钟线汇总失败: {}", table, e);
+                results.put(table, "失败: " + e.getMessage());
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public List<PremiumRateMinuteBar> getPremiumBars(String stockCode, LocalDate startDate, LocalDate endDate) {
+        return premiumRateMinuteBarMapper.selectByStockAndDateRange(stockCode, startDate, endDate);
+    }
+
+    private String rollupTable(String table, LocalDate cutoff) {
+        boolean price = TickArchiveServiceImpl.STOCK_PRICE_TABLE.equals(table);
+        LocalDate first = price ? stockPriceRecordMapper.selectMinTradeDateBefore(cutoff)
+                : premiumRateRecordMapper.selectMinTradeDateBefore(cutoff);
+        int days = 0;
+        long bars = 0;
+        long deleted = 0;
+        for (LocalDate day = first; day != null && day.isBefore(cutoff); day = day.plusDays(1)) {
+            if (shouldStop()) {
+                log.info("{} 分钟线汇总在 {} 中止：市场已开市", table, day);
+                return String.format("汇总%d天，分钟线%d条，删除明细%d行，开市中止", days, bars, deleted);
+            }
+            List<String> stockCodes = price ? stockPriceRecordMapper.selectStockCodesByDateRange(day, day)
+                    : premiumRateRecordMapper.selectStockCodesByDateRange(day, day);
+            if (stockCodes.isEmpty()) {
+                continue;
+            }
+            long dayBars = 0;
+            for (String stockCode : stockCodes) {
+                dayBars += price ? rollupPrices(stockCode, day) : rollupPremiums(stockCode, day);
+            }
+            long dayDeleted = deleteDay(price, day);
+            log.info("{} {} 汇总分钟线 {} 条，删除明细 {} 行", table, day, dayBars, dayDeleted);
+            days++;
+            bars += dayBars;
+            deleted += dayDeleted;
+        }
+        return String.format("汇总%d天，分钟线%d条，删除明细%d行", days, bars, deleted);
+    }
+
+    private int rollupPrices(String stockCode, LocalDate day) {
+        List<StockPriceMinuteBar> bars = MinuteBarAggregator.priceBars(
+                stockPriceRecordMapper.selectByStockAndDateRange(stockCode, day, day));
+        return bars.isEmpty() ? 0 : stockPriceMinuteBarMapper.insertBatch(bars);
+    }
+
+    private int rollupPremiums(String stockCode, LocalDate day) {
+        List<PremiumRateMinuteBar> bars = MinuteBarAggregator.premiumBars(
+                premiumRateRecordMapper.selectByStockAndDateRange(stockCode, day, day));
+        return bars.isEmpty() ? 0 : premiumRateMinuteBarMapper.insertBatch(bars);
+    }
+
+    /**
+     * 分批删除一天的明细，开市时停止，返回已删除的行数
+     */
+    private long deleteDay(boolean price, LocalDate day) {
+        long deleted = 0;
+        while (!shouldStop()) {
+            int rows = price ? stockPriceRecordMapper.deleteByTradeDate(day, deleteBatchSize)
+                    : premiumRateRecordMapper.deleteByTradeDate(day, deleteBatchSize);
+            deleted += rows;
+            if (rows < deleteBatchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(batchPause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return deleted;
+    }
+
+    private boolean shouldStop() {
+        return Thread.currentThread().isInterrupted() || tradingSessionService.getOpenMarketCount(LocalDateTime.now()) > 0;
+    }
+}
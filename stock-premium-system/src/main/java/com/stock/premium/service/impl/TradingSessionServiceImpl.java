@@ -0,0 +1,123 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.entity.TradingCalendar;
+import com.stock.premium.mapper.TradingCalendarMapper;
+import com.stock.premium.metrics.CollectionMetrics;
+import com.stock.premium.service.TradingSessionService;
+import com.stock.premium.utils.TradingSessionCalendar;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 交易时段服务实现类
+ * 交易日历加载到内存，每天凌晨及手动修改后重新加载；
+ * 当年某个市场没有任何日历记录时告警，并通过 premium.calendar.current_year.days 暴露天数
+ * 
+ * @author system
+ * @since 2024-01-01
+ */
+@Slf4j
+@Service
+public class TradingSessionServiceImpl implements TradingSessionService {
+
+    @Autowired
+    private TradingCalendarMapper tradingCalendarMapper;
+
+    @Autowired
+    private CollectionMetrics collectionMetrics;
+
+    private volatile TradingSessionCalendar calendar = TradingSessionCalendar.weekdaysOnly();
+
+    /**
+     * 当年A股/港股日历记录数，-1表示尚未加载成功
+     */
+    private volatile int aCurrentYearDays = -1;
+
+    private volatile int hCurrentYearDays = -1;
+
+    @PostConstruct
+    public void init() {
+        collectionMetrics.calendarDays(TradingSessionCalendar.MARKET_A, () -> aCurrentYearDays);
+        collectionMetrics.calendarDays(TradingSessionCalendar.MARKET_H, () -> hCurrentYearDays);
+        reload();
+    }
+
+    @Override
+    @Scheduled(cron = "0 5 0 * * ?")
+    public void reload() {
+        LocalDate today = LocalDate.now();
+        // 从年初开始加载，年底时也能统计当年是否维护了日历
+        LocalDate yearStart = today.withDayOfYear(1);
+        LocalDate from = today.minusDays(7).isBefore(yearStart) ? today.minusDays(7) : yearStart;
+        try {
+            List<TradingCalendar> days = tradingCalendarMapper.selectByDateRange(from, today.plusYears(1));
+            Set<LocalDate> aClosed = new HashSet<>();
+            Set<LocalDate> hClosed = new HashSet<>();
+            Set<LocalDate> aHalfDays = new HashSet<>();
+            Set<LocalDate> hHalfDays = new HashSet<>();
+            int aYearDays = 0;
+            int hYearDays = 0;
+            for (TradingCalendar day : days) {
+                boolean hk = TradingSessionCalendar.MARKET_H.equals(day.getMarketType());
+                if (day.getCalendarDate().getYear() == today.getYear()) {
+                    if (hk) {
+                        hYearDays++;
+                    } else {
+                        aYearDays++;
+                    }
+                }
+                if (TradingCalendar.DAY_TYPE_CLOSED.equals(day.getDayType())) {
+                    (hk ? hClosed : aClosed).add(day.getCalendarDate());
+                } else if (TradingCalendar.DAY_TYPE_HALF_DAY.equals(day.getDayType())) {
+                    (hk ? hHalfDays : aHalfDays).add(day.getCalendarDate());
+                }
+            }
+            calendar = new TradingSessionCalendar(aClosed, hClosed, aHalfDays, hHalfDays);
+            log.info("加载交易日历完成: A股休市 {} 天, 港股休市 {} 天, 港股半日市 {} 天",
+                    aClosed.size(), hClosed.size(), hHalfDays.size());
+            aCurrentYearDays = aYearDays;
+            hCurrentYearDays = hYearDays;
+            if (aYearDays == 0 || hYearDays == 0) {
+                log.warn("{}年交易日历缺失: A股 {} 条, 港股 {} 条，节假日将按交易日处理，请通过 /calendar 接口维护",
+                        today.getYear(), aYearDays, hYearDays);
+            }
+        } catch (Exception e) {
+            // 保留上一次加载的日历，首次加载失败时只按周末判断
+            log.error("加载交易日历失败，沿用当前日历", e);
+        }
+    }
+
+    @Override
+    public boolean isTradingDay(String marketType, LocalDate date) {
+        return calendar.isTradingDay(marketType, date);
+    }
+
+    @Override
+    public boolean isMarketOpen(String marketType, LocalDateTime time) {
+        return calendar.isOpen(marketType, time);
+    }
+
+    @Override
+    public int getOpenMarketCount(LocalDateTime time) {
+        return calendar.openMarketCount(time);
+    }
+
+    @Override
+    public LocalDateTime getNextBoundary(LocalDateTime time) {
+        return calendar.nextBoundary(time);
+    }
+
+    @Override
+    public LocalDateTime getNextOpenTime(LocalDateTime time) {
+        return calendar.nextOpen(time);
+    }
+}
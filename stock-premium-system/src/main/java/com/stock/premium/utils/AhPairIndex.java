@@ -0,0 +1,114 @@
+package com.stock.premium.utils;
+
+import com.stock.premium.entity.AhStockPair;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A+H股票对索引（不可变）
+ * 代码按整数保存在有序数组中，查询时二分查找，返回预先生成的代码字符串
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+public final class AhPairIndex {
+
+    public static final AhPairIndex EMPTY = new AhPairIndex(new int[0], new String[0], new String[0], new int[0], new int[0]);
+
+    /**
+     * 按A股代码排序
+     */
+    private final int[] aKeys;
+    private final String[] aCodes;
+    private final String[] hCodes;
+
+    /**
+     * 按H股代码排序，值为在 aKeys 中的下标
+     */
+    private final int[] hKeys;
+    private final int[] hToA;
+
+    private AhPairIndex(int[] aKeys, String[] aCodes, String[] hCodes, int[] hKeys, int[] hToA) {
+        this.aKeys = aKeys;
+        this.aCodes = aCodes;
+        this.hCodes = hCodes;
+        this.hKeys = hKeys;
+        this.hToA = hToA;
+    }
+
+    /**
+     * 构建索引，代码非法的记录跳过，同一A股代码以先出现的为准
+     */
+    public static AhPairIndex build(Collection<AhStockPair> pairs) {
+        long[] packed = new long[pairs.size()];
+        int n = 0;
+        for (AhStockPair pair : pairs) {
+            int a = StockCodes.isACode(pair.getAStockCode()) ? StockCodes.parseCode(pair.getAStockCode()) : StockCodes.INVALID;
+            int h = StockCodes.isHCode(pair.getHStockCode()) ? StockCodes.parseCode(pair.getHStockCode()) : StockCodes.INVALID;
+            if (a == StockCodes.INVALID || h == StockCodes.INVALID) {
+                continue;
+            }
+            // 高32位A股代码，低32位H股代码，排序后即按A股代码有序
+            packed[n++] = ((long) a << 32) | h;
+        }
+        Arrays.sort(packed, 0, n);
+
+        int[] aKeys = new int[n];
+        int[] hValues = new int[n];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            int a = (int) (packed[i] >>> 32);
+            if (size > 0 && aKeys[size - 1] == a) {
+                continue;
+            }
+            aKeys[size] = a;
+            hValues[size] = (int) packed[i];
+            size++;
+        }
+        aKeys = Arrays.copyOf(aKeys, size);
+
+        String[] aCodes = new String[size];
+        String[] hCodes = new String[size];
+        long[] byH = new long[size];
+        for (int i = 0; i < size; i++) {
+            aCodes[i] = String.format("%06d", aKeys[i]);
+            hCodes[i] = String.format("%05d", hValues[i]);
+            byH[i] = ((long) hValues[i] << 32) | i;
+        }
+        Arrays.sort(byH);
+        int[] hKeys = new int[size];
+        int[] hToA = new int[size];
+        for (int i = 0; i < size; i++) {
+            hKeys[i] = (int) (byH[i] >>> 32);
+            hToA[i] = (int) byH[i];
+        }
+        return new AhPairIndex(aKeys, aCodes, hCodes, hKeys, hToA);
+    }
+
+    /**
+     * A股代码对应的H股代码，没有时返回null
+     */
+    public String getHStockCode(String aStockCode) {
+        if (!StockCodes.isACode(aStockCode)) {
+            return null;
+        }
+        int i = Arrays.binarySearch(aKeys, StockCodes.parseCode(aStockCode));
+        return i >= 0 ? hCodes[i] : null;
+    }
+
+    /**
+     * H股代码对应的A股代码，没有时返回null
+     */
+    public String getAStockCode(String hStockCode) {
+        if (!StockCodes.isHCode(hStockCode)) {
+            return null;
+        }
+        int i = Arrays.binarySearch(hKeys, StockCodes.parseCode(hStockCode));
+        return i >= 0 ? aCodes[hToA[i]] : null;
+    }
+
+    public int size() {
+        return aKeys.length;
+    }
+}
@@ -0,0 +1,426 @@
+package com.stock.premium.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 列式归档文件
+ * 一个文件存放同一只股票一个月的明细，每列单独编码：
+ * 小数按列的精度放大为 long，时间为秒数，日期为天数，字符串为字典下标；
+ * 统一按与上一个非空值的差值 zigzag 后写成 varint，行情相邻tick价格和时间变化很小，大多只占1个字节。
+ * 有空值的列在数据前放一个按行的空值位图，空值不写入数据。
+ *
+ * 文件结构：
+ * magic "TCA1" | 行数 varint | 列数 varint | 每列：列名、类型、精度、是否有空值、字典、数据长度 | 各列数据依次排列
+ *
+ * 时间列按本地时间换算为秒数(视为UTC)，读回时原样还原，不涉及时区
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+public final class ColumnarArchiveFile {
+
+    private static final byte[] MAGIC = {'T', 'C', 'A', '1'};
+
+    private static final byte KIND_LONG = 0;
+    private static final byte KIND_DECIMAL = 1;
+    private static final byte KIND_TIME = 2;
+    private static final byte KIND_DATE = 3;
+    private static final byte KIND_STRING = 4;
+
+    private ColumnarArchiveFile() {
+    }
+
+    /**
+     * 按列写入，所有列的行数相同，写完调用 write
+     */
+    public static final class Writer {
+
+        private final int rows;
+
+        private final Map<String, EncodedColumn> columns = new LinkedHashMap<>();
+
+        public Writer(int rows) {
+            this.rows = rows;
+        }
+
+        public Writer longs(String name, Long[] values) {
+            checkRows(values.length);
+            long[] raw = new long[rows];
+            boolean[] nulls = new boolean[rows];
+            for (int i = 0; i < rows; i++) {
+                nulls[i] = values[i] == null;
+                raw[i] = nulls[i] ? 0 : values[i];
+            }
+            return add(name, KIND_LONG, 0, raw, nulls, null);
+        }
+
+        /**
+         * 小数列，按 scale 位精度放大后存储，超出精度的部分四舍五入
+         */
+        public Writer decimals(String name, int scale, BigDecimal[] values) {
+            checkRows(values.length);
+            long[] raw = new long[rows];
+            boolean[] nulls = new boolean[rows];
+            for (int i = 0; i < rows; i++) {
+                nulls[i] = values[i] == null;
+                raw[i] = nulls[i] ? 0 : values[i].setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            }
+            return add(name, KIND_DECIMAL, scale, raw, nulls, null);
+        }
+
+        public Writer times(String name, LocalDateTime[] values) {
+            checkRows(values.length);
+            long[] raw = new long[rows];
+            boolean[] nulls = new boolean[rows];
+            for (int i = 0; i < rows; i++) {
+                nulls[i] = values[i] == null;
+                raw[i] = nulls[i] ? 0 : values[i].toEpochSecond(ZoneOffset.UTC);
+            }
+            return add(name, KIND_TIME, 0, raw, nulls, null);
+        }
+
+        public Writer dates(String name, LocalDate[] values) {
+            checkRows(values.length);
+            long[] raw = new long[rows];
+            boolean[] nulls = new boolean[rows];
+            for (int i = 0; i < rows; i++) {
+                nulls[i] = values[i] == null;
+                raw[i] = nulls[i] ? 0 : values[i].toEpochDay();
+            }
+            return add(name, KIND_DATE, 0, raw, nulls, null);
+        }
+
+        /**
+         * 低基数字符串列(数据来源、市场类型等)，按出现顺序建字典
+         */
+        public Writer strings(String name, String[] values) {
+            checkRows(values.length);
+            Map<String, Integer> dictionary = new LinkedHashMap<>();
+            long[] raw = new long[rows];
+            boolean[] nulls = new boolean[rows];
+            for (int i = 0; i < rows; i++) {
+                nulls[i] = values[i] == null;
+                raw[i] = nulls[i] ? 0 : dictionary.computeIfAbsent(values[i], v -> dictionary.size());
+            }
+            return add(name, KIND_STRING, 0, raw, nulls, new ArrayList<>(dictionary.keySet()));
+        }
+
+        /**
+         * 写入文件，先写临时文件再替换，读取方不会看到写了一半的文件
+         */
+        public void write(Path file) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.write(MAGIC);
+            writeVarint(out, rows);
+            writeVarint(out, columns.size());
+            for (Map.Entry<String, EncodedColumn> entry : columns.entrySet()) {
+                EncodedColumn column = entry.getValue();
+                writeString(out, entry.getKey());
+                out.write(column.kind);
+                out.write(column.scale);
+                out.write(column.nullBitmap != null ? 1 : 0);
+                if (column.kind == KIND_STRING) {
+                    writeVarint(out, column.dictionary.size());
+                    for (String value : column.dictionary) {
+                        writeString(out, value);
+                    }
+                }
+                writeVarint(out, column.length());
+            }
+            for (EncodedColumn column : columns.values()) {
+                if (column.nullBitmap != null) {
+                    out.write(column.nullBitmap);
+                }
+                out.write(column.data);
+            }
+
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(tmp, out.toByteArray());
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        private Writer add(String name, byte kind, int scale, long[] values, boolean[] nulls, List<String> dictionary) {
+            if (columns.containsKey(name)) {
+                throw new IllegalArgumentException("重复的列: " + name);
+            }
+            boolean hasNulls = false;
+            byte[] bitmap = new byte[(rows + 7) / 8];
+            ByteArrayOutputStream data = new ByteArrayOutputStream(rows + 16);
+            long previous = 0;
+            for (int i = 0; i < rows; i++) {
+                if (nulls[i]) {
+                    hasNulls = true;
+                    bitmap[i >>> 3] |= (byte) (1 << (i & 7));
+                    continue;
+                }
+                writeVarint(data, zigzag(values[i] - previous));
+                previous = values[i];
+            }
+            columns.put(name, new EncodedColumn(kind, scale, hasNulls ? bitmap : null, data.toByteArray(), dictionary));
+            return this;
+        }
+
+        private void checkRows(int length) {
+            if (length != rows) {
+                throw new IllegalArgumentException("列行数 " + length + " 与文件行数 " + rows + " 不一致");
+            }
+        }
+    }
+
+    /**
+     * 只读打开，文件整体映射到内存，按列解码
+     */
+    public static final class Reader implements Closeable {
+
+        private final FileChannel channel;
+
+        private final MappedByteBuffer buffer;
+
+        private final int rows;
+
+        private final Map<String, ColumnMeta> columns = new LinkedHashMap<>();
+
+        private Reader(FileChannel channel, MappedByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+            ByteBuffer header = buffer.duplicate();
+            for (byte b : MAGIC) {
+                if (header.get() != b) {
+                    throw new IllegalStateException("不是列式归档文件");
+                }
+            }
+            this.rows = (int) readVarint(header);
+            int columnCount = (int) readVarint(header);
+            List<ColumnMeta> metas = new ArrayList<>(columnCount);
+            for (int c = 0; c < columnCount; c++) {
+                String name = readString(header);
+                byte kind = header.get();
+                int scale = header.get();
+                boolean hasNulls = header.get() != 0;
+                List<String> dictionary = null;
+                if (kind == KIND_STRING) {
+                    int size = (int) readVarint(header);
+                    dictionary = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        dictionary.add(readString(header));
+                    }
+                }
+                int length = (int) readVarint(header);
+                ColumnMeta meta = new ColumnMeta(kind, scale, hasNulls, dictionary, length);
+                metas.add(meta);
+                columns.put(name, meta);
+            }
+            int position = header.position();
+            for (ColumnMeta meta : metas) {
+                meta.position = position;
+                position += meta.length;
+            }
+        }
+
+        public static Reader open(Path file) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                return new Reader(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        public int getRowCount() {
+            return rows;
+        }
+
+        public boolean hasColumn(String name) {
+            return columns.containsKey(name);
+        }
+
+        public Long[] longs(String name) {
+            ColumnMeta meta = column(name, KIND_LONG);
+            boolean[] nulls = new boolean[rows];
+            long[] raw = decode(meta, nulls);
+            Long[] values = new Long[rows];
+            for (int i = 0; i < rows; i++) {
+                values[i] = nulls[i] ? null : raw[i];
+            }
+            return values;
+        }
+
+        public BigDecimal[] decimals(String name) {
+            ColumnMeta meta = column(name, KIND_DECIMAL);
+            boolean[] nulls = new boolean[rows];
+            long[] raw = decode(meta, nulls);
+            BigDecimal[] values = new BigDecimal[rows];
+            for (int i = 0; i < rows; i++) {
+                values[i] = nulls[i] ? null : BigDecimal.valueOf(raw[i], meta.scale);
+            }
+            return values;
+        }
+
+        public LocalDateTime[] times(String name) {
+            boolean[] nulls = new boolean[rows];
+            long[] raw = decode(column(name, KIND_TIME), nulls);
+            LocalDateTime[] values = new LocalDateTime[rows];
+            for (int i = 0; i < rows; i++) {
+                values[i] = nulls[i] ? null : LocalDateTime.ofEpochSecond(raw[i], 0, ZoneOffset.UTC);
+            }
+            return values;
+        }
+
+        public LocalDate[] dates(String name) {
+            boolean[] nulls = new boolean[rows];
+            long[] raw = decode(column(name, KIND_DATE), nulls);
+            LocalDate[] values = new LocalDate[rows];
+            for (int i = 0; i < rows; i++) {
+                values[i] = nulls[i] ? null : LocalDate.ofEpochDay(raw[i]);
+            }
+            return values;
+        }
+
+        public String[] strings(String name) {
+            ColumnMeta meta = column(name, KIND_STRING);
+            boolean[] nulls = new boolean[rows];
+            long[] raw = decode(meta, nulls);
+            String[] values = new String[rows];
+            for (int i = 0; i < rows; i++) {
+                values[i] = nulls[i] ? null : meta.dictionary.get((int) raw[i]);
+            }
+            return values;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private ColumnMeta column(String name, byte kind) {
+            ColumnMeta meta = columns.get(name);
+            if (meta == null) {
+                throw new IllegalArgumentException("列不存在: " + name);
+            }
+            if (meta.kind != kind) {
+                throw new IllegalArgumentException("列 " + name + " 的类型不匹配");
+            }
+            return meta;
+        }
+
+        private long[] decode(ColumnMeta meta, boolean[] nulls) {
+            ByteBuffer data = buffer.duplicate();
+            data.position(meta.position);
+            if (meta.hasNulls) {
+                byte[] bitmap = new byte[(rows + 7) / 8];
+                data.get(bitmap);
+                for (int i = 0; i < rows; i++) {
+                    nulls[i] = (bitmap[i >>> 3] & (1 << (i & 7))) != 0;
+                }
+            }
+            long[] values = new long[rows];
+            long previous = 0;
+            for (int i = 0; i < rows; i++) {
+                if (!nulls[i]) {
+                    previous += unzigzag(readVarint(data));
+                    values[i] = previous;
+                }
+            }
+            return values;
+        }
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("varint 超过64位");
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[(int) readVarint(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class EncodedColumn {
+
+        final byte kind;
+        final int scale;
+        final byte[] nullBitmap;
+        final byte[] data;
+        final List<String> dictionary;
+
+        EncodedColumn(byte kind, int scale, byte[] nullBitmap, byte[] data, List<String> dictionary) {
+            this.kind = kind;
+            this.scale = scale;
+            this.nullBitmap = nullBitmap;
+            this.data = data;
+            this.dictionary = dictionary;
+        }
+
+        int length() {
+            return (nullBitmap != null ? nullBitmap.length : 0) + data.length;
+        }
+    }
+
+    private static final class ColumnMeta {
+
+        final byte kind;
+        final int scale;
+        final boolean hasNulls;
+        final List<String> dictionary;
+        final int length;
+        int position;
+
+        ColumnMeta(byte kind, int scale, boolean hasNulls, List<String> dictionary, int length) {
+            this.kind = kind;
+            this.scale = scale;
+            this.hasNulls = hasNulls;
+            this.dictionary = dictionary;
+            this.length = length;
+        }
+    }
+}
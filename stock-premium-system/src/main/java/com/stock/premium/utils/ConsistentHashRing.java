@@ -0,0 +1,113 @@
+package com.stock.premium.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * 一致性哈希环（不可变）
+ * 每个节点放置若干虚拟节点，键归属顺时针方向的第一个虚拟节点；
+ * 节点加入或离开时只有相邻区间的键迁移。哈希与JVM无关，各节点计算结果一致
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+public final class ConsistentHashRing {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * 虚拟节点哈希，升序
+     */
+    private final long[] points;
+
+    /**
+     * 与 points 对应的节点
+     */
+    private final String[] owners;
+
+    private final List<String> nodes;
+
+    private ConsistentHashRing(long[] points, String[] owners, List<String> nodes) {
+        this.points = points;
+        this.owners = owners;
+        this.nodes = nodes;
+    }
+
+    /**
+     * 构建哈希环，节点顺序不影响结果
+     */
+    public static ConsistentHashRing build(Collection<String> nodeIds, int virtualNodes) {
+        List<String> nodes = List.copyOf(new TreeSet<>(nodeIds));
+        int replicas = Math.max(1, virtualNodes);
+        long[] packedPoints = new long[nodes.size() * replicas];
+        int[] packedOwners = new int[packedPoints.length];
+        int n = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            for (int r = 0; r < replicas; r++) {
+                packedPoints[n] = hash(nodes.get(i) + "#" + r);
+                packedOwners[n] = i;
+                n++;
+            }
+        }
+
+        // 按哈希排序，哈希相同时按节点序号，保证各节点结果一致
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (x, y) -> packedPoints[x] != packedPoints[y]
+                ? Long.compare(packedPoints[x], packedPoints[y])
+                : Integer.compare(packedOwners[x], packedOwners[y]));
+
+        long[] points = new long[n];
+        String[] owners = new String[n];
+        for (int i = 0; i < n; i++) {
+            points[i] = packedPoints[order[i]];
+            owners[i] = nodes.get(packedOwners[order[i]]);
+        }
+        return new ConsistentHashRing(points, owners, nodes);
+    }
+
+    /**
+     * 键所属的节点，环为空时返回null
+     */
+    public String nodeFor(String key) {
+        if (points.length == 0) {
+            return null;
+        }
+        int i = Arrays.binarySearch(points, hash(key));
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return owners[i == points.length ? 0 : i];
+    }
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    /**
+     * FNV-1a 64位哈希，再经 murmur3 fmix64 打散
+     */
+    static long hash(String key) {
+        long h = FNV_OFFSET;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= FNV_PRIME;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
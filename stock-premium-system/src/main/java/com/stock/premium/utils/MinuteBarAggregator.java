@@ -0,0 +1,82 @@
+package com.stock.premium.utils;
+
+import com.stock.premium.entity.PremiumRateMinuteBar;
+import com.stock.premium.entity.PremiumRateRecord;
+import com.stock.premium.entity.StockPriceMinuteBar;
+import com.stock.premium.entity.StockPriceRecord;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 明细按分钟汇总为K线
+ * 输入为按股票、记录时间升序的明细，股票或分钟变化时开始新的一根，分钟起始时间为记录时间截断到分钟；
+ * 开盘/收盘取该分钟内第一条/最后一条，A/H价格、汇率、成交量和成交额取最后一条
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+public final class MinuteBarAggregator {
+
+    private MinuteBarAggregator() {
+    }
+
+    public static List<PremiumRateMinuteBar> premiumBars(List<PremiumRateRecord> records) {
+        List<PremiumRateMinuteBar> bars = new ArrayList<>();
+        PremiumRateMinuteBar bar = null;
+        for (PremiumRateRecord record : records) {
+            BigDecimal rate = record.getPremiumRate();
+            LocalDateTime minute = record.getRecordTime().truncatedTo(ChronoUnit.MINUTES);
+            if (bar == null || !bar.getBarTime().equals(minute) || !bar.getStockCode().equals(record.getStockCode())) {
+                bar = new PremiumRateMinuteBar();
+                bar.setStockCode(record.getStockCode());
+                bar.setBarTime(minute);
+                bar.setTradeDate(record.getTradeDate());
+                bar.setOpenPremiumRate(rate);
+                bar.setHighPremiumRate(rate);
+                bar.setLowPremiumRate(rate);
+                bar.setTickCount(0);
+                bars.add(bar);
+            }
+            bar.setHighPremiumRate(rate.max(bar.getHighPremiumRate()));
+            bar.setLowPremiumRate(rate.min(bar.getLowPremiumRate()));
+            bar.setClosePremiumRate(rate);
+            bar.setAStockPrice(record.getAStockPrice());
+            bar.setHStockPrice(record.getHStockPrice());
+            bar.setExchangeRate(record.getExchangeRate());
+            bar.setTickCount(bar.getTickCount() + 1);
+        }
+        return bars;
+    }
+
+    public static List<StockPriceMinuteBar> priceBars(List<StockPriceRecord> records) {
+        List<StockPriceMinuteBar> bars = new ArrayList<>();
+        StockPriceMinuteBar bar = null;
+        for (StockPriceRecord record : records) {
+            BigDecimal price = record.getCurrentPrice();
+            LocalDateTime minute = record.getRecordTime().truncatedTo(ChronoUnit.MINUTES);
+            if (bar == null || !bar.getBarTime().equals(minute) || !bar.getStockCode().equals(record.getStockCode())) {
+                bar = new StockPriceMinuteBar();
+                bar.setStockCode(record.getStockCode());
+                bar.setMarketType(record.getMarketType());
+                bar.setBarTime(minute);
+                bar.setTradeDate(record.getTradeDate());
+                bar.setOpenPrice(price);
+                bar.setHighPrice(price);
+                bar.setLowPrice(price);
+                bar.setTickCount(0);
+                bars.add(bar);
+            }
+            bar.setHighPrice(price.max(bar.getHighPrice()));
+            bar.setLowPrice(price.min(bar.getLowPrice()));
+            bar.setClosePrice(price);
+            bar.setVolume(record.getVolume());
+            bar.setTurnover(record.getTurnover());
+            bar.setTickCount(bar.getTickCount() + 1);
+        }
+        return bars;
+    }
+}
@@ -0,0 +1,141 @@
+package com.stock.premium.utils;
+
+import java.util.Arrays;
+
+/**
+ * P² 流式分位数估计（Jain & Chlamtac, 1985）
+ * 只保存5个标记点，内存固定，不保留原始样本
+ * 样本数不足5个时按已有样本线性插值计算精确分位数
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+public final class P2Quantile {
+
+    private static final int MARKERS = 5;
+
+    private final double p;
+
+    /**
+     * 标记点高度
+     */
+    private final double[] q = new double[MARKERS];
+
+    /**
+     * 标记点实际位置（从1开始）
+     */
+    private final int[] n = new int[MARKERS];
+
+    /**
+     * 标记点期望位置
+     */
+    private final double[] desired = new double[MARKERS];
+
+    /**
+     * 期望位置的增量
+     */
+    private final double[] increment = new double[MARKERS];
+
+    private long count;
+
+    /**
+     * @param p 分位点，取值 (0, 1)，如 0.95
+     */
+    public P2Quantile(double p) {
+        if (p <= 0 || p >= 1) {
+            throw new IllegalArgumentException("分位点必须在(0,1)之间: " + p);
+        }
+        this.p = p;
+    }
+
+    public void add(double x) {
+        if (count < MARKERS) {
+            q[(int) count++] = x;
+            if (count == MARKERS) {
+                Arrays.sort(q);
+                for (int i = 0; i < MARKERS; i++) {
+                    n[i] = i + 1;
+                }
+                desired[0] = 1;
+                desired[1] = 1 + 2 * p;
+                desired[2] = 1 + 4 * p;
+                desired[3] = 3 + 2 * p;
+                desired[4] = 5;
+                increment[0] = 0;
+                increment[1] = p / 2;
+                increment[2] = p;
+                increment[3] = (1 + p) / 2;
+                increment[4] = 1;
+            }
+            return;
+        }
+
+        // 定位样本所在区间，必要时扩展两端
+        int k;
+        if (x < q[0]) {
+            q[0] = x;
+            k = 0;
+        } else if (x < q[1]) {
+            k = 0;
+        } else if (x < q[2]) {
+            k = 1;
+        } else if (x < q[3]) {
+            k = 2;
+        } else if (x <= q[4]) {
+            k = 3;
+        } else {
+            q[4] = x;
+            k = 3;
+        }
+        for (int i = k + 1; i < MARKERS; i++) {
+            n[i]++;
+        }
+        for (int i = 0; i < MARKERS; i++) {
+            desired[i] += increment[i];
+        }
+        count++;
+
+        // 调整中间三个标记点
+        for (int i = 1; i < MARKERS - 1; i++) {
+            double d = desired[i] - n[i];
+            if ((d >= 1 && n[i + 1] - n[i] > 1) || (d <= -1 && n[i - 1] - n[i] < -1)) {
+                int s = d > 0 ? 1 : -1;
+                double candidate = parabolic(i, s);
+                if (q[i - 1] < candidate && candidate < q[i + 1]) {
+                    q[i] = candidate;
+                } else {
+                    q[i] = q[i] + s * (q[i + s] - q[i]) / (n[i + s] - n[i]);
+                }
+                n[i] += s;
+            }
+        }
+    }
+
+    private double parabolic(int i, int s) {
+        return q[i] + (double) s / (n[i + 1] - n[i - 1])
+                * ((n[i] - n[i - 1] + s) * (q[i + 1] - q[i]) / (n[i + 1] - n[i])
+                + (n[i + 1] - n[i] - s) * (q[i] - q[i - 1]) / (n[i] - n[i - 1]));
+    }
+
+    /**
+     * 当前分位数估计值，无样本时返回 NaN
+     */
+    public double get() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (count < MARKERS) {
+            double[] sorted = Arrays.copyOf(q, (int) count);
+            Arrays.sort(sorted);
+            double pos = p * (sorted.length - 1);
+            int lower = (int) Math.floor(pos);
+            int upper = Math.min(lower + 1, sorted.length - 1);
+            return sorted[lower] + (pos - lower) * (sorted[upper] - sorted[lower]);
+        }
+        return q[2];
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,83 @@
+package com.stock.premium.utils;
+
+import com.stock.premium.entity.DailyPremiumStats;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 单只股票单日溢价率统计累加器
+ * 每个tick到达时更新，内存占用固定；开盘/收盘按记录时间取最早/最晚
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+public class PremiumStatsAccumulator {
+
+    private static final int RATE_SCALE = 4;
+
+    private LocalDateTime openTime;
+    private LocalDateTime closeTime;
+    private BigDecimal open;
+    private BigDecimal close;
+    private BigDecimal max;
+    private BigDecimal min;
+    private BigDecimal sum = BigDecimal.ZERO;
+    private int count;
+
+    private final P2Quantile percentile5 = new P2Quantile(0.05);
+    private final P2Quantile percentile95 = new P2Quantile(0.95);
+
+    public synchronized void add(LocalDateTime recordTime, BigDecimal premiumRate) {
+        if (recordTime == null || premiumRate == null) {
+            return;
+        }
+        if (openTime == null || recordTime.isBefore(openTime)) {
+            openTime = recordTime;
+            open = premiumRate;
+        }
+        if (closeTime == null || !recordTime.isBefore(closeTime)) {
+            closeTime = recordTime;
+            close = premiumRate;
+        }
+        if (max == null || premiumRate.compareTo(max) > 0) {
+            max = premiumRate;
+        }
+        if (min == null || premiumRate.compareTo(min) < 0) {
+            min = premiumRate;
+        }
+        sum = sum.add(premiumRate);
+        count++;
+
+        double value = premiumRate.doubleValue();
+        percentile5.add(value);
+        percentile95.add(value);
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * 生成日统计数据，无样本时返回null
+     */
+    public synchronized DailyPremiumStats toStats(String stockCode, LocalDate tradeDate) {
+        if (count == 0) {
+            return null;
+        }
+        DailyPremiumStats stats = new DailyPremiumStats();
+        stats.setStockCode(stockCode);
+        stats.setTradeDate(tradeDate);
+        stats.setOpenPremiumRate(open);
+        stats.setClosePremiumRate(close);
+        stats.setMaxPremiumRate(max);
+        stats.setMinPremiumRate(min);
+        stats.setAvgPremiumRate(sum.divide(BigDecimal.valueOf(count), RATE_SCALE, RoundingMode.HALF_UP));
+        stats.setPercentile5(BigDecimal.valueOf(percentile5.get()).setScale(RATE_SCALE, RoundingMode.HALF_UP));
+        stats.setPercentile95(BigDecimal.valueOf(percentile95.get()).setScale(RATE_SCALE, RoundingMode.HALF_UP));
+        stats.setRecordCount(count);
+        return stats;
+    }
+}
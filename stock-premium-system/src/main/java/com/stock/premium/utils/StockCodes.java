@@ -0,0 +1,154 @@
+package com.stock.premium.utils;
+
+/**
+ * 股票代码分类工具
+ * 按字符逐位判断，不使用正则、不产生中间对象：
+ * 6位数字为A股（6/9开头上交所，0/2/3开头深交所，4/8开头北交所），5位数字为港股；
+ * 代码可带 sh/sz/bj/hk 等字母前缀（大小写均可）
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+public final class StockCodes {
+
+    public static final String MARKET_A = "A";
+    public static final String MARKET_H = "H";
+
+    public static final String EXCHANGE_SH = "SH";
+    public static final String EXCHANGE_SZ = "SZ";
+    public static final String EXCHANGE_BJ = "BJ";
+    public static final String EXCHANGE_HK = "HK";
+
+    /**
+     * 解析失败时的返回值
+     */
+    public static final int INVALID = -1;
+
+    private StockCodes() {
+    }
+
+    /**
+     * 前缀字母的个数
+     */
+    public static int prefixLength(String code) {
+        int i = 0;
+        int length = code.length();
+        while (i < length && isLetter(code.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 去掉字母前缀，没有前缀时返回原字符串
+     */
+    public static String stripPrefix(String code) {
+        if (code == null) {
+            return null;
+        }
+        int prefix = prefixLength(code);
+        return prefix == 0 ? code : code.substring(prefix);
+    }
+
+    /**
+     * 去掉前缀后的数字部分转为整数（如 "sh601088" -> 601088，"03968" -> 3968），非法时返回 {@link #INVALID}
+     */
+    public static int parseCode(String code) {
+        if (code == null) {
+            return INVALID;
+        }
+        int start = prefixLength(code);
+        int length = code.length() - start;
+        if (length < 5 || length > 6) {
+            return INVALID;
+        }
+        int value = 0;
+        for (int i = start; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c < '0' || c > '9') {
+                return INVALID;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * 数字部分的位数，不是纯数字时返回0
+     */
+    public static int digitCount(String code) {
+        if (code == null) {
+            return 0;
+        }
+        int start = prefixLength(code);
+        for (int i = start; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+        }
+        return code.length() - start;
+    }
+
+    public static boolean isACode(String code) {
+        return digitCount(code) == 6;
+    }
+
+    public static boolean isHCode(String code) {
+        return digitCount(code) == 5;
+    }
+
+    /**
+     * 市场类型：5位数字为港股，其余按A股处理
+     */
+    public static String marketType(String code) {
+        return isHCode(code) ? MARKET_H : MARKET_A;
+    }
+
+    /**
+     * 交易所，无法识别时按上交所处理
+     */
+    public static String exchange(String code) {
+        int digits = digitCount(code);
+        if (digits == 5) {
+            return EXCHANGE_HK;
+        }
+        if (digits != 6) {
+            return EXCHANGE_SH;
+        }
+        switch (code.charAt(prefixLength(code))) {
+            case '0':
+            case '2':
+            case '3':
+                return EXCHANGE_SZ;
+            case '4':
+            case '8':
+                return EXCHANGE_BJ;
+            default:
+                return EXCHANGE_SH;
+        }
+    }
+
+    /**
+     * 腾讯行情代码，如 601088 -> sh601088，01088 -> hk01088；已带前缀时原样返回
+     */
+    public static String toSymbol(String code) {
+        if (code == null || code.isEmpty() || prefixLength(code) > 0) {
+            return code;
+        }
+        switch (exchange(code)) {
+            case EXCHANGE_HK:
+                return "hk" + code;
+            case EXCHANGE_SZ:
+                return "sz" + code;
+            case EXCHANGE_BJ:
+                return "bj" + code;
+            default:
+                return "sh" + code;
+        }
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
@@ -1,8 +1,9 @@
 package com.stock.premium.utils;
 
+import com.stock.premium.service.AhPairService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -19,7 +20,11 @@ import java.util.Map;
 @Slf4j
 public class TencentFinanceApiUtil {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private TencentQuoteClient tencentQuoteClient;
+
+    @Autowired
+    private AhPairService ahPairService;
 
     /**
      * 根据股票名称搜索股票基本信息
@@ -30,10 +35,9 @@ public class TencentFinanceApiUtil {
         try {
             // 腾讯财经搜索API
             String encodedName = URLEncoder.encode(stockName, StandardCharsets.UTF_8);
-            String searchUrl = "https://qt.gtimg.cn/q=" + encodedName;
             
-            log.info("调用腾讯财经API: {}", searchUrl);
-            String response = restTemplate.getForObject(searchUrl, String.class);
+            log.info("调用腾讯财经API: {}", encodedName);
+            String response = tencentQuoteClient.fetchBlocking(encodedName);
             
             if (response == null || response.trim().isEmpty()) {
                 log.warn("腾讯财经API返回空响应");
@@ -154,38 +158,14 @@ public class TencentFinanceApiUtil {
      * 确定市场类型
      */
     private String determineMarketType(String stockCode) {
-        if (stockCode == null || stockCode.length() < 6) {
-            return "A";
-        }
-        
-        String code = stockCode.replaceAll("[^0-9]", "");
-        if (code.startsWith("60") || code.startsWith("00") || code.startsWith("30")) {
-            return "A";
-        } else if (code.startsWith("0") && code.length() == 5) {
-            return "H";
-        }
-        
-        return "A";
+        return StockCodes.marketType(stockCode);
     }
 
     /**
      * 确定交易所
      */
     private String determineExchange(String stockCode) {
-        if (stockCode == null || stockCode.length() < 6) {
-            return "SH";
-        }
-        
-        String code = stockCode.replaceAll("[^0-9]", "");
-        if (code.startsWith("60")) {
-            return "SH"; // 上海证券交易所
-        } else if (code.startsWith("00") || code.startsWith("30")) {
-            return "SZ"; // 深圳证券交易所
-        } else if (code.startsWith("0") && code.length() == 5) {
-            return "HK"; // 香港交易所
-        }
-        
-        return "SH";
+        return StockCodes.exchange(stockCode);
     }
 
     /**
@@ -196,17 +176,17 @@ public class TencentFinanceApiUtil {
         
         try {
             // 腾讯财经股票代码查询API
-            String queryUrl = "https://qt.gtimg.cn/q=" + formatStockCode(stockCode);
+            String symbol = formatStockCode(stockCode);
             
-            log.info("调用腾讯财经API: {}", queryUrl);
-            String response = restTemplate.getForObject(queryUrl, String.class);
+            log.info("调用腾讯财经API: {}", symbol);
+            byte[] response = tencentQuoteClient.fetchBytes(symbol).block();
             
-            if (response == null || response.trim().isEmpty()) {
+            if (response == null || response.length == 0) {
                 log.warn("腾讯财经API返回空响应，股票代码: {}", stockCode);
                 return null;
             }
             
-            log.info("腾讯财经API响应: {}", response);
+            log.debug("腾讯财经API响应: {} 字节", response.length);
             
             // 解析响应数据
             Map<String, Object> stockInfo = parseStockCodeResponse(response, stockCode);
@@ -232,86 +212,54 @@ public class TencentFinanceApiUtil {
         if (stockCode == null || stockCode.trim().isEmpty()) {
             return stockCode;
         }
-        
-        String code = stockCode.trim();
-        
-        // 如果已经包含市场前缀，直接返回
-        if (code.startsWith("sh") || code.startsWith("sz") || code.startsWith("hk")) {
-            return code;
-        }
-        
-        // 根据代码规则添加市场前缀
-        if (code.startsWith("60")) {
-            return "sh" + code; // 上海A股
-        } else if (code.startsWith("00") || code.startsWith("30")) {
-            return "sz" + code; // 深圳A股
-        } else if (code.length() == 5 && code.startsWith("0")) {
-            return "hk" + code; // 港股
-        } else if (code.length() == 5) {
-            return "hk" + code; // 默认港股
-        }
-        
-        // 默认上海A股
-        return "sh" + code;
+        return StockCodes.toSymbol(stockCode.trim());
     }
 
     /**
      * 解析股票代码查询的响应
+     * 腾讯财经API返回格式: v_股票代码="数据";
      */
-    private Map<String, Object> parseStockCodeResponse(String response, String stockCode) {
+    private Map<String, Object> parseStockCodeResponse(byte[] response, String stockCode) {
         try {
-            // 腾讯财经API返回格式: v_股票代码="数据";
-            if (!response.contains("=") || !response.contains("\"")) {
-                log.warn("股票代码 {} 的响应格式不正确: {}", stockCode, response);
-                return null;
-            }
-            
-            String[] lines = response.split("\n");
-            for (String line : lines) {
-                if (line.contains("\"")) {
-                    // 提取股票数据
-                    int startIndex = line.indexOf("\"");
-                    int endIndex = line.lastIndexOf("\"");
-                    
-                    if (startIndex != -1 && endIndex != -1 && startIndex < endIndex) {
-                        String dataStr = line.substring(startIndex + 1, endIndex);
-                        String[] fields = dataStr.split("~");
-                        
-                        if (fields.length >= 10) {
-                            Map<String, Object> stockInfo = new HashMap<>();
-                            stockInfo.put("stock_name", fields[1]); // 股票名称
-                            stockInfo.put("a_stock_code", extractPureCode(fields[2])); // A股代码
-                            stockInfo.put("current_price", fields[3]); // 当前价格
-                            stockInfo.put("change_percent", fields.length > 32 ? fields[32] : "0"); // 涨跌幅
-                            
-                            // 设置市场类型和交易所
-                            String pureCode = extractPureCode(fields[2]);
-                            stockInfo.put("market_type", determineMarketType(pureCode));
-                            stockInfo.put("exchange", determineExchange(pureCode));
-                            
-                            // 尝试匹配H股代码
-                            String hStockCode = getCorrespondingHStockCode(pureCode);
-                            if (hStockCode != null && !hStockCode.trim().isEmpty()) {
-                                stockInfo.put("h_stock_code", hStockCode);
-                                stockInfo.put("market_type", "A+H");
-                                stockInfo.put("exchange", "SH/HK");
-                            } else {
-                                stockInfo.put("h_stock_code", "");
-                            }
-                            
-                            // 设置行业
-                            stockInfo.put("industry", determineIndustry(fields[1]));
-                            stockInfo.put("status", 1);
-                            stockInfo.put("deleted", 0);
-                            
-                            return stockInfo;
-                        }
-                    }
+            Map<String, Object> stockInfo = new HashMap<>();
+            TencentQuoteParser.parse(response, line -> {
+                if (!stockInfo.isEmpty() || line.fieldCount() < 10) {
+                    return;
                 }
-            }
+                String stockName = line.fieldAsString(TencentQuoteParser.FIELD_NAME, TencentQuoteClient.GBK);
+                String pureCode = extractPureCode(line.fieldAsString(TencentQuoteParser.FIELD_CODE, StandardCharsets.ISO_8859_1));
+                
+                stockInfo.put("stock_name", stockName); // 股票名称
+                stockInfo.put("a_stock_code", pureCode); // A股代码
+                stockInfo.put("current_price", line.fieldAsString(TencentQuoteParser.FIELD_CURRENT, StandardCharsets.ISO_8859_1)); // 当前价格
+                stockInfo.put("change_percent", line.fieldCount() > TencentQuoteParser.FIELD_CHANGE_PERCENT
+                        ? line.fieldAsString(TencentQuoteParser.FIELD_CHANGE_PERCENT, StandardCharsets.ISO_8859_1) : "0"); // 涨跌幅
+                
+                // 设置市场类型和交易所
+                stockInfo.put("market_type", determineMarketType(pureCode));
+                stockInfo.put("exchange", determineExchange(pureCode));
+                
+                // 尝试匹配H股代码
+                String hStockCode = getCorrespondingHStockCode(pureCode);
+                if (hStockCode != null && !hStockCode.trim().isEmpty()) {
+                    stockInfo.put("h_stock_code", hStockCode);
+                    stockInfo.put("market_type", "A+H");
+                    stockInfo.put("exchange", "SH/HK");
+                } else {
+                    stockInfo.put("h_stock_code", "");
+                }
+                
+                // 设置行业
+                stockInfo.put("industry", determineIndustry(stockName));
+                stockInfo.put("status", 1);
+                stockInfo.put("deleted", 0);
+            });
             
-            log.warn("无法解析股票代码 {} 的响应数据", stockCode);
-            return null;
+            if (stockInfo.isEmpty()) {
+                log.warn("无法解析股票代码 {} 的响应数据", stockCode);
+                return null;
+            }
+            return stockInfo;
             
         } catch (Exception e) {
             log.error("解析股票代码 {} 的响应失败", stockCode, e);
@@ -326,13 +274,7 @@ public class TencentFinanceApiUtil {
         if (fullCode == null || fullCode.trim().isEmpty()) {
             return fullCode;
         }
-        
-        String code = fullCode.trim();
-        if (code.startsWith("sh") || code.startsWith("sz") || code.startsWith("hk")) {
-            return code.substring(2);
-        }
-        
-        return code;
+        return StockCodes.stripPrefix(fullCode.trim());
     }
 
     /**
@@ -393,33 +335,15 @@ public class TencentFinanceApiUtil {
 
 
     /**
-     * 获取对应的H股代码
+     * 获取对应的H股代码，来自 ah_stock_pair 字典
      */
     private String getCorrespondingHStockCode(String aStockCode) {
         if (aStockCode == null || aStockCode.trim().isEmpty()) {
             return null;
         }
         
-        // 常见A+H股对应关系
-        Map<String, String> ahMapping = new HashMap<>();
-        ahMapping.put("601939", "00939"); // 中国建设银行
-        ahMapping.put("600036", "03968"); // 招商银行
-        ahMapping.put("601288", "01288"); // 中国农业银行
-        ahMapping.put("601088", "01088"); // 中国神华
-        ahMapping.put("601318", "02318"); // 中国平安
-        ahMapping.put("600028", "00386"); // 中国石化
-        ahMapping.put("601857", "00857"); // 中国石油
-        ahMapping.put("601398", "01398"); // 工商银行
-        ahMapping.put("601988", "03988"); // 中国银行
-        ahMapping.put("601628", "02628"); // 中国人寿
-        ahMapping.put("600919", "00753"); // 江苏银行
-        ahMapping.put("601766", "06886"); // 中国中车
-        ahMapping.put("601186", "03968"); // 中国铁建
-        ahMapping.put("600585", "00753"); // 海螺水泥
-        ahMapping.put("601328", "03328"); // 交通银行
-        
-        String hCode = ahMapping.get(aStockCode);
-        log.info("A股代码 {} 对应的H股代码: {}", aStockCode, hCode);
+        String hCode = ahPairService.getHStockCode(aStockCode.trim());
+        log.debug("A股代码 {} 对应的H股代码: {}", aStockCode, hCode);
         
         return hCode;
     }
@@ -0,0 +1,110 @@
+package com.stock.premium.utils;
+
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 腾讯行情HTTP客户端
+ * 基于Reactor Netty的非阻塞客户端，共享连接池并保持长连接，
+ * 每个目标主机的并发连接数受 max-connections 限制，超出的请求在池内排队
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class TencentQuoteClient {
+
+    /**
+     * 腾讯行情接口返回GBK编码
+     */
+    public static final Charset GBK = Charset.forName("GBK");
+
+    private final String baseUrl;
+
+    private final Duration timeout;
+
+    private final ConnectionProvider connectionProvider;
+
+    private final WebClient webClient;
+
+    public TencentQuoteClient(@Value("${tencent.finance.api.base-url:https://qt.gtimg.cn/q=}") String baseUrl,
+                              @Value("${tencent.finance.api.timeout:5000}") int timeoutMillis,
+                              @Value("${tencent.finance.api.max-connections:8}") int maxConnections,
+                              @Value("${tencent.finance.api.pending-acquire-max:1000}") int pendingAcquireMax,
+                              @Value("${tencent.finance.api.max-idle-time:30000}") int maxIdleMillis) {
+        this.baseUrl = baseUrl;
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        // 连接池按远端地址划分，maxConnections 即单主机并发上限
+        this.connectionProvider = ConnectionProvider.builder("tencent-quote")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(this.timeout)
+                .maxIdleTime(Duration.ofMillis(maxIdleMillis))
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, timeoutMillis)
+                .responseTimeout(this.timeout)
+                .keepAlive(true);
+        this.webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        log.info("腾讯行情客户端初始化: baseUrl={}, maxConnections={}, timeout={}ms", baseUrl, maxConnections, timeoutMillis);
+    }
+
+    /**
+     * 请求行情原始字节（GBK编码）
+     * @param symbols 完整代码，多个以逗号分隔，如 sh601088,hk01088
+     */
+    public Mono<byte[]> fetchBytes(String symbols) {
+        // 直接构造URI，避免URI模板对已编码参数重复编码
+        return webClient.get()
+                .uri(URI.create(baseUrl + symbols))
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .timeout(timeout)
+                .defaultIfEmpty(new byte[0]);
+    }
+
+    /**
+     * 请求行情文本
+     * @param symbols 完整代码，多个以逗号分隔
+     */
+    public Mono<String> fetch(String symbols) {
+        return fetchBytes(symbols).map(bytes -> new String(bytes, GBK));
+    }
+
+    /**
+     * 请求行情文本（CompletableFuture形式）
+     * @param symbols 完整代码，多个以逗号分隔
+     */
+    public CompletableFuture<String> fetchAsync(String symbols) {
+        return fetch(symbols).toFuture();
+    }
+
+    /**
+     * 阻塞获取行情文本，供同步调用方使用
+     * @param symbols 完整代码，多个以逗号分隔
+     */
+    public String fetchBlocking(String symbols) {
+        return fetch(symbols).block();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        connectionProvider.dispose();
+    }
+}
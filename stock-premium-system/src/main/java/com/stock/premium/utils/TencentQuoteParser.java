@@ -0,0 +1,493 @@
+package com.stock.premium.utils;
+
+import com.stock.premium.entity.StockPriceRecord;
+
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 腾讯行情报文解析器
+ * 直接扫描GBK原始字节，一次遍历处理多代码响应：
+ * v_sh601088="1~中国神华~601088~40.50~...";
+ * v_hk01088="100~中国神华~01088~35.200~...";
+ * 字段只记录起止下标，价格按定点长整型解析，代码按预先编码的字节匹配(SymbolIndex)，不生成中间字符串
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+public final class TencentQuoteParser {
+
+    /**
+     * 价格定点精度，与 stock_price_record 的 decimal(10,3) 一致
+     */
+    public static final int PRICE_SCALE = 3;
+
+    /**
+     * 字段为空或不是合法数字时的返回值
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    /**
+     * 行情报文字段下标
+     */
+    public static final int FIELD_NAME = 1;
+    public static final int FIELD_CODE = 2;
+    public static final int FIELD_CURRENT = 3;
+    public static final int FIELD_PRE_CLOSE = 4;
+    public static final int FIELD_OPEN = 5;
+    public static final int FIELD_VOLUME = 6;
+    /**
+     * 行情时间，A股为 20240315150003，港股为 2024/03/15 16:08:11
+     */
+    public static final int FIELD_QUOTE_TIME = 30;
+    public static final int FIELD_CHANGE_PERCENT = 32;
+    public static final int FIELD_HIGH = 33;
+    public static final int FIELD_LOW = 34;
+
+    private static final int MAX_FIELDS = 128;
+
+    private static final long[] POW10 = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L,
+            10_000_000L, 100_000_000L, 1_000_000_000L};
+
+    /**
+     * 定点值最多18位有效数字，long 不会溢出
+     */
+    private static final int MAX_DIGITS = 18;
+
+    /**
+     * 行情时间 yyyyMMddHHmmss 的数字位数
+     */
+    private static final int DATE_TIME_DIGITS = 14;
+
+    private TencentQuoteParser() {
+    }
+
+    /**
+     * 逐行回调
+     */
+    @FunctionalInterface
+    public interface QuoteVisitor {
+        /**
+         * 处理一行行情，line 在回调返回后会被复用，不能保存引用
+         */
+        void visit(QuoteLine line);
+    }
+
+    /**
+     * 单行行情视图，只保存字段在原始字节中的位置
+     */
+    public static final class QuoteLine {
+
+        private byte[] buf;
+        private int symbolStart;
+        private int symbolEnd;
+        private int fieldCount;
+        private final int[] fieldStart = new int[MAX_FIELDS];
+        private final int[] fieldEnd = new int[MAX_FIELDS];
+
+        public int fieldCount() {
+            return fieldCount;
+        }
+
+        /**
+         * 完整代码，如 sh601088；每次调用生成新字符串，逐行匹配请用 SymbolIndex 或 symbolStartsWith
+         */
+        public String symbol() {
+            return new String(buf, symbolStart, symbolEnd - symbolStart, StandardCharsets.ISO_8859_1);
+        }
+
+        /**
+         * 代码是否以指定前缀开头，前缀为ASCII字节
+         */
+        public boolean symbolStartsWith(byte[] prefix) {
+            if (symbolEnd - symbolStart < prefix.length) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length; i++) {
+                if (buf[symbolStart + i] != prefix[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int symbolHash() {
+            int hash = 1;
+            for (int i = symbolStart; i < symbolEnd; i++) {
+                hash = 31 * hash + buf[i];
+            }
+            return hash;
+        }
+
+        private boolean symbolEquals(byte[] key) {
+            return symbolEnd - symbolStart == key.length && symbolStartsWith(key);
+        }
+
+        /**
+         * 是否为港股行情（hk前缀）
+         */
+        public boolean isHk() {
+            return symbolEnd - symbolStart > 2 && buf[symbolStart] == 'h' && buf[symbolStart + 1] == 'k';
+        }
+
+        public boolean isEmpty(int index) {
+            return index >= fieldCount || fieldEnd[index] == fieldStart[index];
+        }
+
+        public String fieldAsString(int index, Charset charset) {
+            if (index >= fieldCount) {
+                return null;
+            }
+            return new String(buf, fieldStart[index], fieldEnd[index] - fieldStart[index], charset);
+        }
+
+        /**
+         * 按定点数解析字段，如 scale=3 时 "12.34" 返回 12340
+         */
+        public long fieldAsFixed(int index, int scale) {
+            if (index >= fieldCount) {
+                return INVALID;
+            }
+            return parseFixed(buf, fieldStart[index], fieldEnd[index], scale);
+        }
+
+        public long fieldAsLong(int index) {
+            return fieldAsFixed(index, 0);
+        }
+
+        /**
+         * 按行情时间解析字段，不合法时返回null
+         */
+        public LocalDateTime fieldAsDateTime(int index) {
+            if (index >= fieldCount) {
+                return null;
+            }
+            return parseDateTime(buf, fieldStart[index], fieldEnd[index]);
+        }
+    }
+
+    /**
+     * 完整代码 -> 股票代码的只读索引
+     * 代码预先编码为字节，按行情中代码的原始字节查找，匹配过程不生成字符串
+     */
+    public static final class SymbolIndex {
+
+        private final byte[][] keys;
+        private final String[] values;
+        private final int mask;
+
+        private SymbolIndex(Map<String, String> symbolToCode) {
+            int capacity = Integer.highestOneBit(Math.max(4, symbolToCode.size() * 2 - 1)) << 1;
+            keys = new byte[capacity][];
+            values = new String[capacity];
+            mask = capacity - 1;
+            for (Map.Entry<String, String> entry : symbolToCode.entrySet()) {
+                byte[] key = entry.getKey().getBytes(StandardCharsets.ISO_8859_1);
+                int slot = hash(key) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = entry.getValue();
+            }
+        }
+
+        public static SymbolIndex of(Map<String, String> symbolToCode) {
+            return new SymbolIndex(symbolToCode);
+        }
+
+        /**
+         * 当前行代码对应的股票代码，不在索引中时返回null
+         */
+        public String get(QuoteLine line) {
+            for (int slot = line.symbolHash() & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+                if (line.symbolEquals(keys[slot])) {
+                    return values[slot];
+                }
+            }
+            return null;
+        }
+
+        private static int hash(byte[] key) {
+            int hash = 1;
+            for (byte b : key) {
+                hash = 31 * hash + b;
+            }
+            return hash;
+        }
+    }
+
+    /**
+     * 扫描整个响应
+     * @return 解析出的行数
+     */
+    public static int parse(byte[] buf, QuoteVisitor visitor) {
+        return parse(buf, 0, buf.length, visitor);
+    }
+
+    /**
+     * 扫描响应中的指定区间
+     * @return 解析出的行数
+     */
+    public static int parse(byte[] buf, int off, int len, QuoteVisitor visitor) {
+        QuoteLine line = new QuoteLine();
+        line.buf = buf;
+        int end = off + len;
+        int i = off;
+        int lines = 0;
+
+        while (i < end) {
+            // 定位 v_ 开头
+            while (i < end && buf[i] != 'v') {
+                i++;
+            }
+            if (i + 1 >= end || buf[i + 1] != '_') {
+                i++;
+                continue;
+            }
+            int symbolStart = i + 2;
+            int eq = symbolStart;
+            while (eq < end && buf[eq] != '=' && buf[eq] != '\n') {
+                eq++;
+            }
+            if (eq + 1 >= end || buf[eq] != '=' || buf[eq + 1] != '"') {
+                i = eq;
+                continue;
+            }
+
+            line.symbolStart = symbolStart;
+            line.symbolEnd = eq;
+            line.fieldCount = 0;
+
+            int p = eq + 2;
+            int fieldStart = p;
+            while (p < end) {
+                int b = buf[p] & 0xFF;
+                if (b == '"') {
+                    break;
+                }
+                if (b == '~') {
+                    addField(line, fieldStart, p);
+                    fieldStart = p + 1;
+                    p++;
+                } else if (b >= 0x81 && p + 1 < end) {
+                    // GBK双字节字符，尾字节可能是0x7E('~')，整体跳过
+                    p += 2;
+                } else {
+                    p++;
+                }
+            }
+            if (p >= end) {
+                // 报文被截断
+                break;
+            }
+            addField(line, fieldStart, p);
+
+            visitor.visit(line);
+            lines++;
+            i = p + 1;
+        }
+        return lines;
+    }
+
+    private static void addField(QuoteLine line, int start, int end) {
+        if (line.fieldCount < MAX_FIELDS) {
+            line.fieldStart[line.fieldCount] = start;
+            line.fieldEnd[line.fieldCount] = end;
+            line.fieldCount++;
+        }
+    }
+
+    /**
+     * 解析响应为价格记录
+     * @param buf 原始响应字节
+     * @param symbolToCode 完整代码(如sh601088) -> 记录中使用的股票代码
+     */
+    public static List<StockPriceRecord> parseRecords(byte[] buf, Map<String, String> symbolToCode) {
+        return parseRecords(buf, SymbolIndex.of(symbolToCode), symbolToCode.size());
+    }
+
+    /**
+     * 解析响应为价格记录，代码索引可在多次解析间复用
+     * @param expected 预计的记录数，用于预分配结果列表
+     */
+    public static List<StockPriceRecord> parseRecords(byte[] buf, SymbolIndex symbolIndex, int expected) {
+        List<StockPriceRecord> results = new ArrayList<>(expected);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        parse(buf, line -> {
+            String stockCode = symbolIndex.get(line);
+            if (stockCode == null) {
+                return;
+            }
+            StockPriceRecord record = toRecord(line, stockCode);
+            if (record != null) {
+                if (record.getRecordTime() == null) {
+                    // 没有行情时间时退回本地时间
+                    record.setRecordTime(now);
+                    record.setTradeDate(today);
+                }
+                results.add(record);
+            }
+        });
+        return results;
+    }
+
+    /**
+     * 将一行行情转换为价格记录，字段不足或价格非法时返回null
+     * 记录时间取行情时间，同一笔行情重复采集得到相同的记录时间
+     */
+    public static StockPriceRecord toRecord(QuoteLine line, String stockCode) {
+        if (line.fieldCount() <= FIELD_LOW) {
+            return null;
+        }
+        long current = line.fieldAsFixed(FIELD_CURRENT, PRICE_SCALE);
+        long preClose = line.fieldAsFixed(FIELD_PRE_CLOSE, PRICE_SCALE);
+        long open = line.fieldAsFixed(FIELD_OPEN, PRICE_SCALE);
+        long high = line.fieldAsFixed(FIELD_HIGH, PRICE_SCALE);
+        long low = line.fieldAsFixed(FIELD_LOW, PRICE_SCALE);
+        if (current == INVALID || preClose == INVALID || open == INVALID || high == INVALID || low == INVALID) {
+            return null;
+        }
+
+        StockPriceRecord record = new StockPriceRecord();
+        record.setStockCode(stockCode);
+        record.setMarketType(line.isHk() ? "H" : "A");
+        record.setCurrentPrice(BigDecimal.valueOf(current, PRICE_SCALE));
+        record.setPreClosePrice(BigDecimal.valueOf(preClose, PRICE_SCALE));
+        record.setOpenPrice(BigDecimal.valueOf(open, PRICE_SCALE));
+        record.setHighPrice(BigDecimal.valueOf(high, PRICE_SCALE));
+        record.setLowPrice(BigDecimal.valueOf(low, PRICE_SCALE));
+        long volume = line.fieldAsLong(FIELD_VOLUME);
+        if (volume != INVALID) {
+            record.setVolume(volume);
+        }
+        LocalDateTime quoteTime = line.fieldAsDateTime(FIELD_QUOTE_TIME);
+        if (quoteTime != null) {
+            record.setRecordTime(quoteTime);
+            record.setTradeDate(quoteTime.toLocalDate());
+        }
+
+        // 涨跌幅(%)：先按4位小数计算比例再乘100
+        if (preClose > 0) {
+            long ratio = divideHalfUp((current - preClose) * 10_000L, preClose);
+            record.setChangeRate(BigDecimal.valueOf(ratio * 100, 4));
+        }
+        record.setDataSource("tencent");
+        return record;
+    }
+
+    /**
+     * 解析定点数，超出精度的部分四舍五入
+     * @return 定点值，字段为空、非法或超过18位有效数字时返回 {@link #INVALID}
+     */
+    public static long parseFixed(byte[] buf, int start, int end, int scale) {
+        if (start >= end) {
+            return INVALID;
+        }
+        int i = start;
+        boolean negative = false;
+        if (buf[i] == '-' || buf[i] == '+') {
+            negative = buf[i] == '-';
+            i++;
+        }
+        long value = 0;
+        int significantDigits = 0;
+        int fractionDigits = -1;
+        boolean roundUp = false;
+        boolean hasDigit = false;
+        for (; i < end; i++) {
+            byte b = buf[i];
+            if (b == '.') {
+                if (fractionDigits >= 0) {
+                    return INVALID;
+                }
+                fractionDigits = 0;
+                continue;
+            }
+            if (b < '0' || b > '9') {
+                return INVALID;
+            }
+            hasDigit = true;
+            if (fractionDigits >= 0) {
+                if (fractionDigits == scale) {
+                    // 只看第一位被截掉的数字
+                    roundUp = b >= '5';
+                    fractionDigits++;
+                    continue;
+                }
+                if (fractionDigits > scale) {
+                    continue;
+                }
+                fractionDigits++;
+            }
+            if (value != 0 || b != '0') {
+                significantDigits++;
+            }
+            value = value * 10 + (b - '0');
+            if (significantDigits > MAX_DIGITS) {
+                return INVALID;
+            }
+        }
+        if (!hasDigit) {
+            return INVALID;
+        }
+        int digits = fractionDigits < 0 ? 0 : Math.min(fractionDigits, scale);
+        if (value != 0 && significantDigits + scale - digits > MAX_DIGITS) {
+            return INVALID;
+        }
+        value *= POW10[scale - digits];
+        if (roundUp) {
+            value++;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * 解析行情时间，只取其中的14位数字(yyyyMMddHHmmss)，兼容A股和港股两种格式
+     * @return 行情时间，数字位数不对或日期非法时返回null
+     */
+    public static LocalDateTime parseDateTime(byte[] buf, int start, int end) {
+        long value = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buf[i];
+            if (b < '0' || b > '9') {
+                continue;
+            }
+            if (++digits > DATE_TIME_DIGITS) {
+                return null;
+            }
+            value = value * 10 + (b - '0');
+        }
+        if (digits != DATE_TIME_DIGITS) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of((int) (value / 10_000_000_000L), (int) (value / 100_000_000L % 100),
+                    (int) (value / 1_000_000L % 100), (int) (value / 10_000L % 100), (int) (value / 100L % 100),
+                    (int) (value % 100));
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 整数除法，按 HALF_UP 舍入（与 BigDecimal 一致，0.5 远离零）
+     */
+    static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder != 0 && 2 * Math.abs(remainder) >= Math.abs(divisor)) {
+            quotient += (dividend ^ divisor) < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+}
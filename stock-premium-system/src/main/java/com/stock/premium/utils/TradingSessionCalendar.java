@@ -0,0 +1,148 @@
+package com.stock.premium.utils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * A股/港股交易时段日历（不可变）
+ * A股：9:30-11:30，13:00-15:00
+ * 港股：9:30-12:00，13:00-16:10（含收市竞价）；半日市只有上午
+ * 周末及节假日休市，节假日和半日市由 trading_calendar 表提供
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+public final class TradingSessionCalendar {
+
+    public static final String MARKET_A = "A";
+    public static final String MARKET_H = "H";
+
+    private static final LocalTime[][] A_SESSIONS = {
+            {LocalTime.of(9, 30), LocalTime.of(11, 30)},
+            {LocalTime.of(13, 0), LocalTime.of(15, 0)}
+    };
+
+    private static final LocalTime[][] H_SESSIONS = {
+            {LocalTime.of(9, 30), LocalTime.of(12, 0)},
+            {LocalTime.of(13, 0), LocalTime.of(16, 10)}
+    };
+
+    /**
+     * 向后查找下一个开市时间的最大天数，覆盖最长的节假日
+     */
+    private static final int MAX_LOOKAHEAD_DAYS = 30;
+
+    private final Set<LocalDate> aClosed;
+    private final Set<LocalDate> hClosed;
+    private final Set<LocalDate> aHalfDays;
+    private final Set<LocalDate> hHalfDays;
+
+    public TradingSessionCalendar(Set<LocalDate> aClosed, Set<LocalDate> hClosed,
+                                  Set<LocalDate> aHalfDays, Set<LocalDate> hHalfDays) {
+        this.aClosed = Set.copyOf(aClosed);
+        this.hClosed = Set.copyOf(hClosed);
+        this.aHalfDays = Set.copyOf(aHalfDays);
+        this.hHalfDays = Set.copyOf(hHalfDays);
+    }
+
+    /**
+     * 只按周末判断的默认日历，交易日历加载失败时使用
+     */
+    public static TradingSessionCalendar weekdaysOnly() {
+        return new TradingSessionCalendar(Collections.emptySet(), Collections.emptySet(),
+                Collections.emptySet(), Collections.emptySet());
+    }
+
+    public boolean isTradingDay(String market, LocalDate date) {
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) {
+            return false;
+        }
+        return !(MARKET_H.equals(market) ? hClosed : aClosed).contains(date);
+    }
+
+    /**
+     * 指定时刻市场是否处于连续交易时段（含收盘时刻）
+     */
+    public boolean isOpen(String market, LocalDateTime time) {
+        LocalDate date = time.toLocalDate();
+        if (!isTradingDay(market, date)) {
+            return false;
+        }
+        LocalTime t = time.toLocalTime();
+        LocalTime[][] sessions = sessions(market, date);
+        for (LocalTime[] session : sessions) {
+            if (!t.isBefore(session[0]) && !t.isAfter(session[1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 指定时刻开市的市场数量：2-两地都开市，1-仅一地开市，0-都休市
+     */
+    public int openMarketCount(LocalDateTime time) {
+        return (isOpen(MARKET_A, time) ? 1 : 0) + (isOpen(MARKET_H, time) ? 1 : 0);
+    }
+
+    /**
+     * 指定时刻之后最近的一个开盘或收盘时刻，找不到时返回null
+     */
+    public LocalDateTime nextBoundary(LocalDateTime time) {
+        LocalDateTime best = null;
+        for (int d = 0; d <= MAX_LOOKAHEAD_DAYS && best == null; d++) {
+            LocalDate date = time.toLocalDate().plusDays(d);
+            for (String market : new String[]{MARKET_A, MARKET_H}) {
+                if (!isTradingDay(market, date)) {
+                    continue;
+                }
+                for (LocalTime[] session : sessions(market, date)) {
+                    for (LocalTime boundary : session) {
+                        LocalDateTime candidate = date.atTime(boundary);
+                        if (candidate.isAfter(time) && (best == null || candidate.isBefore(best))) {
+                            best = candidate;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 指定时刻之后任一市场最近的开盘时刻，找不到时返回null
+     */
+    public LocalDateTime nextOpen(LocalDateTime time) {
+        LocalDateTime best = null;
+        for (int d = 0; d <= MAX_LOOKAHEAD_DAYS && best == null; d++) {
+            LocalDate date = time.toLocalDate().plusDays(d);
+            for (String market : new String[]{MARKET_A, MARKET_H}) {
+                if (!isTradingDay(market, date)) {
+                    continue;
+                }
+                for (LocalTime[] session : sessions(market, date)) {
+                    LocalDateTime candidate = date.atTime(session[0]);
+                    if (candidate.isAfter(time) && (best == null || candidate.isBefore(best))) {
+                        best = candidate;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private LocalTime[][] sessions(String market, LocalDate date) {
+        boolean hk = MARKET_H.equals(market);
+        LocalTime[][] sessions = hk ? H_SESSIONS : A_SESSIONS;
+        if ((hk ? hHalfDays : aHalfDays).contains(date)) {
+            // 半日市只保留上午时段
+            return new LocalTime[][]{sessions[0]};
+        }
+        return sessions;
+    }
+}
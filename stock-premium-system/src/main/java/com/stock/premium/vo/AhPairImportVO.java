@@ -0,0 +1,34 @@
+package com.stock.premium.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A+H股票对导入结果VO
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+@Data
+@ApiModel("A+H股票对导入结果")
+public class AhPairImportVO {
+
+    @ApiModelProperty("数据行数（不含表头、空行和注释）")
+    private int totalLines;
+
+    @ApiModelProperty("导入成功数量")
+    private int importedCount;
+
+    @ApiModelProperty("校验失败数量")
+    private int rejectedCount;
+
+    @ApiModelProperty("校验失败的行及原因")
+    private List<String> errors = new ArrayList<>();
+
+    @ApiModelProperty("导入后索引中的股票对数量")
+    private int indexSize;
+}
@@ -0,0 +1,47 @@
+package com.stock.premium.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 采集周期报告VO
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+@Data
+@ApiModel("采集周期报告")
+public class CollectionReportVO {
+
+    @ApiModelProperty("周期开始时间")
+    private LocalDateTime startTime;
+
+    @ApiModelProperty("A+H股票对数量")
+    private int totalPairs;
+
+    @ApiModelProperty("成功数量")
+    private int successCount;
+
+    @ApiModelProperty("行情未变化跳过数量")
+    private int unchangedCount;
+
+    @ApiModelProperty("缺少行情跳过数量")
+    private int missingQuoteCount;
+
+    @ApiModelProperty("失败数量")
+    private int failedCount;
+
+    @ApiModelProperty("超过周期截止时间未完成数量")
+    private int timeoutCount;
+
+    @ApiModelProperty("超时跳过的A股代码")
+    private List<String> timeoutStocks = new ArrayList<>();
+
+    @ApiModelProperty("耗时(毫秒)")
+    private long elapsedMillis;
+}
@@ -0,0 +1,42 @@
+package com.stock.premium.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * 历史溢价率重算结果VO
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+@Data
+@ApiModel("历史溢价率重算结果")
+public class PremiumRecomputeVO {
+
+    @ApiModelProperty("开始日期")
+    private LocalDate startDate;
+
+    @ApiModelProperty("结束日期")
+    private LocalDate endDate;
+
+    @ApiModelProperty("处理的A+H股票对数量")
+    private int stockCount;
+
+    @ApiModelProperty("写入的溢价率记录数")
+    private long recordCount;
+
+    @ApiModelProperty("缺少H股价格跳过的A股tick数")
+    private long missingPriceCount;
+
+    @ApiModelProperty("早于第一条汇率、按最早汇率计算的tick数")
+    private long missingRateCount;
+
+    @ApiModelProperty("失败的股票数量")
+    private int failedCount;
+
+    @ApiModelProperty("耗时(毫秒)")
+    private long elapsedMillis;
+}
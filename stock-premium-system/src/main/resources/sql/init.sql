@@ -23,7 +23,7 @@ CREATE TABLE `stock_info` (
   KEY `idx_status` (`status`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='股票基础信息表';
 
--- 2. 实时价格记录表
+-- 2. 实时价格记录表（按 trade_date 按月分区，月分区由 PartitionMaintenanceTask 预建和清理，见 migration_partition.sql）
 CREATE TABLE `stock_price_record` (
   `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
   `stock_code` varchar(20) NOT NULL COMMENT '股票代码',
@@ -40,11 +40,15 @@ CREATE TABLE `stock_price_record` (
   `trade_date` date NOT NULL COMMENT '交易日期',
   `data_source` varchar(20) DEFAULT 'tencent' COMMENT '数据来源',
   `created_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
-  PRIMARY KEY (`id`),
-  KEY `idx_stock_code_time` (`stock_code`, `record_time`),
+  PRIMARY KEY (`id`, `trade_date`),
+  UNIQUE KEY `uk_stock_code_time` (`stock_code`, `record_time`, `trade_date`),
   KEY `idx_trade_date` (`trade_date`),
   KEY `idx_market_type` (`market_type`)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='实时价格记录表';
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='实时价格记录表'
+PARTITION BY RANGE COLUMNS(`trade_date`) (
+  PARTITION `p_history` VALUES LESS THAN ('2025-01-01'),
+  PARTITION `p_future` VALUES LESS THAN (MAXVALUE)
+);
 
 -- 3. 汇率记录表
 CREATE TABLE `exchange_rate_record` (
@@ -60,7 +64,7 @@ CREATE TABLE `exchange_rate_record` (
   KEY `idx_trade_date` (`trade_date`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='汇率记录表';
 
--- 4. 溢价率记录表
+-- 4. 溢价率记录表（分区方式同实时价格记录表）
 CREATE TABLE `premium_rate_record` (
   `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
   `stock_code` varchar(20) NOT NULL COMMENT '股票代码（A股代码）',
@@ -71,11 +75,15 @@ CREATE TABLE `premium_rate_record` (
   `record_time` datetime NOT NULL COMMENT '记录时间',
   `trade_date` date NOT NULL COMMENT '交易日期',
   `created_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
-  PRIMARY KEY (`id`),
-  KEY `idx_stock_code_time` (`stock_code`, `record_time`),
+  PRIMARY KEY (`id`, `trade_date`),
+  UNIQUE KEY `uk_stock_code_time` (`stock_code`, `record_time`, `trade_date`),
   KEY `idx_trade_date` (`trade_date`),
   KEY `idx_premium_rate` (`premium_rate`)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='溢价率记录表';
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='溢价率记录表'
+PARTITION BY RANGE COLUMNS(`trade_date`) (
+  PARTITION `p_history` VALUES LESS THAN ('2025-01-01'),
+  PARTITION `p_future` VALUES LESS THAN (MAXVALUE)
+);
 
 -- 5. 日统计数据表
 CREATE TABLE `daily_premium_stats` (
@@ -111,14 +119,331 @@ CREATE TABLE `system_config` (
   UNIQUE KEY `uk_config_key` (`config_key`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='系统配置表';
 
+-- 7. 最新溢价率快照表（每只股票一行，随行情批量写入同步更新）
+CREATE TABLE `latest_premium_snapshot` (
+  `stock_code` varchar(20) NOT NULL COMMENT '股票代码（A股代码）',
+  `a_stock_price` decimal(10,3) NOT NULL COMMENT 'A股价格',
+  `h_stock_price` decimal(10,3) NOT NULL COMMENT 'H股价格',
+  `exchange_rate` decimal(8,6) NOT NULL COMMENT '汇率',
+  `premium_rate` decimal(8,4) NOT NULL COMMENT '溢价率(%)',
+  `record_time` datetime NOT NULL COMMENT '记录时间',
+  `trade_date` date NOT NULL COMMENT '交易日期',
+  `updated_time` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`stock_code`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='最新溢价率快照表';
+
+-- 8. 交易日历表
+CREATE TABLE `trading_calendar` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `market_type` varchar(10) NOT NULL COMMENT '市场类型：A-A股，H-港股',
+  `calendar_date` date NOT NULL COMMENT '日期',
+  `day_type` varchar(20) NOT NULL COMMENT '日期类型：CLOSED-休市，HALF_DAY-半日市',
+  `remark` varchar(100) DEFAULT NULL COMMENT '说明',
+  `created_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `updated_time` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_market_date` (`market_type`, `calendar_date`),
+  KEY `idx_calendar_date` (`calendar_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='交易日历表（工作日中的休市日和半日市）';
+
+-- 9. A+H股票对字典表
+CREATE TABLE `ah_stock_pair` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `a_stock_code` varchar(10) NOT NULL COMMENT 'A股代码',
+  `h_stock_code` varchar(10) NOT NULL COMMENT 'H股代码',
+  `stock_name` varchar(100) DEFAULT NULL COMMENT '股票名称',
+  `status` tinyint NOT NULL DEFAULT '1' COMMENT '状态：1-启用，0-停用',
+  `created_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `updated_time` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_a_stock_code` (`a_stock_code`),
+  KEY `idx_h_stock_code` (`h_stock_code`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='A+H股票对字典表';
+
+-- 10. 采集节点心跳表（分片采集）
+CREATE TABLE `collector_node` (
+  `node_id` varchar(64) NOT NULL COMMENT '采集节点ID',
+  `host_name` varchar(128) DEFAULT NULL COMMENT '主机名',
+  `started_time` datetime DEFAULT NULL COMMENT '节点启动时间',
+  `heartbeat_time` datetime(3) NOT NULL COMMENT '最近心跳时间',
+  PRIMARY KEY (`node_id`),
+  KEY `idx_heartbeat_time` (`heartbeat_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='采集节点心跳表';
+
+-- 11. 溢价率分钟线表（超过 data.rollup.after-days 天的溢价率明细汇总后写入）
+CREATE TABLE `premium_rate_minute_bar` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `stock_code` varchar(20) NOT NULL COMMENT '股票代码（A股代码）',
+  `bar_time` datetime NOT NULL COMMENT '分钟起始时间',
+  `trade_date` date NOT NULL COMMENT '交易日期',
+  `open_premium_rate` decimal(8,4) NOT NULL COMMENT '开盘溢价率(%)',
+  `high_premium_rate` decimal(8,4) NOT NULL COMMENT '最高溢价率(%)',
+  `low_premium_rate` decimal(8,4) NOT NULL COMMENT '最低溢价率(%)',
+  `close_premium_rate` decimal(8,4) NOT NULL COMMENT '收盘溢价率(%)',
+  `a_stock_price` decimal(10,3) NOT NULL COMMENT '收盘时A股价格',
+  `h_stock_price` decimal(10,3) NOT NULL COMMENT '收盘时H股价格',
+  `exchange_rate` decimal(8,6) NOT NULL COMMENT '收盘时使用的汇率',
+  `tick_count` int NOT NULL COMMENT '汇总的明细条数',
+  `created_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_stock_bar_time` (`stock_code`, `bar_time`),
+  KEY `idx_trade_date` (`trade_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='溢价率分钟线表';
+
+-- 12. 股票价格分钟线表（超过 data.rollup.after-days 天的价格明细汇总后写入）
+CREATE TABLE `stock_price_minute_bar` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `stock_code` varchar(20) NOT NULL COMMENT '股票代码',
+  `market_type` varchar(10) NOT NULL COMMENT '市场类型：A股/H股',
+  `bar_time` datetime NOT NULL COMMENT '分钟起始时间',
+  `trade_date` date NOT NULL COMMENT '交易日期',
+  `open_price` decimal(10,3) NOT NULL COMMENT '开盘价',
+  `high_price` decimal(10,3) NOT NULL COMMENT '最高价',
+  `low_price` decimal(10,3) NOT NULL COMMENT '最低价',
+  `close_price` decimal(10,3) NOT NULL COMMENT '收盘价',
+  `volume` bigint DEFAULT NULL COMMENT '收盘时的当日累计成交量',
+  `turnover` decimal(15,2) DEFAULT NULL COMMENT '收盘时的当日累计成交额',
+  `tick_count` int NOT NULL COMMENT '汇总的明细条数',
+  `created_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_stock_bar_time` (`stock_code`, `bar_time`),
+  KEY `idx_trade_date` (`trade_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='股票价格分钟线表';
+
 -- 插入初始数据
 -- stock_info表数据已清理，无初始数据
 
 -- 插入系统配置
 INSERT INTO `system_config` (`config_key`, `config_value`, `config_desc`, `config_type`) VALUES
 ('data.collect.enabled', '1', '数据采集开关', 'BOOLEAN'),
-('data.collect.interval', '30', '数据采集间隔(秒)', 'INTEGER'),
+('data.collect.interval', '5', '两地同时开市时的数据采集间隔(秒)', 'INTEGER'),
+('data.collect.sparse-interval', '30', '仅一地开市时的数据采集间隔(秒)', 'INTEGER'),
 ('trading.start.time', '09:30:00', '交易开始时间', 'TIME'),
 ('trading.end.time', '16:00:00', '交易结束时间', 'TIME'),
 ('hk.trading.end.time', '16:00:00', '港股交易结束时间', 'TIME'),
-('default.exchange.rate', '0.9', '默认汇率(港币对人民币)', 'DECIMAL');
\ No newline at end of file
+('default.exchange.rate', '0.9', '默认汇率(港币对人民币)', 'DECIMAL'),
+('data.retention.months', '24', '价格和溢价率明细保留月数，过期的月分区整体删除，0为不清理', 'INTEGER'),
+('data.partition.ahead-months', '2', '价格和溢价率明细预建未来月分区的月数', 'INTEGER'),
+('data.rollup.after-days', '30', '价格和溢价率明细保留天数，更早的明细汇总为分钟线后删除，0为不汇总', 'INTEGER');
+
+-- 插入交易日历
+-- 2025-2027年休市日及半日市（工作日），之后年份按交易所公告通过 /calendar 接口维护
+-- 2027年A股按农历推算，国务院放假安排公布后通过 /calendar 接口核对
+INSERT INTO `trading_calendar` (`market_type`, `calendar_date`, `day_type`, `remark`) VALUES
+('A', '2025-01-01', 'CLOSED', '元旦'),
+('A', '2025-01-28', 'CLOSED', '春节'),
+('A', '2025-01-29', 'CLOSED', '春节'),
+('A', '2025-01-30', 'CLOSED', '春节'),
+('A', '2025-01-31', 'CLOSED', '春节'),
+('A', '2025-02-03', 'CLOSED', '春节'),
+('A', '2025-02-04', 'CLOSED', '春节'),
+('A', '2025-04-04', 'CLOSED', '清明节'),
+('A', '2025-05-01', 'CLOSED', '劳动节'),
+('A', '2025-05-02', 'CLOSED', '劳动节'),
+('A', '2025-05-05', 'CLOSED', '劳动节'),
+('A', '2025-06-02', 'CLOSED', '端午节'),
+('A', '2025-10-01', 'CLOSED', '国庆节、中秋节'),
+('A', '2025-10-02', 'CLOSED', '国庆节、中秋节'),
+('A', '2025-10-03', 'CLOSED', '国庆节、中秋节'),
+('A', '2025-10-06', 'CLOSED', '国庆节、中秋节'),
+('A', '2025-10-07', 'CLOSED', '国庆节、中秋节'),
+('A', '2025-10-08', 'CLOSED', '国庆节、中秋节'),
+('H', '2025-01-01', 'CLOSED', '元旦'),
+('H', '2025-01-28', 'HALF_DAY', '农历年除夕'),
+('H', '2025-01-29', 'CLOSED', '农历年初一'),
+('H', '2025-01-30', 'CLOSED', '农历年初二'),
+('H', '2025-01-31', 'CLOSED', '农历年初三'),
+('H', '2025-04-04', 'CLOSED', '清明节'),
+('H', '2025-04-18', 'CLOSED', '耶稣受难节'),
+('H', '2025-04-21', 'CLOSED', '复活节星期一'),
+('H', '2025-05-01', 'CLOSED', '劳动节'),
+('H', '2025-05-05', 'CLOSED', '佛诞'),
+('H', '2025-07-01', 'CLOSED', '香港特别行政区成立纪念日'),
+('H', '2025-10-01', 'CLOSED', '国庆日'),
+('H', '2025-10-07', 'CLOSED', '中秋节翌日'),
+('H', '2025-10-29', 'CLOSED', '重阳节'),
+('H', '2025-12-24', 'HALF_DAY', '圣诞节前夕'),
+('H', '2025-12-25', 'CLOSED', '圣诞节'),
+('H', '2025-12-26', 'CLOSED', '圣诞节翌日'),
+('H', '2025-12-31', 'HALF_DAY', '除夕'),
+('A', '2026-01-01', 'CLOSED', '元旦'),
+('A', '2026-01-02', 'CLOSED', '元旦'),
+('A', '2026-02-16', 'CLOSED', '春节'),
+('A', '2026-02-17', 'CLOSED', '春节'),
+('A', '2026-02-18', 'CLOSED', '春节'),
+('A', '2026-02-19', 'CLOSED', '春节'),
+('A', '2026-02-20', 'CLOSED', '春节'),
+('A', '2026-02-23', 'CLOSED', '春节'),
+('A', '2026-04-06', 'CLOSED', '清明节'),
+('A', '2026-05-01', 'CLOSED', '劳动节'),
+('A', '2026-05-04', 'CLOSED', '劳动节'),
+('A', '2026-05-05', 'CLOSED', '劳动节'),
+('A', '2026-06-19', 'CLOSED', '端午节'),
+('A', '2026-09-25', 'CLOSED', '中秋节'),
+('A', '2026-10-01', 'CLOSED', '国庆节'),
+('A', '2026-10-02', 'CLOSED', '国庆节'),
+('A', '2026-10-05', 'CLOSED', '国庆节'),
+('A', '2026-10-06', 'CLOSED', '国庆节'),
+('A', '2026-10-07', 'CLOSED', '国庆节'),
+('H', '2026-01-01', 'CLOSED', '元旦'),
+('H', '2026-02-16', 'HALF_DAY', '农历年除夕'),
+('H', '2026-02-17', 'CLOSED', '农历年初一'),
+('H', '2026-02-18', 'CLOSED', '农历年初二'),
+('H', '2026-02-19', 'CLOSED', '农历年初三'),
+('H', '2026-04-03', 'CLOSED', '耶稣受难节'),
+('H', '2026-04-06', 'CLOSED', '复活节星期一'),
+('H', '2026-04-07', 'CLOSED', '清明节翌日'),
+('H', '2026-05-01', 'CLOSED', '劳动节'),
+('H', '2026-05-25', 'CLOSED', '佛诞翌日'),
+('H', '2026-06-19', 'CLOSED', '端午节'),
+('H', '2026-07-01', 'CLOSED', '香港特别行政区成立纪念日'),
+('H', '2026-10-01', 'CLOSED', '国庆日'),
+('H', '2026-10-19', 'CLOSED', '重阳节翌日'),
+('H', '2026-12-24', 'HALF_DAY', '圣诞节前夕'),
+('H', '2026-12-25', 'CLOSED', '圣诞节'),
+('H', '2026-12-31', 'HALF_DAY', '除夕'),
+('A', '2027-01-01', 'CLOSED', '元旦'),
+('A', '2027-02-05', 'CLOSED', '春节'),
+('A', '2027-02-08', 'CLOSED', '春节'),
+('A', '2027-02-09', 'CLOSED', '春节'),
+('A', '2027-02-10', 'CLOSED', '春节'),
+('A', '2027-02-11', 'CLOSED', '春节'),
+('A', '2027-02-12', 'CLOSED', '春节'),
+('A', '2027-04-05', 'CLOSED', '清明节'),
+('A', '2027-05-03', 'CLOSED', '劳动节'),
+('A', '2027-05-04', 'CLOSED', '劳动节'),
+('A', '2027-05-05', 'CLOSED', '劳动节'),
+('A', '2027-06-09', 'CLOSED', '端午节'),
+('A', '2027-09-15', 'CLOSED', '中秋节'),
+('A', '2027-10-01', 'CLOSED', '国庆节'),
+('A', '2027-10-04', 'CLOSED', '国庆节'),
+('A', '2027-10-05', 'CLOSED', '国庆节'),
+('A', '2027-10-06', 'CLOSED', '国庆节'),
+('A', '2027-10-07', 'CLOSED', '国庆节'),
+('H', '2027-01-01', 'CLOSED', '元旦'),
+('H', '2027-02-05', 'HALF_DAY', '农历年除夕'),
+('H', '2027-02-08', 'CLOSED', '农历年初三'),
+('H', '2027-02-09', 'CLOSED', '农历年初四'),
+('H', '2027-03-26', 'CLOSED', '耶稣受难节'),
+('H', '2027-03-29', 'CLOSED', '复活节星期一'),
+('H', '2027-04-05', 'CLOSED', '清明节'),
+('H', '2027-05-13', 'CLOSED', '佛诞'),
+('H', '2027-06-09', 'CLOSED', '端午节'),
+('H', '2027-07-01', 'CLOSED', '香港特别行政区成立纪念日'),
+('H', '2027-09-16', 'CLOSED', '中秋节翌日'),
+('H', '2027-10-01', 'CLOSED', '国庆日'),
+('H', '2027-10-08', 'CLOSED', '重阳节'),
+('H', '2027-12-24', 'HALF_DAY', '圣诞节前夕'),
+('H', '2027-12-27', 'CLOSED', '圣诞节后第一个工作日'),
+('H', '2027-12-31', 'HALF_DAY', '除夕');
+
+-- 插入A+H股票对字典（与 data/ah_stock_pairs.csv 一致，完整名单通过 /ah-pair/import 导入）
+INSERT INTO `ah_stock_pair` (`a_stock_code`, `h_stock_code`, `stock_name`) VALUES
+('000002', '02202', '万科A'),
+('000039', '02039', '中集集团'),
+('000063', '00763', '中兴通讯'),
+('000157', '01157', '中联重科'),
+('000166', '06806', '申万宏源'),
+('000333', '00300', '美的集团'),
+('000338', '02338', '潍柴动力'),
+('000513', '01513', '丽珠集团'),
+('000776', '01776', '广发证券'),
+('000898', '00347', '鞍钢股份'),
+('000921', '00921', '海信家电'),
+('002202', '02208', '金风科技'),
+('002352', '06936', '顺丰控股'),
+('002460', '01772', '赣锋锂业'),
+('002466', '09696', '天齐锂业'),
+('002594', '01211', '比亚迪'),
+('002672', '00895', '东江环保'),
+('002936', '06196', '郑州银行'),
+('002948', '03866', '青岛银行'),
+('300750', '03750', '宁德时代'),
+('300759', '03759', '康龙化成'),
+('600011', '00902', '华能国际'),
+('600012', '00995', '皖通高速'),
+('600016', '01988', '民生银行'),
+('600026', '01138', '中远海能'),
+('600027', '01071', '华电国际'),
+('600028', '00386', '中国石化'),
+('600029', '01055', '南方航空'),
+('600030', '06030', '中信证券'),
+('600036', '03968', '招商银行'),
+('600115', '00670', '东方航空'),
+('600188', '01171', '兖矿能源'),
+('600196', '02196', '复星医药'),
+('600332', '00874', '白云山'),
+('600362', '00358', '江西铜业'),
+('600377', '00177', '宁沪高速'),
+('600548', '00548', '深高速'),
+('600585', '00914', '海螺水泥'),
+('600600', '00168', '青岛啤酒'),
+('600660', '03606', '福耀玻璃'),
+('600685', '00317', '中船防务'),
+('600688', '00338', '上海石化'),
+('600690', '06690', '海尔智家'),
+('600808', '00323', '马钢股份'),
+('600860', '00187', '京城机电'),
+('600871', '01033', '石化油服'),
+('600874', '01065', '创业环保'),
+('600875', '01072', '东方电气'),
+('600876', '01108', '凯盛新能'),
+('600938', '00883', '中国海油'),
+('600941', '00941', '中国移动'),
+('600958', '03958', '东方证券'),
+('600999', '06099', '招商证券'),
+('601038', '00038', '一拖股份'),
+('601066', '06066', '中信建投'),
+('601077', '03618', '渝农商行'),
+('601088', '01088', '中国神华'),
+('601111', '00753', '中国国航'),
+('601186', '01186', '中国铁建'),
+('601211', '02611', '国泰君安'),
+('601238', '02238', '广汽集团'),
+('601288', '01288', '农业银行'),
+('601318', '02318', '中国平安'),
+('601319', '01339', '中国人保'),
+('601328', '03328', '交通银行'),
+('601333', '00525', '广深铁路'),
+('601336', '01336', '新华保险'),
+('601375', '01375', '中原证券'),
+('601390', '00390', '中国中铁'),
+('601398', '01398', '工商银行'),
+('601588', '00588', '北辰实业'),
+('601598', '00598', '中国外运'),
+('601600', '02600', '中国铝业'),
+('601601', '02601', '中国太保'),
+('601607', '02607', '上海医药'),
+('601618', '01618', '中国中冶'),
+('601628', '02628', '中国人寿'),
+('601633', '02333', '长城汽车'),
+('601658', '01658', '邮储银行'),
+('601688', '06886', '华泰证券'),
+('601717', '00564', '郑煤机'),
+('601727', '02727', '上海电气'),
+('601728', '00728', '中国电信'),
+('601766', '01766', '中国中车'),
+('601788', '06178', '光大证券'),
+('601800', '01800', '中国交建'),
+('601808', '02883', '中海油服'),
+('601811', '00811', '新华文轩'),
+('601818', '06818', '光大银行'),
+('601857', '00857', '中国石油'),
+('601865', '06865', '福莱特'),
+('601866', '02866', '中远海发'),
+('601868', '03996', '中国能建'),
+('601881', '06881', '中国银河'),
+('601888', '01880', '中国中免'),
+('601898', '01898', '中煤能源'),
+('601899', '02899', '紫金矿业'),
+('601916', '02016', '浙商银行'),
+('601919', '01919', '中远海控'),
+('601939', '00939', '建设银行'),
+('601963', '01963', '重庆银行'),
+('601988', '03988', '中国银行'),
+('601991', '00991', '大唐发电'),
+('601995', '03908', '中金公司'),
+('601998', '00998', '中信银行'),
+('603259', '02359', '药明康德'),
+('603993', '03993', '洛阳钼业'),
+('688981', '00981', '中芯国际');
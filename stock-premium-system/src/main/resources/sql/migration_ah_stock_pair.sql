@@ -0,0 +1,128 @@
+-- 数据库迁移脚本：新增A+H股票对字典表
+
+USE `stock_premium`;
+
+-- 1. 创建A+H股票对字典表
+CREATE TABLE IF NOT EXISTS `ah_stock_pair` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `a_stock_code` varchar(10) NOT NULL COMMENT 'A股代码',
+  `h_stock_code` varchar(10) NOT NULL COMMENT 'H股代码',
+  `stock_name` varchar(100) DEFAULT NULL COMMENT '股票名称',
+  `status` tinyint NOT NULL DEFAULT '1' COMMENT '状态：1-启用，0-停用',
+  `created_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `updated_time` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_a_stock_code` (`a_stock_code`),
+  KEY `idx_h_stock_code` (`h_stock_code`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='A+H股票对字典表';
+
+-- 2. 初始化A+H股票对（与 data/ah_stock_pairs.csv 一致，完整名单通过 /ah-pair/import 导入）
+INSERT IGNORE INTO `ah_stock_pair` (`a_stock_code`, `h_stock_code`, `stock_name`) VALUES
+('000002', '02202', '万科A'),
+('000039', '02039', '中集集团'),
+('000063', '00763', '中兴通讯'),
+('000157', '01157', '中联重科'),
+('000166', '06806', '申万宏源'),
+('000333', '00300', '美的集团'),
+('000338', '02338', '潍柴动力'),
+('000513', '01513', '丽珠集团'),
+('000776', '01776', '广发证券'),
+('000898', '00347', '鞍钢股份'),
+('000921', '00921', '海信家电'),
+('002202', '02208', '金风科技'),
+('002352', '06936', '顺丰控股'),
+('002460', '01772', '赣锋锂业'),
+('002466', '09696', '天齐锂业'),
+('002594', '01211', '比亚迪'),
+('002672', '00895', '东江环保'),
+('002936', '06196', '郑州银行'),
+('002948', '03866', '青岛银行'),
+('300750', '03750', '宁德时代'),
+('300759', '03759', '康龙化成'),
+('600011', '00902', '华能国际'),
+('600012', '00995', '皖通高速'),
+('600016', '01988', '民生银行'),
+('600026', '01138', '中远海能'),
+('600027', '01071', '华电国际'),
+('600028', '00386', '中国石化'),
+('600029', '01055', '南方航空'),
+('600030', '06030', '中信证券'),
+('600036', '03968', '招商银行'),
+('600115', '00670', '东方航空'),
+('600188', '01171', '兖矿能源'),
+('600196', '02196', '复星医药'),
+('600332', '00874', '白云山'),
+('600362', '00358', '江西铜业'),
+('600377', '00177', '宁沪高速'),
+('600548', '00548', '深高速'),
+('600585', '00914', '海螺水泥'),
+('600600', '00168', '青岛啤酒'),
+('600660', '03606', '福耀玻璃'),
+('600685', '00317', '中船防务'),
+('600688', '00338', '上海石化'),
+('600690', '06690', '海尔智家'),
+('600808', '00323', '马钢股份'),
+('600860', '00187', '京城机电'),
+('600871', '01033', '石化油服'),
+('600874', '01065', '创业环保'),
+('600875', '01072', '东方电气'),
+('600876', '01108', '凯盛新能'),
+('600938', '00883', '中国海油'),
+('600941', '00941', '中国移动'),
+('600958', '03958', '东方证券'),
+('600999', '06099', '招商证券'),
+('601038', '00038', '一拖股份'),
+('601066', '06066', '中信建投'),
+('601077', '03618', '渝农商行'),
+('601088', '01088', '中国神华'),
+('601111', '00753', '中国国航'),
+('601186', '01186', '中国铁建'),
+('601211', '02611', '国泰君安'),
+('601238', '02238', '广汽集团'),
+('601288', '01288', '农业银行'),
+('601318', '02318', '中国平安'),
+('601319', '01339', '中国人保'),
+('601328', '03328', '交通银行'),
+('601333', '00525', '广深铁路'),
+('601336', '01336', '新华保险'),
+('601375', '01375', '中原证券'),
+('601390', '00390', '中国中铁'),
+('601398', '01398', '工商银行'),
+('601588', '00588', '北辰实业'),
+('601598', '00598', '中国外运'),
+('601600', '02600', '中国铝业'),
+('601601', '02601', '中国太保'),
+('601607', '02607', '上海医药'),
+('601618', '01618', '中国中冶'),
+('601628', '02628', '中国人寿'),
+('601633', '02333', '长城汽车'),
+('601658', '01658', '邮储银行'),
+('601688', '06886', '华泰证券'),
+('601717', '00564', '郑煤机'),
+('601727', '02727', '上海电气'),
+('601728', '00728', '中国电信'),
+('601766', '01766', '中国中车'),
+('601788', '06178', '光大证券'),
+('601800', '01800', '中国交建'),
+('601808', '02883', '中海油服'),
+('601811', '00811', '新华文轩'),
+('601818', '06818', '光大银行'),
+('601857', '00857', '中国石油'),
+('601865', '06865', '福莱特'),
+('601866', '02866', '中远海发'),
+('601868', '03996', '中国能建'),
+('601881', '06881', '中国银河'),
+('601888', '01880', '中国中免'),
+('601898', '01898', '中煤能源'),
+('601899', '02899', '紫金矿业'),
+('601916', '02016', '浙商银行'),
+('601919', '01919', '中远海控'),
+('601939', '00939', '建设银行'),
+('601963', '01963', '重庆银行'),
+('601988', '03988', '中国银行'),
+('601991', '00991', '大唐发电'),
+('601995', '03908', '中金公司'),
+('601998', '00998', '中信银行'),
+('603259', '02359', '药明康德'),
+('603993', '03993', '洛阳钼业'),
+('688981', '00981', '中芯国际');
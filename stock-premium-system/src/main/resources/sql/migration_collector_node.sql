@@ -0,0 +1,13 @@
+-- 数据库迁移脚本：新增采集节点心跳表（分片采集）
+
+USE `stock_premium`;
+
+-- 1. 创建采集节点心跳表
+CREATE TABLE IF NOT EXISTS `collector_node` (
+  `node_id` varchar(64) NOT NULL COMMENT '采集节点ID',
+  `host_name` varchar(128) DEFAULT NULL COMMENT '主机名',
+  `started_time` datetime DEFAULT NULL COMMENT '节点启动时间',
+  `heartbeat_time` datetime(3) NOT NULL COMMENT '最近心跳时间',
+  PRIMARY KEY (`node_id`),
+  KEY `idx_heartbeat_time` (`heartbeat_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='采集节点心跳表';
@@ -0,0 +1,28 @@
+-- 数据库迁移脚本：新增最新溢价率快照表
+
+USE `stock_premium`;
+
+-- 1. 创建快照表
+CREATE TABLE IF NOT EXISTS `latest_premium_snapshot` (
+  `stock_code` varchar(20) NOT NULL COMMENT '股票代码（A股代码）',
+  `a_stock_price` decimal(10,3) NOT NULL COMMENT 'A股价格',
+  `h_stock_price` decimal(10,3) NOT NULL COMMENT 'H股价格',
+  `exchange_rate` decimal(8,6) NOT NULL COMMENT '汇率',
+  `premium_rate` decimal(8,4) NOT NULL COMMENT '溢价率(%)',
+  `record_time` datetime NOT NULL COMMENT '记录时间',
+  `trade_date` date NOT NULL COMMENT '交易日期',
+  `updated_time` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`stock_code`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='最新溢价率快照表';
+
+-- 2. 用明细表中每只股票的最后一条记录初始化快照
+INSERT INTO `latest_premium_snapshot`
+  (`stock_code`, `a_stock_price`, `h_stock_price`, `exchange_rate`, `premium_rate`, `record_time`, `trade_date`)
+SELECT p.`stock_code`, p.`a_stock_price`, p.`h_stock_price`, p.`exchange_rate`, p.`premium_rate`, p.`record_time`, p.`trade_date`
+FROM `premium_rate_record` p
+JOIN (
+  SELECT `stock_code`, MAX(`id`) AS `max_id`
+  FROM `premium_rate_record`
+  GROUP BY `stock_code`
+) t ON p.`id` = t.`max_id`
+ON DUPLICATE KEY UPDATE `stock_code` = `latest_premium_snapshot`.`stock_code`;
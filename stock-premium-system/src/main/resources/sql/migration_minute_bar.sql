@@ -0,0 +1,48 @@
+-- 数据库迁移脚本：新增价格和溢价率分钟线表
+-- 超过 data.rollup.after-days 天的明细由 TickRollupTask 汇总为分钟线后分批删除，开市期间不删除
+
+USE `stock_premium`;
+
+-- 1. 溢价率分钟线表
+CREATE TABLE IF NOT EXISTS `premium_rate_minute_bar` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `stock_code` varchar(20) NOT NULL COMMENT '股票代码（A股代码）',
+  `bar_time` datetime NOT NULL COMMENT '分钟起始时间',
+  `trade_date` date NOT NULL COMMENT '交易日期',
+  `open_premium_rate` decimal(8,4) NOT NULL COMMENT '开盘溢价率(%)',
+  `high_premium_rate` decimal(8,4) NOT NULL COMMENT '最高溢价率(%)',
+  `low_premium_rate` decimal(8,4) NOT NULL COMMENT '最低溢价率(%)',
+  `close_premium_rate` decimal(8,4) NOT NULL COMMENT '收盘溢价率(%)',
+  `a_stock_price` decimal(10,3) NOT NULL COMMENT '收盘时A股价格',
+  `h_stock_price` decimal(10,3) NOT NULL COMMENT '收盘时H股价格',
+  `exchange_rate` decimal(8,6) NOT NULL COMMENT '收盘时使用的汇率',
+  `tick_count` int NOT NULL COMMENT '汇总的明细条数',
+  `created_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_stock_bar_time` (`stock_code`, `bar_time`),
+  KEY `idx_trade_date` (`trade_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='溢价率分钟线表';
+
+-- 2. 股票价格分钟线表
+CREATE TABLE IF NOT EXISTS `stock_price_minute_bar` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `stock_code` varchar(20) NOT NULL COMMENT '股票代码',
+  `market_type` varchar(10) NOT NULL COMMENT '市场类型：A股/H股',
+  `bar_time` datetime NOT NULL COMMENT '分钟起始时间',
+  `trade_date` date NOT NULL COMMENT '交易日期',
+  `open_price` decimal(10,3) NOT NULL COMMENT '开盘价',
+  `high_price` decimal(10,3) NOT NULL COMMENT '最高价',
+  `low_price` decimal(10,3) NOT NULL COMMENT '最低价',
+  `close_price` decimal(10,3) NOT NULL COMMENT '收盘价',
+  `volume` bigint DEFAULT NULL COMMENT '收盘时的当日累计成交量',
+  `turnover` decimal(15,2) DEFAULT NULL COMMENT '收盘时的当日累计成交额',
+  `tick_count` int NOT NULL COMMENT '汇总的明细条数',
+  `created_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_stock_bar_time` (`stock_code`, `bar_time`),
+  KEY `idx_trade_date` (`trade_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='股票价格分钟线表';
+
+-- 3. 汇总天数配置
+INSERT IGNORE INTO `system_config` (`config_key`, `config_value`, `config_desc`, `config_type`) VALUES
+('data.rollup.after-days', '30', '价格和溢价率明细保留天数，更早的明细汇总为分钟线后删除，0为不汇总', 'INTEGER');
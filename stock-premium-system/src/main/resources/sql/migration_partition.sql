@@ -0,0 +1,38 @@
+-- 数据库迁移脚本：价格记录、溢价率记录按 trade_date 按月分区
+-- MySQL要求分区表的每个唯一键都包含分区列，主键和 uk_stock_code_time 加上 trade_date；
+-- trade_date 由 record_time 决定，唯一键加列后去重语义不变。
+-- 分区改造会重建整张表，请在收市后执行；执行后由 PartitionMaintenanceTask 按 system_config 预建和清理月分区。
+-- 首次维护时把 p_future 从 p_history 的边界起按月拆分，p_future 中的已有数据会再复制一次，同样放在收市后
+
+USE `stock_premium`;
+
+-- 1. 主键和唯一键加上分区列
+ALTER TABLE `stock_price_record`
+  DROP PRIMARY KEY,
+  ADD PRIMARY KEY (`id`, `trade_date`),
+  DROP INDEX `uk_stock_code_time`,
+  ADD UNIQUE KEY `uk_stock_code_time` (`stock_code`, `record_time`, `trade_date`);
+
+ALTER TABLE `premium_rate_record`
+  DROP PRIMARY KEY,
+  ADD PRIMARY KEY (`id`, `trade_date`),
+  DROP INDEX `uk_stock_code_time`,
+  ADD UNIQUE KEY `uk_stock_code_time` (`stock_code`, `record_time`, `trade_date`);
+
+-- 2. 按 trade_date 分区，2025年以后的数据先落在 p_future，首次维护时拆分为月分区
+ALTER TABLE `stock_price_record`
+  PARTITION BY RANGE COLUMNS(`trade_date`) (
+    PARTITION `p_history` VALUES LESS THAN ('2025-01-01'),
+    PARTITION `p_future` VALUES LESS THAN (MAXVALUE)
+  );
+
+ALTER TABLE `premium_rate_record`
+  PARTITION BY RANGE COLUMNS(`trade_date`) (
+    PARTITION `p_history` VALUES LESS THAN ('2025-01-01'),
+    PARTITION `p_future` VALUES LESS THAN (MAXVALUE)
+  );
+
+-- 3. 保留期和预建月数配置
+INSERT IGNORE INTO `system_config` (`config_key`, `config_value`, `config_desc`, `config_type`) VALUES
+('data.retention.months', '24', '价格和溢价率明细保留月数，过期的月分区整体删除，0为不清理', 'INTEGER'),
+('data.partition.ahead-months', '2', '价格和溢价率明细预建未来月分区的月数', 'INTEGER');
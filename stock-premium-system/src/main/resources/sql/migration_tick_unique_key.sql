@@ -0,0 +1,23 @@
+-- 数据库迁移脚本：价格记录、溢价率记录按 (stock_code, record_time) 去重并加唯一键
+-- record_time 改为行情时间后，重复采集同一笔行情只保留一条；执行前先清理已有的重复记录
+
+USE `stock_premium`;
+
+-- 1. 清理重复的价格记录，保留最早写入的一条
+DELETE r1 FROM `stock_price_record` r1
+JOIN `stock_price_record` r2
+  ON r1.`stock_code` = r2.`stock_code` AND r1.`record_time` = r2.`record_time` AND r1.`id` > r2.`id`;
+
+-- 2. 清理重复的溢价率记录，保留最早写入的一条
+DELETE p1 FROM `premium_rate_record` p1
+JOIN `premium_rate_record` p2
+  ON p1.`stock_code` = p2.`stock_code` AND p1.`record_time` = p2.`record_time` AND p1.`id` > p2.`id`;
+
+-- 3. 普通索引替换为唯一键
+ALTER TABLE `stock_price_record`
+  DROP INDEX `idx_stock_code_time`,
+  ADD UNIQUE KEY `uk_stock_code_time` (`stock_code`, `record_time`);
+
+ALTER TABLE `premium_rate_record`
+  DROP INDEX `idx_stock_code_time`,
+  ADD UNIQUE KEY `uk_stock_code_time` (`stock_code`, `record_time`);
@@ -0,0 +1,133 @@
+-- 数据库迁移脚本：新增交易日历表及采集间隔配置
+
+USE `stock_premium`;
+
+-- 1. 创建交易日历表
+CREATE TABLE IF NOT EXISTS `trading_calendar` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `market_type` varchar(10) NOT NULL COMMENT '市场类型：A-A股，H-港股',
+  `calendar_date` date NOT NULL COMMENT '日期',
+  `day_type` varchar(20) NOT NULL COMMENT '日期类型：CLOSED-休市，HALF_DAY-半日市',
+  `remark` varchar(100) DEFAULT NULL COMMENT '说明',
+  `created_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `updated_time` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_market_date` (`market_type`, `calendar_date`),
+  KEY `idx_calendar_date` (`calendar_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='交易日历表（工作日中的休市日和半日市）';
+
+-- 2. 初始化交易日历
+-- 2025-2027年休市日及半日市（工作日），之后年份按交易所公告通过 /calendar 接口维护
+-- 2027年A股按农历推算，国务院放假安排公布后通过 /calendar 接口核对
+INSERT IGNORE INTO `trading_calendar` (`market_type`, `calendar_date`, `day_type`, `remark`) VALUES
+('A', '2025-01-01', 'CLOSED', '元旦'),
+('A', '2025-01-28', 'CLOSED', '春节'),
+('A', '2025-01-29', 'CLOSED', '春节'),
+('A', '2025-01-30', 'CLOSED', '春节'),
+('A', '2025-01-31', 'CLOSED', '春节'),
+('A', '2025-02-03', 'CLOSED', '春节'),
+('A', '2025-02-04', 'CLOSED', '春节'),
+('A', '2025-04-04', 'CLOSED', '清明节'),
+('A', '2025-05-01', 'CLOSED', '劳动节'),
+('A', '2025-05-02', 'CLOSED', '劳动节'),
+('A', '2025-05-05', 'CLOSED', '劳动节'),
+('A', '2025-06-02', 'CLOSED', '端午节'),
+('A', '2025-10-01', 'CLOSED', '国庆节、中秋节'),
+('A', '2025-10-02', 'CLOSED', '国庆节、中秋节'),
+('A', '2025-10-03', 'CLOSED', '国庆节、中秋节'),
+('A', '2025-10-06', 'CLOSED', '国庆节、中秋节'),
+('A', '2025-10-07', 'CLOSED', '国庆节、中秋节'),
+('A', '2025-10-08', 'CLOSED', '国庆节、中秋节'),
+('H', '2025-01-01', 'CLOSED', '元旦'),
+('H', '2025-01-28', 'HALF_DAY', '农历年除夕'),
+('H', '2025-01-29', 'CLOSED', '农历年初一'),
+('H', '2025-01-30', 'CLOSED', '农历年初二'),
+('H', '2025-01-31', 'CLOSED', '农历年初三'),
+('H', '2025-04-04', 'CLOSED', '清明节'),
+('H', '2025-04-18', 'CLOSED', '耶稣受难节'),
+('H', '2025-04-21', 'CLOSED', '复活节星期一'),
+('H', '2025-05-01', 'CLOSED', '劳动节'),
+('H', '2025-05-05', 'CLOSED', '佛诞'),
+('H', '2025-07-01', 'CLOSED', '香港特别行政区成立纪念日'),
+('H', '2025-10-01', 'CLOSED', '国庆日'),
+('H', '2025-10-07', 'CLOSED', '中秋节翌日'),
+('H', '2025-10-29', 'CLOSED', '重阳节'),
+('H', '2025-12-24', 'HALF_DAY', '圣诞节前夕'),
+('H', '2025-12-25', 'CLOSED', '圣诞节'),
+('H', '2025-12-26', 'CLOSED', '圣诞节翌日'),
+('H', '2025-12-31', 'HALF_DAY', '除夕'),
+('A', '2026-01-01', 'CLOSED', '元旦'),
+('A', '2026-01-02', 'CLOSED', '元旦'),
+('A', '2026-02-16', 'CLOSED', '春节'),
+('A', '2026-02-17', 'CLOSED', '春节'),
+('A', '2026-02-18', 'CLOSED', '春节'),
+('A', '2026-02-19', 'CLOSED', '春节'),
+('A', '2026-02-20', 'CLOSED', '春节'),
+('A', '2026-02-23', 'CLOSED', '春节'),
+('A', '2026-04-06', 'CLOSED', '清明节'),
+('A', '2026-05-01', 'CLOSED', '劳动节'),
+('A', '2026-05-04', 'CLOSED', '劳动节'),
+('A', '2026-05-05', 'CLOSED', '劳动节'),
+('A', '2026-06-19', 'CLOSED', '端午节'),
+('A', '2026-09-25', 'CLOSED', '中秋节'),
+('A', '2026-10-01', 'CLOSED', '国庆节'),
+('A', '2026-10-02', 'CLOSED', '国庆节'),
+('A', '2026-10-05', 'CLOSED', '国庆节'),
+('A', '2026-10-06', 'CLOSED', '国庆节'),
+('A', '2026-10-07', 'CLOSED', '国庆节'),
+('H', '2026-01-01', 'CLOSED', '元旦'),
+('H', '2026-02-16', 'HALF_DAY', '农历年除夕'),
+('H', '2026-02-17', 'CLOSED', '农历年初一'),
+('H', '2026-02-18', 'CLOSED', '农历年初二'),
+('H', '2026-02-19', 'CLOSED', '农历年初三'),
+('H', '2026-04-03', 'CLOSED', '耶稣受难节'),
+('H', '2026-04-06', 'CLOSED', '复活节星期一'),
+('H', '2026-04-07', 'CLOSED', '清明节翌日'),
+('H', '2026-05-01', 'CLOSED', '劳动节'),
+('H', '2026-05-25', 'CLOSED', '佛诞翌日'),
+('H', '2026-06-19', 'CLOSED', '端午节'),
+('H', '2026-07-01', 'CLOSED', '香港特别行政区成立纪念日'),
+('H', '2026-10-01', 'CLOSED', '国庆日'),
+('H', '2026-10-19', 'CLOSED', '重阳节翌日'),
+('H', '2026-12-24', 'HALF_DAY', '圣诞节前夕'),
+('H', '2026-12-25', 'CLOSED', '圣诞节'),
+('H', '2026-12-31', 'HALF_DAY', '除夕'),
+('A', '2027-01-01', 'CLOSED', '元旦'),
+('A', '2027-02-05', 'CLOSED', '春节'),
+('A', '2027-02-08', 'CLOSED', '春节'),
+('A', '2027-02-09', 'CLOSED', '春节'),
+('A', '2027-02-10', 'CLOSED', '春节'),
+('A', '2027-02-11', 'CLOSED', '春节'),
+('A', '2027-02-12', 'CLOSED', '春节'),
+('A', '2027-04-05', 'CLOSED', '清明节'),
+('A', '2027-05-03', 'CLOSED', '劳动节'),
+('A', '2027-05-04', 'CLOSED', '劳动节'),
+('A', '2027-05-05', 'CLOSED', '劳动节'),
+('A', '2027-06-09', 'CLOSED', '端午节'),
+('A', '2027-09-15', 'CLOSED', '中秋节'),
+('A', '2027-10-01', 'CLOSED', '国庆节'),
+('A', '2027-10-04', 'CLOSED', '国庆节'),
+('A', '2027-10-05', 'CLOSED', '国庆节'),
+('A', '2027-10-06', 'CLOSED', '国庆节'),
+('A', '2027-10-07', 'CLOSED', '国庆节'),
+('H', '2027-01-01', 'CLOSED', '元旦'),
+('H', '2027-02-05', 'HALF_DAY', '农历年除夕'),
+('H', '2027-02-08', 'CLOSED', '农历年初三'),
+('H', '2027-02-09', 'CLOSED', '农历年初四'),
+('H', '2027-03-26', 'CLOSED', '耶稣受难节'),
+('H', '2027-03-29', 'CLOSED', '复活节星期一'),
+('H', '2027-04-05', 'CLOSED', '清明节'),
+('H', '2027-05-13', 'CLOSED', '佛诞'),
+('H', '2027-06-09', 'CLOSED', '端午节'),
+('H', '2027-07-01', 'CLOSED', '香港特别行政区成立纪念日'),
+('H', '2027-09-16', 'CLOSED', '中秋节翌日'),
+('H', '2027-10-01', 'CLOSED', '国庆日'),
+('H', '2027-10-08', 'CLOSED', '重阳节'),
+('H', '2027-12-24', 'HALF_DAY', '圣诞节前夕'),
+('H', '2027-12-27', 'CLOSED', '圣诞节后第一个工作日'),
+('H', '2027-12-31', 'HALF_DAY', '除夕');
+
+-- 3. 采集间隔配置：data.collect.interval 改为两地同时开市时的间隔，新增仅一地开市时的间隔
+UPDATE `system_config` SET `config_desc` = '两地同时开市时的数据采集间隔(秒)' WHERE `config_key` = 'data.collect.interval';
+INSERT IGNORE INTO `system_config` (`config_key`, `config_value`, `config_desc`, `config_type`) VALUES
+('data.collect.sparse-interval', '30', '仅一地开市时的数据采集间隔(秒)', 'INTEGER');
@@ -0,0 +1,96 @@
+package com.stock.premium.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.stock.premium.entity.PremiumRateRecord;
+import com.stock.premium.entity.StockPriceRecord;
+import com.stock.premium.service.impl.PremiumRateServiceImpl;
+import com.stock.premium.utils.TencentQuoteParser;
+
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试共用的录制报文
+ * tencent-quote-batch.txt 为一次真实批量请求的原始GBK响应，A股与对应H股按行相邻
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+final class BenchmarkFixtures {
+
+    static final String QUOTE_BATCH = "/fixtures/tencent-quote-batch.txt";
+
+    /**
+     * 录制报文当日的港币兑人民币汇率
+     */
+    static final BigDecimal HKD_CNY = new BigDecimal("0.912300");
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 没有Spring日志配置时logback默认输出DEBUG，避免把控制台日志计入耗时
+     */
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger("com.stock.premium")).setLevel(Level.INFO);
+    }
+
+    static byte[] load(String resource) {
+        try (InputStream in = BenchmarkFixtures.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("缺少基准测试报文: " + resource);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 报文中的全部行情，完整代码 -> 去掉市场前缀的代码
+     */
+    static Map<String, String> symbolToCode(byte[] payload) {
+        Map<String, String> symbolToCode = new LinkedHashMap<>();
+        TencentQuoteParser.parse(payload, line -> {
+            String symbol = line.symbol();
+            if (line.fieldCount() > TencentQuoteParser.FIELD_LOW) {
+                symbolToCode.put(symbol, symbol.substring(2));
+            }
+        });
+        return symbolToCode;
+    }
+
+    /**
+     * 按报文中相邻的A股、H股行情计算溢价率记录，并循环复制到指定数量
+     */
+    static List<PremiumRateRecord> premiumRecords(int size) {
+        byte[] payload = load(QUOTE_BATCH);
+        List<StockPriceRecord> quotes = TencentQuoteParser.parseRecords(payload, symbolToCode(payload));
+        PremiumRateServiceImpl calculator = new PremiumRateServiceImpl();
+        List<PremiumRateRecord> pairs = new ArrayList<>();
+        for (int i = 0; i + 1 < quotes.size(); i += 2) {
+            StockPriceRecord a = quotes.get(i);
+            StockPriceRecord h = quotes.get(i + 1);
+            PremiumRateRecord record = calculator.buildPremiumRecord(a.getStockCode(), a.getCurrentPrice(),
+                    h.getCurrentPrice(), HKD_CNY);
+            record.setRecordTime(a.getRecordTime());
+            record.setTradeDate(a.getTradeDate());
+            pairs.add(record);
+        }
+
+        List<PremiumRateRecord> records = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            records.add(pairs.get(i % pairs.size()));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,98 @@
+package com.stock.premium.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.stock.premium.controller.ReportController;
+import com.stock.premium.entity.PremiumRateRecord;
+import com.stock.premium.service.impl.PremiumRateServiceImpl;
+import com.stock.premium.utils.Result;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 溢价率相关热点路径基准测试：
+ * 溢价率计算、市场摘要聚合（ReportController.getMarketSummary）、Result<List<PremiumRateRecord>> 的JSON序列化
+ * 记录由录制报文中的A+H行情计算得到，size 为全市场A+H股票对的量级
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PremiumRateBenchmark {
+
+    @Param({"12", "150"})
+    private int size;
+
+    private List<PremiumRateRecord> records;
+
+    private PremiumRateServiceImpl premiumRateService;
+
+    private ReportController reportController;
+
+    private ObjectMapper objectMapper;
+
+    private Result<List<PremiumRateRecord>> response;
+
+    @Setup
+    public void setup() {
+        BenchmarkFixtures.quietLogging();
+        records = BenchmarkFixtures.premiumRecords(size);
+        premiumRateService = new PremiumRateServiceImpl();
+
+        reportController = new ReportController();
+        ReflectionTestUtils.setField(reportController, "premiumRateService", new PremiumRateServiceImpl() {
+            @Override
+            public List<PremiumRateRecord> getLatestPremiumRatesByDate(LocalDate tradeDate) {
+                return records;
+            }
+        });
+
+        // 与Spring Boot默认的HTTP消息转换器配置一致
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        response = Result.success("查询成功", records);
+    }
+
+    @Benchmark
+    public void calculatePremiumRate(Blackhole blackhole) {
+        for (PremiumRateRecord record : records) {
+            blackhole.consume(premiumRateService.calculatePremiumRate(
+                    record.getAStockPrice(), record.getHStockPrice(), record.getExchangeRate()));
+        }
+    }
+
+    @Benchmark
+    public Result<Map<String, Object>> marketSummary() {
+        return reportController.getMarketSummary("2024-01-05");
+    }
+
+    @Benchmark
+    public byte[] serializeResult() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PremiumRateBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
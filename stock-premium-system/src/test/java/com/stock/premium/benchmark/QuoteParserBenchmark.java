@@ -0,0 +1,133 @@
+package com.stock.premium.benchmark;
+
+import com.stock.premium.entity.StockPriceRecord;
+import com.stock.premium.utils.TencentQuoteClient;
+import com.stock.premium.utils.TencentQuoteParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 行情报文解析基准测试：字节扫描解析器 vs 原 String.split 解析
+ * 运行：在IDE中执行 main 方法，或 mvn test-compile 后以测试classpath启动
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuoteParserBenchmark {
+
+    private byte[] payload;
+
+    private Map<String, String> symbolToCode;
+
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream in = QuoteParserBenchmark.class.getResourceAsStream("/fixtures/tencent-quote-batch.txt")) {
+            payload = in.readAllBytes();
+        }
+        symbolToCode = new LinkedHashMap<>();
+        TencentQuoteParser.parse(payload, line -> {
+            String symbol = line.symbol();
+            symbolToCode.put(symbol, symbol.substring(2));
+        });
+    }
+
+    @Benchmark
+    public List<StockPriceRecord> byteParser() {
+        return TencentQuoteParser.parseRecords(payload, symbolToCode);
+    }
+
+    @Benchmark
+    public List<StockPriceRecord> legacySplitParser() {
+        // 原实现先整体解码为字符串再逐行拆分
+        String response = new String(payload, TencentQuoteClient.GBK);
+        List<StockPriceRecord> results = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            int start = line.indexOf("v_");
+            int end = line.indexOf('=');
+            if (start < 0 || end <= start + 2) {
+                continue;
+            }
+            String stockCode = symbolToCode.get(line.substring(start + 2, end).trim());
+            if (stockCode == null) {
+                continue;
+            }
+            StockPriceRecord record = legacyParseStockData(line, stockCode, stockCode.length() == 5 ? "H" : "A");
+            if (record != null) {
+                results.add(record);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 原 TencentFinanceServiceImpl.parseStockData 实现，保留作为基准
+     */
+    private static StockPriceRecord legacyParseStockData(String data, String stockCode, String marketType) {
+        try {
+            String[] parts = data.split("=");
+            if (parts.length < 2) {
+                return null;
+            }
+
+            String content = parts[1].replace("\"", "").replace(";", "");
+            String[] fields = content.split("~");
+
+            if (fields.length < 10) {
+                return null;
+            }
+
+            StockPriceRecord record = new StockPriceRecord();
+            record.setStockCode(stockCode);
+            record.setMarketType(marketType);
+            record.setCurrentPrice(new BigDecimal(fields[3]));
+            record.setPreClosePrice(new BigDecimal(fields[4]));
+            record.setOpenPrice(new BigDecimal(fields[5]));
+            record.setHighPrice(new BigDecimal(fields[33]));
+            record.setLowPrice(new BigDecimal(fields[34]));
+
+            if (record.getPreClosePrice().compareTo(BigDecimal.ZERO) > 0) {
+                BigDecimal changeRate = record.getCurrentPrice()
+                        .subtract(record.getPreClosePrice())
+                        .divide(record.getPreClosePrice(), 4, RoundingMode.HALF_UP)
+                        .multiply(new BigDecimal("100"));
+                record.setChangeRate(changeRate);
+            }
+
+            record.setRecordTime(LocalDateTime.now());
+            record.setTradeDate(LocalDate.now());
+            record.setDataSource("tencent");
+            return record;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(QuoteParserBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,112 @@
+package com.stock.premium.benchmark;
+
+import com.stock.premium.service.AhPairService;
+import com.stock.premium.utils.TencentFinanceApiUtil;
+import com.stock.premium.vo.AhPairImportVO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按股票代码查询的响应解析基准测试（TencentFinanceApiUtil.parseStockCodeResponse）
+ * 报文取录制批量响应中的第一行 sh601088，与单代码请求的响应格式一致
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StockCodeResponseBenchmark {
+
+    private TencentFinanceApiUtil apiUtil;
+
+    private MethodHandle parseStockCodeResponse;
+
+    private byte[] singleQuote;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        BenchmarkFixtures.quietLogging();
+        byte[] payload = BenchmarkFixtures.load(BenchmarkFixtures.QUOTE_BATCH);
+        int end = 0;
+        while (payload[end] != '\n') {
+            end++;
+        }
+        singleQuote = Arrays.copyOf(payload, end + 1);
+
+        apiUtil = new TencentFinanceApiUtil();
+        ReflectionTestUtils.setField(apiUtil, "ahPairService", new FixedAhPairService(Map.of("601088", "01088")));
+        // 私有方法，用 MethodHandle 调用，开销远小于 Method.invoke
+        parseStockCodeResponse = MethodHandles.privateLookupIn(TencentFinanceApiUtil.class, MethodHandles.lookup())
+                .findVirtual(TencentFinanceApiUtil.class, "parseStockCodeResponse",
+                        MethodType.methodType(Map.class, byte[].class, String.class));
+    }
+
+    @Benchmark
+    public Object parseStockCodeResponse() throws Throwable {
+        return parseStockCodeResponse.invoke(apiUtil, singleQuote, "601088");
+    }
+
+    /**
+     * 固定股票对，避免基准测试依赖数据库
+     */
+    private static final class FixedAhPairService implements AhPairService {
+
+        private final Map<String, String> aToH;
+
+        FixedAhPairService(Map<String, String> aToH) {
+            this.aToH = aToH;
+        }
+
+        @Override
+        public String getHStockCode(String aStockCode) {
+            return aToH.get(aStockCode);
+        }
+
+        @Override
+        public String getAStockCode(String hStockCode) {
+            return null;
+        }
+
+        @Override
+        public int size() {
+            return aToH.size();
+        }
+
+        @Override
+        public AhPairImportVO importCsv(InputStream in) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void reload() {
+        }
+
+        @Override
+        public void reloadIfChanged() {
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(StockCodeResponseBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
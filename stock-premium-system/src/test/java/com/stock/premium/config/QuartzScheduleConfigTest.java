@@ -0,0 +1,83 @@
+package com.stock.premium.config;
+
+import com.stock.premium.scheduled.quartz.DataCollectionJob;
+import org.junit.jupiter.api.Test;
+import org.quartz.CronExpression;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.SimpleTrigger;
+import org.quartz.Trigger;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Quartz集群调度配置测试
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class QuartzScheduleConfigTest {
+
+    /**
+     * 与组件扫描一致：外层和各嵌套配置类分别注册
+     */
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(QuartzScheduleConfig.class,
+                    QuartzScheduleConfig.DataCollectionSchedule.class,
+                    QuartzScheduleConfig.DailyStatsSchedule.class,
+                    QuartzScheduleConfig.ExchangeRateRefreshSchedule.class,
+                    QuartzScheduleConfig.PartitionMaintenanceSchedule.class,
+                    QuartzScheduleConfig.TickRollupSchedule.class);
+
+    @Test
+    void testContext_未配置调度模式时不注册触发器() {
+        contextRunner.run(context -> {
+            assertTrue(context.getBeansOfType(Trigger.class).isEmpty());
+            assertTrue(context.getBeansOfType(JobDetail.class).isEmpty());
+        });
+        contextRunner.withPropertyValues("schedule.mode=local")
+                .run(context -> assertTrue(context.getBeansOfType(Trigger.class).isEmpty()));
+    }
+
+    @Test
+    void testContext_Quartz模式注册全部触发器() {
+        contextRunner.withPropertyValues("schedule.mode=quartz")
+                .run(context -> assertEquals(6, context.getBeansOfType(Trigger.class).size()));
+        // 分片采集时采集由各节点本机调度
+        contextRunner.withPropertyValues("schedule.mode=quartz", "collector.sharding.enabled=true")
+                .run(context -> {
+                    assertEquals(5, context.getBeansOfType(Trigger.class).size());
+                    assertFalse(context.containsBean("dataCollectTrigger"));
+                });
+    }
+
+    @Test
+    void testToQuartzCron_日和星期之一转为问号() {
+        assertEquals("0 30 16 ? * MON-FRI", QuartzScheduleConfig.toQuartzCron("0 30 16 * * MON-FRI"));
+        assertEquals("0 0 18 * * ?", QuartzScheduleConfig.toQuartzCron("0 0 18 * * ?"));
+        assertEquals("0 0 18 1 * ?", QuartzScheduleConfig.toQuartzCron("0 0 18 1 * *"));
+        assertTrue(CronExpression.isValidExpression(QuartzScheduleConfig.toQuartzCron("0 30 16 * * MON-FRI")));
+    }
+
+    @Test
+    void testCollectTrigger_改期后保留兜底重复间隔() {
+        JobDetail jobDetail = JobBuilder.newJob(DataCollectionJob.class)
+                .withIdentity("dataCollectJob", QuartzScheduleConfig.GROUP)
+                .storeDurably()
+                .build();
+        LocalDateTime next = LocalDateTime.of(2025, 1, 2, 9, 30);
+
+        Trigger trigger = QuartzScheduleConfig.collectTrigger(jobDetail, next, 60);
+
+        assertEquals(jobDetail.getKey(), trigger.getJobKey());
+        assertEquals(next.atZone(ZoneId.systemDefault()).toInstant(), trigger.getStartTime().toInstant());
+        SimpleTrigger simple = (SimpleTrigger) trigger;
+        assertEquals(60 * 60 * 1000L, simple.getRepeatInterval());
+        assertEquals(SimpleTrigger.REPEAT_INDEFINITELY, simple.getRepeatCount());
+        assertEquals(SimpleTrigger.MISFIRE_INSTRUCTION_FIRE_NOW, simple.getMisfireInstruction());
+    }
+}
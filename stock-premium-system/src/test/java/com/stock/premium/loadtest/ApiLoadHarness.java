@@ -0,0 +1,216 @@
+package com.stock.premium.loadtest;
+
+import com.stock.premium.StockPremiumApplication;
+import com.stock.premium.loadtest.LoadDriver.Endpoint;
+import com.stock.premium.loadtest.LoadDriver.EndpointReport;
+import com.stock.premium.loadtest.LoadDriver.Samples;
+import com.stock.premium.loadtest.SyntheticHistoryGenerator.StockPair;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 接口端到端压测
+ * 在H2(MySQL兼容模式)上按 init.sql 建表并写入N个交易日的合成行情，腾讯行情换成本地桩服务，
+ * 启动完整应用后按配置的并发压 /stock/{code}/detail、/premium/latest 和 /report/*，
+ * 输出各接口的 p50/p95/p99 和吞吐量，写入 target/loadtest/report.csv；
+ * p99、错误率超过阈值或相对基线退化超过允许比例时失败；绝对阈值只兜底，
+ * 压测机配置不同结果差别很大，发版前以同一台机器上一版的 report.csv 作为基线比较。
+ * 后台按固定间隔调用采集接口，压测期间写链路同时在跑，与开盘时的情况一致。
+ *
+ * 默认测试不执行，通过 mvn -P loadtest verify 运行，参数用 -D 传入：
+ * loadtest.days                 合成数据的交易日数，默认5
+ * loadtest.stocks               A+H股数量，默认108(ah_stock_pair中的全部)
+ * loadtest.tick-seconds         合成行情间隔(秒)，默认60
+ * loadtest.concurrency          并发虚拟用户数，默认32
+ * loadtest.warmup-seconds       预热时长，默认10
+ * loadtest.duration-seconds     计时时长，默认30
+ * loadtest.collect-interval-ms  后台采集间隔，0为不采集，默认3000
+ * loadtest.stub-latency-ms      行情桩服务响应延迟，默认20
+ * loadtest.max-p99-ms           p99上限(毫秒)，默认1000；可用 loadtest.max-p99-ms.接口名 单独设置
+ * loadtest.max-error-rate       错误率上限，默认0.001
+ * loadtest.baseline             基线报告路径(之前生成的report.csv)，不传则不比较
+ * loadtest.max-regression       相对基线p99允许的退化比例，默认0.2
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class ApiLoadHarness {
+
+    private static final String JDBC_URL = "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;MODE=MySQL;"
+            + "DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+
+    private static final Path REPORT = Paths.get("target", "loadtest", "report.csv");
+
+    private static final String COLLECT = "collect";
+
+    /**
+     * 基线p99很小时按比例判断容易被抖动误伤，差值不足该值时不算退化
+     */
+    private static final double REGRESSION_FLOOR_MS = 2.0;
+
+    @Test
+    void runLoadTest() throws Exception {
+        int days = Integer.getInteger("loadtest.days", 5);
+        int stocks = Integer.getInteger("loadtest.stocks", 108);
+        int tickSeconds = Integer.getInteger("loadtest.tick-seconds", 60);
+        int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("loadtest.warmup-seconds", 10));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 30));
+        long collectInterval = Long.getLong("loadtest.collect-interval-ms", 3000);
+        long stubLatency = Long.getLong("loadtest.stub-latency-ms", 20);
+
+        // H2内存库随第一个连接创建，应用启动前建表和写入数据，启动时加载的内存索引才完整
+        List<StockPair> pairs;
+        try (Connection connection = DriverManager.getConnection(JDBC_URL, "sa", "")) {
+            MysqlSchemaLoader.load(connection);
+            long start = System.nanoTime();
+            SyntheticHistoryGenerator generator = new SyntheticHistoryGenerator(stocks, tickSeconds, 60, LocalDate.now());
+            pairs = generator.init(connection);
+            generator.extendTo(connection, days);
+            System.out.printf("合成数据: %d 个交易日, %d 只股票, %d 行明细, 耗时 %d ms%n", days, pairs.size(),
+                    generator.getRows(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+
+        try (TencentStubServer stub = new TencentStubServer(stubLatency);
+             ConfigurableApplicationContext app = new SpringApplicationBuilder(StockPremiumApplication.class)
+                     .profiles("loadtest")
+                     .run("--spring.datasource.url=" + JDBC_URL,
+                             "--tencent.finance.api.base-url=" + stub.getBaseUrl())) {
+            String baseUrl = "http://127.0.0.1:" + app.getEnvironment().getProperty("local.server.port");
+            LoadDriver driver = new LoadDriver(baseUrl);
+
+            Samples collectSamples = new Samples();
+            ScheduledExecutorService collector = Executors.newSingleThreadScheduledExecutor();
+            if (collectInterval > 0) {
+                collector.scheduleWithFixedDelay(() -> driver.send("POST", "/api/data-collection/stock-data", collectSamples),
+                        0, collectInterval, TimeUnit.MILLISECONDS);
+            }
+
+            Map<String, EndpointReport> reports;
+            try {
+                reports = new LinkedHashMap<>(driver.run(endpoints(pairs, days), concurrency, warmup, duration));
+            } finally {
+                collector.shutdownNow();
+                collector.awaitTermination(30, TimeUnit.SECONDS);
+            }
+            if (collectInterval > 0) {
+                reports.put(COLLECT, collectSamples.report(COLLECT, warmup.plus(duration)));
+            }
+            System.out.printf("行情桩服务共收到 %d 次请求%n", stub.getRequestCount());
+
+            // 先读基线再写报告，基线可以直接指向上次的 report.csv
+            List<String> violations = check(reports);
+            print(reports, concurrency);
+            writeReport(reports);
+            assertTrue(violations.isEmpty(), "压测未通过:\n" + String.join("\n", violations));
+        }
+    }
+
+    private static List<Endpoint> endpoints(List<StockPair> pairs, int days) {
+        List<String> detailPaths = new ArrayList<>(pairs.size());
+        List<String> trendPaths = new ArrayList<>(pairs.size());
+        for (StockPair pair : pairs) {
+            detailPaths.add("/stock/" + pair.aStockCode + "/detail");
+            trendPaths.add("/report/trend/" + pair.aStockCode + "?days=" + days);
+        }
+        // 权重按小程序访问占比：详情页和首页列表为主，报表页较少
+        return Arrays.asList(
+                new Endpoint("stock_detail", detailPaths, 4),
+                new Endpoint("premium_latest", List.of("/premium/latest"), 3),
+                new Endpoint("report_overview", List.of("/report/overview"), 1),
+                new Endpoint("report_ranking", List.of("/report/ranking?limit=20"), 1),
+                new Endpoint("report_summary", List.of("/report/summary"), 1),
+                new Endpoint("report_trend", trendPaths, 1));
+    }
+
+    private static List<String> check(Map<String, EndpointReport> reports) throws IOException {
+        double defaultMaxP99 = Double.parseDouble(System.getProperty("loadtest.max-p99-ms", "1000"));
+        double maxErrorRate = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.001"));
+        double maxRegression = Double.parseDouble(System.getProperty("loadtest.max-regression", "0.2"));
+        Map<String, Double> baseline = readBaseline(System.getProperty("loadtest.baseline"));
+
+        List<String> violations = new ArrayList<>();
+        for (EndpointReport report : reports.values()) {
+            if (report.errorRate() > maxErrorRate) {
+                violations.add(String.format("%s 错误率 %.4f 超过 %.4f (%d/%d)", report.name, report.errorRate(),
+                        maxErrorRate, report.errors, report.requests));
+            }
+            // 采集接口一次处理全部股票，只在单独配置时检查耗时
+            String override = System.getProperty("loadtest.max-p99-ms." + report.name);
+            if (override != null || !COLLECT.equals(report.name)) {
+                double maxP99 = override != null ? Double.parseDouble(override) : defaultMaxP99;
+                if (report.p99 > maxP99) {
+                    violations.add(String.format("%s p99 %.2fms 超过 %.2fms", report.name, report.p99, maxP99));
+                }
+            }
+            Double baseP99 = baseline.get(report.name);
+            if (baseP99 != null && report.p99 > baseP99 * (1 + maxRegression)
+                    && report.p99 - baseP99 > REGRESSION_FLOOR_MS) {
+                violations.add(String.format("%s p99 %.2fms 相对基线 %.2fms 退化超过 %.0f%%", report.name,
+                        report.p99, baseP99, maxRegression * 100));
+            }
+        }
+        return violations;
+    }
+
+    private static void print(Map<String, EndpointReport> reports, int concurrency) {
+        System.out.printf("%n并发 %d%n", concurrency);
+        System.out.printf("%-16s %10s %8s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50(ms)", "p95(ms)", "p99(ms)", "max(ms)");
+        for (EndpointReport r : reports.values()) {
+            System.out.printf("%-16s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                    r.name, r.requests, r.errors, r.throughput, r.p50, r.p95, r.p99, r.max);
+        }
+    }
+
+    private static void writeReport(Map<String, EndpointReport> reports) throws IOException {
+        Files.createDirectories(REPORT.getParent());
+        List<String> lines = new ArrayList<>();
+        lines.add("endpoint,requests,errors,throughput,p50_ms,p95_ms,p99_ms,max_ms");
+        lines.addAll(reports.values().stream()
+                .map(r -> String.format("%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f",
+                        r.name, r.requests, r.errors, r.throughput, r.p50, r.p95, r.p99, r.max))
+                .collect(Collectors.toList()));
+        Files.write(REPORT, lines, StandardCharsets.UTF_8);
+        System.out.println("压测报告: " + REPORT.toAbsolutePath());
+    }
+
+    /**
+     * 读取基线报告中各接口的p99
+     */
+    private static Map<String, Double> readBaseline(String path) throws IOException {
+        Map<String, Double> baseline = new HashMap<>();
+        if (path == null || path.isEmpty()) {
+            return baseline;
+        }
+        List<String> lines = Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8);
+        for (String line : lines.subList(1, lines.size())) {
+            String[] columns = line.split(",");
+            baseline.put(columns[0], Double.parseDouble(columns[6]));
+        }
+        return baseline;
+    }
+}
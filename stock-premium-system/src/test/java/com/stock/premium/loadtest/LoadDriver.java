@@ -0,0 +1,222 @@
+package com.stock.premium.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 并发压测驱动
+ * 固定数量的虚拟用户各自循环发请求（闭环模型，上一个响应返回才发下一个），
+ * 按权重轮流访问各接口，模拟开盘时小程序用户同时打开首页、详情和报表页。
+ * 每个虚拟用户单独记录耗时，结束后合并计算分位数，采样时线程间互不竞争
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+final class LoadDriver {
+
+    private final String baseUrl;
+
+    private final HttpClient client;
+
+    LoadDriver(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * 先预热再正式计时
+     * @return 接口名 -> 统计结果，顺序与 endpoints 一致
+     */
+    Map<String, EndpointReport> run(List<Endpoint> endpoints, int concurrency, Duration warmup, Duration duration)
+            throws InterruptedException {
+        drive(endpoints, concurrency, warmup);
+        Samples[][] samples = drive(endpoints, concurrency, duration);
+
+        Map<String, EndpointReport> reports = new LinkedHashMap<>();
+        for (int e = 0; e < endpoints.size(); e++) {
+            Samples merged = new Samples();
+            for (Samples[] worker : samples) {
+                merged.addAll(worker[e]);
+            }
+            reports.put(endpoints.get(e).name, merged.report(endpoints.get(e).name, duration));
+        }
+        return reports;
+    }
+
+    /**
+     * 发送单个请求并记录耗时，供后台采集等非压测流量复用
+     */
+    void send(String method, String path, Samples samples) {
+        long start = System.nanoTime();
+        boolean ok;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .method(method, HttpRequest.BodyPublishers.noBody())
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            // 控制器异常时仍返回HTTP 200，按响应体中的业务码判断
+            ok = response.statusCode() == 200 && response.body().contains("\"code\":200");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            ok = false;
+        }
+        samples.add(System.nanoTime() - start, ok);
+    }
+
+    private Samples[][] drive(List<Endpoint> endpoints, int concurrency, Duration duration) throws InterruptedException {
+        int[] schedule = weightedSchedule(endpoints);
+        Samples[][] samples = new Samples[concurrency][endpoints.size()];
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch done = new CountDownLatch(concurrency);
+        long deadline = System.nanoTime() + duration.toNanos();
+        for (int w = 0; w < concurrency; w++) {
+            Samples[] own = samples[w];
+            for (int e = 0; e < own.length; e++) {
+                own[e] = new Samples();
+            }
+            // 各虚拟用户从不同位置开始轮转，避免同一时刻都打同一个接口
+            int offset = w;
+            workers.execute(() -> {
+                try {
+                    for (long i = offset; System.nanoTime() < deadline && !Thread.currentThread().isInterrupted(); i++) {
+                        int e = schedule[(int) (i % schedule.length)];
+                        Endpoint endpoint = endpoints.get(e);
+                        send("GET", endpoint.path(i), own[e]);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+        return samples;
+    }
+
+    private static int[] weightedSchedule(List<Endpoint> endpoints) {
+        List<Integer> schedule = new ArrayList<>();
+        for (int e = 0; e < endpoints.size(); e++) {
+            for (int w = 0; w < endpoints.get(e).weight; w++) {
+                schedule.add(e);
+            }
+        }
+        return schedule.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * 被压测的接口，多个路径时按请求序号轮流使用
+     */
+    static final class Endpoint {
+
+        final String name;
+        final List<String> paths;
+        final int weight;
+
+        Endpoint(String name, List<String> paths, int weight) {
+            this.name = name;
+            this.paths = paths;
+            this.weight = weight;
+        }
+
+        String path(long sequence) {
+            return paths.get((int) (sequence % paths.size()));
+        }
+    }
+
+    /**
+     * 单个线程记录的耗时样本(纳秒)
+     */
+    static final class Samples {
+
+        private long[] nanos = new long[1024];
+        private int size;
+        private long errors;
+
+        synchronized void add(long elapsedNanos, boolean ok) {
+            if (!ok) {
+                errors++;
+            }
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = elapsedNanos;
+        }
+
+        synchronized void addAll(Samples other) {
+            synchronized (other) {
+                if (size + other.size > nanos.length) {
+                    nanos = Arrays.copyOf(nanos, Math.max(nanos.length * 2, size + other.size));
+                }
+                System.arraycopy(other.nanos, 0, nanos, size, other.size);
+                size += other.size;
+                errors += other.errors;
+            }
+        }
+
+        synchronized EndpointReport report(String name, Duration duration) {
+            long[] sorted = Arrays.copyOf(nanos, size);
+            Arrays.sort(sorted);
+            return new EndpointReport(name, size, errors, size / (duration.toNanos() / 1e9),
+                    percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.95),
+                    percentileMillis(sorted, 0.99), size == 0 ? 0 : sorted[size - 1] / 1e6);
+        }
+
+        private static double percentileMillis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+    }
+
+    /**
+     * 单个接口的压测结果，耗时单位毫秒
+     */
+    static final class EndpointReport {
+
+        final String name;
+        final long requests;
+        final long errors;
+        final double throughput;
+        final double p50;
+        final double p95;
+        final double p99;
+        final double max;
+
+        EndpointReport(String name, long requests, long errors, double throughput,
+                       double p50, double p95, double p99, double max) {
+            this.name = name;
+            this.requests = requests;
+            this.errors = errors;
+            this.throughput = throughput;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+    }
+}
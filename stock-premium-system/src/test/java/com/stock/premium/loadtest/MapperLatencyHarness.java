@@ -0,0 +1,648 @@
+package com.stock.premium.loadtest;
+
+import com.stock.premium.StockPremiumApplication;
+import com.stock.premium.dto.ExchangeRateQueryDTO;
+import com.stock.premium.entity.AhStockPair;
+import com.stock.premium.entity.DailyPremiumStats;
+import com.stock.premium.entity.ExchangeRateRecord;
+import com.stock.premium.entity.PremiumRateRecord;
+import com.stock.premium.entity.StockPriceRecord;
+import com.stock.premium.loadtest.StatementCapture.Captured;
+import com.stock.premium.loadtest.SyntheticHistoryGenerator.StockPair;
+import com.stock.premium.mapper.AhStockPairMapper;
+import com.stock.premium.mapper.CollectorNodeMapper;
+import com.stock.premium.mapper.DailyPremiumStatsMapper;
+import com.stock.premium.mapper.ExchangeRateRecordMapper;
+import com.stock.premium.mapper.LatestPremiumSnapshotMapper;
+import com.stock.premium.mapper.PremiumRateMinuteBarMapper;
+import com.stock.premium.mapper.PremiumRateRecordMapper;
+import com.stock.premium.mapper.StockInfoMapper;
+import com.stock.premium.mapper.StockPriceMinuteBarMapper;
+import com.stock.premium.mapper.StockPriceRecordMapper;
+import com.stock.premium.mapper.SystemConfigMapper;
+import com.stock.premium.mapper.TablePartitionMapper;
+import com.stock.premium.mapper.TradingCalendarMapper;
+import com.stock.premium.service.DailyStatsService;
+import com.stock.premium.service.ExchangeRateService;
+import com.stock.premium.utils.MinuteBarAggregator;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 存储规模下的Mapper耗时与执行计划
+ * 用 SyntheticHistoryGenerator 逐级加深历史数据，每一级对全部Mapper语句和按条件拼装的服务层查询计时，
+ * 同时对实际执行的SQL(含绑定参数)做 EXPLAIN，看随着数据增长哪些语句先扛不住。
+ * 写语句在回滚的事务中执行，不改变数据。
+ * 每个Mapper接口上声明的语句都必须在用例清单中(DDL除外，见 NOT_BENCHMARKED)，新增语句没有用例时失败。
+ *
+ * 默认在H2内存库上运行，只用于验证用例本身；执行计划和耗时以MySQL为准，
+ * 指定 storagebench.jdbc-url 指向一个空的MySQL库(没有表时按 init.sql 建表)。
+ * 通过 mvn -P storagebench verify 运行，参数用 -D 传入：
+ * storagebench.jdbc-url         目标库，MySQL需加 rewriteBatchedStatements=true，默认H2内存库
+ * storagebench.username         用户名，默认sa
+ * storagebench.password         密码，默认空
+ * storagebench.pairs            A+H股对数量，默认50
+ * storagebench.tick-seconds     行情间隔(秒)，默认60
+ * storagebench.fx-seconds       汇率记录间隔(秒)，默认60
+ * storagebench.volumes          逐级加深的历史交易日数，逗号分隔，默认1,5,20
+ * storagebench.iterations       每个用例每级的计时次数，默认20
+ * storagebench.case-budget-ms   单个用例每级的计时预算，超出后不再重复，默认30000
+ * 例如：-Dstoragebench.pairs=500 -Dstoragebench.tick-seconds=5 -Dstoragebench.volumes=20,250,750
+ *
+ * 结果写入 target/storagebench/：report.csv 为各级耗时，plans-N.txt 为N个交易日时的执行计划
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class MapperLatencyHarness {
+
+    private static final String DEFAULT_JDBC_URL = "jdbc:h2:mem:storagebench;DB_CLOSE_DELAY=-1;MODE=MySQL;"
+            + "DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+
+    private static final Path OUTPUT = Paths.get("target", "storagebench");
+
+    private static final String MAPPER_PACKAGE = "com.stock.premium.mapper.";
+
+    private static final List<String> HISTORY_TABLES = Arrays.asList(
+            "stock_price_record", "premium_rate_record", "exchange_rate_record", "daily_premium_stats");
+
+    private static final int WARMUP = 3;
+
+    /**
+     * 不计时的语句：分区DDL会隐式提交，不能放在回滚的事务中执行
+     */
+    private static final Set<String> NOT_BENCHMARKED = Set.of(
+            MAPPER_PACKAGE + "TablePartitionMapper.reorganizePartition",
+            MAPPER_PACKAGE + "TablePartitionMapper.addPartitions",
+            MAPPER_PACKAGE + "TablePartitionMapper.dropPartitions");
+
+    @Test
+    void runStorageBenchmark() throws Exception {
+        String jdbcUrl = System.getProperty("storagebench.jdbc-url", DEFAULT_JDBC_URL);
+        String username = System.getProperty("storagebench.username", "sa");
+        String password = System.getProperty("storagebench.password", "");
+        int pairs = Integer.getInteger("storagebench.pairs", 50);
+        int tickSeconds = Integer.getInteger("storagebench.tick-seconds", 60);
+        int fxSeconds = Integer.getInteger("storagebench.fx-seconds", 60);
+        int iterations = Integer.getInteger("storagebench.iterations", 20);
+        long caseBudgetNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("storagebench.case-budget-ms", 30_000));
+        int[] volumes = Arrays.stream(System.getProperty("storagebench.volumes", "1,5,20").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).sorted().toArray();
+
+        SyntheticHistoryGenerator generator = new SyntheticHistoryGenerator(pairs, tickSeconds, fxSeconds, LocalDate.now());
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, username, password)) {
+            if (!tableExists(connection, "stock_price_record")) {
+                MysqlSchemaLoader.load(connection);
+            } else if (count(connection, "stock_price_record") > 0) {
+                throw new IllegalStateException("目标库已有行情数据，请使用空库: " + jdbcUrl);
+            }
+            generator.init(connection);
+        }
+
+        // 以命令行参数传入，优先级高于 application-loadtest.yml
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=" + username,
+                "--spring.datasource.password=" + password,
+                "--schedule.exchange-rate-refresh.enabled=false",
+                "--exchange-rate.source=stub"));
+        if (jdbcUrl.startsWith("jdbc:mysql:")) {
+            args.add("--spring.datasource.driver-class-name=com.mysql.cj.jdbc.Driver");
+        }
+        StatementCapture capture = new StatementCapture();
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(StockPremiumApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("loadtest")
+                .run(args.toArray(new String[0]))) {
+            Configuration configuration = app.getBean(SqlSessionFactory.class).getConfiguration();
+            configuration.addInterceptor(capture);
+            DataSource dataSource = app.getBean(DataSource.class);
+            TransactionTemplate transaction = new TransactionTemplate(app.getBean(PlatformTransactionManager.class));
+            List<Case> cases = cases(app, generator);
+
+            Files.createDirectories(OUTPUT);
+            List<String> report = new ArrayList<>();
+            report.add("trading_days,detail_rows,case,statements,p50_ms,p95_ms,max_ms,p95_growth,plan,error");
+            Map<String, Double> firstP95 = new HashMap<>();
+            Set<String> exercised = new TreeSet<>();
+
+            for (int volume : volumes) {
+                long start = System.nanoTime();
+                try (Connection connection = dataSource.getConnection()) {
+                    generator.extendTo(connection, volume);
+                    analyze(connection);
+                }
+                System.out.printf("%n=== %d 个交易日, 明细 %d 行, 生成耗时 %d s ===%n", volume, generator.getRows(),
+                        TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+                System.out.printf("%-52s %10s %10s %10s %8s  %s%n", "case", "p50(ms)", "p95(ms)", "max(ms)", "growth", "plan");
+
+                StringBuilder plans = new StringBuilder();
+                for (Case c : cases) {
+                    Result result = run(c, transaction, capture, dataSource, iterations, caseBudgetNanos);
+                    result.statements.forEach(s -> exercised.add(s.statementId));
+                    Double first = firstP95.putIfAbsent(c.name, result.p95);
+                    double growth = first == null || first == 0 ? 1 : result.p95 / first;
+                    System.out.printf("%-52s %10.3f %10.3f %10.3f %7.1fx  %s%s%n", c.name, result.p50, result.p95,
+                            result.max, growth, result.planSummary, result.error == null ? "" : "  失败: " + result.error);
+                    report.add(String.format("%d,%d,%s,%s,%.3f,%.3f,%.3f,%.2f,\"%s\",\"%s\"", volume, generator.getRows(),
+                            c.name, String.join(";", result.statementIds()), result.p50, result.p95, result.max, growth,
+                            result.planSummary.replace("\"", "'"),
+                            result.error == null ? "" : result.error.replace("\"", "'")));
+                    plans.append("### ").append(c.name).append('\n').append(result.plans).append('\n');
+                }
+                Files.write(OUTPUT.resolve("plans-" + volume + ".txt"), plans.toString().getBytes(StandardCharsets.UTF_8));
+                Files.write(OUTPUT.resolve("report.csv"), report, StandardCharsets.UTF_8);
+            }
+            System.out.println("结果目录: " + OUTPUT.toAbsolutePath());
+
+            Set<String> missing = declaredStatements(configuration);
+            missing.removeAll(exercised);
+            missing.removeAll(NOT_BENCHMARKED);
+            assertTrue(missing.isEmpty(), "以下Mapper语句没有存储规模用例，请在 MapperLatencyHarness.cases 中补充: " + missing);
+        }
+    }
+
+    /**
+     * 用例清单：Mapper接口上声明的全部语句，加上服务层按条件拼装的查询
+     */
+    private static List<Case> cases(ConfigurableApplicationContext app, SyntheticHistoryGenerator generator) {
+        StockPriceRecordMapper priceMapper = app.getBean(StockPriceRecordMapper.class);
+        PremiumRateRecordMapper premiumMapper = app.getBean(PremiumRateRecordMapper.class);
+        DailyPremiumStatsMapper statsMapper = app.getBean(DailyPremiumStatsMapper.class);
+        ExchangeRateRecordMapper fxMapper = app.getBean(ExchangeRateRecordMapper.class);
+        LatestPremiumSnapshotMapper snapshotMapper = app.getBean(LatestPremiumSnapshotMapper.class);
+        StockInfoMapper stockInfoMapper = app.getBean(StockInfoMapper.class);
+        AhStockPairMapper ahPairMapper = app.getBean(AhStockPairMapper.class);
+        CollectorNodeMapper nodeMapper = app.getBean(CollectorNodeMapper.class);
+        SystemConfigMapper configMapper = app.getBean(SystemConfigMapper.class);
+        TradingCalendarMapper calendarMapper = app.getBean(TradingCalendarMapper.class);
+        TablePartitionMapper partitionMapper = app.getBean(TablePartitionMapper.class);
+        StockPriceMinuteBarMapper priceBarMapper = app.getBean(StockPriceMinuteBarMapper.class);
+        PremiumRateMinuteBarMapper premiumBarMapper = app.getBean(PremiumRateMinuteBarMapper.class);
+        DailyStatsService dailyStatsService = app.getBean(DailyStatsService.class);
+        ExchangeRateService exchangeRateService = app.getBean(ExchangeRateService.class);
+
+        List<StockPair> pairs = generator.getPairs();
+        LocalDate latest = generator.getLatestDate();
+        LocalDate monthAgo = latest.minusDays(30);
+        LocalDate monthStart = latest.withDayOfMonth(1);
+        LocalDateTime afterClose = latest.atTime(15, 0, 1);
+        BigDecimal rate = new BigDecimal("0.915000");
+        int fxPerDay = (int) (4 * 3600L / Integer.getInteger("storagebench.fx-seconds", 60)) + 2;
+
+        List<Case> cases = new ArrayList<>();
+        // 行情明细
+        cases.add(Case.read("StockPriceRecordMapper.selectByStockCodeAndDate",
+                r -> priceMapper.selectByStockCodeAndDate(code(pairs, r), latest)));
+        cases.add(Case.read("StockPriceRecordMapper.selectPricesByDateRange(30d)",
+                r -> priceMapper.selectPricesByDateRange(code(pairs, r), monthAgo, latest)));
+        cases.add(Case.read("StockPriceRecordMapper.selectLatestByDate",
+                r -> priceMapper.selectLatestByDate(latest)));
+        cases.add(Case.read("StockPriceRecordMapper.selectByStockAndDateRange(month)",
+                r -> priceMapper.selectByStockAndDateRange(code(pairs, r), monthStart, latest)));
+        cases.add(Case.read("StockPriceRecordMapper.selectStockCodesByDateRange(month)",
+                r -> priceMapper.selectStockCodesByDateRange(monthStart, latest)));
+        cases.add(Case.read("StockPriceRecordMapper.selectMinTradeDateBefore",
+                r -> priceMapper.selectMinTradeDateBefore(monthStart)));
+        cases.add(Case.write("StockPriceRecordMapper.deleteByTradeDate(5000)",
+                r -> priceMapper.deleteByTradeDate(latest, 5000)));
+        cases.add(Case.write("StockPriceRecordMapper.insertBatch",
+                r -> priceMapper.insertBatch(priceRecords(pairs, afterClose))));
+        // 溢价率明细
+        cases.add(Case.read("PremiumRateRecordMapper.selectByStockAndDate",
+                r -> premiumMapper.selectByStockAndDate(code(pairs, r), latest)));
+        cases.add(Case.read("PremiumRateRecordMapper.selectByStockAndDateRange(month)",
+                r -> premiumMapper.selectByStockAndDateRange(code(pairs, r), monthStart, latest)));
+        cases.add(Case.read("PremiumRateRecordMapper.selectPageByStockAndDateRange(month)",
+                r -> premiumMapper.selectPageByStockAndDateRange(code(pairs, r), monthStart, latest, 1000, 20)));
+        cases.add(Case.read("PremiumRateRecordMapper.selectFirstTradeDate(month)",
+                r -> premiumMapper.selectFirstTradeDate(code(pairs, r), monthStart, latest)));
+        cases.add(Case.read("PremiumRateRecordMapper.selectStockCodesByDateRange(month)",
+                r -> premiumMapper.selectStockCodesByDateRange(monthStart, latest)));
+        cases.add(Case.read("PremiumRateRecordMapper.selectMinTradeDateBefore",
+                r -> premiumMapper.selectMinTradeDateBefore(monthStart)));
+        cases.add(Case.read("PremiumRateRecordMapper.selectLatestByDate",
+                r -> premiumMapper.selectLatestByDate(latest)));
+        cases.add(Case.read("PremiumRateRecordMapper.existsBefore",
+                r -> premiumMapper.existsBefore(latest, latest.atTime(10, 0))));
+        cases.add(Case.write("PremiumRateRecordMapper.updateExchangeRateByDate",
+                r -> premiumMapper.updateExchangeRateByDate(latest, rate)));
+        cases.add(Case.write("PremiumRateRecordMapper.updateExchangeRateSince",
+                r -> premiumMapper.updateExchangeRateSince(latest, latest.atTime(14, 0), rate)));
+        cases.add(Case.write("PremiumRateRecordMapper.deleteByStockAndDateRange(30d)",
+                r -> premiumMapper.deleteByStockAndDateRange(code(pairs, r), monthAgo, latest)));
+        cases.add(Case.write("PremiumRateRecordMapper.deleteByTradeDate(5000)",
+                r -> premiumMapper.deleteByTradeDate(latest, 5000)));
+        cases.add(Case.write("PremiumRateRecordMapper.insertBatch",
+                r -> premiumMapper.insertBatch(premiumRecords(pairs, afterClose))));
+        // 分钟线
+        cases.add(Case.read("StockPriceMinuteBarMapper.selectByStockAndDateRange(30d)",
+                r -> priceBarMapper.selectByStockAndDateRange(code(pairs, r), monthAgo, latest)));
+        cases.add(Case.write("StockPriceMinuteBarMapper.insertBatch",
+                r -> priceBarMapper.insertBatch(MinuteBarAggregator.priceBars(priceRecords(pairs, afterClose)))));
+        cases.add(Case.read("PremiumRateMinuteBarMapper.selectByStockAndDateRange(30d)",
+                r -> premiumBarMapper.selectByStockAndDateRange(code(pairs, r), monthAgo, latest)));
+        cases.add(Case.write("PremiumRateMinuteBarMapper.insertBatch",
+                r -> premiumBarMapper.insertBatch(MinuteBarAggregator.premiumBars(premiumRecords(pairs, afterClose)))));
+        // 日统计
+        cases.add(Case.read("DailyPremiumStatsMapper.selectByDateRange(30d)",
+                r -> statsMapper.selectByDateRange(monthAgo, latest)));
+        cases.add(Case.read("DailyPremiumStatsMapper.selectByStockCode(30)",
+                r -> statsMapper.selectByStockCode(code(pairs, r), 30)));
+        cases.add(Case.write("DailyPremiumStatsMapper.upsertBatch",
+                r -> statsMapper.upsertBatch(dailyStats(pairs, latest))));
+        cases.add(Case.write("DailyPremiumStatsMapper.upsertFromPremiumRecords",
+                r -> statsMapper.upsertFromPremiumRecords(latest)));
+        cases.add(Case.read("DailyStatsService.getStatsByDateRange(30d)",
+                r -> dailyStatsService.getStatsByDateRange(monthAgo, latest)));
+        cases.add(Case.read("DailyStatsService.getStatsByStockCode(30)",
+                r -> dailyStatsService.getStatsByStockCode(code(pairs, r), 30)));
+        // 汇率
+        cases.add(Case.read("ExchangeRateRecordMapper.selectLatestByDate",
+                r -> fxMapper.selectLatestByDate(latest)));
+        cases.add(Case.read("ExchangeRateRecordMapper.selectLatest",
+                r -> fxMapper.selectLatest("HKDCNY")));
+        cases.add(Case.read("ExchangeRateRecordMapper.selectEffectiveInRange(30d)",
+                r -> fxMapper.selectEffectiveInRange("HKDCNY", monthAgo.atStartOfDay(), latest.plusDays(1).atStartOfDay())));
+        cases.add(Case.write("ExchangeRateRecordMapper.insertBatch",
+                r -> fxMapper.insertBatch(exchangeRates(afterClose))));
+        cases.add(Case.read("ExchangeRateService.getHistoryRates(first page)",
+                r -> exchangeRateService.getHistoryRates(historyQuery(1))));
+        // LIMIT/OFFSET翻到历史中间，偏移量随数据量增长
+        cases.add(Case.read("ExchangeRateService.getHistoryRates(middle page)",
+                r -> exchangeRateService.getHistoryRates(historyQuery(
+                        Math.max(1, generator.getTradeDates().size() * fxPerDay / 2 / 20)))));
+        // 最新快照与基础数据
+        cases.add(Case.read("LatestPremiumSnapshotMapper.selectByTradeDate",
+                r -> snapshotMapper.selectByTradeDate(latest)));
+        cases.add(Case.read("LatestPremiumSnapshotMapper.selectByStockCode",
+                r -> snapshotMapper.selectByStockCode(code(pairs, r))));
+        cases.add(Case.write("LatestPremiumSnapshotMapper.upsertBatch",
+                r -> snapshotMapper.upsertBatch(premiumRecords(pairs, afterClose))));
+        cases.add(Case.read("StockInfoMapper.selectActiveStocks", r -> stockInfoMapper.selectActiveStocks()));
+        cases.add(Case.read("StockInfoMapper.selectHStockByACode", r -> stockInfoMapper.selectHStockByACode(code(pairs, r))));
+        cases.add(Case.read("StockInfoMapper.selectAHStockPairs", r -> stockInfoMapper.selectAHStockPairs()));
+        cases.add(Case.read("StockInfoMapper.selectChangeVersion", r -> stockInfoMapper.selectChangeVersion()));
+        cases.add(Case.read("AhStockPairMapper.selectActivePairs", r -> ahPairMapper.selectActivePairs()));
+        cases.add(Case.write("AhStockPairMapper.upsertBatch", r -> ahPairMapper.upsertBatch(ahPairs(pairs))));
+        cases.add(Case.read("AhStockPairMapper.selectChangeVersion", r -> ahPairMapper.selectChangeVersion()));
+        cases.add(Case.write("CollectorNodeMapper.heartbeat",
+                r -> nodeMapper.heartbeat("storagebench", "localhost", LocalDateTime.now())));
+        cases.add(Case.read("CollectorNodeMapper.selectAliveNodeIds", r -> nodeMapper.selectAliveNodeIds(15_000)));
+        cases.add(Case.write("CollectorNodeMapper.deleteExpired", r -> nodeMapper.deleteExpired(300_000)));
+        cases.add(Case.read("SystemConfigMapper.selectByConfigKey", r -> configMapper.selectByConfigKey("data.collect.interval")));
+        cases.add(Case.write("SystemConfigMapper.updateByConfigKey",
+                r -> configMapper.updateByConfigKey("data.collect.interval", "5")));
+        cases.add(Case.read("TradingCalendarMapper.selectByDateRange(1y)",
+                r -> calendarMapper.selectByDateRange(latest.minusYears(1), latest)));
+        cases.add(Case.read("TablePartitionMapper.selectPartitions",
+                r -> partitionMapper.selectPartitions("premium_rate_record")));
+        cases.add(Case.read("TablePartitionMapper.existsFrom",
+                r -> partitionMapper.existsFrom("premium_rate_record", latest.plusDays(1))));
+        return cases;
+    }
+
+    private static Result run(Case c, TransactionTemplate transaction, StatementCapture capture, DataSource dataSource,
+                              int iterations, long budgetNanos) {
+        Result result = new Result();
+        Random random = new Random(42);
+        capture.start();
+        try {
+            invoke(c, transaction, random);
+        } catch (RuntimeException e) {
+            result.error = rootMessage(e);
+        } finally {
+            result.statements = capture.stop();
+        }
+        explain(result, dataSource);
+        if (result.error != null) {
+            return result;
+        }
+
+        for (int i = 0; i < WARMUP; i++) {
+            invoke(c, transaction, random);
+        }
+        long[] samples = new long[iterations];
+        int count = 0;
+        long deadline = System.nanoTime() + budgetNanos;
+        while (count < iterations && (count == 0 || System.nanoTime() < deadline)) {
+            long start = System.nanoTime();
+            invoke(c, transaction, random);
+            samples[count++] = System.nanoTime() - start;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        result.p50 = sorted[(int) Math.ceil(0.50 * count) - 1] / 1e6;
+        result.p95 = sorted[(int) Math.ceil(0.95 * count) - 1] / 1e6;
+        result.max = sorted[count - 1] / 1e6;
+        return result;
+    }
+
+    private static void invoke(Case c, TransactionTemplate transaction, Random random) {
+        if (!c.write) {
+            c.call.accept(random);
+            return;
+        }
+        transaction.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            c.call.accept(random);
+        });
+    }
+
+    /**
+     * 用实际执行时的SQL和参数做EXPLAIN
+     */
+    private static void explain(Result result, DataSource dataSource) {
+        StringBuilder plans = new StringBuilder();
+        List<String> summaries = new ArrayList<>();
+        Set<String> seen = new LinkedHashSet<>();
+        for (Captured statement : result.statements) {
+            if (!seen.add(statement.statementId)) {
+                continue;
+            }
+            plans.append("-- ").append(statement.shortId()).append('\n').append(statement.sql.trim()).append('\n');
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement ps = connection.prepareStatement("EXPLAIN " + statement.sql)) {
+                statement.parameterHandler.setParameters(ps);
+                try (ResultSet rs = ps.executeQuery()) {
+                    List<Map<String, String>> rows = readRows(rs);
+                    rows.forEach(row -> plans.append(row).append('\n'));
+                    summaries.add(summarize(rows));
+                }
+            } catch (SQLException | RuntimeException e) {
+                plans.append("EXPLAIN失败: ").append(rootMessage(e)).append('\n');
+                summaries.add("-");
+            }
+        }
+        result.plans = plans.toString();
+        result.planSummary = String.join(" | ", summaries);
+    }
+
+    private static List<Map<String, String>> readRows(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        List<Map<String, String>> rows = new ArrayList<>();
+        while (rs.next()) {
+            Map<String, String> row = new LinkedHashMap<>();
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                row.put(meta.getColumnLabel(i).toLowerCase(), rs.getString(i));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * 执行计划摘要：MySQL按表列出访问类型、索引和预估行数，type=ALL 即全表扫描；
+     * H2只有一列计划文本，按是否出现 tableScan 区分
+     */
+    private static String summarize(List<Map<String, String>> rows) {
+        List<String> parts = new ArrayList<>();
+        for (Map<String, String> row : rows) {
+            if (row.containsKey("type")) {
+                parts.add(row.get("table") + ":" + row.get("type") + "/" + row.get("key") + "(" + row.get("rows") + ")");
+            } else {
+                String plan = String.valueOf(row.values().iterator().next());
+                parts.add(plan.contains("tableScan") ? "tableScan" : "index");
+            }
+        }
+        return String.join(",", parts);
+    }
+
+    /**
+     * Mapper接口自身声明的语句，不含BaseMapper继承的通用方法
+     */
+    private static Set<String> declaredStatements(Configuration configuration) {
+        Set<String> declared = new TreeSet<>();
+        for (Class<?> mapper : configuration.getMapperRegistry().getMappers()) {
+            if (!mapper.getName().startsWith(MAPPER_PACKAGE)) {
+                continue;
+            }
+            for (Method method : mapper.getDeclaredMethods()) {
+                if (!method.isDefault() && !method.isSynthetic()) {
+                    declared.add(mapper.getName() + "." + method.getName());
+                }
+            }
+        }
+        return declared;
+    }
+
+    private static void analyze(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if ("H2".equals(connection.getMetaData().getDatabaseProductName())) {
+                statement.execute("ANALYZE");
+            } else {
+                statement.execute("ANALYZE TABLE " + String.join(", ", HISTORY_TABLES));
+            }
+        }
+    }
+
+    private static boolean tableExists(Connection connection, String table) throws SQLException {
+        try (ResultSet rs = connection.getMetaData().getTables(connection.getCatalog(), null, table, null)) {
+            return rs.next();
+        }
+    }
+
+    private static long count(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static String code(List<StockPair> pairs, Random random) {
+        return pairs.get(random.nextInt(pairs.size())).aStockCode;
+    }
+
+    private static ExchangeRateQueryDTO historyQuery(int pageNum) {
+        ExchangeRateQueryDTO query = new ExchangeRateQueryDTO();
+        query.setCurrencyPair("HKDCNY");
+        query.setPageNum(pageNum);
+        query.setPageSize(20);
+        return query;
+    }
+
+    /**
+     * 一个采集周期写入的行情：每对A股、H股各一条
+     */
+    private static List<StockPriceRecord> priceRecords(List<StockPair> pairs, LocalDateTime recordTime) {
+        List<StockPriceRecord> records = new ArrayList<>(pairs.size() * 2);
+        for (StockPair pair : pairs) {
+            records.add(priceRecord(pair.aStockCode, "A", pair.baseA, recordTime));
+            records.add(priceRecord(pair.hStockCode, "H", pair.baseH, recordTime));
+        }
+        return records;
+    }
+
+    private static StockPriceRecord priceRecord(String code, String market, BigDecimal price, LocalDateTime recordTime) {
+        StockPriceRecord record = new StockPriceRecord();
+        record.setStockCode(code);
+        record.setMarketType(market);
+        record.setCurrentPrice(price);
+        record.setOpenPrice(price);
+        record.setHighPrice(price);
+        record.setLowPrice(price);
+        record.setPreClosePrice(price);
+        record.setVolume(1000L);
+        record.setChangeRate(BigDecimal.ZERO);
+        record.setRecordTime(recordTime);
+        record.setTradeDate(recordTime.toLocalDate());
+        record.setDataSource("tencent");
+        return record;
+    }
+
+    private static List<PremiumRateRecord> premiumRecords(List<StockPair> pairs, LocalDateTime recordTime) {
+        List<PremiumRateRecord> records = new ArrayList<>(pairs.size());
+        for (StockPair pair : pairs) {
+            PremiumRateRecord record = new PremiumRateRecord();
+            record.setStockCode(pair.aStockCode);
+            record.setAStockPrice(pair.baseA);
+            record.setHStockPrice(pair.baseH);
+            record.setExchangeRate(new BigDecimal("0.912300"));
+            record.setPremiumRate(new BigDecimal("-20.0000"));
+            record.setRecordTime(recordTime);
+            record.setTradeDate(recordTime.toLocalDate());
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static List<DailyPremiumStats> dailyStats(List<StockPair> pairs, LocalDate tradeDate) {
+        List<DailyPremiumStats> stats = new ArrayList<>(pairs.size());
+        for (StockPair pair : pairs) {
+            DailyPremiumStats s = new DailyPremiumStats();
+            s.setStockCode(pair.aStockCode);
+            s.setTradeDate(tradeDate);
+            s.setOpenPremiumRate(new BigDecimal("-20.0000"));
+            s.setClosePremiumRate(new BigDecimal("-20.0000"));
+            s.setMaxPremiumRate(new BigDecimal("-19.0000"));
+            s.setMinPremiumRate(new BigDecimal("-21.0000"));
+            s.setAvgPremiumRate(new BigDecimal("-20.0000"));
+            s.setPercentile95(new BigDecimal("-19.1000"));
+            s.setPercentile5(new BigDecimal("-20.9000"));
+            s.setRecordCount(240);
+            stats.add(s);
+        }
+        return stats;
+    }
+
+    private static List<ExchangeRateRecord> exchangeRates(LocalDateTime recordTime) {
+        ExchangeRateRecord record = new ExchangeRateRecord();
+        record.setCurrencyPair("HKDCNY");
+        record.setRate(new BigDecimal("0.912300"));
+        record.setRecordTime(recordTime);
+        record.setTradeDate(recordTime.toLocalDate());
+        record.setDataSource("tencent");
+        record.setCreatedTime(LocalDateTime.now());
+        return List.of(record);
+    }
+
+    private static List<AhStockPair> ahPairs(List<StockPair> pairs) {
+        List<AhStockPair> result = new ArrayList<>(pairs.size());
+        for (StockPair pair : pairs) {
+            AhStockPair ah = new AhStockPair();
+            ah.setAStockCode(pair.aStockCode);
+            ah.setHStockCode(pair.hStockCode);
+            ah.setStockName(pair.stockName);
+            ah.setStatus(1);
+            result.add(ah);
+        }
+        return result;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String message = String.valueOf(root.getMessage());
+        int newline = message.indexOf('\n');
+        message = newline > 0 ? message.substring(0, newline) : message;
+        return root.getClass().getSimpleName() + ": " + (message.length() > 160 ? message.substring(0, 160) + "..." : message);
+    }
+
+    /**
+     * 一个计时用例，写语句在回滚的事务中执行
+     */
+    private static final class Case {
+
+        final String name;
+        final boolean write;
+        final Consumer<Random> call;
+
+        private Case(String name, boolean write, Consumer<Random> call) {
+            this.name = name;
+            this.write = write;
+            this.call = call;
+        }
+
+        static Case read(String name, Consumer<Random> call) {
+            return new Case(name, false, call);
+        }
+
+        static Case write(String name, Consumer<Random> call) {
+            return new Case(name, true, call);
+        }
+    }
+
+    /**
+     * 单个用例在一级数据量下的结果，耗时单位毫秒
+     */
+    private static final class Result {
+
+        List<Captured> statements = new ArrayList<>();
+        String plans = "";
+        String planSummary = "";
+        String error;
+        double p50;
+        double p95;
+        double max;
+
+        List<String> statementIds() {
+            List<String> ids = new ArrayList<>();
+            for (Captured statement : statements) {
+                if (!ids.contains(statement.shortId())) {
+                    ids.add(statement.shortId());
+                }
+            }
+            return ids;
+        }
+    }
+}
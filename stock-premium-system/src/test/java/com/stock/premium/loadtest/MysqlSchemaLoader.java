@@ -0,0 +1,93 @@
+package com.stock.premium.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 执行 sql/init.sql 建表，表结构和初始化数据与生产保持同一份来源
+ * 去掉 CREATE DATABASE/USE，库由连接串决定；在H2(MySQL兼容模式)上再做最小改写：
+ * 去掉表级 COLLATE 和分区定义；H2的索引名在整个schema内唯一，MySQL只要求表内唯一，索引名统一加上表名前缀
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+final class MysqlSchemaLoader {
+
+    static final String INIT_SCRIPT = "/sql/init.sql";
+
+    private static final Pattern STATEMENT_END = Pattern.compile(";\\s*(\\r?\\n|$)");
+
+    private static final Pattern CREATE_TABLE = Pattern.compile("CREATE TABLE\\s+`(\\w+)`", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern INDEX_NAME = Pattern.compile("((?:UNIQUE\\s+)?KEY)\\s+`(\\w+)`", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern TABLE_COLLATE = Pattern.compile("\\s+COLLATE=\\w+", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern TABLE_PARTITION = Pattern.compile("\\s+PARTITION BY[\\s\\S]*$", Pattern.CASE_INSENSITIVE);
+
+    private MysqlSchemaLoader() {
+    }
+
+    static void load(Connection connection) throws SQLException {
+        boolean h2 = "H2".equals(connection.getMetaData().getDatabaseProductName());
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : statements(readScript(), h2)) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    static List<String> statements(String script, boolean h2) {
+        StringBuilder withoutComments = new StringBuilder(script.length());
+        for (String line : script.split("\\r?\\n")) {
+            if (!line.trim().startsWith("--")) {
+                withoutComments.append(line).append('\n');
+            }
+        }
+
+        List<String> statements = new ArrayList<>();
+        for (String raw : STATEMENT_END.split(withoutComments)) {
+            String sql = raw.trim();
+            if (sql.isEmpty()) {
+                continue;
+            }
+            String upper = sql.toUpperCase();
+            if (upper.startsWith("CREATE DATABASE") || upper.startsWith("USE ")) {
+                continue;
+            }
+            statements.add(h2 ? rewriteForH2(sql) : sql);
+        }
+        return statements;
+    }
+
+    private static String rewriteForH2(String sql) {
+        Matcher table = CREATE_TABLE.matcher(sql);
+        if (!table.find()) {
+            return sql;
+        }
+        String tableName = table.group(1);
+        String body = TABLE_PARTITION.matcher(TABLE_COLLATE.matcher(sql).replaceAll("")).replaceAll("");
+        return INDEX_NAME.matcher(body).replaceAll(m -> Matcher.quoteReplacement(
+                m.group(1) + " `" + tableName + "_" + m.group(2) + "`"));
+    }
+
+    private static String readScript() {
+        try (InputStream in = MysqlSchemaLoader.class.getResourceAsStream(INIT_SCRIPT)) {
+            if (in == null) {
+                throw new IllegalStateException("缺少建表脚本: " + INIT_SCRIPT);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
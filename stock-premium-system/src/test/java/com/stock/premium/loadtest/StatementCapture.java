@@ -0,0 +1,112 @@
+package com.stock.premium.loadtest;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 记录实际发往数据库的SQL
+ * 拦截 StatementHandler.prepare，此时分页等插件已经改写完SQL，
+ * 保留的 ParameterHandler 可以把同一组参数绑定到 EXPLAIN 语句上；
+ * 语句ID在进入 Executor 时记下，StatementHandler 只通过接口方法读取，不反射代理对象
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class})
+})
+final class StatementCapture implements Interceptor {
+
+    private final List<Captured> captured = new ArrayList<>();
+
+    private final ThreadLocal<String> currentStatement = new ThreadLocal<>();
+
+    private volatile boolean enabled;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (!enabled) {
+            return invocation.proceed();
+        }
+        if (invocation.getTarget() instanceof Executor) {
+            String outer = currentStatement.get();
+            currentStatement.set(((MappedStatement) invocation.getArgs()[0]).getId());
+            try {
+                return invocation.proceed();
+            } finally {
+                currentStatement.set(outer);
+            }
+        }
+        StatementHandler handler = (StatementHandler) invocation.getTarget();
+        synchronized (captured) {
+            captured.add(new Captured(currentStatement.get(), handler.getBoundSql().getSql(),
+                    handler.getParameterHandler()));
+        }
+        return invocation.proceed();
+    }
+
+    /**
+     * 开始记录，清空之前的结果
+     */
+    void start() {
+        synchronized (captured) {
+            captured.clear();
+        }
+        enabled = true;
+    }
+
+    /**
+     * 停止记录
+     * @return 开始记录以来执行过的语句
+     */
+    List<Captured> stop() {
+        enabled = false;
+        synchronized (captured) {
+            return new ArrayList<>(captured);
+        }
+    }
+
+    /**
+     * 一次语句执行
+     */
+    static final class Captured {
+
+        final String statementId;
+        final String sql;
+        final ParameterHandler parameterHandler;
+
+        Captured(String statementId, String sql, ParameterHandler parameterHandler) {
+            this.statementId = statementId;
+            this.sql = sql;
+            this.parameterHandler = parameterHandler;
+        }
+
+        /**
+         * 去掉包名的语句ID，如 PremiumRateRecordMapper.selectLatestByDate
+         */
+        String shortId() {
+            int method = statementId.lastIndexOf('.');
+            int type = statementId.lastIndexOf('.', method - 1);
+            return statementId.substring(type + 1);
+        }
+    }
+}
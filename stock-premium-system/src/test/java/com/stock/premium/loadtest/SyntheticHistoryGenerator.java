@@ -0,0 +1,356 @@
+package com.stock.premium.loadtest;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 合成历史行情生成器
+ * 按交易时段写入 stock_price_record、premium_rate_record、exchange_rate_record、daily_premium_stats，
+ * 最新交易日同时写入 latest_premium_snapshot。数据量由股票对数量、行情间隔和交易日数决定，
+ * 例如500对 × 5秒 × 750个交易日，每张明细表约13亿行。
+ *
+ * 以 latestDate 为最后一个交易日向前生成，extendTo 可以多次调用逐步加深历史：
+ * 最新交易日的数据始终不变，只是背后的历史越来越长，和生产库随时间增长的情况一致。
+ * 每个交易日的随机数种子由日期决定，生成顺序不影响结果。
+ * 股票对先取 ah_stock_pair 中已有的，不够时补充合成代码(A股9开头、H股8开头)并写入 ah_stock_pair。
+ * 写MySQL时连接串加上 rewriteBatchedStatements=true，批量插入才会合并成多行VALUES
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+final class SyntheticHistoryGenerator {
+
+    private static final LocalTime MORNING_OPEN = LocalTime.of(9, 30);
+    private static final LocalTime MORNING_CLOSE = LocalTime.of(11, 30);
+    private static final LocalTime AFTERNOON_OPEN = LocalTime.of(13, 0);
+    private static final LocalTime AFTERNOON_CLOSE = LocalTime.of(15, 0);
+
+    private static final BigDecimal HKD_CNY = new BigDecimal("0.912300");
+
+    private static final int BATCH_SIZE = 2000;
+
+    private final int pairCount;
+
+    private final int tickSeconds;
+
+    private final int fxSeconds;
+
+    private final LocalDate latestDate;
+
+    private final List<StockPair> pairs = new ArrayList<>();
+
+    private int generatedDays;
+
+    private long rows;
+
+    /**
+     * @param pairCount A+H股对数量
+     * @param tickSeconds 行情间隔(秒)
+     * @param fxSeconds 汇率记录间隔(秒)
+     * @param latestDate 最后一个交易日，是周末也照常生成，按当日查询的接口总能查到数据
+     */
+    SyntheticHistoryGenerator(int pairCount, int tickSeconds, int fxSeconds, LocalDate latestDate) {
+        this.pairCount = pairCount;
+        this.tickSeconds = tickSeconds;
+        this.fxSeconds = fxSeconds;
+        this.latestDate = latestDate;
+    }
+
+    /**
+     * 准备股票对并写入 stock_info，生成历史前调用一次
+     */
+    List<StockPair> init(Connection connection) throws SQLException {
+        Random random = new Random(20240101L);
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT a_stock_code, h_stock_code, stock_name FROM ah_stock_pair WHERE status = 1 ORDER BY id")) {
+            while (rs.next() && pairs.size() < pairCount) {
+                pairs.add(StockPair.random(rs.getString(1), rs.getString(2), rs.getString(3), random));
+            }
+        }
+        List<StockPair> synthetic = new ArrayList<>();
+        for (int i = pairs.size(); i < pairCount; i++) {
+            StockPair pair = StockPair.random(String.format("9%05d", i), String.format("8%04d", i), "合成" + i, random);
+            pairs.add(pair);
+            synthetic.add(pair);
+        }
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement ah = connection.prepareStatement(
+                "INSERT INTO ah_stock_pair (a_stock_code, h_stock_code, stock_name) VALUES (?, ?, ?)");
+             PreparedStatement info = connection.prepareStatement(
+                "INSERT INTO stock_info (stock_name, market_type, a_stock_code, h_stock_code, exchange, status, deleted) "
+                        + "VALUES (?, 'A', ?, ?, ?, 1, 0)")) {
+            for (StockPair pair : synthetic) {
+                ah.setString(1, pair.aStockCode);
+                ah.setString(2, pair.hStockCode);
+                ah.setString(3, pair.stockName);
+                ah.addBatch();
+            }
+            for (StockPair pair : pairs) {
+                info.setString(1, pair.stockName);
+                info.setString(2, pair.aStockCode);
+                info.setString(3, pair.hStockCode);
+                info.setString(4, pair.aStockCode.startsWith("6") ? "SH" : "SZ");
+                info.addBatch();
+            }
+            ah.executeBatch();
+            info.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        return pairs;
+    }
+
+    /**
+     * 把历史补到指定的交易日数，已生成的交易日不再重复写入
+     */
+    void extendTo(Connection connection, int tradingDays) throws SQLException {
+        List<LocalDate> dates = tradeDates(tradingDays);
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (int i = generatedDays; i < dates.size(); i++) {
+                generateDay(connection, dates.get(i), i == 0);
+                // 每天提交一次，MySQL上大数据量时事务不会过大
+                connection.commit();
+            }
+            generatedDays = Math.max(generatedDays, dates.size());
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    List<StockPair> getPairs() {
+        return pairs;
+    }
+
+    /**
+     * 生成的交易日，从最新到最早
+     */
+    List<LocalDate> getTradeDates() {
+        return tradeDates(generatedDays);
+    }
+
+    LocalDate getLatestDate() {
+        return latestDate;
+    }
+
+    /**
+     * 已写入的明细行数(行情、溢价率、汇率)
+     */
+    long getRows() {
+        return rows;
+    }
+
+    private void generateDay(Connection connection, LocalDate tradeDate, boolean latest) throws SQLException {
+        Random random = new Random(tradeDate.toEpochDay());
+        List<LocalTime> ticks = sessionTimes(tickSeconds);
+        int pending = 0;
+        try (PreparedStatement price = connection.prepareStatement(
+                "INSERT INTO stock_price_record (stock_code, market_type, current_price, open_price, high_price, low_price, "
+                        + "pre_close_price, volume, change_rate, record_time, trade_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement premium = connection.prepareStatement(
+                "INSERT INTO premium_rate_record (stock_code, a_stock_price, h_stock_price, exchange_rate, premium_rate, "
+                        + "record_time, trade_date) VALUES (?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement stats = connection.prepareStatement(
+                "INSERT INTO daily_premium_stats (stock_code, trade_date, open_premium_rate, close_premium_rate, max_premium_rate, "
+                        + "min_premium_rate, avg_premium_rate, percentile_95, percentile_5, record_count) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement snapshot = connection.prepareStatement(
+                "INSERT INTO latest_premium_snapshot (stock_code, a_stock_price, h_stock_price, exchange_rate, premium_rate, "
+                        + "record_time, trade_date) VALUES (?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement fx = connection.prepareStatement(
+                "INSERT INTO exchange_rate_record (currency_pair, rate, record_time, trade_date) VALUES ('HKDCNY', ?, ?, ?)")) {
+
+            for (LocalTime time : sessionTimes(fxSeconds)) {
+                fx.setBigDecimal(1, HKD_CNY);
+                fx.setTimestamp(2, Timestamp.valueOf(tradeDate.atTime(time)));
+                fx.setDate(3, Date.valueOf(tradeDate));
+                fx.addBatch();
+                rows++;
+            }
+            fx.executeBatch();
+
+            for (StockPair pair : pairs) {
+                BigDecimal preCloseA = StockPair.open(pair.baseA, random);
+                BigDecimal preCloseH = StockPair.open(pair.baseH, random);
+                BigDecimal priceA = preCloseA;
+                BigDecimal priceH = preCloseH;
+                BigDecimal premiumRate = null;
+                double[] premiums = new double[ticks.size()];
+                long volume = 0;
+                for (int i = 0; i < ticks.size(); i++) {
+                    priceA = StockPair.step(priceA, random);
+                    priceH = StockPair.step(priceH, random);
+                    volume += 100 + random.nextInt(10_000);
+                    Timestamp time = Timestamp.valueOf(tradeDate.atTime(ticks.get(i)));
+                    addPrice(price, pair.aStockCode, "A", priceA, preCloseA, volume, time, tradeDate);
+                    addPrice(price, pair.hStockCode, "H", priceH, preCloseH, volume, time, tradeDate);
+
+                    premiumRate = premiumRate(priceA, priceH);
+                    premiums[i] = premiumRate.doubleValue();
+                    premium.setString(1, pair.aStockCode);
+                    premium.setBigDecimal(2, priceA);
+                    premium.setBigDecimal(3, priceH);
+                    premium.setBigDecimal(4, HKD_CNY);
+                    premium.setBigDecimal(5, premiumRate);
+                    premium.setTimestamp(6, time);
+                    premium.setDate(7, Date.valueOf(tradeDate));
+                    premium.addBatch();
+                    rows += 3;
+                    if (++pending == BATCH_SIZE) {
+                        price.executeBatch();
+                        premium.executeBatch();
+                        pending = 0;
+                    }
+                }
+                addStats(stats, pair.aStockCode, tradeDate, premiums);
+                if (latest) {
+                    snapshot.setString(1, pair.aStockCode);
+                    snapshot.setBigDecimal(2, priceA);
+                    snapshot.setBigDecimal(3, priceH);
+                    snapshot.setBigDecimal(4, HKD_CNY);
+                    snapshot.setBigDecimal(5, premiumRate);
+                    snapshot.setTimestamp(6, Timestamp.valueOf(tradeDate.atTime(ticks.get(ticks.size() - 1))));
+                    snapshot.setDate(7, Date.valueOf(tradeDate));
+                    snapshot.addBatch();
+                }
+            }
+            price.executeBatch();
+            premium.executeBatch();
+            stats.executeBatch();
+            if (latest) {
+                snapshot.executeBatch();
+            }
+        }
+    }
+
+    private List<LocalDate> tradeDates(int count) {
+        List<LocalDate> dates = new ArrayList<>(count);
+        for (LocalDate date = latestDate; dates.size() < count; date = date.minusDays(1)) {
+            if (date.equals(latestDate)
+                    || date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                dates.add(date);
+            }
+        }
+        return dates;
+    }
+
+    private static List<LocalTime> sessionTimes(int intervalSeconds) {
+        List<LocalTime> times = new ArrayList<>();
+        for (LocalTime t = MORNING_OPEN; !t.isAfter(MORNING_CLOSE); t = t.plusSeconds(intervalSeconds)) {
+            times.add(t);
+        }
+        for (LocalTime t = AFTERNOON_OPEN; !t.isAfter(AFTERNOON_CLOSE); t = t.plusSeconds(intervalSeconds)) {
+            times.add(t);
+        }
+        return times;
+    }
+
+    private static void addPrice(PreparedStatement price, String code, String market, BigDecimal current, BigDecimal preClose,
+                                 long volume, Timestamp time, LocalDate tradeDate) throws SQLException {
+        price.setString(1, code);
+        price.setString(2, market);
+        price.setBigDecimal(3, current);
+        price.setBigDecimal(4, preClose);
+        price.setBigDecimal(5, current.max(preClose));
+        price.setBigDecimal(6, current.min(preClose));
+        price.setBigDecimal(7, preClose);
+        price.setLong(8, volume);
+        price.setBigDecimal(9, current.subtract(preClose).multiply(BigDecimal.valueOf(100))
+                .divide(preClose, 3, RoundingMode.HALF_UP));
+        price.setTimestamp(10, time);
+        price.setDate(11, Date.valueOf(tradeDate));
+        price.addBatch();
+    }
+
+    private static void addStats(PreparedStatement stats, String stockCode, LocalDate tradeDate, double[] premiums)
+            throws SQLException {
+        double[] sorted = premiums.clone();
+        Arrays.sort(sorted);
+        stats.setString(1, stockCode);
+        stats.setDate(2, Date.valueOf(tradeDate));
+        stats.setBigDecimal(3, rate(premiums[0]));
+        stats.setBigDecimal(4, rate(premiums[premiums.length - 1]));
+        stats.setBigDecimal(5, rate(sorted[sorted.length - 1]));
+        stats.setBigDecimal(6, rate(sorted[0]));
+        stats.setBigDecimal(7, rate(Arrays.stream(premiums).average().orElse(0)));
+        stats.setBigDecimal(8, rate(sorted[(int) Math.ceil(0.95 * sorted.length) - 1]));
+        stats.setBigDecimal(9, rate(sorted[Math.max((int) Math.ceil(0.05 * sorted.length), 1) - 1]));
+        stats.setInt(10, premiums.length);
+        stats.addBatch();
+    }
+
+    /**
+     * 与 PremiumRateService.calculatePremiumRate 相同：(H股价格 × 汇率 - A股价格) / A股价格 × 100
+     */
+    private static BigDecimal premiumRate(BigDecimal priceA, BigDecimal priceH) {
+        return priceH.multiply(HKD_CNY).subtract(priceA)
+                .divide(priceA, 6, RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100)).setScale(4, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal rate(double value) {
+        return BigDecimal.valueOf(value).setScale(4, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * 一只A+H股票及其基准价格
+     */
+    static final class StockPair {
+
+        final String aStockCode;
+        final String hStockCode;
+        final String stockName;
+        final BigDecimal baseA;
+        final BigDecimal baseH;
+
+        private StockPair(String aStockCode, String hStockCode, String stockName, BigDecimal baseA, BigDecimal baseH) {
+            this.aStockCode = aStockCode;
+            this.hStockCode = hStockCode;
+            this.stockName = stockName;
+            this.baseA = baseA;
+            this.baseH = baseH;
+        }
+
+        static StockPair random(String aStockCode, String hStockCode, String stockName, Random random) {
+            BigDecimal baseA = BigDecimal.valueOf(5 + random.nextInt(4000) / 100.0).setScale(3, RoundingMode.HALF_UP);
+            // H股按0.5~0.95倍A股价格折算成港币，溢价率落在常见区间
+            double discount = 0.5 + random.nextInt(45) / 100.0;
+            BigDecimal baseH = baseA.multiply(BigDecimal.valueOf(discount)).divide(HKD_CNY, 3, RoundingMode.HALF_UP);
+            return new StockPair(aStockCode, hStockCode, stockName, baseA, baseH);
+        }
+
+        /**
+         * 当日开盘价在基准价±5%内
+         */
+        static BigDecimal open(BigDecimal base, Random random) {
+            double factor = 1 + (random.nextInt(1001) - 500) / 10_000.0;
+            return base.multiply(BigDecimal.valueOf(factor)).setScale(3, RoundingMode.HALF_UP);
+        }
+
+        /**
+         * 每个tick价格随机游走±0.2%
+         */
+        static BigDecimal step(BigDecimal price, Random random) {
+            double factor = 1 + (random.nextInt(41) - 20) / 10_000.0;
+            return price.multiply(BigDecimal.valueOf(factor)).setScale(3, RoundingMode.HALF_UP).max(new BigDecimal("0.010"));
+        }
+    }
+}
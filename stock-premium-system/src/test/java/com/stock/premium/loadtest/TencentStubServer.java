@@ -0,0 +1,174 @@
+package com.stock.premium.loadtest;
+
+import com.stock.premium.utils.TencentQuoteClient;
+import com.stock.premium.utils.TencentQuoteParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地腾讯行情桩服务
+ * 按请求的代码返回与 qt.gtimg.cn 相同格式的GBK报文：A股、港股行情按字段序号填充价格、成交量和行情时间，
+ * whXXXXXX 返回汇率；每次请求价格随机游走、成交量递增，采集端每个周期都能看到新行情。
+ * 可配置固定延迟模拟外网往返
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+final class TencentStubServer implements AutoCloseable {
+
+    private static final DateTimeFormatter A_SHARE_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private static final DateTimeFormatter HK_TIME = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss");
+
+    private static final String QUERY_PREFIX = "/q=";
+
+    private static final int FIELD_COUNT = 50;
+
+    private static final String HKD_CNY = "0.912300";
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final long latencyMillis;
+
+    private final Map<String, Quote> quotes = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+
+    TencentStubServer(long latencyMillis) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "tencent-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * 对应 tencent.finance.api.base-url
+     */
+    String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + QUERY_PREFIX;
+    }
+
+    long getRequestCount() {
+        return requests.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            String path = exchange.getRequestURI().getRawPath();
+            if (!path.startsWith(QUERY_PREFIX)) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            StringBuilder body = new StringBuilder();
+            for (String symbol : path.substring(QUERY_PREFIX.length()).split(",")) {
+                if (!symbol.isEmpty()) {
+                    body.append("v_").append(symbol).append("=\"").append(line(symbol, now)).append("\";\n");
+                }
+            }
+            byte[] bytes = body.toString().getBytes(TencentQuoteClient.GBK);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=GBK");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.sendResponseHeaders(503, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String line(String symbol, LocalDateTime now) {
+        String[] fields = new String[FIELD_COUNT];
+        Arrays.fill(fields, "0");
+        if (symbol.startsWith("wh")) {
+            fields[TencentQuoteParser.FIELD_NAME] = symbol.substring(2);
+            fields[TencentQuoteParser.FIELD_CURRENT] = HKD_CNY;
+            return String.join("~", fields);
+        }
+
+        boolean hk = symbol.startsWith("hk");
+        Quote quote = quotes.computeIfAbsent(symbol, s -> new Quote(hk));
+        synchronized (quote) {
+            quote.tick();
+            fields[0] = hk ? "100" : "1";
+            fields[TencentQuoteParser.FIELD_NAME] = "合成" + symbol.substring(2);
+            fields[TencentQuoteParser.FIELD_CODE] = symbol.substring(2);
+            fields[TencentQuoteParser.FIELD_CURRENT] = quote.current.toPlainString();
+            fields[TencentQuoteParser.FIELD_PRE_CLOSE] = quote.preClose.toPlainString();
+            fields[TencentQuoteParser.FIELD_OPEN] = quote.preClose.toPlainString();
+            fields[TencentQuoteParser.FIELD_VOLUME] = Long.toString(quote.volume);
+            fields[TencentQuoteParser.FIELD_QUOTE_TIME] = (hk ? HK_TIME : A_SHARE_TIME).format(now);
+            fields[TencentQuoteParser.FIELD_CHANGE_PERCENT] = quote.current.subtract(quote.preClose)
+                    .multiply(BigDecimal.valueOf(100)).divide(quote.preClose, 2, RoundingMode.HALF_UP).toPlainString();
+            fields[TencentQuoteParser.FIELD_HIGH] = quote.high.toPlainString();
+            fields[TencentQuoteParser.FIELD_LOW] = quote.low.toPlainString();
+        }
+        return String.join("~", fields);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * 单个代码的合成行情
+     */
+    private static final class Quote {
+
+        final BigDecimal preClose;
+        BigDecimal current;
+        BigDecimal high;
+        BigDecimal low;
+        long volume;
+
+        Quote(boolean hk) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            double base = hk ? 3 + random.nextDouble(30) : 5 + random.nextDouble(40);
+            this.preClose = BigDecimal.valueOf(base).setScale(3, RoundingMode.HALF_UP);
+            this.current = preClose;
+            this.high = preClose;
+            this.low = preClose;
+        }
+
+        void tick() {
+            double factor = 1 + (ThreadLocalRandom.current().nextInt(41) - 20) / 10_000.0;
+            current = current.multiply(BigDecimal.valueOf(factor)).setScale(3, RoundingMode.HALF_UP);
+            high = high.max(current);
+            low = low.min(current);
+            volume += 100 + ThreadLocalRandom.current().nextInt(10_000);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.stock.premium.metrics;
+
+import com.stock.premium.vo.CollectionReportVO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 采集链路监控指标测试
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class CollectionMetricsTest {
+
+    @Test
+    void testStage_同一阶段复用计时器() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CollectionMetrics metrics = new CollectionMetrics(registry);
+
+        assertSame(metrics.stage(CollectionMetrics.STAGE_PARSE), metrics.stage(CollectionMetrics.STAGE_PARSE));
+        metrics.stage(CollectionMetrics.STAGE_PARSE).record(5, TimeUnit.MILLISECONDS);
+        metrics.fetch("A").record(20, TimeUnit.MILLISECONDS);
+        metrics.fetch("H").record(30, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, registry.get("premium.collect.stage").tag("stage", "parse").timer().count());
+        assertEquals(30, registry.get("premium.quote.fetch").tag("market", "H").timer().totalTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+
+    @Test
+    void testCycleCompleted_累计各结果数量并重置周期延迟() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CollectionMetrics metrics = new CollectionMetrics(registry);
+        assertTrue(Double.isNaN(registry.get("premium.collect.cycle.lag").gauge().value()));
+
+        CollectionReportVO report = new CollectionReportVO();
+        report.setSuccessCount(90);
+        report.setUnchangedCount(8);
+        report.setTimeoutCount(2);
+        report.setElapsedMillis(1200);
+        metrics.cycleCompleted(report);
+        metrics.cycleCompleted(report);
+
+        assertEquals(180, registry.get("premium.collect.pairs").tag("outcome", "success").counter().count(), 0.001);
+        assertEquals(4, registry.get("premium.collect.pairs").tag("outcome", "timeout").counter().count(), 0.001);
+        assertEquals(2, registry.get("premium.collect.cycle").timer().count());
+        double lag = registry.get("premium.collect.cycle.lag").gauge().value();
+        assertTrue(lag >= 0 && lag < 5);
+    }
+
+    @Test
+    void testApiErrorAndQueueDepth() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CollectionMetrics metrics = new CollectionMetrics(registry);
+        AtomicInteger depth = new AtomicInteger(7);
+
+        metrics.queueDepth("tick_price", depth::get);
+        metrics.apiError("A", new java.util.concurrent.TimeoutException());
+        metrics.apiError("A", new java.util.concurrent.TimeoutException());
+        metrics.emptyResponse("H");
+
+        assertEquals(7, registry.get("premium.queue.depth").tag("queue", "tick_price").gauge().value(), 0.001);
+        assertEquals(2, registry.get("premium.quote.api.errors")
+                .tags("market", "A", "exception", "TimeoutException").counter().count(), 0.001);
+        assertEquals(1, registry.get("premium.quote.empty.responses").tag("market", "H").counter().count(), 0.001);
+    }
+}
@@ -0,0 +1,80 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.entity.PremiumRateRecord;
+import com.stock.premium.mapper.DailyPremiumStatsMapper;
+import com.stock.premium.service.CollectorShardService;
+import com.stock.premium.service.PremiumRateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 日统计生成测试
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class DailyStatsServiceImplTest {
+
+    private static final LocalDate TRADE_DATE = LocalDate.of(2025, 1, 2);
+
+    private DailyPremiumStatsMapper statsMapper;
+
+    private PremiumRateService premiumRateService;
+
+    private CollectorShardService collectorShardService;
+
+    private DailyStatsServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        statsMapper = mock(DailyPremiumStatsMapper.class);
+        premiumRateService = mock(PremiumRateService.class);
+        collectorShardService = mock(CollectorShardService.class);
+
+        service = new DailyStatsServiceImpl();
+        ReflectionTestUtils.setField(service, "baseMapper", statsMapper);
+        ReflectionTestUtils.setField(service, "premiumRateService", premiumRateService);
+        ReflectionTestUtils.setField(service, "collectorShardService", collectorShardService);
+    }
+
+    private static PremiumRateRecord premium(int minute, String rate) {
+        PremiumRateRecord record = new PremiumRateRecord();
+        record.setStockCode("601088");
+        record.setPremiumRate(new BigDecimal(rate));
+        record.setRecordTime(TRADE_DATE.atTime(10, minute));
+        record.setTradeDate(TRADE_DATE);
+        return record;
+    }
+
+    @Test
+    void testGenerateDailyStats_单节点时写入累加器结果() {
+        service.accumulate(premium(0, "-30.1000"));
+        service.accumulate(premium(1, "-29.8000"));
+
+        service.generateDailyStats(TRADE_DATE);
+
+        verify(statsMapper).upsertBatch(anyList());
+        verify(statsMapper, never()).upsertFromPremiumRecords(any());
+    }
+
+    @Test
+    void testGenerateDailyStats_Quartz或分片时从明细重新计算() {
+        when(collectorShardService.isLocalViewPartial()).thenReturn(true);
+        service.accumulate(premium(0, "-30.1000"));
+
+        service.generateDailyStats(TRADE_DATE);
+
+        verify(statsMapper).upsertFromPremiumRecords(TRADE_DATE);
+        verify(statsMapper, never()).upsertBatch(anyList());
+        // 不累加，也就不检查服务启动前的明细
+        verifyNoInteractions(premiumRateService);
+    }
+}
@@ -0,0 +1,120 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.dto.FxRate;
+import com.stock.premium.entity.ExchangeRateRecord;
+import com.stock.premium.mapper.ExchangeRateRecordMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 汇率内存快照及定时刷新测试（本地汇率来源）
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class ExchangeRateRefreshTest {
+
+    private ExchangeRateRecordMapper exchangeRateRecordMapper;
+
+    private ExchangeRateStoreImpl store;
+
+    private StubFxRateSource source;
+
+    private ExchangeRateServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        exchangeRateRecordMapper = mock(ExchangeRateRecordMapper.class);
+        store = new ExchangeRateStoreImpl();
+        source = new StubFxRateSource();
+        source.setRate("HKDCNY", new BigDecimal("0.912300"));
+        source.setRate("USDCNY", new BigDecimal("7.120000"));
+
+        service = new ExchangeRateServiceImpl(exchangeRateRecordMapper, store, source);
+        ReflectionTestUtils.setField(service, "currencyPairs", List.of("HKDCNY", "USDCNY"));
+    }
+
+    @Test
+    void testRefresh_多货币对批量写入且未变化时不重复写入() {
+        assertEquals(2, service.refreshRates());
+        assertEquals(0, new BigDecimal("7.12").compareTo(store.get("USDCNY").getRate()));
+        long version = store.getVersion();
+
+        // 汇率未变化：不写库、版本不变
+        assertEquals(0, service.refreshRates());
+        assertEquals(version, store.getVersion());
+
+        source.setRate("HKDCNY", new BigDecimal("0.913000"));
+        assertEquals(1, service.refreshRates());
+        assertEquals(version + 1, store.getVersion());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ExchangeRateRecord>> captor = ArgumentCaptor.forClass(List.class);
+        verify(exchangeRateRecordMapper, times(2)).insertBatch(captor.capture());
+        assertEquals(2, captor.getAllValues().get(0).size());
+        assertEquals("stub", captor.getAllValues().get(1).get(0).getDataSource());
+    }
+
+    @Test
+    void testGetCurrentRate_快照未命中时按货币对查库() {
+        ExchangeRateRecord record = new ExchangeRateRecord();
+        record.setCurrencyPair("HKDCNY");
+        record.setRate(new BigDecimal("0.9"));
+        record.setRecordTime(LocalDateTime.of(2025, 1, 2, 10, 0));
+        when(exchangeRateRecordMapper.selectLatest("HKDCNY")).thenReturn(record);
+
+        FxRate first = service.getCurrentRate("HKDCNY");
+        FxRate second = service.getCurrentRate("HKDCNY");
+
+        assertSame(first, second);
+        assertNull(service.getCurrentRate("EURCNY"));
+        verify(exchangeRateRecordMapper, times(1)).selectLatest("HKDCNY");
+        verify(exchangeRateRecordMapper, never()).insertBatch(anyList());
+        verify(exchangeRateRecordMapper, never()).insert(any(ExchangeRateRecord.class));
+    }
+
+    @Test
+    void testPublish_较旧的汇率不覆盖() {
+        LocalDateTime t = LocalDateTime.of(2025, 1, 2, 10, 0);
+        store.publish(List.of(new FxRate("HKDCNY", new BigDecimal("0.91"), t, "tencent")));
+        List<FxRate> changed = store.publish(List.of(new FxRate("HKDCNY", new BigDecimal("0.95"), t.minusMinutes(1), "manual")));
+
+        assertTrue(changed.isEmpty());
+        assertEquals(0, new BigDecimal("0.91").compareTo(store.get("HKDCNY").getRate()));
+        assertEquals(1, store.getVersion());
+    }
+
+    @Test
+    void testRefresh_手动汇率生效时不被来源覆盖直到取消() {
+        ExchangeRateRecord manual = new ExchangeRateRecord();
+        manual.setCurrencyPair("HKDCNY");
+        manual.setRate(new BigDecimal("0.930000"));
+        manual.setRecordTime(LocalDateTime.now().minusMinutes(1));
+        manual.setDataSource(ExchangeRateServiceImpl.SOURCE_MANUAL);
+        when(exchangeRateRecordMapper.selectLatest("HKDCNY")).thenReturn(manual);
+
+        // 只写入未固定的 USDCNY，HKDCNY 采用手动汇率
+        assertEquals(1, service.refreshRates());
+        assertEquals(0, new BigDecimal("0.93").compareTo(store.get("HKDCNY").getRate()));
+        assertEquals(ExchangeRateServiceImpl.SOURCE_MANUAL, store.get("HKDCNY").getDataSource());
+
+        // 取消后立即按来源写入一条更新的记录
+        assertEquals(0, new BigDecimal("0.9123").compareTo(service.clearManualRate("HKDCNY").getRate()));
+        ArgumentCaptor<ExchangeRateRecord> captor = ArgumentCaptor.forClass(ExchangeRateRecord.class);
+        verify(exchangeRateRecordMapper).insert(captor.capture());
+        assertEquals("stub", captor.getValue().getDataSource());
+        assertTrue(captor.getValue().getRecordTime().isAfter(manual.getRecordTime()));
+        assertEquals(0, new BigDecimal("0.9123").compareTo(store.get("HKDCNY").getRate()));
+    }
+}
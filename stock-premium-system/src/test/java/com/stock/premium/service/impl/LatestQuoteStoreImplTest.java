@@ -0,0 +1,79 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.dto.LatestQuote;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 最新行情内存快照测试
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class LatestQuoteStoreImplTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 1, 2);
+
+    private static LatestQuote quote(String a, String h, String price, LocalDateTime time) {
+        return new LatestQuote(a, h, "测试" + a, new BigDecimal(price), new BigDecimal("10.000"),
+                new BigDecimal("0.910000"), new BigDecimal("-5.0000"), time, time.toLocalDate());
+    }
+
+    @Test
+    void testPublish_按A股和H股代码查询() {
+        LatestQuoteStoreImpl store = new LatestQuoteStoreImpl();
+        assertFalse(store.isWarm());
+        assertNull(store.get("601088"));
+
+        LocalDateTime t = TODAY.atTime(10, 0);
+        store.publish(List.of(quote("601088", "01088", "40.500", t), quote("600036", "03968", "44.830", t)));
+
+        assertTrue(store.isWarm());
+        assertEquals(1, store.getVersion());
+        assertSame(store.get("601088"), store.get("01088"));
+        assertEquals(List.of("600036", "601088"),
+                store.getByTradeDate(TODAY).stream().map(LatestQuote::getAStockCode).toList());
+        assertTrue(store.getByTradeDate(TODAY.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    void testPublish_合并时保留较新记录() {
+        LatestQuoteStoreImpl store = new LatestQuoteStoreImpl();
+        LocalDateTime t1 = TODAY.atTime(10, 0);
+        LocalDateTime t2 = TODAY.atTime(10, 1);
+        store.publish(List.of(quote("601088", "01088", "40.500", t2), quote("600036", "03968", "44.830", t1)));
+        store.publish(List.of(quote("601088", "01088", "39.000", t1)));
+
+        assertEquals(2, store.getVersion());
+        assertEquals(new BigDecimal("40.500"), store.get("601088").getAStockPrice());
+        // 本周期未采集到的股票沿用上一份快照
+        assertNotNull(store.get("03968"));
+    }
+
+    @Test
+    void testReprice_按新汇率重算当日快照() {
+        LatestQuoteStoreImpl store = new LatestQuoteStoreImpl();
+        LocalDateTime t = TODAY.atTime(10, 0);
+        store.publish(List.of(quote("601088", "01088", "10.000", t), quote("600036", "03968", "10.000", t.minusDays(1))));
+        long version = store.getVersion();
+
+        BigDecimal rate = new BigDecimal("0.920000");
+        PremiumRateServiceImpl calculator = new PremiumRateServiceImpl();
+        int count = store.reprice(TODAY, rate,
+                q -> calculator.calculatePremiumRate(q.getAStockPrice(), q.getHStockPrice(), rate));
+
+        assertEquals(1, count);
+        assertEquals(version + 1, store.getVersion());
+        assertSame(store.get("601088"), store.get("01088"));
+        assertEquals(0, new BigDecimal("-8").compareTo(store.get("01088").getPremiumRate()));
+        assertEquals(0, rate.compareTo(store.get("601088").getExchangeRate()));
+        // 其他交易日的快照不变
+        assertEquals(0, new BigDecimal("-5").compareTo(store.get("600036").getPremiumRate()));
+    }
+}
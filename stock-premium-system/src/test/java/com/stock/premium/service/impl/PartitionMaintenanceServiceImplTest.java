@@ -0,0 +1,214 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.dto.TablePartition;
+import com.stock.premium.mapper.TablePartitionMapper;
+import com.stock.premium.service.SystemConfigService;
+import com.stock.premium.service.TickArchiveService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 明细表分区维护测试
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class PartitionMaintenanceServiceImplTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 17);
+
+    private static TablePartition partition(String name, String description) {
+        TablePartition partition = new TablePartition();
+        partition.setPartitionName(name);
+        partition.setPartitionDescription(description);
+        return partition;
+    }
+
+    @Test
+    void testPlan_新库从历史分区边界起按月补齐到预建月份() {
+        List<TablePartition> partitions = Arrays.asList(
+                partition("p_history", "'2026-08-01'"),
+                partition("p_future", "MAXVALUE"));
+
+        PartitionMaintenanceServiceImpl.Plan plan = PartitionMaintenanceServiceImpl.plan(partitions, TODAY, 2, 0);
+
+        assertEquals("p_future", plan.catchAll);
+        // 8月到12月，最后一个分区覆盖 10月 + 2个月
+        assertEquals(Arrays.asList(LocalDate.of(2026, 9, 1), LocalDate.of(2026, 10, 1), LocalDate.of(2026, 11, 1),
+                LocalDate.of(2026, 12, 1), LocalDate.of(2027, 1, 1)), plan.created);
+        assertEquals("p202608", PartitionMaintenanceServiceImpl.partitionName(plan.created.get(0)));
+        assertEquals("p202612", PartitionMaintenanceServiceImpl.partitionName(plan.created.get(4)));
+        assertTrue(plan.dropped.isEmpty());
+    }
+
+    @Test
+    void testPlan_已预建时不重复建分区() {
+        List<TablePartition> partitions = Arrays.asList(
+                partition("p202610", "'2026-11-01'"),
+                partition("p202611", "'2026-12-01'"),
+                partition("p202612", "'2027-01-01'"),
+                partition("p_future", "MAXVALUE"));
+
+        PartitionMaintenanceServiceImpl.Plan plan = PartitionMaintenanceServiceImpl.plan(partitions, TODAY, 2, 0);
+
+        assertTrue(plan.created.isEmpty());
+        assertTrue(plan.dropped.isEmpty());
+    }
+
+    @Test
+    void testPlan_整月都超出保留期的分区才删除() {
+        List<TablePartition> partitions = Arrays.asList(
+                partition("p_history", "'2024-01-01'"),
+                partition("p202409", "'2024-10-01'"),
+                partition("p202410", "'2024-11-01'"),
+                partition("p202612", "'2027-01-01'"),
+                partition("p_future", "MAXVALUE"));
+
+        PartitionMaintenanceServiceImpl.Plan plan = PartitionMaintenanceServiceImpl.plan(partitions, TODAY, 2, 24);
+
+        // 保留 2024-10-17 之后的数据，p202410 中仍有未过期的数据
+        assertEquals(Arrays.asList("p_history", "p202409"), plan.dropped);
+        assertEquals(LocalDate.of(2024, 10, 1), plan.dropBefore);
+        assertTrue(plan.created.isEmpty());
+    }
+
+    @Test
+    void testPlan_保留期为0时不删除() {
+        List<TablePartition> partitions = Arrays.asList(
+                partition("p_history", "'2020-01-01'"),
+                partition("p_future", "MAXVALUE"));
+
+        PartitionMaintenanceServiceImpl.Plan plan = PartitionMaintenanceServiceImpl.plan(partitions, TODAY, 0, 0);
+
+        assertTrue(plan.dropped.isEmpty());
+        assertEquals(LocalDate.of(2026, 11, 1), plan.created.get(plan.created.size() - 1));
+    }
+
+    @Test
+    void testMaintain_拆分兜底分区并删除过期分区() {
+        TablePartitionMapper mapper = mock(TablePartitionMapper.class);
+        when(mapper.selectPartitions(anyString())).thenReturn(Arrays.asList(
+                partition("p202409", "'2024-10-01'"),
+                partition("p202611", "'2026-12-01'"),
+                partition("p_future", "MAXVALUE")));
+        PartitionMaintenanceServiceImpl service = service(mapper, 24, 2);
+
+        Map<String, String> results = service.maintain(TODAY);
+
+        assertEquals(PartitionMaintenanceServiceImpl.PARTITIONED_TABLES, new ArrayList<>(results.keySet()));
+        for (String table : PartitionMaintenanceServiceImpl.PARTITIONED_TABLES) {
+            verify(mapper).reorganizePartition(table, "p_future",
+                    "PARTITION p202612 VALUES LESS THAN ('2027-01-01'), PARTITION p_future VALUES LESS THAN (MAXVALUE)");
+            verify(mapper).dropPartitions(table, "p202409");
+        }
+        verify(mapper, never()).addPartitions(anyString(), anyString());
+    }
+
+    @Test
+    void testMaintain_启用归档时先归档再删除() {
+        TablePartitionMapper mapper = mock(TablePartitionMapper.class);
+        when(mapper.selectPartitions(anyString())).thenReturn(Arrays.asList(
+                partition("p202409", "'2024-10-01'"),
+                partition("p202612", "'2027-01-01'"),
+                partition("p_future", "MAXVALUE")));
+        PartitionMaintenanceServiceImpl service = service(mapper, 24, 2);
+        TickArchiveService archive = mock(TickArchiveService.class);
+        when(archive.isEnabled()).thenReturn(true);
+        ReflectionTestUtils.setField(service, "tickArchiveService", archive);
+
+        service.maintain(TODAY);
+
+        verify(archive).archiveBefore("stock_price_record", LocalDate.of(2024, 10, 1));
+        verify(archive).archiveBefore("premium_rate_record", LocalDate.of(2024, 10, 1));
+        verify(mapper, times(2)).dropPartitions(anyString(), eq("p202409"));
+    }
+
+    @Test
+    void testMaintain_归档失败时不删除分区() {
+        TablePartitionMapper mapper = mock(TablePartitionMapper.class);
+        when(mapper.selectPartitions(anyString())).thenReturn(Arrays.asList(
+                partition("p202409", "'2024-10-01'"),
+                partition("p202612", "'2027-01-01'"),
+                partition("p_future", "MAXVALUE")));
+        PartitionMaintenanceServiceImpl service = service(mapper, 24, 2);
+        TickArchiveService archive = mock(TickArchiveService.class);
+        when(archive.isEnabled()).thenReturn(true);
+        when(archive.archiveBefore(anyString(), any())).thenThrow(new IllegalStateException("磁盘已满"));
+        ReflectionTestUtils.setField(service, "tickArchiveService", archive);
+
+        Map<String, String> results = service.maintain(TODAY);
+
+        assertTrue(results.get("stock_price_record").startsWith("失败"));
+        verify(mapper, never()).dropPartitions(anyString(), anyString());
+    }
+
+    @Test
+    void testMaintain_未分区的表跳过() {
+        TablePartitionMapper mapper = mock(TablePartitionMapper.class);
+        when(mapper.selectPartitions(anyString())).thenReturn(Collections.emptyList());
+        PartitionMaintenanceServiceImpl service = service(mapper, 12, 2);
+
+        assertEquals("未分区", service.maintain(TODAY).get("stock_price_record"));
+        verify(mapper, never()).reorganizePartition(anyString(), anyString(), anyString());
+        verify(mapper, never()).dropPartitions(anyString(), anyString());
+    }
+
+    @Test
+    void testMaintainMetadataOnly_兜底分区为空时预建且不删除() {
+        TablePartitionMapper mapper = mock(TablePartitionMapper.class);
+        when(mapper.selectPartitions(anyString())).thenReturn(Arrays.asList(
+                partition("p202409", "'2024-10-01'"),
+                partition("p202611", "'2026-12-01'"),
+                partition("p_future", "MAXVALUE")));
+        PartitionMaintenanceServiceImpl service = service(mapper, 24, 2);
+
+        Map<String, String> results = service.maintainMetadataOnly(TODAY);
+
+        assertEquals("新建[p202612]", results.get("premium_rate_record"));
+        verify(mapper).existsFrom("premium_rate_record", LocalDate.of(2026, 12, 1));
+        verify(mapper).reorganizePartition(eq("premium_rate_record"), eq("p_future"), anyString());
+        verify(mapper, never()).dropPartitions(anyString(), anyString());
+    }
+
+    @Test
+    void testMaintainMetadataOnly_兜底分区有数据时跳过() {
+        TablePartitionMapper mapper = mock(TablePartitionMapper.class);
+        when(mapper.selectPartitions(anyString())).thenReturn(Arrays.asList(
+                partition("p_history", "'2024-12-01'"),
+                partition("p_future", "MAXVALUE")));
+        when(mapper.existsFrom(anyString(), eq(LocalDate.of(2024, 12, 1)))).thenReturn(true);
+        PartitionMaintenanceServiceImpl service = service(mapper, 24, 2);
+
+        Map<String, String> results = service.maintainMetadataOnly(TODAY);
+
+        assertEquals("兜底分区有数据，跳过", results.get("stock_price_record"));
+        verify(mapper, never()).reorganizePartition(anyString(), anyString(), anyString());
+        verify(mapper, never()).dropPartitions(anyString(), anyString());
+    }
+
+    private static PartitionMaintenanceServiceImpl service(TablePartitionMapper mapper, int retentionMonths, int aheadMonths) {
+        SystemConfigService config = mock(SystemConfigService.class);
+        when(config.getIntValue(eq(PartitionMaintenanceServiceImpl.CONFIG_RETENTION_MONTHS), anyInt())).thenReturn(retentionMonths);
+        when(config.getIntValue(eq(PartitionMaintenanceServiceImpl.CONFIG_AHEAD_MONTHS), anyInt())).thenReturn(aheadMonths);
+
+        PartitionMaintenanceServiceImpl service = new PartitionMaintenanceServiceImpl();
+        ReflectionTestUtils.setField(service, "tablePartitionMapper", mapper);
+        ReflectionTestUtils.setField(service, "systemConfigService", config);
+        ReflectionTestUtils.setField(service, "tickArchiveService", mock(TickArchiveService.class));
+        return service;
+    }
+}
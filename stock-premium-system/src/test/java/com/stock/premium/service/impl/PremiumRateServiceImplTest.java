@@ -0,0 +1,98 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.entity.PremiumRateRecord;
+import com.stock.premium.mapper.PremiumRateRecordMapper;
+import com.stock.premium.service.TickArchiveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 溢价率历史分页查询测试
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class PremiumRateServiceImplTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 9, 1);
+
+    private static final LocalDate END = LocalDate.of(2024, 10, 1);
+
+    private static final LocalDate FIRST_IN_DB = LocalDate.of(2024, 9, 20);
+
+    private PremiumRateRecordMapper premiumMapper;
+
+    private TickArchiveService tickArchiveService;
+
+    private PremiumRateServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        premiumMapper = mock(PremiumRateRecordMapper.class);
+        tickArchiveService = mock(TickArchiveService.class);
+        when(tickArchiveService.isEnabled()).thenReturn(true);
+        when(premiumMapper.selectFirstTradeDate("601088", START, END)).thenReturn(FIRST_IN_DB);
+
+        service = new PremiumRateServiceImpl();
+        ReflectionTestUtils.setField(service, "baseMapper", premiumMapper);
+        ReflectionTestUtils.setField(service, "tickArchiveService", tickArchiveService);
+        ReflectionTestUtils.setField(service, "historyMaxDays", 31);
+    }
+
+    private static PremiumRateRecord premium(LocalDate tradeDate) {
+        PremiumRateRecord record = new PremiumRateRecord();
+        record.setStockCode("601088");
+        record.setTradeDate(tradeDate);
+        record.setRecordTime(tradeDate.atTime(10, 0));
+        return record;
+    }
+
+    @Test
+    void testGetPremiumRateHistory_归档取满一页时不查数据库() {
+        when(tickArchiveService.readPremiums("601088", START, FIRST_IN_DB.minusDays(1), 20, 2))
+                .thenReturn(List.of(premium(START), premium(START)));
+
+        assertEquals(2, service.getPremiumRateHistory("601088", START, END, 20, 2).size());
+
+        verify(tickArchiveService, never()).countPremiums(anyString(), any(), any());
+        verify(premiumMapper, never()).selectPageByStockAndDateRange(anyString(), any(), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void testGetPremiumRateHistory_归档不足一页时数据库按归档总数续接() {
+        when(tickArchiveService.readPremiums("601088", START, FIRST_IN_DB.minusDays(1), 20, 5))
+                .thenReturn(List.of(premium(START)));
+        when(tickArchiveService.countPremiums("601088", START, FIRST_IN_DB.minusDays(1))).thenReturn(21L);
+        when(premiumMapper.selectPageByStockAndDateRange("601088", FIRST_IN_DB, END, 0, 4))
+                .thenReturn(List.of(premium(FIRST_IN_DB)));
+
+        List<PremiumRateRecord> records = service.getPremiumRateHistory("601088", START, END, 20, 5);
+
+        assertEquals(List.of(START, FIRST_IN_DB), List.of(records.get(0).getTradeDate(), records.get(1).getTradeDate()));
+
+        // 翻过归档部分后从数据库的对应位置开始
+        when(tickArchiveService.readPremiums("601088", START, FIRST_IN_DB.minusDays(1), 30, 5))
+                .thenReturn(Collections.emptyList());
+        service.getPremiumRateHistory("601088", START, END, 30, 5);
+        verify(premiumMapper).selectPageByStockAndDateRange("601088", FIRST_IN_DB, END, 9, 5);
+    }
+
+    @Test
+    void testGetPremiumRateHistory_日期范围超过上限时拒绝() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getPremiumRateHistory("601088", START, START.plusDays(31), 0, 20));
+        verifyNoInteractions(premiumMapper, tickArchiveService);
+    }
+}
@@ -0,0 +1,188 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.entity.ExchangeRateRecord;
+import com.stock.premium.entity.PremiumRateRecord;
+import com.stock.premium.entity.StockPriceRecord;
+import com.stock.premium.mapper.ExchangeRateRecordMapper;
+import com.stock.premium.mapper.PremiumRateRecordMapper;
+import com.stock.premium.service.DailyStatsService;
+import com.stock.premium.service.DataCollectionService;
+import com.stock.premium.service.LatestQuoteStore;
+import com.stock.premium.service.TickPersistenceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 历史溢价率重算（按时刻取汇率）测试
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class PremiumRecomputeServiceImplTest {
+
+    private PremiumRecomputeServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PremiumRecomputeServiceImpl();
+        ReflectionTestUtils.setField(service, "premiumRateService", new PremiumRateServiceImpl());
+    }
+
+    private static LocalDateTime at(int day, int hour, int minute) {
+        return LocalDateTime.of(2025, 1, day, hour, minute);
+    }
+
+    private static StockPriceRecord price(String code, LocalDateTime time, String price) {
+        StockPriceRecord record = new StockPriceRecord();
+        record.setStockCode(code);
+        record.setCurrentPrice(new BigDecimal(price));
+        record.setRecordTime(time);
+        record.setTradeDate(time.toLocalDate());
+        return record;
+    }
+
+    private static ExchangeRateRecord rate(LocalDateTime time, String rate) {
+        ExchangeRateRecord record = new ExchangeRateRecord();
+        record.setCurrencyPair("HKDCNY");
+        record.setRate(new BigDecimal(rate));
+        record.setRecordTime(time);
+        return record;
+    }
+
+    @Test
+    void testBuildPremiumRecords_每个tick使用当时生效的汇率() {
+        NavigableMap<LocalDateTime, BigDecimal> rates = PremiumRecomputeServiceImpl.toRateTimeline(List.of(
+                rate(at(2, 9, 0), "0.900000"),
+                rate(at(2, 11, 0), "0.920000")));
+
+        List<StockPriceRecord> aPrices = List.of(
+                price("601088", at(2, 10, 0), "10.000"),
+                price("601088", at(2, 11, 0), "10.000"),
+                price("601088", at(2, 14, 0), "10.000"));
+        List<StockPriceRecord> hPrices = List.of(
+                price("01088", at(2, 10, 0), "10.000"),
+                price("01088", at(2, 11, 0), "10.000"));
+
+        PremiumRecomputeServiceImpl.Counters counters = new PremiumRecomputeServiceImpl.Counters();
+        List<PremiumRateRecord> records = service.buildPremiumRecords("601088", aPrices, hPrices, rates, counters);
+
+        assertEquals(3, records.size());
+        assertEquals(0, new BigDecimal("0.9").compareTo(records.get(0).getExchangeRate()));
+        assertEquals(0, new BigDecimal("-10").compareTo(records.get(0).getPremiumRate()));
+        // 11:00 汇率调整当刻即生效
+        assertEquals(0, new BigDecimal("0.92").compareTo(records.get(1).getExchangeRate()));
+        // 14:00 没有同一时刻的H股价格，取之前最近的一条
+        assertEquals(0, new BigDecimal("-8").compareTo(records.get(2).getPremiumRate()));
+        assertEquals(at(2, 14, 0), records.get(2).getRecordTime());
+        assertEquals(0, counters.missingPrice.sum());
+        assertEquals(0, counters.missingRate.sum());
+    }
+
+    @Test
+    void testBuildPremiumRecords_H股价格不跨日且早于首条汇率时用最早汇率() {
+        NavigableMap<LocalDateTime, BigDecimal> rates = PremiumRecomputeServiceImpl.toRateTimeline(List.of(
+                rate(at(3, 10, 0), "0.910000")));
+
+        List<StockPriceRecord> aPrices = List.of(
+                price("601088", at(3, 9, 30), "10.000"),
+                price("601088", at(3, 9, 35), "10.000"));
+        List<StockPriceRecord> hPrices = List.of(
+                price("01088", at(2, 15, 0), "10.000"),
+                price("01088", at(3, 9, 35), "10.000"));
+
+        PremiumRecomputeServiceImpl.Counters counters = new PremiumRecomputeServiceImpl.Counters();
+        List<PremiumRateRecord> records = service.buildPremiumRecords("601088", aPrices, hPrices, rates, counters);
+
+        assertEquals(1, records.size());
+        assertEquals(0, new BigDecimal("0.91").compareTo(records.get(0).getExchangeRate()));
+        // 前一日15:00的H股tick当日没有A股价格，9:30的A股tick当日没有H股价格
+        assertEquals(2, counters.missingPrice.sum());
+        assertEquals(1, counters.missingRate.sum());
+    }
+
+    @Test
+    void testBuildPremiumRecords_只有H股变化的tick也生成记录() {
+        NavigableMap<LocalDateTime, BigDecimal> rates = PremiumRecomputeServiceImpl.toRateTimeline(List.of(
+                rate(at(2, 9, 0), "0.900000")));
+
+        List<StockPriceRecord> aPrices = List.of(
+                price("601088", at(2, 10, 0), "10.000"));
+        List<StockPriceRecord> hPrices = List.of(
+                price("01088", at(2, 10, 0), "10.000"),
+                price("01088", at(2, 10, 5), "11.000"),
+                price("01088", at(2, 10, 10), "12.000"));
+
+        PremiumRecomputeServiceImpl.Counters counters = new PremiumRecomputeServiceImpl.Counters();
+        List<PremiumRateRecord> records = service.buildPremiumRecords("601088", aPrices, hPrices, rates, counters);
+
+        assertEquals(3, records.size());
+        assertEquals(List.of(at(2, 10, 0), at(2, 10, 5), at(2, 10, 10)),
+                List.of(records.get(0).getRecordTime(), records.get(1).getRecordTime(), records.get(2).getRecordTime()));
+        // A股价格沿用10:00的一条
+        assertEquals(0, new BigDecimal("10").compareTo(records.get(2).getAStockPrice()));
+        assertEquals(0, new BigDecimal("12").compareTo(records.get(2).getHStockPrice()));
+        assertEquals(0, new BigDecimal("8").compareTo(records.get(2).getPremiumRate()));
+        assertEquals(0, counters.missingPrice.sum());
+    }
+
+    @Test
+    void testRecompute_日期范围包含今天时拒绝() {
+        ReflectionTestUtils.setField(service, "maxDays", 31);
+        ExchangeRateRecordMapper exchangeRateRecordMapper = mock(ExchangeRateRecordMapper.class);
+        ReflectionTestUtils.setField(service, "exchangeRateRecordMapper", exchangeRateRecordMapper);
+        LocalDate today = LocalDate.now();
+
+        assertThrows(IllegalArgumentException.class, () -> service.recompute(today.minusDays(3), today));
+        assertThrows(IllegalArgumentException.class, () -> service.recompute(today, today));
+        verifyNoInteractions(exchangeRateRecordMapper);
+    }
+
+    @Test
+    void testApplyManualRate_等待采集周期结束后落库并补正旧汇率明细() {
+        DataCollectionService dataCollectionService = mock(DataCollectionService.class);
+        TickPersistenceService tickPersistenceService = mock(TickPersistenceService.class);
+        PremiumRateRecordMapper premiumRateRecordMapper = mock(PremiumRateRecordMapper.class);
+        DailyStatsService dailyStatsService = mock(DailyStatsService.class);
+        ReflectionTestUtils.setField(service, "dataCollectionService", dataCollectionService);
+        ReflectionTestUtils.setField(service, "tickPersistenceService", tickPersistenceService);
+        ReflectionTestUtils.setField(service, "premiumRateRecordMapper", premiumRateRecordMapper);
+        ReflectionTestUtils.setField(service, "dailyStatsService", dailyStatsService);
+        ReflectionTestUtils.setField(service, "latestQuoteStore", mock(LatestQuoteStore.class));
+
+        AtomicBoolean betweenCycles = new AtomicBoolean();
+        when(dataCollectionService.runBetweenCycles(any())).thenAnswer(invocation -> {
+            betweenCycles.set(true);
+            try {
+                return ((Supplier<?>) invocation.getArgument(0)).get();
+            } finally {
+                betweenCycles.set(false);
+            }
+        });
+        when(tickPersistenceService.flush()).thenAnswer(invocation -> {
+            assertTrue(betweenCycles.get(), "刷写应在采集周期之间执行");
+            return 0;
+        });
+        BigDecimal manual = new BigDecimal("0.930000");
+        when(premiumRateRecordMapper.updateExchangeRateSince(at(2, 10, 30).toLocalDate(), at(2, 10, 30), manual))
+                .thenReturn(5);
+
+        assertEquals(5, service.applyManualRate(at(2, 10, 30), manual));
+
+        verify(tickPersistenceService).flush();
+        verify(dailyStatsService).invalidateAccumulators(at(2, 10, 30).toLocalDate());
+        verify(premiumRateRecordMapper, never()).updateExchangeRateByDate(any(), any());
+    }
+}
@@ -0,0 +1,163 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.entity.StockInfo;
+import com.stock.premium.mapper.StockInfoMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 股票基础信息内存索引测试
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class StockInfoRegistryImplTest {
+
+    private StockInfoMapper stockInfoMapper;
+
+    private StockInfoRegistryImpl registry;
+
+    @BeforeEach
+    void setUp() {
+        StockInfo stock = new StockInfo();
+        stock.setStockName("中国神华");
+        stock.setAStockCode("601088");
+        stock.setHStockCode("01088");
+
+        stockInfoMapper = mock(StockInfoMapper.class);
+        when(stockInfoMapper.selectList(any())).thenReturn(List.of(stock));
+        when(stockInfoMapper.selectChangeVersion()).thenReturn("1@2024-01-01 00:00:00");
+
+        registry = new StockInfoRegistryImpl();
+        ReflectionTestUtils.setField(registry, "stockInfoMapper", stockInfoMapper);
+        ReflectionTestUtils.setField(registry, "negativeTtlSeconds", 600L);
+        ReflectionTestUtils.setField(registry, "negativeMaxSize", 100);
+    }
+
+    @Test
+    void testGet_按A股和H股代码命中() {
+        assertSame(registry.get("601088"), registry.get("01088"));
+        assertNull(registry.get("600036"));
+        registry.getActiveStocks();
+        verify(stockInfoMapper, times(1)).selectList(any());
+    }
+
+    @Test
+    void testResolve_未知代码负缓存() {
+        AtomicInteger loads = new AtomicInteger();
+        assertNull(registry.resolve("999999", code -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertNull(registry.resolve("999999", code -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertEquals(1, loads.get());
+
+        // 失效后负缓存清空
+        registry.invalidate();
+        registry.resolve("999999", code -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testResolve_并发未命中只加载一次() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        StockInfo loaded = new StockInfo();
+        loaded.setAStockCode("600036");
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<StockInfo>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> registry.resolve("600036", code -> {
+                    loads.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return loaded;
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<StockInfo> result : results) {
+                assertSame(loaded, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testResolve_加载失败时加载线程和等待线程都返回null() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<StockInfo> leader = pool.submit(() -> registry.resolve("600036", code -> {
+                loads.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IllegalStateException("行情接口不可用");
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<StockInfo> waiter = pool.submit(() -> registry.resolve("600036", code -> {
+                loads.incrementAndGet();
+                return null;
+            }));
+            Thread.sleep(200);
+            release.countDown();
+
+            assertNull(leader.get(5, TimeUnit.SECONDS));
+            assertNull(waiter.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+
+        // 失败不记入负缓存，下次重新加载
+        StockInfo loaded = new StockInfo();
+        assertSame(loaded, registry.resolve("600036", code -> loaded));
+    }
+
+    @Test
+    void testRefreshIfChanged_版本变化时重新加载() {
+        registry.get("601088");
+        registry.refreshIfChanged();
+        registry.get("601088");
+        verify(stockInfoMapper, times(1)).selectList(any());
+
+        when(stockInfoMapper.selectChangeVersion()).thenReturn("2@2024-01-02 00:00:00");
+        registry.refreshIfChanged();
+        registry.get("601088");
+        verify(stockInfoMapper, times(2)).selectList(any());
+    }
+}
@@ -0,0 +1,42 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.metrics.CollectionMetrics;
+import com.stock.premium.utils.TencentQuoteClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 腾讯财经API分批请求测试
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class TencentFinanceServiceImplTest {
+
+    @Test
+    void testInit_批次大小和并发数小于1时按1处理() {
+        TencentQuoteClient client = mock(TencentQuoteClient.class);
+        when(client.fetchBytes(anyString())).thenReturn(Mono.just(new byte[0]));
+        TencentFinanceServiceImpl service = new TencentFinanceServiceImpl();
+        ReflectionTestUtils.setField(service, "tencentQuoteClient", client);
+        ReflectionTestUtils.setField(service, "collectionMetrics", new CollectionMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(service, "batchSize", 0);
+        ReflectionTestUtils.setField(service, "batchConcurrency", -1);
+
+        service.init();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> service.getBatchStockPrices(List.of("601088", "601318", "01088")));
+        // 每个代码单独一批
+        verify(client, times(3)).fetchBytes(anyString());
+    }
+}
@@ -0,0 +1,217 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.entity.PremiumRateRecord;
+import com.stock.premium.entity.StockPriceRecord;
+import com.stock.premium.mapper.PremiumRateRecordMapper;
+import com.stock.premium.mapper.StockPriceRecordMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 明细列式归档测试
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class TickArchiveServiceImplTest {
+
+    private static final LocalDate SEP_2 = LocalDate.of(2024, 9, 2);
+
+    private static final LocalDate SEP_3 = LocalDate.of(2024, 9, 3);
+
+    @TempDir
+    Path dir;
+
+    private StockPriceRecordMapper priceMapper;
+
+    private PremiumRateRecordMapper premiumMapper;
+
+    private TickArchiveServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        priceMapper = mock(StockPriceRecordMapper.class);
+        premiumMapper = mock(PremiumRateRecordMapper.class);
+        service = new TickArchiveServiceImpl();
+        ReflectionTestUtils.setField(service, "stockPriceRecordMapper", priceMapper);
+        ReflectionTestUtils.setField(service, "premiumRateRecordMapper", premiumMapper);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "archiveDir", dir.toString());
+    }
+
+    private static StockPriceRecord price(LocalDate tradeDate, int second, String currentPrice) {
+        StockPriceRecord record = new StockPriceRecord();
+        record.setId(100L + second);
+        record.setStockCode("601088");
+        record.setMarketType("A");
+        record.setCurrentPrice(new BigDecimal(currentPrice));
+        record.setOpenPrice(new BigDecimal("5.100"));
+        record.setHighPrice(new BigDecimal("5.200"));
+        record.setLowPrice(new BigDecimal("5.050"));
+        record.setPreClosePrice(new BigDecimal("5.080"));
+        record.setVolume(123456L + second);
+        record.setTurnover(new BigDecimal("63210.50"));
+        record.setChangeRate(new BigDecimal("0.787"));
+        record.setRecordTime(tradeDate.atTime(9, 30, second));
+        record.setTradeDate(tradeDate);
+        record.setDataSource("TENCENT");
+        return record;
+    }
+
+    private static PremiumRateRecord premium(LocalDate tradeDate, int second) {
+        PremiumRateRecord record = new PremiumRateRecord();
+        record.setStockCode("601088");
+        record.setAStockPrice(new BigDecimal("36.120"));
+        record.setHStockPrice(new BigDecimal("27.650"));
+        record.setExchangeRate(new BigDecimal("0.915123"));
+        record.setPremiumRate(new BigDecimal("-29.9507"));
+        record.setRecordTime(tradeDate.atTime(10, 0, second));
+        record.setTradeDate(tradeDate);
+        return record;
+    }
+
+    @Test
+    void testArchiveBefore_按月按股票写文件并可读回() {
+        List<StockPriceRecord> records = Arrays.asList(price(SEP_2, 0, "5.120"), price(SEP_2, 3, "5.130"), price(SEP_3, 0, "5.110"));
+        when(priceMapper.selectMinTradeDateBefore(LocalDate.of(2024, 10, 1))).thenReturn(SEP_2);
+        when(priceMapper.selectStockCodesByDateRange(LocalDate.of(2024, 9, 1), LocalDate.of(2024, 9, 30)))
+                .thenReturn(Collections.singletonList("601088"));
+        when(priceMapper.selectByStockAndDateRange("601088", LocalDate.of(2024, 9, 1), LocalDate.of(2024, 9, 30)))
+                .thenReturn(records);
+
+        assertEquals(3, service.archiveBefore(TickArchiveServiceImpl.STOCK_PRICE_TABLE, LocalDate.of(2024, 10, 1)));
+        assertTrue(Files.isRegularFile(dir.resolve("stock_price_record/202409/601088" + TickArchiveServiceImpl.FILE_SUFFIX)));
+        assertFalse(Files.exists(dir.resolve("stock_price_record/202409.tmp")));
+
+        List<StockPriceRecord> read = service.readPrices("601088", SEP_2, SEP_2);
+        assertEquals(2, read.size());
+        StockPriceRecord first = read.get(0);
+        StockPriceRecord expected = records.get(0);
+        // id 和 created_time 不归档
+        assertNull(first.getId());
+        expected.setId(null);
+        assertEquals(expected, first);
+        assertEquals(new BigDecimal("5.130"), read.get(1).getCurrentPrice());
+    }
+
+    @Test
+    void testArchiveBefore_已归档的月份跳过() throws Exception {
+        Files.createDirectories(dir.resolve("premium_rate_record/202409"));
+        when(premiumMapper.selectMinTradeDateBefore(any())).thenReturn(SEP_2);
+        when(premiumMapper.selectStockCodesByDateRange(LocalDate.of(2024, 10, 1), LocalDate.of(2024, 10, 31)))
+                .thenReturn(Collections.singletonList("601088"));
+        when(premiumMapper.selectByStockAndDateRange(anyString(), any(), any()))
+                .thenReturn(Collections.singletonList(premium(LocalDate.of(2024, 10, 8), 0)));
+
+        assertEquals(1, service.archiveBefore(TickArchiveServiceImpl.PREMIUM_RATE_TABLE, LocalDate.of(2024, 11, 1)));
+        verify(premiumMapper, never()).selectStockCodesByDateRange(LocalDate.of(2024, 9, 1), LocalDate.of(2024, 9, 30));
+
+        List<PremiumRateRecord> read = service.readPremiums("601088", LocalDate.of(2024, 9, 1), LocalDate.of(2024, 10, 31));
+        assertEquals(Collections.singletonList(premium(LocalDate.of(2024, 10, 8), 0)), read);
+    }
+
+    @Test
+    void testArchiveBefore_残留的临时目录重新写入() throws Exception {
+        Path staging = Files.createDirectories(dir.resolve("stock_price_record/202409.tmp"));
+        Files.write(staging.resolve("000001" + TickArchiveServiceImpl.FILE_SUFFIX), new byte[]{1, 2, 3});
+        when(priceMapper.selectMinTradeDateBefore(any())).thenReturn(SEP_2);
+        when(priceMapper.selectStockCodesByDateRange(any(), any())).thenReturn(Collections.singletonList("601088"));
+        when(priceMapper.selectByStockAndDateRange(anyString(), any(), any()))
+                .thenReturn(Collections.singletonList(price(SEP_2, 0, "5.120")));
+
+        service.archiveBefore(TickArchiveServiceImpl.STOCK_PRICE_TABLE, LocalDate.of(2024, 10, 1));
+
+        assertFalse(Files.exists(staging));
+        assertFalse(Files.exists(dir.resolve("stock_price_record/202409/000001" + TickArchiveServiceImpl.FILE_SUFFIX)));
+    }
+
+    @Test
+    void testArchiveBefore_没有早于截止日期的数据() {
+        assertEquals(0, service.archiveBefore(TickArchiveServiceImpl.STOCK_PRICE_TABLE, LocalDate.of(2024, 10, 1)));
+        verify(priceMapper, never()).selectStockCodesByDateRange(any(), any());
+    }
+
+    @Test
+    void testArchiveBefore_截止日期不是月初或表不支持时报错() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.archiveBefore(TickArchiveServiceImpl.STOCK_PRICE_TABLE, LocalDate.of(2024, 10, 2)));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.archiveBefore("daily_premium_stats", LocalDate.of(2024, 10, 1)));
+    }
+
+    @Test
+    void testRead_未启用或代码不合法时为空() throws Exception {
+        Files.createDirectories(dir.resolve("stock_price_record/202409"));
+        TickArchiveServiceImpl.writePriceFile(Collections.singletonList(price(SEP_2, 0, "5.120")),
+                dir.resolve("stock_price_record/202409/601088" + TickArchiveServiceImpl.FILE_SUFFIX));
+
+        assertEquals(1, service.readPrices("601088", SEP_2, SEP_2).size());
+        assertTrue(service.readPrices("../202409/601088", SEP_2, SEP_2).isEmpty());
+        assertTrue(service.readPrices("601088", SEP_3, SEP_3).isEmpty());
+        ReflectionTestUtils.setField(service, "enabled", false);
+        assertTrue(service.readPrices("601088", SEP_2, SEP_2).isEmpty());
+    }
+
+    @Test
+    void testReadPrices_跨月合并() throws Exception {
+        Files.createDirectories(dir.resolve("stock_price_record/202409"));
+        Files.createDirectories(dir.resolve("stock_price_record/202410"));
+        TickArchiveServiceImpl.writePriceFile(Collections.singletonList(price(LocalDate.of(2024, 9, 30), 0, "5.120")),
+                dir.resolve("stock_price_record/202409/601088" + TickArchiveServiceImpl.FILE_SUFFIX));
+        TickArchiveServiceImpl.writePriceFile(Collections.singletonList(price(LocalDate.of(2024, 10, 8), 0, "5.300")),
+                dir.resolve("stock_price_record/202410/601088" + TickArchiveServiceImpl.FILE_SUFFIX));
+
+        List<StockPriceRecord> read = service.readPrices("601088", LocalDate.of(2024, 9, 30), LocalDate.of(2024, 10, 8));
+
+        assertEquals(Arrays.asList(LocalDateTime.of(2024, 9, 30, 9, 30), LocalDateTime.of(2024, 10, 8, 9, 30)),
+                Arrays.asList(read.get(0).getRecordTime(), read.get(1).getRecordTime()));
+    }
+
+    @Test
+    void testReadPremiums_分页跳过整月且取满后不再读取() throws Exception {
+        Files.createDirectories(dir.resolve("premium_rate_record/202409"));
+        Files.createDirectories(dir.resolve("premium_rate_record/202410"));
+        TickArchiveServiceImpl.writePremiumFile(Arrays.asList(premium(SEP_2, 0), premium(SEP_2, 1), premium(SEP_3, 0)),
+                dir.resolve("premium_rate_record/202409/601088" + TickArchiveServiceImpl.FILE_SUFFIX));
+        TickArchiveServiceImpl.writePremiumFile(Arrays.asList(premium(LocalDate.of(2024, 10, 8), 0), premium(LocalDate.of(2024, 10, 8), 1)),
+                dir.resolve("premium_rate_record/202410/601088" + TickArchiveServiceImpl.FILE_SUFFIX));
+        LocalDate start = LocalDate.of(2024, 9, 1);
+        LocalDate end = LocalDate.of(2024, 10, 31);
+
+        assertEquals(Arrays.asList(premium(SEP_2, 1), premium(SEP_3, 0)), service.readPremiums("601088", start, end, 1, 2));
+        assertEquals(Collections.singletonList(premium(LocalDate.of(2024, 10, 8), 1)), service.readPremiums("601088", start, end, 4, 20));
+        // 9月取满后不读10月，10月文件损坏也不影响
+        Files.write(dir.resolve("premium_rate_record/202410/601088" + TickArchiveServiceImpl.FILE_SUFFIX), new byte[]{1, 2, 3});
+        assertEquals(3, service.readPremiums("601088", start, end, 0, 3).size());
+        assertEquals(2, service.countPremiums("601088", SEP_2, SEP_2));
+    }
+
+    @Test
+    void testArchive_多实例部署未声明共享目录时拒绝归档和读取() {
+        ReflectionTestUtils.setField(service, "scheduleMode", "quartz");
+
+        assertThrows(IllegalStateException.class,
+                () -> service.archiveBefore(TickArchiveServiceImpl.PREMIUM_RATE_TABLE, LocalDate.of(2024, 10, 1)));
+        assertThrows(IllegalStateException.class, () -> service.readPremiums("601088", SEP_2, SEP_2));
+        verifyNoInteractions(premiumMapper);
+
+        ReflectionTestUtils.setField(service, "shared", true);
+        assertTrue(service.readPremiums("601088", SEP_2, SEP_2).isEmpty());
+    }
+}
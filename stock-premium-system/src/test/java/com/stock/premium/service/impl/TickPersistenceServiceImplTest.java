@@ -0,0 +1,131 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.entity.PremiumRateRecord;
+import com.stock.premium.entity.StockPriceRecord;
+import com.stock.premium.mapper.LatestPremiumSnapshotMapper;
+import com.stock.premium.mapper.PremiumRateRecordMapper;
+import com.stock.premium.mapper.StockPriceRecordMapper;
+import com.stock.premium.metrics.CollectionMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 行情写缓冲测试
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class TickPersistenceServiceImplTest {
+
+    private StockPriceRecordMapper priceMapper;
+
+    private PremiumRateRecordMapper premiumMapper;
+
+    private SimpleMeterRegistry registry;
+
+    private TickPersistenceServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        priceMapper = mock(StockPriceRecordMapper.class);
+        premiumMapper = mock(PremiumRateRecordMapper.class);
+        registry = new SimpleMeterRegistry();
+
+        service = new TickPersistenceServiceImpl();
+        ReflectionTestUtils.setField(service, "stockPriceRecordMapper", priceMapper);
+        ReflectionTestUtils.setField(service, "premiumRateRecordMapper", premiumMapper);
+        ReflectionTestUtils.setField(service, "latestPremiumSnapshotMapper", mock(LatestPremiumSnapshotMapper.class));
+        ReflectionTestUtils.setField(service, "transactionTemplate", new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(service, "collectionMetrics", new CollectionMetrics(registry));
+        ReflectionTestUtils.setField(service, "batchSize", 500);
+        ReflectionTestUtils.setField(service, "flushIntervalMillis", 60_000L);
+        ReflectionTestUtils.setField(service, "queueCapacity", 100);
+        ReflectionTestUtils.setField(service, "maxRetries", 2);
+        ReflectionTestUtils.setField(service, "retryBackoffMillis", 1L);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reset(priceMapper, premiumMapper);
+        service.destroy();
+    }
+
+    private double dropped(String table) {
+        Counter counter = registry.find("premium.persist.dropped").tag("table", table).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    @Test
+    void testFlush_写入失败后由刷写线程重试成功不丢弃() {
+        when(priceMapper.insertBatch(anyList()))
+                .thenThrow(new TransientDataAccessResourceException("连接中断"))
+                .thenReturn(1);
+        service.submit(new StockPriceRecord());
+
+        // 调用线程只尝试一次，失败批次留待重试
+        assertEquals(0, service.flush());
+        verify(priceMapper, timeout(1000).times(2)).insertBatch(anyList());
+        // 获取刷写锁，等待重试完成
+        service.flush();
+        assertEquals(0, service.getPendingCount());
+        assertEquals(0, dropped("stock_price_record"));
+    }
+
+    @Test
+    void testFlush_重试用尽后丢弃并计数() {
+        when(priceMapper.insertBatch(anyList())).thenThrow(new TransientDataAccessResourceException("连接中断"));
+        service.submit(new StockPriceRecord());
+        service.submit(new PremiumRateRecord());
+
+        assertEquals(0, service.flush());
+        // 首次写入 + 2次重试
+        verify(priceMapper, timeout(1000).times(3)).insertBatch(anyList());
+        service.flush();
+        assertEquals(0, service.getPendingCount());
+        assertEquals(1, dropped("stock_price_record"));
+        assertEquals(1, dropped("premium_rate_record"));
+    }
+
+    @Test
+    void testFlush_写入失败时本轮停止且不在调用线程等待退避() {
+        when(priceMapper.insertBatch(anyList())).thenThrow(new TransientDataAccessResourceException("连接中断"));
+        ReflectionTestUtils.setField(service, "retryBackoffMillis", 60_000L);
+        for (int i = 0; i < 50; i++) {
+            service.submit(new StockPriceRecord());
+        }
+        ReflectionTestUtils.setField(service, "batchSize", 10);
+
+        long start = System.currentTimeMillis();
+        assertEquals(0, service.flush());
+        // 未到重试时间，不再写入
+        assertEquals(0, service.flush());
+
+        assertTrue(System.currentTimeMillis() - start < 5_000);
+        verify(priceMapper, times(1)).insertBatch(anyList());
+        assertEquals(50, service.getPendingCount());
+        assertEquals(0, dropped("stock_price_record"));
+    }
+
+    @Test
+    void testSubmit_队列已满时丢弃并计数且通知刷写线程() {
+        when(priceMapper.insertBatch(anyList())).thenReturn(100);
+        for (int i = 0; i < 101; i++) {
+            service.submit(new StockPriceRecord());
+        }
+
+        assertEquals(1, dropped("stock_price_record"));
+        verify(priceMapper, timeout(1000)).insertBatch(argThat(list -> list.size() == 100));
+    }
+}
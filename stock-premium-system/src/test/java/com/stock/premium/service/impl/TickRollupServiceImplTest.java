@@ -0,0 +1,144 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.entity.PremiumRateRecord;
+import com.stock.premium.mapper.PremiumRateMinuteBarMapper;
+import com.stock.premium.mapper.PremiumRateRecordMapper;
+import com.stock.premium.mapper.StockPriceMinuteBarMapper;
+import com.stock.premium.mapper.StockPriceRecordMapper;
+import com.stock.premium.service.SystemConfigService;
+import com.stock.premium.service.TradingSessionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 明细分钟线汇总测试
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class TickRollupServiceImplTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 10, 31);
+
+    private static final LocalDate FRIDAY = LocalDate.of(2024, 9, 27);
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 9, 30);
+
+    private StockPriceRecordMapper priceMapper;
+
+    private PremiumRateRecordMapper premiumMapper;
+
+    private PremiumRateMinuteBarMapper premiumBarMapper;
+
+    private SystemConfigService config;
+
+    private TradingSessionService tradingSession;
+
+    private TickRollupServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        priceMapper = mock(StockPriceRecordMapper.class);
+        premiumMapper = mock(PremiumRateRecordMapper.class);
+        premiumBarMapper = mock(PremiumRateMinuteBarMapper.class);
+        config = mock(SystemConfigService.class);
+        tradingSession = mock(TradingSessionService.class);
+        when(config.getIntValue(eq(TickRollupServiceImpl.CONFIG_AFTER_DAYS), anyInt())).thenReturn(30);
+
+        service = new TickRollupServiceImpl();
+        ReflectionTestUtils.setField(service, "stockPriceRecordMapper", priceMapper);
+        ReflectionTestUtils.setField(service, "premiumRateRecordMapper", premiumMapper);
+        ReflectionTestUtils.setField(service, "stockPriceMinuteBarMapper", mock(StockPriceMinuteBarMapper.class));
+        ReflectionTestUtils.setField(service, "premiumRateMinuteBarMapper", premiumBarMapper);
+        ReflectionTestUtils.setField(service, "systemConfigService", config);
+        ReflectionTestUtils.setField(service, "tradingSessionService", tradingSession);
+        ReflectionTestUtils.setField(service, "deleteBatchSize", 2);
+        ReflectionTestUtils.setField(service, "batchPause", 0L);
+    }
+
+    private static PremiumRateRecord premium(LocalDate tradeDate, int minute) {
+        PremiumRateRecord record = new PremiumRateRecord();
+        record.setStockCode("601088");
+        record.setAStockPrice(new BigDecimal("36.120"));
+        record.setHStockPrice(new BigDecimal("27.650"));
+        record.setExchangeRate(new BigDecimal("0.915123"));
+        record.setPremiumRate(new BigDecimal("-29.9507"));
+        record.setRecordTime(tradeDate.atTime(10, minute));
+        record.setTradeDate(tradeDate);
+        return record;
+    }
+
+    private void givenPremiumTicks() {
+        when(premiumMapper.selectMinTradeDateBefore(LocalDate.of(2024, 10, 1))).thenReturn(FRIDAY);
+        when(premiumMapper.selectStockCodesByDateRange(any(), any())).thenReturn(Collections.emptyList());
+        for (LocalDate day : Arrays.asList(FRIDAY, MONDAY)) {
+            when(premiumMapper.selectStockCodesByDateRange(day, day)).thenReturn(Collections.singletonList("601088"));
+            when(premiumMapper.selectByStockAndDateRange("601088", day, day))
+                    .thenReturn(Arrays.asList(premium(day, 0), premium(day, 0), premium(day, 1)));
+        }
+        when(premiumBarMapper.insertBatch(anyList())).thenReturn(2);
+    }
+
+    @Test
+    void testRollup_汇总天数为0时不处理() {
+        when(config.getIntValue(eq(TickRollupServiceImpl.CONFIG_AFTER_DAYS), anyInt())).thenReturn(0);
+
+        Map<String, String> results = service.rollup(TODAY);
+
+        assertEquals("未启用", results.get("premium_rate_record"));
+        verifyNoInteractions(priceMapper, premiumMapper);
+    }
+
+    @Test
+    void testRollup_逐日写分钟线后分批删除明细() {
+        givenPremiumTicks();
+        when(premiumMapper.deleteByTradeDate(eq(FRIDAY), anyInt())).thenReturn(2, 2, 1);
+        when(premiumMapper.deleteByTradeDate(eq(MONDAY), anyInt())).thenReturn(2, 1);
+
+        Map<String, String> results = service.rollup(TODAY);
+
+        verify(premiumBarMapper, times(2)).insertBatch(argThat(bars -> bars.size() == 2 && bars.get(0).getTickCount() == 2));
+        verify(premiumMapper, times(3)).deleteByTradeDate(FRIDAY, 2);
+        verify(premiumMapper, times(2)).deleteByTradeDate(MONDAY, 2);
+        // 周末没有明细，不删除
+        verify(premiumMapper, never()).deleteByTradeDate(eq(LocalDate.of(2024, 9, 28)), anyInt());
+        assertEquals("汇总2天，分钟线4条，删除明细8行", results.get("premium_rate_record"));
+        assertEquals("汇总0天，分钟线0条，删除明细0行", results.get("stock_price_record"));
+    }
+
+    @Test
+    void testRollup_开市后停止删除() {
+        givenPremiumTicks();
+        when(premiumMapper.deleteByTradeDate(any(), anyInt())).thenReturn(2);
+        // 价格表没有可汇总的明细，不检查开市状态；溢价率表：第一天开始前、第一批删除前休市，之后开市
+        when(tradingSession.getOpenMarketCount(any())).thenReturn(0, 0, 1);
+
+        Map<String, String> results = service.rollup(TODAY);
+
+        verify(premiumMapper, times(1)).deleteByTradeDate(any(), anyInt());
+        verify(premiumBarMapper, times(1)).insertBatch(anyList());
+        assertEquals("汇总1天，分钟线2条，删除明细2行，开市中止", results.get("premium_rate_record"));
+    }
+
+    @Test
+    void testGetPremiumBars_查询分钟线表() {
+        service.getPremiumBars("601088", FRIDAY, MONDAY);
+
+        verify(premiumBarMapper).selectByStockAndDateRange("601088", FRIDAY, MONDAY);
+    }
+}
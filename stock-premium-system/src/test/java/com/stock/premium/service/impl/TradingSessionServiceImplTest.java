@@ -0,0 +1,51 @@
+package com.stock.premium.service.impl;
+
+import com.stock.premium.entity.TradingCalendar;
+import com.stock.premium.mapper.TradingCalendarMapper;
+import com.stock.premium.metrics.CollectionMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 交易时段服务测试
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class TradingSessionServiceImplTest {
+
+    private static TradingCalendar day(String marketType, LocalDate date) {
+        TradingCalendar calendar = new TradingCalendar();
+        calendar.setMarketType(marketType);
+        calendar.setCalendarDate(date);
+        calendar.setDayType(TradingCalendar.DAY_TYPE_CLOSED);
+        return calendar;
+    }
+
+    @Test
+    void testReload_从年初加载并统计当年日历天数() {
+        LocalDate today = LocalDate.now();
+        TradingCalendarMapper mapper = mock(TradingCalendarMapper.class);
+        // 当年只有A股日历，港股只维护了明年
+        when(mapper.selectByDateRange(any(), any())).thenReturn(Arrays.asList(
+                day("A", today.withDayOfYear(1)), day("H", today.plusYears(1).withDayOfYear(1))));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TradingSessionServiceImpl service = new TradingSessionServiceImpl();
+        ReflectionTestUtils.setField(service, "tradingCalendarMapper", mapper);
+        ReflectionTestUtils.setField(service, "collectionMetrics", new CollectionMetrics(registry));
+
+        service.init();
+
+        verify(mapper).selectByDateRange(argThat(from -> !from.isAfter(today.withDayOfYear(1))), eq(today.plusYears(1)));
+        assertEquals(1.0, registry.get("premium.calendar.current_year.days").tag("market", "A").gauge().value());
+        assertEquals(0.0, registry.get("premium.calendar.current_year.days").tag("market", "H").gauge().value());
+    }
+}
@@ -0,0 +1,76 @@
+package com.stock.premium.utils;
+
+import com.stock.premium.entity.AhStockPair;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A+H股票对索引及代码分类测试
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class AhPairIndexTest {
+
+    private static AhStockPair pair(String aStockCode, String hStockCode) {
+        AhStockPair pair = new AhStockPair();
+        pair.setAStockCode(aStockCode);
+        pair.setHStockCode(hStockCode);
+        return pair;
+    }
+
+    @Test
+    void testLookup_双向查询保留前导零() {
+        List<AhStockPair> pairs = Arrays.asList(
+                pair("601088", "01088"),
+                pair("000002", "02202"),
+                pair("600036", "03968"));
+        AhPairIndex index = AhPairIndex.build(pairs);
+
+        assertEquals(3, index.size());
+        assertEquals("01088", index.getHStockCode("601088"));
+        assertEquals("02202", index.getHStockCode("000002"));
+        assertEquals("03968", index.getHStockCode("sh600036"));
+        assertEquals("000002", index.getAStockCode("02202"));
+        assertEquals("600036", index.getAStockCode("hk03968"));
+        assertNull(index.getHStockCode("601318"));
+        assertNull(index.getAStockCode("02318"));
+        assertNull(index.getHStockCode(null));
+        assertNull(index.getHStockCode("60108X"));
+    }
+
+    @Test
+    void testBuild_非法代码跳过且A股代码去重() {
+        List<AhStockPair> pairs = Arrays.asList(
+                pair("601088", "01088"),
+                pair("601088", "09999"),
+                pair("60108", "01088"),
+                pair("601318", null));
+        AhPairIndex index = AhPairIndex.build(pairs);
+
+        assertEquals(1, index.size());
+        assertEquals("601088", index.getAStockCode("01088"));
+        assertEquals(0, AhPairIndex.EMPTY.size());
+        assertNull(AhPairIndex.EMPTY.getHStockCode("601088"));
+    }
+
+    @Test
+    void testStockCodes_分类() {
+        assertEquals(StockCodes.MARKET_A, StockCodes.marketType("601088"));
+        assertEquals(StockCodes.MARKET_H, StockCodes.marketType("hk01088"));
+        assertEquals(StockCodes.EXCHANGE_SH, StockCodes.exchange("688981"));
+        assertEquals(StockCodes.EXCHANGE_SZ, StockCodes.exchange("300750"));
+        assertEquals(StockCodes.EXCHANGE_BJ, StockCodes.exchange("830799"));
+        assertEquals(StockCodes.EXCHANGE_HK, StockCodes.exchange("00941"));
+        assertEquals("sz000002", StockCodes.toSymbol("000002"));
+        assertEquals("hk00941", StockCodes.toSymbol("00941"));
+        assertEquals("sh601088", StockCodes.toSymbol("sh601088"));
+        assertEquals("601088", StockCodes.stripPrefix("SH601088"));
+        assertEquals(3968, StockCodes.parseCode("03968"));
+        assertEquals(StockCodes.INVALID, StockCodes.parseCode("6010881"));
+    }
+}
@@ -0,0 +1,143 @@
+package com.stock.premium.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 列式归档文件编解码测试
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class ColumnarArchiveFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRoundTrip_各类型列含空值原样读回() throws Exception {
+        LocalDateTime[] times = {LocalDateTime.of(2024, 9, 2, 9, 30), null, LocalDateTime.of(2024, 9, 2, 9, 30, 3),
+                LocalDateTime.of(2024, 9, 2, 9, 29, 57)};
+        LocalDate[] dates = {LocalDate.of(2024, 9, 2), LocalDate.of(2024, 9, 2), null, LocalDate.of(2024, 9, 30)};
+        BigDecimal[] prices = {new BigDecimal("5.120"), new BigDecimal("5.110"), null, new BigDecimal("4.980")};
+        Long[] volumes = {Long.MAX_VALUE, Long.MIN_VALUE, 0L, null};
+        String[] sources = {"TENCENT", "TENCENT", null, "补录"};
+        Path file = dir.resolve("601088.tca");
+
+        new ColumnarArchiveFile.Writer(4)
+                .times("record_time", times)
+                .dates("trade_date", dates)
+                .decimals("current_price", 3, prices)
+                .longs("volume", volumes)
+                .strings("data_source", sources)
+                .write(file);
+
+        try (ColumnarArchiveFile.Reader reader = ColumnarArchiveFile.Reader.open(file)) {
+            assertEquals(4, reader.getRowCount());
+            assertTrue(reader.hasColumn("volume"));
+            assertFalse(reader.hasColumn("id"));
+            assertArrayEquals(times, reader.times("record_time"));
+            assertArrayEquals(dates, reader.dates("trade_date"));
+            assertArrayEquals(prices, reader.decimals("current_price"));
+            assertArrayEquals(volumes, reader.longs("volume"));
+            assertArrayEquals(sources, reader.strings("data_source"));
+        }
+        assertFalse(Files.exists(dir.resolve("601088.tca.tmp")));
+    }
+
+    @Test
+    void testDecimals_超出精度四舍五入() throws Exception {
+        Path file = dir.resolve("rate.tca");
+        new ColumnarArchiveFile.Writer(2)
+                .decimals("premium_rate", 4, new BigDecimal[]{new BigDecimal("-31.23456"), new BigDecimal("12")})
+                .write(file);
+
+        try (ColumnarArchiveFile.Reader reader = ColumnarArchiveFile.Reader.open(file)) {
+            assertArrayEquals(new BigDecimal[]{new BigDecimal("-31.2346"), new BigDecimal("12.0000")},
+                    reader.decimals("premium_rate"));
+        }
+    }
+
+    @Test
+    void testWrite_相邻tick变化小时每值约1字节() throws Exception {
+        int rows = 4_800;
+        LocalDateTime[] times = new LocalDateTime[rows];
+        BigDecimal[] prices = new BigDecimal[rows];
+        LocalDateTime start = LocalDateTime.of(2024, 9, 2, 9, 30);
+        for (int i = 0; i < rows; i++) {
+            times[i] = start.plusSeconds(3L * i);
+            prices[i] = new BigDecimal("5.120").add(BigDecimal.valueOf(i % 7 - 3, 3));
+        }
+        Path file = dir.resolve("ticks.tca");
+
+        new ColumnarArchiveFile.Writer(rows).times("record_time", times).decimals("current_price", 3, prices).write(file);
+
+        assertTrue(Files.size(file) < rows * 2 + 64, "文件大小 " + Files.size(file));
+        try (ColumnarArchiveFile.Reader reader = ColumnarArchiveFile.Reader.open(file)) {
+            assertArrayEquals(times, reader.times("record_time"));
+            assertArrayEquals(prices, reader.decimals("current_price"));
+        }
+    }
+
+    @Test
+    void testWrite_零行文件() throws Exception {
+        Path file = dir.resolve("empty.tca");
+        new ColumnarArchiveFile.Writer(0).strings("market_type", new String[0]).write(file);
+
+        try (ColumnarArchiveFile.Reader reader = ColumnarArchiveFile.Reader.open(file)) {
+            assertEquals(0, reader.getRowCount());
+            assertEquals(0, reader.strings("market_type").length);
+        }
+    }
+
+    @Test
+    void testWriter_行数不一致或列重复时报错() {
+        ColumnarArchiveFile.Writer writer = new ColumnarArchiveFile.Writer(2).longs("volume", new Long[]{1L, 2L});
+
+        assertThrows(IllegalArgumentException.class, () -> writer.longs("turnover", new Long[]{1L}));
+        assertThrows(IllegalArgumentException.class, () -> writer.longs("volume", new Long[]{1L, 2L}));
+    }
+
+    @Test
+    void testReader_列类型不匹配或非归档文件时报错() throws Exception {
+        Path file = dir.resolve("volume.tca");
+        new ColumnarArchiveFile.Writer(1).longs("volume", new Long[]{1L}).write(file);
+        try (ColumnarArchiveFile.Reader reader = ColumnarArchiveFile.Reader.open(file)) {
+            assertThrows(IllegalArgumentException.class, () -> reader.decimals("volume"));
+            assertThrows(IllegalArgumentException.class, () -> reader.longs("amount"));
+        }
+
+        Path other = dir.resolve("other.tca");
+        Files.write(other, new byte[]{'C', 'S', 'V', ','});
+        assertThrows(IllegalStateException.class, () -> ColumnarArchiveFile.Reader.open(other));
+    }
+
+    @Test
+    void testVarint_zigzag往返() {
+        long[] values = {0, 1, -1, 63, -64, 64, 300, -300, Integer.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (long value : values) {
+            ColumnarArchiveFile.writeVarint(out, ColumnarArchiveFile.zigzag(value));
+        }
+        ByteBuffer in = ByteBuffer.wrap(out.toByteArray());
+        for (long value : values) {
+            assertEquals(value, ColumnarArchiveFile.unzigzag(ColumnarArchiveFile.readVarint(in)));
+        }
+        assertFalse(in.hasRemaining());
+
+        // 绝对值小于64的差值只占1个字节
+        ByteArrayOutputStream small = new ByteArrayOutputStream();
+        ColumnarArchiveFile.writeVarint(small, ColumnarArchiveFile.zigzag(-64));
+        assertEquals(1, small.size());
+    }
+}
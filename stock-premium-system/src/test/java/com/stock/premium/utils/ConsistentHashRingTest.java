@@ -0,0 +1,86 @@
+package com.stock.premium.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 一致性哈希环测试
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class ConsistentHashRingTest {
+
+    private static List<String> stockCodes(int count) {
+        List<String> codes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            codes.add(String.format("%06d", 600000 + i * 7));
+        }
+        return codes;
+    }
+
+    @Test
+    void testNodeFor_与节点顺序无关() {
+        ConsistentHashRing ring1 = ConsistentHashRing.build(Arrays.asList("node-a", "node-b", "node-c"), 160);
+        ConsistentHashRing ring2 = ConsistentHashRing.build(Arrays.asList("node-c", "node-a", "node-b"), 160);
+
+        assertEquals(Arrays.asList("node-a", "node-b", "node-c"), ring1.getNodes());
+        for (String code : stockCodes(500)) {
+            assertEquals(ring1.nodeFor(code), ring2.nodeFor(code));
+        }
+        assertTrue(ConsistentHashRing.build(List.of(), 160).isEmpty());
+        assertNull(ConsistentHashRing.build(List.of(), 160).nodeFor("601088"));
+    }
+
+    @Test
+    void testNodeFor_分配均衡() {
+        List<String> nodes = Arrays.asList("node-a", "node-b", "node-c", "node-d");
+        ConsistentHashRing ring = ConsistentHashRing.build(nodes, 160);
+        Map<String, Integer> counts = new HashMap<>();
+        List<String> codes = stockCodes(4000);
+        for (String code : codes) {
+            counts.merge(ring.nodeFor(code), 1, Integer::sum);
+        }
+
+        int expected = codes.size() / nodes.size();
+        for (String node : nodes) {
+            int count = counts.getOrDefault(node, 0);
+            assertTrue(Math.abs(count - expected) < expected * 0.25, node + " 分到 " + count + " 只");
+        }
+    }
+
+    @Test
+    void testRebalance_节点增减只迁移相应部分() {
+        ConsistentHashRing three = ConsistentHashRing.build(Arrays.asList("node-a", "node-b", "node-c"), 160);
+        ConsistentHashRing four = ConsistentHashRing.build(Arrays.asList("node-a", "node-b", "node-c", "node-d"), 160);
+        List<String> codes = stockCodes(4000);
+
+        int moved = 0;
+        for (String code : codes) {
+            String before = three.nodeFor(code);
+            String after = four.nodeFor(code);
+            if (!before.equals(after)) {
+                // 新增节点只会从已有节点接走股票，已有节点之间不互相迁移
+                assertEquals("node-d", after);
+                moved++;
+            }
+        }
+        assertTrue(moved > codes.size() / 8 && moved < codes.size() / 3, "迁移 " + moved + " 只");
+
+        // 节点下线时只有它负责的股票改变归属
+        ConsistentHashRing withoutB = ConsistentHashRing.build(Arrays.asList("node-a", "node-c"), 160);
+        for (String code : codes) {
+            String before = three.nodeFor(code);
+            if (!"node-b".equals(before)) {
+                assertEquals(before, withoutB.nodeFor(code));
+            }
+        }
+    }
+}
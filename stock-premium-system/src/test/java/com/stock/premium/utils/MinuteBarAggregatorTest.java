@@ -0,0 +1,117 @@
+package com.stock.premium.utils;
+
+import com.stock.premium.entity.PremiumRateMinuteBar;
+import com.stock.premium.entity.PremiumRateRecord;
+import com.stock.premium.entity.StockPriceMinuteBar;
+import com.stock.premium.entity.StockPriceRecord;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 明细分钟线汇总测试
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class MinuteBarAggregatorTest {
+
+    private static final LocalDate TRADE_DATE = LocalDate.of(2024, 9, 2);
+
+    private static PremiumRateRecord premium(String stockCode, int minute, int second, String rate, String hPrice) {
+        PremiumRateRecord record = new PremiumRateRecord();
+        record.setStockCode(stockCode);
+        record.setAStockPrice(new BigDecimal("36.120"));
+        record.setHStockPrice(new BigDecimal(hPrice));
+        record.setExchangeRate(new BigDecimal("0.91" + minute));
+        record.setPremiumRate(new BigDecimal(rate));
+        record.setRecordTime(TRADE_DATE.atTime(9, minute, second));
+        record.setTradeDate(TRADE_DATE);
+        return record;
+    }
+
+    private static StockPriceRecord price(int minute, int second, String currentPrice, long volume) {
+        StockPriceRecord record = new StockPriceRecord();
+        record.setStockCode("01088");
+        record.setMarketType("H");
+        record.setCurrentPrice(new BigDecimal(currentPrice));
+        record.setVolume(volume);
+        record.setTurnover(BigDecimal.valueOf(volume * 10, 2));
+        record.setRecordTime(TRADE_DATE.atTime(9, minute, second));
+        record.setTradeDate(TRADE_DATE);
+        return record;
+    }
+
+    @Test
+    void testPremiumBars_按分钟取开高低收和收盘时的价格汇率() {
+        List<PremiumRateRecord> records = Arrays.asList(
+                premium("601088", 30, 0, "-30.1000", "27.600"),
+                premium("601088", 30, 20, "-29.8000", "27.700"),
+                premium("601088", 30, 40, "-30.4000", "27.500"),
+                premium("601088", 30, 59, "-30.2000", "27.550"),
+                premium("601088", 31, 5, "-30.0000", "27.650"));
+
+        List<PremiumRateMinuteBar> bars = MinuteBarAggregator.premiumBars(records);
+
+        assertEquals(2, bars.size());
+        PremiumRateMinuteBar first = bars.get(0);
+        assertEquals("601088", first.getStockCode());
+        assertEquals(LocalDateTime.of(2024, 9, 2, 9, 30), first.getBarTime());
+        assertEquals(TRADE_DATE, first.getTradeDate());
+        assertEquals(new BigDecimal("-30.1000"), first.getOpenPremiumRate());
+        assertEquals(new BigDecimal("-29.8000"), first.getHighPremiumRate());
+        assertEquals(new BigDecimal("-30.4000"), first.getLowPremiumRate());
+        assertEquals(new BigDecimal("-30.2000"), first.getClosePremiumRate());
+        assertEquals(new BigDecimal("27.550"), first.getHStockPrice());
+        assertEquals(new BigDecimal("0.9130"), first.getExchangeRate());
+        assertEquals(4, first.getTickCount());
+
+        PremiumRateMinuteBar second = bars.get(1);
+        assertEquals(LocalDateTime.of(2024, 9, 2, 9, 31), second.getBarTime());
+        assertEquals(second.getOpenPremiumRate(), second.getClosePremiumRate());
+        assertEquals(1, second.getTickCount());
+    }
+
+    @Test
+    void testPremiumBars_同一分钟不同股票分开汇总() {
+        List<PremiumRateMinuteBar> bars = MinuteBarAggregator.premiumBars(Arrays.asList(
+                premium("601088", 30, 0, "-30.1000", "27.600"),
+                premium("601318", 30, 0, "-12.5000", "48.200")));
+
+        assertEquals(2, bars.size());
+        assertEquals("601318", bars.get(1).getStockCode());
+        assertEquals(new BigDecimal("-12.5000"), bars.get(1).getHighPremiumRate());
+    }
+
+    @Test
+    void testPriceBars_成交量和成交额取分钟内最后一条() {
+        List<StockPriceMinuteBar> bars = MinuteBarAggregator.priceBars(Arrays.asList(
+                price(30, 0, "27.600", 1000),
+                price(30, 30, "27.750", 1500),
+                price(30, 45, "27.550", 1800)));
+
+        assertEquals(1, bars.size());
+        StockPriceMinuteBar bar = bars.get(0);
+        assertEquals("H", bar.getMarketType());
+        assertEquals(new BigDecimal("27.600"), bar.getOpenPrice());
+        assertEquals(new BigDecimal("27.750"), bar.getHighPrice());
+        assertEquals(new BigDecimal("27.550"), bar.getLowPrice());
+        assertEquals(new BigDecimal("27.550"), bar.getClosePrice());
+        assertEquals(1800L, bar.getVolume());
+        assertEquals(new BigDecimal("180.00"), bar.getTurnover());
+        assertEquals(3, bar.getTickCount());
+    }
+
+    @Test
+    void testBars_无明细时为空() {
+        assertTrue(MinuteBarAggregator.premiumBars(Collections.emptyList()).isEmpty());
+        assertTrue(MinuteBarAggregator.priceBars(Collections.emptyList()).isEmpty());
+    }
+}
@@ -0,0 +1,79 @@
+package com.stock.premium.utils;
+
+import com.stock.premium.entity.DailyPremiumStats;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 日统计累加器及P²分位数估计测试
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class PremiumStatsAccumulatorTest {
+
+    private static final LocalDate TRADE_DATE = LocalDate.of(2024, 1, 2);
+
+    @Test
+    void testP2Quantile_与精确分位数接近() {
+        Random random = new Random(42);
+        int size = 4_800;
+        double[] values = new double[size];
+        P2Quantile p5 = new P2Quantile(0.05);
+        P2Quantile p95 = new P2Quantile(0.95);
+        for (int i = 0; i < size; i++) {
+            // 模拟一天内溢价率围绕-30%随机游走
+            values[i] = -30 + 5 * random.nextGaussian();
+            p5.add(values[i]);
+            p95.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(values[(int) (0.05 * (size - 1))], p5.get(), 0.3);
+        assertEquals(values[(int) (0.95 * (size - 1))], p95.get(), 0.3);
+    }
+
+    @Test
+    void testP2Quantile_样本不足5个时精确插值() {
+        P2Quantile median = new P2Quantile(0.5);
+        assertTrue(Double.isNaN(median.get()));
+        median.add(3);
+        median.add(1);
+        median.add(2);
+        assertEquals(2.0, median.get(), 1e-9);
+    }
+
+    @Test
+    void testToStats_开收盘按记录时间() {
+        PremiumStatsAccumulator accumulator = new PremiumStatsAccumulator();
+        LocalDateTime t = TRADE_DATE.atTime(9, 30);
+        accumulator.add(t.plusMinutes(1), new BigDecimal("-20.5000"));
+        accumulator.add(t, new BigDecimal("-21.0000"));
+        accumulator.add(t.plusMinutes(2), new BigDecimal("-19.0000"));
+        accumulator.add(t.plusMinutes(3), new BigDecimal("-22.0000"));
+
+        DailyPremiumStats stats = accumulator.toStats("601088", TRADE_DATE);
+
+        assertEquals("601088", stats.getStockCode());
+        assertEquals(TRADE_DATE, stats.getTradeDate());
+        assertEquals(new BigDecimal("-21.0000"), stats.getOpenPremiumRate());
+        assertEquals(new BigDecimal("-22.0000"), stats.getClosePremiumRate());
+        assertEquals(new BigDecimal("-19.0000"), stats.getMaxPremiumRate());
+        assertEquals(new BigDecimal("-22.0000"), stats.getMinPremiumRate());
+        assertEquals(new BigDecimal("-20.6250"), stats.getAvgPremiumRate());
+        assertEquals(4, stats.getRecordCount());
+        assertTrue(stats.getPercentile5().compareTo(stats.getPercentile95()) < 0);
+    }
+
+    @Test
+    void testToStats_无样本返回null() {
+        assertNull(new PremiumStatsAccumulator().toStats("601088", TRADE_DATE));
+    }
+}
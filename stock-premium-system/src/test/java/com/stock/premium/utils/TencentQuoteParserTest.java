@@ -0,0 +1,173 @@
+package com.stock.premium.utils;
+
+import com.stock.premium.entity.StockPriceRecord;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 腾讯行情报文解析器测试
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class TencentQuoteParserTest {
+
+    static byte[] loadFixture() throws IOException {
+        try (InputStream in = TencentQuoteParserTest.class.getResourceAsStream("/fixtures/tencent-quote-batch.txt")) {
+            assertNotNull(in, "缺少测试报文");
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    void testParseRecords_批量报文按代码匹配() throws IOException {
+        Map<String, String> symbolToCode = new LinkedHashMap<>();
+        // 故意与报文顺序不一致
+        symbolToCode.put("hk01088", "01088");
+        symbolToCode.put("sh601088", "601088");
+        symbolToCode.put("sh600036", "600036");
+        symbolToCode.put("sh999999", "999999");
+
+        List<StockPriceRecord> records = TencentQuoteParser.parseRecords(loadFixture(), symbolToCode);
+
+        assertEquals(3, records.size());
+        StockPriceRecord a = records.get(0);
+        assertEquals("601088", a.getStockCode());
+        assertEquals("A", a.getMarketType());
+        assertEquals(0, new BigDecimal("40.50").compareTo(a.getCurrentPrice()));
+        assertEquals(0, new BigDecimal("40.07").compareTo(a.getPreClosePrice()));
+        assertEquals(0, new BigDecimal("40.91").compareTo(a.getHighPrice()));
+        assertEquals(0, new BigDecimal("39.67").compareTo(a.getLowPrice()));
+        assertEquals("tencent", a.getDataSource());
+
+        StockPriceRecord h = records.get(1);
+        assertEquals("01088", h.getStockCode());
+        assertEquals("H", h.getMarketType());
+        assertEquals(0, new BigDecimal("35.200").compareTo(h.getCurrentPrice()));
+    }
+
+    @Test
+    void testParseRecords_记录时间取行情时间() throws IOException {
+        Map<String, String> symbolToCode = new LinkedHashMap<>();
+        symbolToCode.put("sh601088", "601088");
+        symbolToCode.put("hk01088", "01088");
+
+        List<StockPriceRecord> records = TencentQuoteParser.parseRecords(loadFixture(), symbolToCode);
+
+        StockPriceRecord a = records.get(0);
+        assertEquals(LocalDateTime.of(2024, 1, 5, 15, 0, 3), a.getRecordTime());
+        assertEquals(LocalDate.of(2024, 1, 5), a.getTradeDate());
+        assertEquals(258176L, a.getVolume());
+        StockPriceRecord h = records.get(1);
+        assertEquals(LocalDateTime.of(2024, 1, 5, 16, 8, 17), h.getRecordTime());
+        assertEquals(6032582L, h.getVolume());
+    }
+
+    @Test
+    void testChangeRate_与BigDecimal计算一致() throws IOException {
+        Map<String, String> symbolToCode = Map.of("sh601088", "601088", "hk01088", "01088");
+        for (StockPriceRecord record : TencentQuoteParser.parseRecords(loadFixture(), symbolToCode)) {
+            BigDecimal expected = record.getCurrentPrice()
+                    .subtract(record.getPreClosePrice())
+                    .divide(record.getPreClosePrice(), 4, java.math.RoundingMode.HALF_UP)
+                    .multiply(new BigDecimal("100"));
+            assertEquals(0, expected.compareTo(record.getChangeRate()), record.getStockCode());
+        }
+    }
+
+    @Test
+    void testParse_GBK尾字节为波浪号() {
+        // "箏" 的GBK编码尾字节为0x7E，不能被当作字段分隔符
+        String line = "v_sh600000=\"1~箏测试~600000~10.01~10.00~10.00\";\n";
+        byte[] bytes = line.getBytes(TencentQuoteClient.GBK);
+
+        List<String> names = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        TencentQuoteParser.parse(bytes, l -> {
+            names.add(l.fieldAsString(TencentQuoteParser.FIELD_NAME, TencentQuoteClient.GBK));
+            counts.add(l.fieldCount());
+        });
+
+        assertEquals(List.of("箏测试"), names);
+        assertEquals(List.of(6), counts);
+    }
+
+    @Test
+    void testParseFixed_定点解析() {
+        assertEquals(12340L, fixed("12.34", 3));
+        assertEquals(405L, fixed("0.405", 3));
+        assertEquals(12346L, fixed("12.3456", 3));
+        assertEquals(-1235L, fixed("-1.2345", 3));
+        assertEquals(7000L, fixed("7", 3));
+        assertEquals(TencentQuoteParser.INVALID, fixed("", 3));
+        assertEquals(TencentQuoteParser.INVALID, fixed("1.2.3", 3));
+        assertEquals(TencentQuoteParser.INVALID, fixed("abc", 3));
+    }
+
+    @Test
+    void testParseFixed_超过18位有效数字时返回非法() {
+        assertEquals(999_999_999_999_999_999L, fixed("999999999999999999", 0));
+        assertEquals(123_456_789_012_345_000L, fixed("123456789012345", 3));
+        assertEquals(1000L, fixed("0000000000000000000001", 3));
+        assertEquals(TencentQuoteParser.INVALID, fixed("9999999999999999999", 0));
+        assertEquals(TencentQuoteParser.INVALID, fixed("99999999999999999999999", 0));
+        assertEquals(TencentQuoteParser.INVALID, fixed("1234567890123456", 3));
+    }
+
+    @Test
+    void testSymbolIndex_按字节匹配代码() {
+        Map<String, String> symbolToCode = new LinkedHashMap<>();
+        for (int i = 0; i < 50; i++) {
+            symbolToCode.put(String.format("sh6010%02d", i), String.format("6010%02d", i));
+        }
+        symbolToCode.put("hk01088", "01088");
+        TencentQuoteParser.SymbolIndex index = TencentQuoteParser.SymbolIndex.of(symbolToCode);
+        byte[] payload = ("v_hk01088=\"100~中国神华~01088\";\nv_sh601049=\"1~x~601049\";\n"
+                + "v_sh6010491=\"1~x~6010491\";\nv_sz601049=\"51~x~601049\";").getBytes(TencentQuoteClient.GBK);
+        List<String> codes = new ArrayList<>();
+
+        TencentQuoteParser.parse(payload, line -> codes.add(index.get(line)));
+
+        assertEquals(Arrays.asList("01088", "601049", null, null), codes);
+    }
+
+    @Test
+    void testParseDateTime_兼容A股和港股格式() {
+        assertEquals(LocalDateTime.of(2024, 3, 15, 15, 0, 3), dateTime("20240315150003"));
+        assertEquals(LocalDateTime.of(2024, 3, 15, 16, 8, 11), dateTime("2024/03/15 16:08:11"));
+        assertNull(dateTime(""));
+        assertNull(dateTime("2024/03/15"));
+        assertNull(dateTime("202403151500031"));
+        assertNull(dateTime("20241315150003"));
+    }
+
+    @Test
+    void testDivideHalfUp_舍入方向() {
+        assertEquals(3L, TencentQuoteParser.divideHalfUp(5, 2));
+        assertEquals(-3L, TencentQuoteParser.divideHalfUp(-5, 2));
+        assertEquals(2L, TencentQuoteParser.divideHalfUp(7, 3));
+        assertEquals(-2L, TencentQuoteParser.divideHalfUp(7, -3));
+    }
+
+    private static LocalDateTime dateTime(String text) {
+        byte[] bytes = text.getBytes(TencentQuoteClient.GBK);
+        return TencentQuoteParser.parseDateTime(bytes, 0, bytes.length);
+    }
+
+    private static long fixed(String text, int scale) {
+        byte[] bytes = text.getBytes(TencentQuoteClient.GBK);
+        return TencentQuoteParser.parseFixed(bytes, 0, bytes.length, scale);
+    }
+}
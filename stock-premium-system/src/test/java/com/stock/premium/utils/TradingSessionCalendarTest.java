@@ -0,0 +1,74 @@
+package com.stock.premium.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 交易时段日历测试
+ *
+ * @author system
+ * @since 2024-01-01
+ */
+class TradingSessionCalendarTest {
+
+    /**
+     * 2025-01-27 周一正常交易，01-28 A股休市、港股半日市，01-29~01-31 两地休市
+     */
+    private final TradingSessionCalendar calendar = new TradingSessionCalendar(
+            Set.of(LocalDate.of(2025, 1, 28), LocalDate.of(2025, 1, 29), LocalDate.of(2025, 1, 30),
+                    LocalDate.of(2025, 1, 31), LocalDate.of(2025, 2, 3), LocalDate.of(2025, 2, 4)),
+            Set.of(LocalDate.of(2025, 1, 29), LocalDate.of(2025, 1, 30), LocalDate.of(2025, 1, 31)),
+            Set.of(),
+            Set.of(LocalDate.of(2025, 1, 28)));
+
+    private static LocalDateTime at(int month, int day, int hour, int minute) {
+        return LocalDateTime.of(2025, month, day, hour, minute);
+    }
+
+    @Test
+    void testOpenMarketCount_交易日各时段() {
+        assertEquals(0, calendar.openMarketCount(at(1, 27, 9, 29)));
+        assertEquals(2, calendar.openMarketCount(at(1, 27, 9, 30)));
+        assertEquals(2, calendar.openMarketCount(at(1, 27, 11, 30)));
+        // A股午休，港股仍在交易
+        assertEquals(1, calendar.openMarketCount(at(1, 27, 11, 45)));
+        assertEquals(0, calendar.openMarketCount(at(1, 27, 12, 30)));
+        assertEquals(2, calendar.openMarketCount(at(1, 27, 14, 0)));
+        // A股收盘后港股继续交易至收市竞价结束
+        assertEquals(1, calendar.openMarketCount(at(1, 27, 15, 30)));
+        assertEquals(1, calendar.openMarketCount(at(1, 27, 16, 10)));
+        assertEquals(0, calendar.openMarketCount(at(1, 27, 16, 11)));
+    }
+
+    @Test
+    void testOpenMarketCount_节假日和半日市() {
+        // A股休市、港股半日市：上午只有港股，下午都不交易
+        assertEquals(1, calendar.openMarketCount(at(1, 28, 10, 0)));
+        assertEquals(0, calendar.openMarketCount(at(1, 28, 14, 0)));
+        assertEquals(0, calendar.openMarketCount(at(1, 29, 10, 0)));
+        // 周末
+        assertEquals(0, calendar.openMarketCount(at(2, 1, 10, 0)));
+        // 春节后港股先开市
+        assertEquals(1, calendar.openMarketCount(at(2, 3, 10, 0)));
+    }
+
+    @Test
+    void testNextOpen_跳过节假日() {
+        assertEquals(at(1, 27, 13, 0), calendar.nextOpen(at(1, 27, 12, 5)));
+        assertEquals(at(1, 28, 9, 30), calendar.nextOpen(at(1, 27, 16, 30)));
+        assertEquals(at(2, 3, 9, 30), calendar.nextOpen(at(1, 28, 12, 30)));
+    }
+
+    @Test
+    void testNextBoundary_开盘收盘时刻() {
+        assertEquals(at(1, 27, 11, 30), calendar.nextBoundary(at(1, 27, 11, 29)));
+        assertEquals(at(1, 27, 12, 0), calendar.nextBoundary(at(1, 27, 11, 30)));
+        assertEquals(at(1, 27, 15, 0), calendar.nextBoundary(at(1, 27, 14, 59)));
+        assertEquals(at(1, 27, 16, 10), calendar.nextBoundary(at(1, 27, 15, 0)));
+    }
+}